@@ -3,7 +3,16 @@ import model.GameModel;
 import view.GameView;
 import model.Player;
 import model.AIPlayer;
+import model.AIStrategies;
+import model.AIStrategy;
+import model.AIWeights;
+import model.LearnedPolicy;
+import model.PolicyTable;
+import model.SearchBudgetController;
+import model.SpeculativeAIPlanner;
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) {
@@ -45,6 +54,72 @@ public class Main {
             }
 
             GameModel model = new GameModel(count, isAI, difficulty);
+
+            // optional tuned weights, e.g. --ai-profile=ai_weights.properties
+            for (String arg : args) {
+                if (arg.startsWith("--ai-profile=")) {
+                    try {
+                        model.setAIWeights(AIWeights.load(Paths.get(arg.substring("--ai-profile=".length()))));
+                    } catch (IOException e) {
+                        view.showMessage("Could not load AI profile: " + e.getMessage());
+                    }
+                }
+                // precomputed actions from PolicyTableGenerator, e.g. --ai-policy=ai_policy.bin
+                if (arg.startsWith("--ai-policy=")) {
+                    try {
+                        model.setAIPolicyTable(PolicyTable.open(Paths.get(arg.substring("--ai-policy=".length()))));
+                    } catch (IOException e) {
+                        view.showMessage("Could not load AI policy table: " + e.getMessage());
+                    }
+                }
+                // HARD players search this many turns ahead, e.g. --ai-search-depth=6
+                if (arg.startsWith("--ai-search-depth=")) {
+                    try {
+                        model.setAISearchDepth(Integer.parseInt(arg.substring("--ai-search-depth=".length())));
+                    } catch (NumberFormatException e) {
+                        view.showMessage("Invalid AI search depth: " + e.getMessage());
+                    }
+                }
+                // weights from LearnedPolicyTrainer, e.g. --ai-learned=ai_learned.bin
+                if (arg.startsWith("--ai-learned=")) {
+                    try {
+                        model.setAILearnedPolicy(LearnedPolicy.load(Paths.get(arg.substring("--ai-learned=".length()))));
+                    } catch (IOException e) {
+                        view.showMessage("Could not load learned AI policy: " + e.getMessage());
+                    }
+                }
+                // keep AI think time p99 under this many milliseconds, e.g. --ai-latency-target=50
+                if (arg.startsWith("--ai-latency-target=")) {
+                    try {
+                        double millis = Double.parseDouble(arg.substring("--ai-latency-target=".length()));
+                        model.setAIBudgetController(new SearchBudgetController((long) (millis * 1_000_000)));
+                    } catch (IllegalArgumentException e) {
+                        view.showMessage("Invalid AI latency target: " + e.getMessage());
+                    }
+                }
+                // a registered AIStrategy in place of the difficulty, e.g. --ai-strategy=DUMP
+                if (arg.startsWith("--ai-strategy=")) {
+                    String name = arg.substring("--ai-strategy=".length());
+                    AIStrategy strategy = AIStrategies.find(name);
+                    if (strategy != null) {
+                        model.setAIStrategy(strategy);
+                    } else {
+                        view.showMessage("Unknown AI strategy: " + name);
+                    }
+                }
+            }
+
+            // let AI players think ahead while a human is on turn
+            boolean hasHuman = false;
+            for (boolean ai : isAI) {
+                if (!ai) {
+                    hasHuman = true;
+                    break;
+                }
+            }
+            if (hasAI && hasHuman) {
+                model.setSpeculativePlanner(new SpeculativeAIPlanner());
+            }
             GameController controller = new GameController(model, view);
             view.bindController(controller);
 
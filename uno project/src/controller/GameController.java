@@ -17,20 +17,35 @@ import java.io.IOException;
  *
  * @author Nicky Fang 101304731
  * @author Bhagya Patel 101324150
- * @version 4.0 - Added Save/Load functionality for Milestone 4
+ * @version 4.2 - AI turns are paced by a timer instead of a sleep in the model
  */
 public class GameController implements ActionListener, GameModelListener {
 
     private GameModel model;
     private GameView view;
     private static final String SAVE_FILE = "uno_save.dat";
+    /** Pause before an AI moves, long enough for the last move's animations to play */
+    static final int AI_TURN_PAUSE_MILLIS = 1200;
+    private final Timer aiTurnTimer;
 
     public GameController(GameModel model, GameView view) {
         this.model = model;
         this.view = view;
+        // The timer below gives the pause, so the model must not also sleep on the event thread
+        model.setAITurnDelay(0);
+        this.aiTurnTimer = new Timer(AI_TURN_PAUSE_MILLIS, e -> this.model.checkAndProcessAITurn());
+        this.aiTurnTimer.setRepeats(false);
         model.addListener(this);
     }
 
+    /**
+     * Lets the current AI player move after a pause, without holding up the event thread
+     * so the view keeps animating meanwhile
+     */
+    private void scheduleAITurn() {
+        aiTurnTimer.restart();
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
         String command = e.getActionCommand();
@@ -155,9 +170,7 @@ public class GameController implements ActionListener, GameModelListener {
 
             // Check if it's an AI player's turn
             if (model.getState().currentPlayer.isAI()) {
-                SwingUtilities.invokeLater(() -> {
-                    model.checkAndProcessAITurn();
-                });
+                scheduleAITurn();
             }
         } catch (IOException ex) {
             view.showMessage("Failed to load game: " + ex.getMessage());
@@ -180,9 +193,7 @@ public class GameController implements ActionListener, GameModelListener {
         view.render(state);
         view.showMessage("Game started! " + state.currentPlayer.getName() + " goes first.");
         if (state.currentPlayer.isAI()) {
-            SwingUtilities.invokeLater(() -> {
-                model.checkAndProcessAITurn();
-            });
+            scheduleAITurn();
         }
     }
 
@@ -192,27 +203,23 @@ public class GameController implements ActionListener, GameModelListener {
         view.showMessage("Game started! " + state.currentPlayer.getName() + " goes first.");
 
         if (state.currentPlayer.isAI()) {
-            SwingUtilities.invokeLater(() -> {
-                model.checkAndProcessAITurn();
-            });
+            scheduleAITurn();
         }
     }
 
     @Override
     public void onStateUpdated(GameState state) {
-        view.render(state);
+        view.scheduleRender(state);
         view.setUndoEnabled(model.canUndo());
         view.setRedoEnabled(model.canRedo());
     }
 
     @Override
     public void onTurnAdvanced(Player current, GameState state) {
-        view.render(state);
+        view.scheduleRender(state);
 
         if (current.isAI()) {
-            SwingUtilities.invokeLater(() -> {
-                model.checkAndProcessAITurn();
-            });
+            scheduleAITurn();
         }
     }
 
@@ -26,6 +26,7 @@ public class GameState implements Serializable {
     public boolean clockwise;
     public boolean turnTaken;
     public Card.Side currentSide;
+    public int pendingDraw;
     public Stack<GameState> undoStack;
     public Stack<GameState> redoStack;
 }
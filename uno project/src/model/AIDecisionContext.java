@@ -0,0 +1,215 @@
+package model;
+
+import controller.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What an AI player needs to know about the table to pick a card, gathered once per turn.
+ *
+ * GameModel refills one instance before every AI decision: the seats either side of the
+ * player on turn, every hand size, the colors in the player's hand and which cards can
+ * be played, as bit masks split into wilds and colored cards. The heuristics read all of
+ * it in constant time instead of searching the player list and rescanning the hand, and
+ * refilling reuses the arrays, so a decision allocates nothing.
+ *
+ * Callers that only have a {@link GameState} can fill a context from it with {@link #load}.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class AIDecisionContext {
+
+    private static final int NO_COLOR = 4;
+
+    private int players;
+    private int seat;
+    private int nextSeat;
+    private int previousSeat;
+    private final int[] handSizes = new int[4];
+    private int smallestOpponent;
+    private final int[] colorCounts = new int[NO_COLOR + 1];
+    private long[] wildPlayable = new long[2];
+    private long[] coloredPlayable = new long[2];
+    private int wildPlayableCount;
+    private int coloredPlayableCount;
+
+    /**
+     * Fills the context from a state snapshot, taking the playable cards from its
+     * playable indices
+     * @return this context
+     */
+    public AIDecisionContext load(GameState state) {
+        reset(state.players, state.currentPlayerIndex, state.clockwise);
+        List<Card> hand = state.players.get(seat).getHand();
+        for (int i = 0; i < state.playableIndices.size(); i++) {
+            int index = state.playableIndices.get(i);
+            markPlayable(index, hand.get(index).getColor() == Card.Color.WILD);
+        }
+        return this;
+    }
+
+    /**
+     * Starts a new turn: seats, hand sizes and the colors held by the player on turn;
+     * no card is playable until marked
+     */
+    void reset(List<? extends Player> table, int current, boolean clockwise) {
+        players = table.size();
+        seat = current;
+        nextSeat = (current + (clockwise ? 1 : -1) + players) % players;
+        previousSeat = (current + (clockwise ? -1 : 1) + players) % players;
+
+        smallestOpponent = Integer.MAX_VALUE;
+        for (int p = 0; p < players; p++) {
+            handSizes[p] = table.get(p).getHandSize();
+            if (p != current) smallestOpponent = Math.min(smallestOpponent, handSizes[p]);
+        }
+
+        Arrays.fill(colorCounts, 0);
+        List<Card> hand = table.get(current).getHand();
+        for (int i = 0; i < hand.size(); i++) {
+            colorCounts[EndgameSolver.colorIndex(hand.get(i).getColor())]++;
+        }
+
+        int words = (hand.size() + 63) >>> 6;
+        if (words > wildPlayable.length) {
+            wildPlayable = new long[words];
+            coloredPlayable = new long[words];
+        } else {
+            Arrays.fill(wildPlayable, 0L);
+            Arrays.fill(coloredPlayable, 0L);
+        }
+        wildPlayableCount = 0;
+        coloredPlayableCount = 0;
+    }
+
+    /**
+     * Marks a card in the hand of the player on turn as playable
+     */
+    void markPlayable(int index, boolean wild) {
+        long bit = 1L << index;
+        if (wild) {
+            if ((wildPlayable[index >>> 6] & bit) == 0) wildPlayableCount++;
+            wildPlayable[index >>> 6] |= bit;
+        } else {
+            if ((coloredPlayable[index >>> 6] & bit) == 0) coloredPlayableCount++;
+            coloredPlayable[index >>> 6] |= bit;
+        }
+    }
+
+    public int players() {
+        return players;
+    }
+
+    /**
+     * @return the seat of the player on turn
+     */
+    public int seat() {
+        return seat;
+    }
+
+    /**
+     * @return the seat that plays after the player on turn in the current direction
+     */
+    public int nextSeat() {
+        return nextSeat;
+    }
+
+    /**
+     * @return the seat that played before the player on turn
+     */
+    public int previousSeat() {
+        return previousSeat;
+    }
+
+    public int handSize(int seat) {
+        return handSizes[seat];
+    }
+
+    public int nextHandSize() {
+        return handSizes[nextSeat];
+    }
+
+    /**
+     * @return the fewest cards any other player holds
+     */
+    public int smallestOpponentHand() {
+        return smallestOpponent;
+    }
+
+    /**
+     * @return whether the next player holds this many cards or fewer
+     */
+    public boolean nextThreatens(int handSize) {
+        return handSizes[nextSeat] <= handSize;
+    }
+
+    /**
+     * @return whether any other player holds this many cards or fewer
+     */
+    public boolean anyOpponentThreatens(int handSize) {
+        return smallestOpponent <= handSize;
+    }
+
+    /**
+     * @return cards of a color in the hand of the player on turn; colors on either side
+     *         count by palette position, WILD counts the wild cards
+     */
+    public int colorCount(Card.Color color) {
+        return colorCounts[EndgameSolver.colorIndex(color)];
+    }
+
+    public int playableCount() {
+        return wildPlayableCount + coloredPlayableCount;
+    }
+
+    public boolean hasWildPlayable() {
+        return wildPlayableCount > 0;
+    }
+
+    public boolean hasColoredPlayable() {
+        return coloredPlayableCount > 0;
+    }
+
+    public boolean isPlayable(int index) {
+        if (index < 0 || (index >>> 6) >= wildPlayable.length) return false;
+        long bit = 1L << index;
+        return ((wildPlayable[index >>> 6] | coloredPlayable[index >>> 6]) & bit) != 0;
+    }
+
+    public boolean isWildPlayable(int index) {
+        return index >= 0 && (index >>> 6) < wildPlayable.length && (wildPlayable[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Walks the playable cards in hand order: {@code for (int i = c.nextPlayable(0); i >= 0; i = c.nextPlayable(i + 1))}
+     * @return the first playable hand index at or after from, or -1 if there is none
+     */
+    public int nextPlayable(int from) {
+        int word = from >>> 6;
+        if (from < 0 || word >= wildPlayable.length) return -1;
+        long bits = (wildPlayable[word] | coloredPlayable[word]) & (-1L << from);
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == wildPlayable.length) return -1;
+            bits = wildPlayable[word] | coloredPlayable[word];
+        }
+    }
+
+    /**
+     * @return the k-th playable hand index in hand order, counting from 0
+     */
+    public int playableAt(int k) {
+        for (int word = 0; word < wildPlayable.length; word++) {
+            long bits = wildPlayable[word] | coloredPlayable[word];
+            int count = Long.bitCount(bits);
+            if (k < count) {
+                for (int i = 0; i < k; i++) bits &= bits - 1;
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            k -= count;
+        }
+        return -1;
+    }
+}
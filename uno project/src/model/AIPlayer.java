@@ -11,7 +11,7 @@ import java.util.Random;
  * Implements a strategy based approach to card selection based on difficulty selected
  *
  * @author Nicky Fang 101304731
- * @version 2.0 - Added Serializable for Milestone 4
+ * @version 2.9 - Adjustable search node budget
  */
 public class AIPlayer extends Player {
 
@@ -19,21 +19,52 @@ public class AIPlayer extends Player {
 
     private transient Random random; // Transient because Random is not reliably serializable
     private DifficultyLevel difficulty;
+    private AIWeights weights;
+    private int endgameThreshold;
+    private int searchDepth; // turns HARD looks ahead with expectimax, 0 for the heuristics
+    private long nodeBudget; // nodes each search may visit, 0 for the searches' defaults
+    private transient Card.Color solvedColor; // wild color picked by the endgame solver or learned policy
+    private transient OpponentModel opponentModel;
+    private transient PolicyTable policyTable;
+    private transient LearnedPolicy learnedPolicy;
+    private String strategyName; // registered AIStrategy replacing the difficulty, null for none
+    private transient AIStrategy strategy;
+
+    /** Total hand cards at or below which HARD players search the endgame */
+    public static final int DEFAULT_ENDGAME_THRESHOLD = 5;
+
+    private static final ThreadLocal<EndgameSolver> SOLVERS = ThreadLocal.withInitial(EndgameSolver::new);
+    private static final ThreadLocal<ExpectimaxSearch> SEARCHES = ThreadLocal.withInitial(ExpectimaxSearch::new);
+    private static final ThreadLocal<AIDecisionContext> CONTEXTS = ThreadLocal.withInitial(AIDecisionContext::new);
 
     public enum DifficultyLevel {
         EASY, MEDIUM, HARD
     }
 
     public AIPlayer(String name, DifficultyLevel difficulty) {
+        this(name, difficulty, AIWeights.defaults());
+    }
+
+    public AIPlayer(String name, DifficultyLevel difficulty, AIWeights weights) {
         super(name);
         this.random = new Random();
         this.difficulty = difficulty;
+        this.weights = weights;
+        this.endgameThreshold = difficulty == DifficultyLevel.HARD ? DEFAULT_ENDGAME_THRESHOLD : 0;
     }
 
     public AIPlayer(String name) {
         this(name, DifficultyLevel.MEDIUM);
     }
 
+    /**
+     * Reseeds the random choices (EASY play, tie-breaking wild colors) for repeatable games
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
     /**
      * Reinitialize transient Random field after deserialization
      */
@@ -41,106 +72,207 @@ public class AIPlayer extends Player {
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         this.random = new Random(); // Reinitialize after deserialization
+        if (weights == null) {
+            weights = AIWeights.defaults(); // saves from before weights existed
+        }
     }
 
     public int selectCardToPlay(GameState state) {
-        List<Integer> playableIndices = state.playableIndices;
+        if (state.playableIndices.isEmpty()) {
+            solvedColor = null;
+            return -1;
+        }
+        return selectCardToPlay(state, CONTEXTS.get().load(state));
+    }
 
-        if (playableIndices.isEmpty()) {
+    /**
+     * Picks a card with the table summary the model gathered for this turn
+     * @param state the game state, read by the searches and policies
+     * @param context the same turn as seen by the heuristics
+     * @return the hand index to play, or -1 to draw
+     */
+    public int selectCardToPlay(GameState state, AIDecisionContext context) {
+        solvedColor = null;
+
+        if (context.playableCount() == 0) {
             return -1;
         }
 
+        AIStrategy plugged = getStrategy();
+        if (plugged != null) {
+            return plugged.selectCard(this, state, context);
+        }
+        return selectWithDifficulty(difficulty, state, context);
+    }
+
+    /**
+     * The built-in play of a difficulty level: endgame solver, policy table, learned
+     * policy, then the level's heuristics and search
+     */
+    int selectWithDifficulty(DifficultyLevel difficulty, GameState state, AIDecisionContext context) {
+        if (endgameThreshold > 0 && context.playableCount() > 1 && cardsInHands(context) <= endgameThreshold) {
+            int solved = selectWithEndgameSolver(state);
+            if (context.isPlayable(solved)) {
+                return solved;
+            }
+            solvedColor = null;
+        }
+
+        if (policyTable != null && difficulty != DifficultyLevel.EASY && context.playableCount() > 1) {
+            int looked = policyTable.lookup(state, getHand());
+            if (looked >= 0) {
+                return looked;
+            }
+        }
+
+        if (learnedPolicy != null && difficulty != DifficultyLevel.EASY) {
+            return selectWithPolicy(learnedPolicy, state);
+        }
+
         switch (difficulty) {
             case EASY:
-                return selectRandomCard(playableIndices);
+                return selectRandomCard(context);
             case MEDIUM:
-                return selectWithBasicStrategy(playableIndices, state);
+                return selectWithBasicStrategy(context, state);
             case HARD:
-                return selectWithAdvancedStrategy(playableIndices, state);
+                int advanced = selectWithAdvancedStrategy(context, state);
+                if (searchDepth > 0 && context.playableCount() > 1) {
+                    int searched = selectWithExpectimax(state, advanced);
+                    if (context.isPlayable(searched)) {
+                        return searched;
+                    }
+                    solvedColor = null;
+                }
+                return advanced;
             default:
-                return selectRandomCard(playableIndices);
+                return selectRandomCard(context);
         }
     }
 
-    private int selectRandomCard(List<Integer> playable) {
+    /**
+     * Searches the rest of the round, remembering the wild color the search wants
+     */
+    private int selectWithEndgameSolver(GameState state) {
         if (random == null) random = new Random(); // Safety check
-        return playable.get(random.nextInt(playable.size()));
+        EndgameSolver solver = SOLVERS.get();
+        solver.setNodeBudget(nodeBudget > 0 ? nodeBudget : EndgameSolver.DEFAULT_NODE_BUDGET);
+        EndgameSolver.Decision decision = solver.solve(state, this.getHand(), random, opponentModel);
+        if (decision == null) {
+            return -1;
+        }
+        solvedColor = decision.color;
+        return decision.handIndex;
     }
 
-    private int selectWithBasicStrategy(List<Integer> playableIndices, GameState state) {
-        List<Card> hand = this.getHand();
-        Card topCard = state.topDiscard;
-
-        for (int idx : playableIndices) {
-            Card card = hand.get(idx);
-            if (isSpecialCard(card)) {
-                return idx;
-            }
+    /**
+     * Searches the next few turns, keeping the heuristic card unless the search finds a
+     * clearly better one, and remembers the wild color the search wants
+     */
+    private int selectWithExpectimax(GameState state, int heuristic) {
+        ExpectimaxSearch search = SEARCHES.get();
+        search.setMaxDepth(searchDepth);
+        search.setNodeBudget(nodeBudget > 0 ? nodeBudget : ExpectimaxSearch.DEFAULT_NODE_BUDGET);
+        EndgameSolver.Decision decision = search.search(state, this.getHand(), opponentModel, heuristic);
+        if (decision == null) {
+            return -1;
         }
+        solvedColor = decision.color;
+        return decision.handIndex;
+    }
 
-        for (int idx : playableIndices) {
-            Card card = hand.get(idx);
-            if (card.getColor() == topCard.getColor() &&
-                    card.getColor() != Card.Color.WILD) {
-                return idx;
-            }
+    /**
+     * Plays the policy's best action, remembering the wild color it names
+     */
+    int selectWithPolicy(LearnedPolicy policy, GameState state) {
+        int move = policy.select(state, getHand());
+        solvedColor = LearnedPolicy.colorOf(move, state.currentSide);
+        return LearnedPolicy.handIndexOf(move);
+    }
+
+    private static int cardsInHands(AIDecisionContext context) {
+        int total = 0;
+        for (int p = 0; p < context.players(); p++) {
+            total += context.handSize(p);
         }
+        return total;
+    }
 
-        int highestValueIdx = playableIndices.get(0);
-        int highestValue = hand.get(highestValueIdx).getPointValue();
+    private int selectRandomCard(AIDecisionContext context) {
+        if (random == null) random = new Random(); // Safety check
+        return context.playableAt(random.nextInt(context.playableCount()));
+    }
 
-        for (int idx : playableIndices) {
-            int cardValue = hand.get(idx).getPointValue();
-            if (cardValue > highestValue) {
-                highestValue = cardValue;
-                highestValueIdx = idx;
+    private int selectWithBasicStrategy(AIDecisionContext context, GameState state) {
+        List<Card> hand = this.getHand();
+        Card topCard = state.topDiscard;
+
+        int bestIdx = context.nextPlayable(0);
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int idx = bestIdx; idx >= 0; idx = context.nextPlayable(idx + 1)) {
+            double score = basicScore(hand.get(idx), topCard);
+            if (score > bestScore) {
+                bestScore = score;
+                bestIdx = idx;
             }
         }
 
-        return highestValueIdx;
+        return bestIdx;
     }
 
-    private int selectWithAdvancedStrategy(List<Integer> playableIndices, GameState state) {
+    private int selectWithAdvancedStrategy(AIDecisionContext context, GameState state) {
         List<Card> hand = this.getHand();
         Card topCard = state.topDiscard;
 
-        Player nextPlayer = getNextPlayer(state);
-        boolean nextPlayerLowCards = (nextPlayer != null && nextPlayer.getHandSize() <= 2);
-
-        if (nextPlayerLowCards) {
-            for (int idx : playableIndices) {
-                Card card = hand.get(idx);
-                Card.Value value = card.getValue();
-                if (value == Card.Value.DRAW_ONE ||
-                        value == Card.Value.DRAW_FIVE ||
-                        value == Card.Value.WILD_DRAW_TWO ||
-                        value == Card.Value.WILD_DRAW_COLOR ||
-                        value == Card.Value.SKIP ||
-                        value == Card.Value.SKIP_EVERYONE) {
-                    return idx;
-                }
-            }
-        }
+        long threatSize = Math.round(weights.get(AIWeights.Weight.THREAT_HAND_SIZE));
+        boolean nextPlayerLowCards = context.nextThreatens((int) threatSize);
+        boolean hasNonWildPlayable = context.hasColoredPlayable();
 
-        boolean hasNonWildPlayable = false;
-        for (int idx : playableIndices) {
-            if (hand.get(idx).getColor() != Card.Color.WILD) {
-                hasNonWildPlayable = true;
-                break;
+        int bestIdx = context.nextPlayable(0);
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int idx = bestIdx; idx >= 0; idx = context.nextPlayable(idx + 1)) {
+            Card card = hand.get(idx);
+            double score = basicScore(card, topCard);
+            if (nextPlayerLowCards && isAttackCard(card)) {
+                score += weights.get(AIWeights.Weight.ATTACK_BONUS); // wild or not
+            } else if (hasNonWildPlayable && context.isWildPlayable(idx)) {
+                score -= weights.get(AIWeights.Weight.WILD_PENALTY);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestIdx = idx;
             }
         }
 
-        if (hasNonWildPlayable) {
-            List<Integer> nonWildIndices = new java.util.ArrayList<>();
-            for (int idx : playableIndices) {
-                if (hand.get(idx).getColor() != Card.Color.WILD) {
-                    nonWildIndices.add(idx);
-                }
+        return bestIdx;
+    }
+
+    /**
+     * Scores a playable card with the MEDIUM weights. Special cards score the same however
+     * they match, as the original heuristic took the first of them in hand order.
+     */
+    private double basicScore(Card card, Card topCard) {
+        double score = weights.get(AIWeights.Weight.POINT_VALUE) * card.getPointValue();
+        if (isSpecialCard(card)) {
+            return score + weights.get(AIWeights.Weight.SPECIAL_CARD);
+        }
+        if (topCard != null) {
+            if (card.getColor() == topCard.getColor()) {
+                score += weights.get(AIWeights.Weight.COLOR_MATCH);
+            } else if (card.getValue() == topCard.getValue()) {
+                score += weights.get(AIWeights.Weight.VALUE_MATCH);
             }
-            return selectWithBasicStrategy(nonWildIndices, state);
         }
+        return score;
+    }
 
-        return selectWithBasicStrategy(playableIndices, state);
+    private boolean isAttackCard(Card card) {
+        Card.Value value = card.getValue();
+        return value == Card.Value.DRAW_ONE ||
+                value == Card.Value.DRAW_FIVE ||
+                value == Card.Value.WILD_DRAW_TWO ||
+                value == Card.Value.WILD_DRAW_COLOR ||
+                value == Card.Value.SKIP ||
+                value == Card.Value.SKIP_EVERYONE;
     }
 
     private boolean isSpecialCard(Card card) {
@@ -156,98 +288,90 @@ public class AIPlayer extends Player {
                 value == Card.Value.WILD_DRAW_COLOR;
     }
 
-    private Player getNextPlayer(GameState state) {
-        int currentIdx = state.players.indexOf(state.currentPlayer);
-        int nextIdx;
-
-        if (state.clockwise) {
-            nextIdx = (currentIdx + 1) % state.players.size();
-        } else {
-            nextIdx = (currentIdx - 1 + state.players.size()) % state.players.size();
-        }
-
-        return state.players.get(nextIdx);
-    }
-
     public Card.Color chooseWildColor() {
-        if (random == null) random = new Random(); // Safety check
+        Card.Color solved = takeSolvedColor(Card.Side.LIGHT);
+        if (solved != null) return solved;
+        Card.Color plugged = strategyColor(Card.Side.LIGHT);
+        if (plugged != null) return plugged;
+        if (learnedPolicy != null) return learnedPolicy.chooseWildColor(getHand(), Card.Side.LIGHT);
+        return chooseColor(new Card.Color[]{Card.Color.RED, Card.Color.BLUE,
+                Card.Color.GREEN, Card.Color.YELLOW});
+    }
 
-        List<Card> hand = this.getHand();
-        int[] colorCounts = new int[4];
-
-        for (Card card : hand) {
-            switch (card.getColor()) {
-                case RED:
-                    colorCounts[0]++;
-                    break;
-                case BLUE:
-                    colorCounts[1]++;
-                    break;
-                case GREEN:
-                    colorCounts[2]++;
-                    break;
-                case YELLOW:
-                    colorCounts[3]++;
-                    break;
-            }
-        }
+    public Card.Color chooseWildDrawColor() {
+        Card.Color solved = takeSolvedColor(Card.Side.DARK);
+        if (solved != null) return solved;
+        Card.Color plugged = strategyColor(Card.Side.DARK);
+        if (plugged != null) return plugged;
+        if (learnedPolicy != null) return learnedPolicy.chooseWildColor(getHand(), Card.Side.DARK);
+        return chooseColor(new Card.Color[]{Card.Color.TEAL, Card.Color.PURPLE,
+                Card.Color.PINK, Card.Color.ORANGE});
+    }
 
-        int maxCount = 0;
-        int maxIndex = 0;
-        for (int i = 0; i < 4; i++) {
-            if (colorCounts[i] > maxCount) {
-                maxCount = colorCounts[i];
-                maxIndex = i;
-            }
-        }
+    private Card.Color strategyColor(Card.Side side) {
+        AIStrategy plugged = getStrategy();
+        return plugged != null ? plugged.chooseWildColor(this, side) : null;
+    }
 
-        if (maxCount == 0) {
-            maxIndex = random.nextInt(4);
-        }
+    /**
+     * Asks the strategy whether to play a card that had to be drawn; without one the
+     * card is always played
+     * @param drawn the playable card just drawn, last in hand
+     * @return true to play it
+     */
+    public boolean playDrawnCard(Card drawn) {
+        AIStrategy plugged = getStrategy();
+        return plugged == null || plugged.playDrawnCard(this, drawn);
+    }
 
-        Card.Color[] colors = {Card.Color.RED, Card.Color.BLUE,
-                Card.Color.GREEN, Card.Color.YELLOW};
-        return colors[maxIndex];
+    /**
+     * @return the color chosen by the last endgame search if it belongs to that side, once
+     */
+    private Card.Color takeSolvedColor(Card.Side side) {
+        Card.Color color = solvedColor;
+        solvedColor = null;
+        if (color == null) return null;
+        boolean dark = color == Card.Color.TEAL || color == Card.Color.PURPLE
+                || color == Card.Color.PINK || color == Card.Color.ORANGE;
+        return dark == (side == Card.Side.DARK) ? color : null;
     }
 
-    public Card.Color chooseWildDrawColor() {
+    /**
+     * Picks the color from one side's palette that scores best for the cards in hand,
+     * or a random one when the hand holds none of those colors
+     */
+    private Card.Color chooseColor(Card.Color[] colors) {
         if (random == null) random = new Random(); // Safety check
 
-        List<Card> hand = this.getHand();
-        int[] colorCounts = new int[4];
-
-        for (Card card : hand) {
-            switch (card.getColor()) {
-                case TEAL:
-                    colorCounts[0]++;
-                    break;
-                case PURPLE:
-                    colorCounts[1]++;
-                    break;
-                case PINK:
-                    colorCounts[2]++;
-                    break;
-                case ORANGE:
-                    colorCounts[3]++;
-                    break;
+        int[] colorCounts = new int[colors.length];
+        int[] colorPoints = new int[colors.length];
+        int matched = 0;
+
+        for (Card card : this.getHand()) {
+            for (int i = 0; i < colors.length; i++) {
+                if (card.getColor() == colors[i]) {
+                    colorCounts[i]++;
+                    colorPoints[i] += card.getPointValue();
+                    matched++;
+                }
             }
         }
 
-        int maxCount = 0;
+        if (matched == 0) {
+            return colors[random.nextInt(colors.length)];
+        }
+
         int maxIndex = 0;
-        for (int i = 0; i < 4; i++) {
-            if (colorCounts[i] > maxCount) {
-                maxCount = colorCounts[i];
+        double maxScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < colors.length; i++) {
+            if (colorCounts[i] == 0) continue;
+            double score = weights.get(AIWeights.Weight.WILD_COLOR_COUNT) * colorCounts[i]
+                    + weights.get(AIWeights.Weight.WILD_COLOR_POINTS) * colorPoints[i];
+            if (score > maxScore) {
+                maxScore = score;
                 maxIndex = i;
             }
         }
-
-        if (maxCount == 0) {
-            maxIndex = random.nextInt(4);
-        }
-
-        Card.Color[] colors = {Card.Color.TEAL, Card.Color.PURPLE,
-                Card.Color.PINK, Card.Color.ORANGE};
         return colors[maxIndex];
     }
 
@@ -259,4 +383,102 @@ public class AIPlayer extends Player {
     public DifficultyLevel getDifficultyLevel() {
         return difficulty;
     }
-}
\ No newline at end of file
+
+    public AIWeights getWeights() {
+        return weights;
+    }
+
+    public void setWeights(AIWeights weights) {
+        this.weights = weights;
+    }
+
+    public int getEndgameThreshold() {
+        return endgameThreshold;
+    }
+
+    /**
+     * @param endgameThreshold search the rest of the round once all hands together hold
+     *                         this many cards or fewer; 0 turns the solver off
+     */
+    public void setEndgameThreshold(int endgameThreshold) {
+        this.endgameThreshold = Math.max(0, endgameThreshold);
+    }
+
+    public int getSearchDepth() {
+        return searchDepth;
+    }
+
+    /**
+     * @param searchDepth turns a HARD player looks ahead with {@link ExpectimaxSearch}
+     *                    instead of scoring cards with the heuristics; 0 turns the search off
+     */
+    public void setSearchDepth(int searchDepth) {
+        this.searchDepth = Math.max(0, searchDepth);
+    }
+
+    public long getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /**
+     * @param nodeBudget nodes the endgame solver and expectimax search may visit per
+     *                   decision step; 0 restores each search's default
+     */
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = Math.max(0, nodeBudget);
+    }
+
+    public OpponentModel getOpponentModel() {
+        return opponentModel;
+    }
+
+    /**
+     * @param opponentModel what this player has inferred about the other hands, used by
+     *                      the endgame solver; null deals the unseen cards uniformly
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        this.opponentModel = opponentModel;
+    }
+
+    public PolicyTable getPolicyTable() {
+        return policyTable;
+    }
+
+    /**
+     * @param policyTable precomputed actions tried before the heuristics, or null for none
+     */
+    public void setPolicyTable(PolicyTable policyTable) {
+        this.policyTable = policyTable;
+    }
+
+    public LearnedPolicy getLearnedPolicy() {
+        return learnedPolicy;
+    }
+
+    /**
+     * @param learnedPolicy policy that replaces the MEDIUM and HARD heuristics, or null to use them
+     */
+    public void setLearnedPolicy(LearnedPolicy learnedPolicy) {
+        this.learnedPolicy = learnedPolicy;
+    }
+
+    /**
+     * @return the strategy that replaces the difficulty level, or null if none does; a
+     *         strategy restored from a save is looked up again by name
+     */
+    public AIStrategy getStrategy() {
+        if (strategy == null && strategyName != null) {
+            strategy = AIStrategies.find(strategyName);
+        }
+        return strategy;
+    }
+
+    /**
+     * @param strategy strategy to play with instead of the difficulty level, or null to
+     *                 play by difficulty
+     */
+    public void setStrategy(AIStrategy strategy) {
+        this.strategy = strategy;
+        this.strategyName = strategy != null ? strategy.name() : null;
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import controller.GameState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * The registry of AI strategies: the built-in difficulty levels followed by every
+ * {@link AIStrategy} found on the class path, keyed by upper-case name.
+ *
+ * Providers are loaded once, on first use. A provider that fails to load, or reuses a
+ * name already taken, is reported on standard error and left out.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class AIStrategies {
+
+    private static Map<String, AIStrategy> registry;
+
+    private AIStrategies() {
+    }
+
+    /**
+     * Plays like an AIPlayer of one difficulty level, endgame solver and search included
+     */
+    private static final class Difficulty implements AIStrategy {
+        private final AIPlayer.DifficultyLevel level;
+
+        Difficulty(AIPlayer.DifficultyLevel level) {
+            this.level = level;
+        }
+
+        @Override
+        public String name() {
+            return level.name();
+        }
+
+        @Override
+        public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+            return player.selectWithDifficulty(level, state, context);
+        }
+    }
+
+    /**
+     * @return every registered strategy, built-in ones first
+     */
+    public static List<AIStrategy> all() {
+        return new ArrayList<>(registry().values());
+    }
+
+    /**
+     * @param name a strategy name, in any case
+     * @return the strategy, or null if none is registered under that name
+     */
+    public static AIStrategy find(String name) {
+        return name == null ? null : registry().get(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the strategy that plays like the given difficulty level
+     */
+    public static AIStrategy of(AIPlayer.DifficultyLevel level) {
+        return registry().get(level.name());
+    }
+
+    private static synchronized Map<String, AIStrategy> registry() {
+        if (registry == null) {
+            Map<String, AIStrategy> strategies = new LinkedHashMap<>();
+            for (AIPlayer.DifficultyLevel level : AIPlayer.DifficultyLevel.values()) {
+                strategies.put(level.name(), new Difficulty(level));
+            }
+
+            Iterator<AIStrategy> providers = ServiceLoader.load(AIStrategy.class).iterator();
+            while (true) {
+                AIStrategy strategy;
+                try {
+                    if (!providers.hasNext()) break;
+                    strategy = providers.next();
+                } catch (ServiceConfigurationError e) {
+                    System.err.println("Skipping AI strategy: " + e.getMessage());
+                    continue;
+                }
+                String key = strategy.name().toUpperCase(Locale.ROOT);
+                if (strategies.putIfAbsent(key, strategy) != null) {
+                    System.err.println("Skipping AI strategy " + strategy.getClass().getName()
+                            + ": the name " + key + " is taken");
+                }
+            }
+            registry = Collections.unmodifiableMap(strategies);
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import controller.GameState;
+
+/**
+ * A way for an AI player to play, plugged in through {@link java.util.ServiceLoader}.
+ *
+ * Implementations are listed in {@code META-INF/services/model.AIStrategy} and looked up
+ * by {@link #name()} through {@link AIStrategies}, next to the built-in EASY, MEDIUM and
+ * HARD behaviours. One instance is shared by every player that uses it, possibly from
+ * several threads, so a strategy keeps no state of its own and reads everything from the
+ * player and the turn it is given.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public interface AIStrategy {
+
+    /**
+     * @return the name the strategy is registered and chosen by, such as HARD
+     */
+    String name();
+
+    /**
+     * Picks the card to play; only called when at least one card is playable
+     * @param player the player on turn
+     * @param state the game state
+     * @param context the same turn summarised for quick lookups
+     * @return the hand index to play, or -1 to draw
+     */
+    int selectCard(AIPlayer player, GameState state, AIDecisionContext context);
+
+    /**
+     * Names the color for a wild the player just played
+     * @param side the side in play, whose palette the color must come from
+     * @return the color, or null to let the player choose by its weights
+     */
+    default Card.Color chooseWildColor(AIPlayer player, Card.Side side) {
+        return null;
+    }
+
+    /**
+     * Decides whether to play a card the player had to draw, which the rules allow when
+     * it fits the discard pile
+     * @param drawn the playable card just drawn, last in the player's hand
+     * @return true to play it now, false to keep it and end the turn
+     */
+    default boolean playDrawnCard(AIPlayer player, Card drawn) {
+        return true;
+    }
+}
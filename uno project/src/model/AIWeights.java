@@ -0,0 +1,152 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Weight vector behind the MEDIUM and HARD card choice heuristics and the wild color choice.
+ *
+ * Every playable card gets a score from these weights and the highest score is played,
+ * the first in hand order on a tie. The defaults make the same choices as the original
+ * hand-written heuristics: the first special card, else the first color match, else the
+ * first playable card. For HARD, the first attack card, wild or not, when the next player
+ * is close to going out, and no wilds while a colored card can be played.
+ *
+ * Weights can be saved to and loaded from a properties profile, one WEIGHT=value per line.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class AIWeights implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Weight {
+        /** bonus for action and wild cards */
+        SPECIAL_CARD(2.0),
+        /** bonus for a number card matching the top card's color */
+        COLOR_MATCH(1.0),
+        /** bonus for a number card matching the top card's value, which changes the color */
+        VALUE_MATCH(0.0),
+        /** score per card point, so expensive cards leave the hand first; off by default
+         *  because the original heuristics never compared special cards by points */
+        POINT_VALUE(0.0),
+        /** HARD: penalty for a wild card that is not attacking, keeps wilds for when nothing else is playable */
+        WILD_PENALTY(4.0),
+        /** HARD: bonus for draw and skip cards while the next player is threatening */
+        ATTACK_BONUS(8.0),
+        /** HARD: the next player is threatening at this many cards or fewer */
+        THREAT_HAND_SIZE(2.0),
+        /** wild color choice: score per card of the color in hand */
+        WILD_COLOR_COUNT(1.0),
+        /** wild color choice: score per point of the color in hand */
+        WILD_COLOR_POINTS(0.0);
+
+        public final double defaultValue;
+
+        Weight(double defaultValue) {
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    private final double[] values;
+
+    private AIWeights(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return the weights matching the original hand-written heuristics
+     */
+    public static AIWeights defaults() {
+        double[] values = new double[Weight.values().length];
+        for (Weight w : Weight.values()) {
+            values[w.ordinal()] = w.defaultValue;
+        }
+        return new AIWeights(values);
+    }
+
+    /**
+     * @param values one value per {@link Weight}, in declaration order
+     */
+    public static AIWeights of(double[] values) {
+        if (values.length != Weight.values().length) {
+            throw new IllegalArgumentException("Expected " + Weight.values().length + " weights");
+        }
+        return new AIWeights(values.clone());
+    }
+
+    public double get(Weight w) {
+        return values[w.ordinal()];
+    }
+
+    /**
+     * @return a copy of the vector, in {@link Weight} declaration order
+     */
+    public double[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Loads a profile; weights missing from the file keep their defaults
+     * @param path the properties file
+     * @return the weights
+     * @throws IOException if the file cannot be read
+     */
+    public static AIWeights load(Path path) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(path)) {
+            props.load(in);
+        }
+        double[] values = defaults().values;
+        for (Weight w : Weight.values()) {
+            String value = props.getProperty(w.name());
+            if (value != null) {
+                values[w.ordinal()] = Double.parseDouble(value.trim());
+            }
+        }
+        return new AIWeights(values);
+    }
+
+    /**
+     * Writes the weights as a profile that {@link #load(Path)} reads back
+     * @param path the properties file
+     * @param comment header line for the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path, String comment) throws IOException {
+        Properties props = new Properties();
+        for (Weight w : Weight.values()) {
+            props.setProperty(w.name(), Double.toString(values[w.ordinal()]));
+        }
+        try (Writer out = Files.newBufferedWriter(path)) {
+            props.store(out, comment);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AIWeights && Arrays.equals(values, ((AIWeights) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Weight w : Weight.values()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(w.name()).append('=').append(String.format("%.4f", values[w.ordinal()]));
+        }
+        return sb.append('}').toString();
+    }
+}
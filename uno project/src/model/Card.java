@@ -59,6 +59,20 @@ public class Card implements Serializable {
         }
     }
 
+    /**
+     * Copy constructor, keeps the current side and any color chosen for a wild
+     * @param other the card to copy
+     */
+    public Card(Card other) {
+        this.lightColor = other.lightColor;
+        this.lightValue = other.lightValue;
+        this.darkColor = other.darkColor;
+        this.darkValue = other.darkValue;
+        this.currentSide = other.currentSide;
+        this.color = other.color;
+        this.value = other.value;
+    }
+
     public void flip() {
         if (currentSide == Side.LIGHT) {
             currentSide = Side.DARK;
@@ -0,0 +1,252 @@
+package model;
+
+import controller.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pending AI decisions from many tables, packed as flat arrays so a policy can decide
+ * them all in one call.
+ *
+ * Each decision is one row of the per-decision arrays (hand position, table summary)
+ * and a run of rows in the per-card arrays (value, color, points, playability of every
+ * card in the hand on turn). A policy such as {@link LearnedPolicy#selectAll} walks
+ * these arrays in tight loops instead of chasing player lists and card objects, then
+ * writes one action per decision. The arrays grow as needed and are kept on
+ * {@link #clear()}, so a server can refill one batch per tick without allocating.
+ *
+ * Usage:
+ * <pre>
+ * batch.clear();
+ * for (GameState state : pending) batch.add(state);
+ * policy.selectAll(batch);
+ * int card = batch.action(i); Card.Color color = batch.color(i);
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class DecisionBatch {
+
+    static final int NO_COLOR = 4;
+
+    int size;
+    int cards;
+
+    /** Per decision */
+    int[] handStart;
+    int[] handSize;
+    int[] players;
+    int[] nextHandSize;
+    int[] smallestOpponent;
+    int[] topColor; // Card.Color ordinal, -1 with no discard
+    boolean[] dark;
+    boolean[] coloredPlayable;
+
+    /** Per card of the hands on turn */
+    byte[] value; // Card.Value ordinal
+    byte[] color; // Card.Color ordinal
+    byte[] palette; // palette index, 4 for wilds
+    short[] points;
+    boolean[] playable;
+
+    /** Results */
+    int[] action;
+    byte[] chosenColor;
+
+    /** Scratch for policies: one entry per candidate action */
+    int[] actionDecision = new int[0];
+    int[] actionCard = new int[0];
+    byte[] actionColor = new byte[0];
+    double[] actionScore = new double[0];
+
+    /** Scratch for policies: cards and points of each color per hand, 5 entries per decision */
+    int[] colorCount = new int[0];
+    int[] colorPoints = new int[0];
+
+    public DecisionBatch() {
+        this(64, 8);
+    }
+
+    /**
+     * @param decisions decisions to make room for up front
+     * @param cardsPerHand expected hand size
+     */
+    public DecisionBatch(int decisions, int cardsPerHand) {
+        decisions = Math.max(1, decisions);
+        handStart = new int[decisions];
+        handSize = new int[decisions];
+        players = new int[decisions];
+        nextHandSize = new int[decisions];
+        smallestOpponent = new int[decisions];
+        topColor = new int[decisions];
+        dark = new boolean[decisions];
+        coloredPlayable = new boolean[decisions];
+        action = new int[decisions];
+        chosenColor = new byte[decisions];
+
+        int totalCards = decisions * Math.max(1, cardsPerHand);
+        value = new byte[totalCards];
+        color = new byte[totalCards];
+        palette = new byte[totalCards];
+        points = new short[totalCards];
+        playable = new boolean[totalCards];
+    }
+
+    /**
+     * Empties the batch, keeping its arrays
+     */
+    public void clear() {
+        size = 0;
+        cards = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Packs the decision of the player on turn
+     * @param state the game state, with its playable indices filled in
+     * @return the decision's index in this batch
+     */
+    public int add(GameState state) {
+        List<Card> hand = state.players.get(state.currentPlayerIndex).getHand();
+        int d = size;
+        ensureDecisions(d + 1);
+        ensureCards(cards + hand.size());
+
+        int n = state.players.size();
+        int next = Math.floorMod(state.currentPlayerIndex + (state.clockwise ? 1 : -1), n);
+        int smallest = Integer.MAX_VALUE;
+        for (int p = 0; p < n; p++) {
+            if (p != state.currentPlayerIndex) smallest = Math.min(smallest, state.players.get(p).getHandSize());
+        }
+
+        handStart[d] = cards;
+        handSize[d] = hand.size();
+        players[d] = n;
+        nextHandSize[d] = state.players.get(next).getHandSize();
+        smallestOpponent[d] = smallest;
+        topColor[d] = state.topDiscard != null ? state.topDiscard.getColor().ordinal() : -1;
+        dark[d] = state.currentSide == Card.Side.DARK;
+        coloredPlayable[d] = false;
+        action[d] = -1;
+        chosenColor[d] = NO_COLOR;
+
+        for (int i = 0; i < hand.size(); i++) {
+            Card card = hand.get(i);
+            int c = cards + i;
+            value[c] = (byte) card.getValue().ordinal();
+            color[c] = (byte) card.getColor().ordinal();
+            palette[c] = (byte) EndgameSolver.colorIndex(card.getColor());
+            points[c] = (short) card.getPointValue();
+            playable[c] = false;
+        }
+        for (int i = 0; i < state.playableIndices.size(); i++) {
+            int c = cards + state.playableIndices.get(i);
+            playable[c] = true;
+            if (palette[c] != NO_COLOR) coloredPlayable[d] = true;
+        }
+
+        cards += hand.size();
+        size++;
+        return d;
+    }
+
+    /**
+     * @return the hand index chosen for a decision, or -1 to draw
+     */
+    public int action(int decision) {
+        return action[decision];
+    }
+
+    /**
+     * @return the color to name for the chosen wild, or null when it names none
+     */
+    public Card.Color color(int decision) {
+        int c = chosenColor[decision];
+        return c == NO_COLOR ? null : EndgameSolver.PALETTES[dark[decision] ? 1 : 0][c];
+    }
+
+    /**
+     * Lists every candidate action of every decision in the scratch arrays: each
+     * playable card, and each color a playable wild can name
+     * @return the number of actions
+     */
+    int expandActions() {
+        int total = 0;
+        for (int c = 0; c < cards; c++) {
+            if (playable[c]) total += palette[c] == NO_COLOR ? NO_COLOR : 1;
+        }
+        if (total > actionCard.length) {
+            int length = Math.max(total, actionCard.length * 2);
+            actionDecision = new int[length];
+            actionCard = new int[length];
+            actionColor = new byte[length];
+            actionScore = new double[length];
+        }
+
+        int a = 0;
+        for (int d = 0; d < size; d++) {
+            int end = handStart[d] + handSize[d];
+            for (int c = handStart[d]; c < end; c++) {
+                if (!playable[c]) continue;
+                boolean wild = palette[c] == NO_COLOR;
+                for (int k = wild ? 0 : NO_COLOR; k <= (wild ? NO_COLOR - 1 : NO_COLOR); k++) {
+                    actionDecision[a] = d;
+                    actionCard[a] = c;
+                    actionColor[a] = (byte) k;
+                    a++;
+                }
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Counts the cards and points of each palette color, and the wilds, in every hand
+     */
+    void summarizeHands() {
+        if (size * (NO_COLOR + 1) > colorCount.length) {
+            colorCount = new int[handStart.length * (NO_COLOR + 1)];
+            colorPoints = new int[colorCount.length];
+        }
+        Arrays.fill(colorCount, 0, size * (NO_COLOR + 1), 0);
+        Arrays.fill(colorPoints, 0, size * (NO_COLOR + 1), 0);
+        for (int d = 0; d < size; d++) {
+            int base = d * (NO_COLOR + 1);
+            int end = handStart[d] + handSize[d];
+            for (int c = handStart[d]; c < end; c++) {
+                colorCount[base + palette[c]]++;
+                colorPoints[base + palette[c]] += points[c];
+            }
+        }
+    }
+
+    private void ensureDecisions(int needed) {
+        if (needed <= handStart.length) return;
+        int length = Math.max(needed, handStart.length * 2);
+        handStart = Arrays.copyOf(handStart, length);
+        handSize = Arrays.copyOf(handSize, length);
+        players = Arrays.copyOf(players, length);
+        nextHandSize = Arrays.copyOf(nextHandSize, length);
+        smallestOpponent = Arrays.copyOf(smallestOpponent, length);
+        topColor = Arrays.copyOf(topColor, length);
+        dark = Arrays.copyOf(dark, length);
+        coloredPlayable = Arrays.copyOf(coloredPlayable, length);
+        action = Arrays.copyOf(action, length);
+        chosenColor = Arrays.copyOf(chosenColor, length);
+    }
+
+    private void ensureCards(int needed) {
+        if (needed <= value.length) return;
+        int length = Math.max(needed, value.length * 2);
+        value = Arrays.copyOf(value, length);
+        color = Arrays.copyOf(color, length);
+        palette = Arrays.copyOf(palette, length);
+        points = Arrays.copyOf(points, length);
+        playable = Arrays.copyOf(playable, length);
+    }
+}
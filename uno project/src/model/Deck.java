@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Represents a deck of UNO Cards with serialization support
@@ -19,6 +20,7 @@ public class Deck implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private List<Card> cards;
+    private transient Random random;
 
     public Deck() {
         cards = new ArrayList<>();
@@ -26,6 +28,28 @@ public class Deck implements Serializable {
         shuffle();
     }
 
+    /**
+     * Creates a deck shuffled from the given source, so equal seeds deal equal games
+     * @param random the shuffle source
+     */
+    public Deck(Random random) {
+        this.random = random;
+        cards = new ArrayList<>();
+        initializeDeck();
+        shuffle();
+    }
+
+    /**
+     * Copy constructor, copies every remaining card in draw order
+     * @param other the deck to copy
+     */
+    public Deck(Deck other) {
+        cards = new ArrayList<>(other.cards.size());
+        for (Card card : other.cards) {
+            cards.add(new Card(card));
+        }
+    }
+
     private void initializeDeck() {
         for (Card.Color color : new Card.Color[]{Card.Color.RED, Card.Color.BLUE,
                 Card.Color.GREEN, Card.Color.YELLOW}) {
@@ -83,7 +107,11 @@ public class Deck implements Serializable {
     }
 
     public void shuffle() {
-        Collections.shuffle(cards);
+        if (random != null) {
+            Collections.shuffle(cards, random);
+        } else {
+            Collections.shuffle(cards);
+        }
     }
 
     public Card drawCard() {
@@ -0,0 +1,44 @@
+package model;
+
+import controller.GameState;
+
+/**
+ * Plays a linear policy distilled from HARD with a 6 turn expectimax search, for tables
+ * that need search-like play at a microsecond per move. Registered as DISTILLED.
+ *
+ * The weights were produced by {@link PolicyDistiller} from 20000 positions (seed 1):
+ * the student picks the teacher's move on 82% of held-out positions and rated about
+ * 100 Elo below it over 100 heads-up games, while deciding several thousand times faster.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class DistilledStrategy implements AIStrategy {
+
+    /** In {@link LearnedPolicy} feature order; features equal for every action carry no weight */
+    private static final double[] WEIGHTS = {
+            0, -2.8315, -1.4479, 0.5411, 1.7683, 1.1994, 1.3321, -0.5613, 1.5251, 2.8135, 0, 0,
+            1.3324, -0.1909, 2.8836, 1.6297, 0.8080, 0, 0, 0.5315, 0, -4.2795, -1.5238
+    };
+
+    private final LearnedPolicy policy = LearnedPolicy.of(WEIGHTS);
+
+    @Override
+    public String name() {
+        return "DISTILLED";
+    }
+
+    public LearnedPolicy getPolicy() {
+        return policy;
+    }
+
+    @Override
+    public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+        return player.selectWithPolicy(policy, state);
+    }
+
+    @Override
+    public Card.Color chooseWildColor(AIPlayer player, Card.Side side) {
+        return policy.chooseWildColor(player.getHand(), side);
+    }
+}
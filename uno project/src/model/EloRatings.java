@@ -0,0 +1,154 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Ratings for AI entrants from multiplayer game results.
+ *
+ * Every game is split into head-to-head results between each pair of seats held by
+ * different entrants (higher final score wins, equal scores draw). Ratings are the
+ * Bradley-Terry maximum likelihood fit of those pairwise results on the Elo scale,
+ * so they do not depend on the order in which games finish. Confidence intervals
+ * come from the diagonal of the Fisher information.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class EloRatings {
+
+    /** Rating assigned to the average entrant */
+    public static final double BASE_RATING = 1500.0;
+
+    private static final double ELO_PER_NAT = 400.0 / Math.log(10);
+    private static final double PRIOR_GAMES = 1.0; // one virtual draw per pair keeps fits finite
+    private static final int MAX_ITERATIONS = 500;
+
+    private final String[] names;
+    private final double[][] points;
+    private final int[][] games;
+    private int gamesRecorded;
+
+    /**
+     * A single entrant's rating line
+     */
+    public static final class Standing {
+        public final String name;
+        public final double rating;
+        public final double ci95;
+        public final int pairings;
+        public final double scoreRate;
+
+        Standing(String name, double rating, double ci95, int pairings, double scoreRate) {
+            this.name = name;
+            this.rating = rating;
+            this.ci95 = ci95;
+            this.pairings = pairings;
+            this.scoreRate = scoreRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s %7.1f +/- %5.1f  %6d pairings  %5.1f%%",
+                    name, rating, ci95, pairings, scoreRate * 100);
+        }
+    }
+
+    /**
+     * @param names entrant names, indexed like the entrant numbers passed to record
+     */
+    public EloRatings(String[] names) {
+        this.names = names.clone();
+        this.points = new double[names.length][names.length];
+        this.games = new int[names.length][names.length];
+    }
+
+    /**
+     * Adds one game
+     * @param entrantBySeat the entrant number sitting in each seat
+     * @param result the game result
+     */
+    public synchronized void record(int[] entrantBySeat, HeadlessGame.Result result) {
+        for (int a = 0; a < entrantBySeat.length; a++) {
+            for (int b = a + 1; b < entrantBySeat.length; b++) {
+                int i = entrantBySeat[a];
+                int j = entrantBySeat[b];
+                if (i == j) continue;
+                double outcome = result.outcome(a, b);
+                points[i][j] += outcome;
+                points[j][i] += 1.0 - outcome;
+                games[i][j]++;
+                games[j][i]++;
+            }
+        }
+        gamesRecorded++;
+    }
+
+    public synchronized int getGamesRecorded() {
+        return gamesRecorded;
+    }
+
+    /**
+     * Fits the ratings to everything recorded so far
+     * @return one standing per entrant, best first
+     */
+    public synchronized Standing[] standings() {
+        int n = names.length;
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1.0);
+
+        // Hunter's MM iteration for Bradley-Terry, with the virtual draws as a prior
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            double maxChange = 0;
+            double[] next = new double[n];
+            for (int i = 0; i < n; i++) {
+                double won = 0;
+                double denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (i == j) continue;
+                    double nij = games[i][j] + PRIOR_GAMES;
+                    won += points[i][j] + PRIOR_GAMES / 2;
+                    denominator += nij / (strength[i] + strength[j]);
+                }
+                next[i] = denominator > 0 ? won / denominator : strength[i];
+            }
+            double logMean = 0;
+            for (int i = 0; i < n; i++) logMean += Math.log(next[i]);
+            logMean /= n;
+            for (int i = 0; i < n; i++) {
+                next[i] = Math.exp(Math.log(next[i]) - logMean);
+                maxChange = Math.max(maxChange, Math.abs(next[i] - strength[i]));
+            }
+            strength = next;
+            if (maxChange < 1e-9) break;
+        }
+
+        Standing[] result = new Standing[n];
+        for (int i = 0; i < n; i++) {
+            double information = 0;
+            int pairings = 0;
+            double scored = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                double p = strength[i] / (strength[i] + strength[j]);
+                information += (games[i][j] + PRIOR_GAMES) * p * (1 - p);
+                pairings += games[i][j];
+                scored += points[i][j];
+            }
+            double rating = BASE_RATING + ELO_PER_NAT * Math.log(strength[i]);
+            double ci95 = information > 0 ? 1.96 * ELO_PER_NAT / Math.sqrt(information) : Double.POSITIVE_INFINITY;
+            result[i] = new Standing(names[i], rating, ci95, pairings, pairings > 0 ? scored / pairings : 0);
+        }
+        Arrays.sort(result, (a, b) -> Double.compare(b.rating, a.rating));
+        return result;
+    }
+
+    /**
+     * @return the current rating of one entrant
+     */
+    public double ratingOf(String name) {
+        for (Standing s : standings()) {
+            if (s.name.equals(name)) return s.rating;
+        }
+        throw new IllegalArgumentException("Unknown entrant: " + name);
+    }
+}
@@ -0,0 +1,859 @@
+package model;
+
+import controller.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Searches the rest of a round once only a few cards are left in hands.
+ *
+ * The opponents' hands are unknown, so the solver deals them several times from the
+ * cards it has not seen (the full deck minus its own hand and the top card) and
+ * solves every deal. Inside a deal all hands are known: player decisions are searched
+ * with alpha-beta (the other players are assumed to play against the solver, which
+ * is exact for two players), and every card drawn is a chance node over the undealt
+ * cards weighted by how many copies are left. The root move with the best average
+ * chance of winning the round over all deals is played.
+ *
+ * Search is iteratively deepened on the number of draws per line that are expanded
+ * as chance nodes. Draws beyond that depth come from a shuffled order of the deck
+ * sampled with the deal, so every line is still played out to the end of the round;
+ * only lines longer than the ply limit are scored from the hand sizes. Positions are
+ * memoized in a Zobrist-hashed transposition table, which also supplies the first
+ * move to try. A node budget, or an interrupt of the solving thread, stops the
+ * deepening and keeps the last finished depth, or the deals finished so far if even the
+ * first depth runs out.
+ *
+ * Cards are handled as counts of 58 types (the light face of every distinct card),
+ * the dark face of each type is derived the same way Deck builds it.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class EndgameSolver {
+
+    /** Number of distinct cards: 4 colors x 14 faces, WILD and WILD_DRAW_TWO */
+    static final int TYPES = 58;
+
+    private static final int WILD_TYPE = 56;
+    private static final int WILD_DRAW_TYPE = 57;
+    private static final int NO_COLOR = 4;
+    private static final int MAX_COPIES = 4;
+    private static final int MAX_MOVES = 64;
+    static final int WILD_DRAW_COLOR_LIMIT = 20;
+
+    // effect of a face once played
+    static final int NUMBER = 0, SKIP = 1, REVERSE = 2, DRAW_ONE = 3, FLIP = 4, WILD = 5,
+            WILD_DRAW_TWO = 6, DRAW_FIVE = 7, SKIP_EVERYONE = 8, WILD_DRAW_COLOR = 9;
+
+    private static final Card.Value[] LIGHT_FACES = {
+            Card.Value.ZERO, Card.Value.ONE, Card.Value.TWO, Card.Value.THREE, Card.Value.FOUR,
+            Card.Value.FIVE, Card.Value.SIX, Card.Value.SEVEN, Card.Value.EIGHT, Card.Value.NINE,
+            Card.Value.SKIP, Card.Value.REVERSE, Card.Value.DRAW_ONE, Card.Value.FLIP
+    };
+    static final Card.Color[][] PALETTES = {
+            {Card.Color.RED, Card.Color.BLUE, Card.Color.GREEN, Card.Color.YELLOW},
+            {Card.Color.TEAL, Card.Color.PURPLE, Card.Color.PINK, Card.Color.ORANGE}
+    };
+
+    /** color index (0-3, or NO_COLOR for wilds), face value and effect per side and type */
+    static final int[][] COLOR = new int[2][TYPES];
+    static final int[][] VALUE = new int[2][TYPES];
+    static final int[][] EFFECT = new int[2][TYPES];
+    /** copies of each type in a full deck */
+    static final int[] FULL_DECK = new int[TYPES];
+
+    private static final long[][][] Z_HAND = new long[4][TYPES][MAX_COPIES + 1];
+    private static final long[][] Z_DECK = new long[TYPES][MAX_COPIES + 1];
+    private static final long[] Z_TOP_COLOR = new long[NO_COLOR + 1];
+    private static final long[] Z_TOP_VALUE = new long[Card.Value.values().length];
+    private static final long[] Z_CURRENT = new long[4];
+    private static final long[] Z_PASSES = new long[5];
+    private static final long Z_REVERSED;
+    private static final long Z_DARK;
+
+    static {
+        for (int c = 0; c < 4; c++) {
+            for (int f = 0; f < LIGHT_FACES.length; f++) {
+                int t = c * LIGHT_FACES.length + f;
+                Card.Value light = LIGHT_FACES[f];
+                Card.Value dark = light == Card.Value.ZERO ? Card.Value.FIVE
+                        : light == Card.Value.SKIP ? Card.Value.SKIP_EVERYONE
+                        : light == Card.Value.DRAW_ONE ? Card.Value.DRAW_FIVE
+                        : light;
+                COLOR[0][t] = c;
+                COLOR[1][t] = c;
+                VALUE[0][t] = light.ordinal();
+                VALUE[1][t] = dark.ordinal();
+                EFFECT[0][t] = effectOf(light);
+                EFFECT[1][t] = effectOf(dark);
+                FULL_DECK[t] = light == Card.Value.ZERO ? 1 : 2;
+            }
+        }
+        for (int side = 0; side < 2; side++) {
+            COLOR[side][WILD_TYPE] = NO_COLOR;
+            COLOR[side][WILD_DRAW_TYPE] = NO_COLOR;
+            VALUE[side][WILD_TYPE] = Card.Value.WILD.ordinal();
+            EFFECT[side][WILD_TYPE] = WILD;
+        }
+        VALUE[0][WILD_DRAW_TYPE] = Card.Value.WILD_DRAW_TWO.ordinal();
+        VALUE[1][WILD_DRAW_TYPE] = Card.Value.WILD_DRAW_COLOR.ordinal();
+        EFFECT[0][WILD_DRAW_TYPE] = WILD_DRAW_TWO;
+        EFFECT[1][WILD_DRAW_TYPE] = WILD_DRAW_COLOR;
+        FULL_DECK[WILD_TYPE] = 4;
+        FULL_DECK[WILD_DRAW_TYPE] = 4;
+
+        Random z = new Random(0x5EED_CA4DL);
+        for (long[][] player : Z_HAND) for (long[] type : player) fill(type, z);
+        for (long[] type : Z_DECK) fill(type, z);
+        fill(Z_TOP_COLOR, z);
+        fill(Z_TOP_VALUE, z);
+        fill(Z_CURRENT, z);
+        fill(Z_PASSES, z);
+        Z_REVERSED = z.nextLong();
+        Z_DARK = z.nextLong();
+    }
+
+    private static void fill(long[] keys, Random z) {
+        for (int i = 0; i < keys.length; i++) keys[i] = z.nextLong();
+    }
+
+    private static int effectOf(Card.Value value) {
+        switch (value) {
+            case SKIP: return SKIP;
+            case REVERSE: return REVERSE;
+            case DRAW_ONE: return DRAW_ONE;
+            case FLIP: return FLIP;
+            case WILD: return WILD;
+            case WILD_DRAW_TWO: return WILD_DRAW_TWO;
+            case DRAW_FIVE: return DRAW_FIVE;
+            case SKIP_EVERYONE: return SKIP_EVERYONE;
+            case WILD_DRAW_COLOR: return WILD_DRAW_COLOR;
+            default: return NUMBER;
+        }
+    }
+
+    /**
+     * @return the type index of a card, from its light face
+     */
+    static int typeOf(Card card) {
+        if (card.getLightColor() == Card.Color.WILD) {
+            return card.getLightValue() == Card.Value.WILD ? WILD_TYPE : WILD_DRAW_TYPE;
+        }
+        int face = 0;
+        while (LIGHT_FACES[face] != card.getLightValue()) face++;
+        return card.getLightColor().ordinal() * LIGHT_FACES.length + face;
+    }
+
+    /**
+     * @return the palette index of a color on either side, or NO_COLOR for WILD
+     */
+    static int colorIndex(Card.Color color) {
+        for (Card.Color[] palette : PALETTES) {
+            for (int i = 0; i < palette.length; i++) {
+                if (palette[i] == color) return i;
+            }
+        }
+        return NO_COLOR;
+    }
+
+    /**
+     * The move chosen by a solve
+     */
+    public static final class Decision {
+        /** index into the hand of the card to play, or -1 to draw */
+        public final int handIndex;
+        /** color to name for a wild, or null */
+        public final Card.Color color;
+        /** estimated chance of winning the round after this move */
+        public final double winProbability;
+
+        Decision(int handIndex, Card.Color color, double winProbability) {
+            this.handIndex = handIndex;
+            this.color = color;
+            this.winProbability = winProbability;
+        }
+    }
+
+    /** Nodes each deepening step may visit */
+    public static final long DEFAULT_NODE_BUDGET = 60_000;
+
+    // settings
+    private int determinizations = 24;
+    private long nodeBudget = DEFAULT_NODE_BUDGET;
+    private int maxChanceDepth = 3;
+    private int maxPlies = 12;
+    private static final double SIZE_WEIGHT = 0.8;
+
+    // transposition table
+    private static final int TT_BITS = 16;
+    private static final int TT_MASK = (1 << TT_BITS) - 1;
+    private static final byte EXACT = 1, LOWER = 2, UPPER = 3;
+    private final long[] ttKey = new long[1 << TT_BITS];
+    private final float[] ttValue = new float[1 << TT_BITS];
+    private final byte[] ttFlag = new byte[1 << TT_BITS];
+    private final byte[] ttChance = new byte[1 << TT_BITS];
+    private final byte[] ttPlies = new byte[1 << TT_BITS];
+    private final short[] ttMove = new short[1 << TT_BITS];
+
+    // position being searched
+    private int n;
+    private int root;
+    private final int[][] hand = new int[4][TYPES];
+    private final int[] handSize = new int[4];
+    private final int[] deck = new int[TYPES];
+    private int deckTotal;
+    private int deckLeft;
+    private int[] order;
+    private int orderPos;
+    private int topColor;
+    private int topValue;
+    private int current;
+    private int dir;
+    private int side;
+    private int passes;
+    private long hash;
+
+    private int[][] moveBuffer = new int[maxPlies + 1][MAX_MOVES];
+    private int[][] orderBuffer = new int[maxPlies + 1][MAX_MOVES];
+    private long nodes;
+    private long nodeLimit;
+    private boolean aborted;
+    private int completedDepth;
+
+    public void setDeterminizations(int determinizations) {
+        this.determinizations = Math.max(1, determinizations);
+    }
+
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = Math.max(1, nodeBudget);
+    }
+
+    public void setMaxChanceDepth(int maxChanceDepth) {
+        this.maxChanceDepth = Math.max(0, Math.min(Byte.MAX_VALUE, maxChanceDepth));
+    }
+
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = Math.max(1, Math.min(Byte.MAX_VALUE, maxPlies));
+        this.moveBuffer = new int[this.maxPlies + 1][MAX_MOVES];
+        this.orderBuffer = new int[this.maxPlies + 1][MAX_MOVES];
+    }
+
+    /**
+     * @return nodes searched by the last solve
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return draws per line reached by the last finished iteration of the last solve
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Picks a move for the player on turn
+     * @param state the game state, only the hand sizes of other players are used
+     * @param ownHand the hand of the player on turn
+     * @param random source for dealing the unseen cards
+     * @return the decision, or null if the position cannot be searched
+     */
+    public Decision solve(GameState state, List<Card> ownHand, Random random) {
+        return solve(state, ownHand, random, null);
+    }
+
+    /**
+     * Picks a move for the player on turn, dealing the opponents' hands from what the
+     * player has inferred about them instead of uniformly from the unseen cards
+     * @param beliefs the opponent model of the player on turn, or null for uniform deals
+     * @return the decision, or null if the position cannot be searched
+     */
+    public Decision solve(GameState state, List<Card> ownHand, Random random, OpponentModel beliefs) {
+        nodes = 0;
+        completedDepth = -1;
+        if (state.topDiscard == null) {
+            return null;
+        }
+
+        n = state.players.size();
+        root = state.currentPlayerIndex;
+        dir = state.clockwise ? 1 : -1;
+        side = state.currentSide == Card.Side.DARK ? 1 : 0;
+
+        int[] own = new int[TYPES];
+        int[] ownIndex = new int[TYPES];
+        Arrays.fill(ownIndex, -1);
+        for (int i = ownHand.size() - 1; i >= 0; i--) {
+            int t = typeOf(ownHand.get(i));
+            own[t]++;
+            ownIndex[t] = i;
+            if (own[t] > FULL_DECK[t]) {
+                return null; // not a hand dealt from one deck
+            }
+        }
+
+        int rootTopColor = colorIndex(state.topDiscard.getColor());
+        int rootTopValue = state.topDiscard.getValue().ordinal();
+
+        // root moves are the same in every deal; equal values go to the earlier move
+        int[] rootMoves = new int[MAX_MOVES];
+        int rootCount = collectMoves(own, rootTopColor, rootTopValue, rootMoves, new int[MAX_MOVES]);
+        if (rootCount == 0) {
+            return new Decision(-1, null, Double.NaN);
+        }
+        if (rootCount == 1) {
+            return decision(rootMoves[0], ownIndex, Double.NaN);
+        }
+
+        // deal the unseen cards to the opponents once, reused by every iteration
+        int[][] deals = new int[determinizations][];
+        if (beliefs != null && beliefs.getObserver() == root) {
+            int[] unseen = beliefs.unseenCounts();
+            int[][] sampled = new int[n][TYPES];
+            for (int d = 0; d < determinizations; d++) {
+                if (!beliefs.sampleHands(random, sampled)) break;
+                deals[d] = deal(unseen, sampled, state.players, random);
+            }
+        }
+        if (deals[0] == null) {
+            int[] unseen = FULL_DECK.clone();
+            for (int t = 0; t < TYPES; t++) unseen[t] = Math.max(0, unseen[t] - own[t]);
+            int topType = typeOf(state.topDiscard);
+            unseen[topType] = Math.max(0, unseen[topType] - 1);
+            for (int d = 0; d < determinizations; d++) {
+                deals[d] = deal(unseen, random);
+            }
+        }
+
+        Arrays.fill(ttKey, 0L);
+        double[] best = null;
+        int bestDeals = 0;
+        for (int depth = 0; depth <= maxChanceDepth; depth++) {
+            nodeLimit = nodeBudget;
+            aborted = false;
+            double[] totals = new double[rootCount];
+            double[] values = new double[rootCount];
+            int solved = 0;
+            for (int d = 0; d < determinizations && !aborted; d++) {
+                load(deals[d], own, state.players, rootTopColor, rootTopValue);
+                deckLeft = Math.min(state.deckSize, deckTotal);
+                for (int m = 0; m < rootCount && !aborted; m++) {
+                    values[m] = play(rootMoves[m], depth, maxPlies - 1, 0.0, 1.0);
+                }
+                if (aborted) break;
+                for (int m = 0; m < rootCount; m++) totals[m] += values[m];
+                solved++;
+            }
+            if (aborted && best != null) break;
+            if (solved > 0) {
+                // the first depth keeps whatever deals it finished
+                best = totals;
+                bestDeals = solved;
+                completedDepth = depth;
+            }
+            if (aborted) break;
+        }
+        if (best == null) {
+            return null;
+        }
+
+        int bestMove = 0;
+        for (int m = 1; m < rootCount; m++) {
+            if (best[m] > best[bestMove] + 1e-9) bestMove = m;
+        }
+        return decision(rootMoves[bestMove], ownIndex, best[bestMove] / bestDeals);
+    }
+
+    private Decision decision(int move, int[] ownIndex, double value) {
+        int t = move / 5;
+        int c = move % 5;
+        return new Decision(ownIndex[t], c == NO_COLOR ? null : PALETTES[side][c], value);
+    }
+
+    /**
+     * Shuffles the unseen cards; the opponents' hands are dealt from the front and the
+     * rest is the order in which draws past the exact chance depth are taken
+     */
+    private static int[] deal(int[] unseen, Random random) {
+        int total = 0;
+        for (int count : unseen) total += count;
+        int[] cards = new int[total];
+        int k = 0;
+        for (int t = 0; t < TYPES; t++) {
+            for (int i = 0; i < unseen[t]; i++) cards[k++] = t;
+        }
+        for (int i = total - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = cards[j];
+            cards[j] = cards[i];
+            cards[i] = swap;
+        }
+        return cards;
+    }
+
+    /**
+     * Lays out sampled opponent hands in seat order the way {@link #load} deals them,
+     * followed by the rest of the unseen cards shuffled; a sampled hand that is short of
+     * the real size is topped up from the shuffled rest
+     */
+    private int[] deal(int[] unseen, int[][] sampled, List<Player> players, Random random) {
+        int[] rest = unseen.clone();
+        int[] hands = new int[cardsInOpponentHands(players)];
+        int[] shortBy = new int[n];
+        int k = 0;
+        for (int p = 0; p < n; p++) {
+            if (p == root) continue;
+            int size = players.get(p).getHandSize();
+            int dealt = 0;
+            for (int t = 0; t < TYPES && dealt < size; t++) {
+                for (int c = 0; c < sampled[p][t] && dealt < size && rest[t] > 0; c++, dealt++) {
+                    hands[k++] = t;
+                    rest[t]--;
+                }
+            }
+            shortBy[p] = size - dealt;
+            k += shortBy[p]; // filled below
+        }
+        int[] shuffled = deal(rest, random);
+
+        int[] cards = new int[hands.length + shuffled.length];
+        int from = 0;
+        int out = 0;
+        k = 0;
+        for (int p = 0; p < n; p++) {
+            if (p == root) continue;
+            int size = players.get(p).getHandSize();
+            for (int i = 0; i < size - shortBy[p]; i++) cards[out++] = hands[k++];
+            k += shortBy[p];
+            for (int i = 0; i < shortBy[p] && from < shuffled.length; i++) cards[out++] = shuffled[from++];
+        }
+        System.arraycopy(shuffled, from, cards, out, shuffled.length - from);
+        return Arrays.copyOf(cards, out + shuffled.length - from);
+    }
+
+    private int cardsInOpponentHands(List<Player> players) {
+        int total = 0;
+        for (int p = 0; p < n; p++) {
+            if (p != root) total += players.get(p).getHandSize();
+        }
+        return total;
+    }
+
+    private void load(int[] cards, int[] own, List<Player> players, int rootTopColor, int rootTopValue) {
+        hash = 0;
+        int next = 0;
+        for (int p = 0; p < n; p++) {
+            Arrays.fill(hand[p], 0);
+            handSize[p] = 0;
+            if (p == root) {
+                System.arraycopy(own, 0, hand[p], 0, TYPES);
+                handSize[p] = players.get(p).getHandSize();
+            } else {
+                int size = players.get(p).getHandSize();
+                for (int i = 0; i < size && next < cards.length; i++) {
+                    hand[p][cards[next++]]++;
+                    handSize[p]++;
+                }
+            }
+            for (int t = 0; t < TYPES; t++) hash ^= Z_HAND[p][t][hand[p][t]];
+        }
+
+        Arrays.fill(deck, 0);
+        order = cards;
+        orderPos = next;
+        deckTotal = cards.length - next;
+        for (int i = next; i < cards.length; i++) deck[cards[i]]++;
+        for (int t = 0; t < TYPES; t++) hash ^= Z_DECK[t][deck[t]];
+
+        topColor = rootTopColor;
+        topValue = rootTopValue;
+        current = root;
+        passes = 0;
+    }
+
+    /**
+     * Takes the next card of the sampled order that is still in the deck
+     * @return the type, or -1 if the order is used up
+     */
+    private int nextSampled() {
+        while (orderPos < order.length && deck[order[orderPos]] == 0) orderPos++;
+        return orderPos < order.length ? order[orderPos++] : -1;
+    }
+
+    private boolean playable(int t, int color, int value) {
+        int c = COLOR[side][t];
+        return c == NO_COLOR || c == color || VALUE[side][t] == value;
+    }
+
+    /**
+     * @return the seat after this one, as {@link GameModel} passes the turn
+     */
+    private int advance(int seat) {
+        return GameModel.nextSeat(seat, dir > 0, n);
+    }
+
+    /**
+     * Chance of the solving player winning from a position nobody searched further,
+     * fewer cards in hand count for more
+     */
+    private double evaluate(int extraSeat, int extra) {
+        double own = 0;
+        double total = 0;
+        for (int p = 0; p < n; p++) {
+            int size = handSize[p] + (p == extraSeat ? extra : 0);
+            double w = Math.exp(-SIZE_WEIGHT * (p == current ? size - 0.5 : size));
+            total += w;
+            if (p == root) own = w;
+        }
+        return own / total;
+    }
+
+    private long positionKey() {
+        long key = hash ^ Z_TOP_COLOR[topColor] ^ Z_TOP_VALUE[topValue] ^ Z_CURRENT[current]
+                ^ Z_PASSES[Math.min(passes, Z_PASSES.length - 1)] ^ orderPos * 0x9E3779B97F4A7C15L;
+        if (dir < 0) key ^= Z_REVERSED;
+        if (side == 1) key ^= Z_DARK;
+        return key;
+    }
+
+    /**
+     * Decision node for the player on turn
+     */
+    private double search(int chance, int plies, double alpha, double beta) {
+        if (++nodes > nodeLimit || (nodes & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+            aborted = true;
+            return 0.5;
+        }
+        if (plies <= 0) {
+            return evaluate(-1, 0);
+        }
+        if (passes >= n) {
+            return 1.0 / n; // nobody can play or draw, the round is redealt
+        }
+
+        long key = positionKey();
+        int slot = (int) key & TT_MASK;
+        int ttBest = -1;
+        if (ttKey[slot] == key) {
+            ttBest = ttMove[slot];
+            if (ttChance[slot] >= chance && ttPlies[slot] >= plies) {
+                double v = ttValue[slot];
+                byte flag = ttFlag[slot];
+                if (flag == EXACT) return v;
+                if (flag == LOWER && v >= beta) return v;
+                if (flag == UPPER && v <= alpha) return v;
+            }
+        }
+
+        int count = generateMoves(plies, ttBest);
+        if (count == 0) {
+            return drawOrPass(chance, plies);
+        }
+
+        boolean maximizing = current == root;
+        double alphaStart = alpha;
+        double betaStart = beta;
+        double bestValue = maximizing ? -1.0 : 2.0;
+        int bestMove = moveBuffer[plies][0];
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[plies][i];
+            double v = play(move, chance, plies - 1, alpha, beta);
+            if (aborted) return 0.5;
+            if (maximizing ? v > bestValue : v < bestValue) {
+                bestValue = v;
+                bestMove = move;
+            }
+            if (maximizing) alpha = Math.max(alpha, v);
+            else beta = Math.min(beta, v);
+            if (alpha >= beta) break;
+        }
+
+        ttKey[slot] = key;
+        ttValue[slot] = (float) bestValue;
+        ttFlag[slot] = bestValue <= alphaStart ? UPPER : bestValue >= betaStart ? LOWER : EXACT;
+        ttChance[slot] = (byte) chance;
+        ttPlies[slot] = (byte) plies;
+        ttMove[slot] = (short) bestMove;
+        return bestValue;
+    }
+
+    /**
+     * Lists the playable moves for the player on turn, the table move first
+     * @return the number of moves
+     */
+    private int generateMoves(int plies, int ttBest) {
+        int[] moves = moveBuffer[plies];
+        int count = collectMoves(hand[current], topColor, topValue, moves, orderBuffer[plies]);
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == ttBest) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = ttBest;
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lists the cards in a hand that fit the top card, wilds once per color, ordered
+     * attacks first, then reverses and flips, numbers and wilds; wild colors held in
+     * the hand come first
+     * @return the number of moves
+     */
+    private int collectMoves(int[] h, int color, int value, int[] moves, int[] order) {
+        int count = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (h[t] == 0 || !playable(t, color, value)) continue;
+            int effect = EFFECT[side][t];
+            int score = effect == NUMBER ? 10 : effect == REVERSE || effect == FLIP ? 20 : effect == WILD ? 0 : 30;
+            if (COLOR[side][t] == NO_COLOR) {
+                for (int c = 0; c < 4; c++) {
+                    int held = 0;
+                    for (int u = c * LIGHT_FACES.length; u < (c + 1) * LIGHT_FACES.length; u++) held += h[u];
+                    moves[count] = t * 5 + c;
+                    order[count++] = score + 2 * held;
+                }
+            } else {
+                moves[count] = t * 5 + NO_COLOR;
+                order[count++] = score;
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            int m = moves[i];
+            int o = order[i];
+            int j = i - 1;
+            while (j >= 0 && order[j] < o) {
+                moves[j + 1] = moves[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            order[j + 1] = o;
+        }
+        return count;
+    }
+
+    /**
+     * Plays a card for the player on turn, applies its effect and searches on
+     */
+    private double play(int move, int chance, int plies, double alpha, double beta) {
+        int t = move / 5;
+        int chosen = move % 5;
+        int mover = current;
+
+        int savedTopColor = topColor;
+        int savedTopValue = topValue;
+        int savedDir = dir;
+        int savedSide = side;
+        int savedPasses = passes;
+
+        removeFromHand(mover, t);
+        double value;
+        if (handSize[mover] == 0) {
+            value = mover == root ? 1.0 : 0.0;
+        } else {
+            topColor = COLOR[side][t] == NO_COLOR ? chosen : COLOR[side][t];
+            topValue = VALUE[side][t];
+            passes = 0;
+
+            int target;
+            switch (EFFECT[side][t]) {
+                case SKIP:
+                    current = advance(advance(mover));
+                    value = search(chance, plies, alpha, beta);
+                    break;
+                case REVERSE:
+                    dir = -dir;
+                    current = n == 2 ? mover : advance(mover);
+                    value = search(chance, plies, alpha, beta);
+                    break;
+                case FLIP:
+                    side ^= 1;
+                    topValue = VALUE[side][t];
+                    current = advance(mover);
+                    value = search(chance, plies, alpha, beta);
+                    break;
+                case SKIP_EVERYONE:
+                    current = mover;
+                    value = search(chance, plies, alpha, beta);
+                    break;
+                case DRAW_ONE:
+                    target = advance(mover);
+                    value = penalty(target, 1, -1, advance(target), chance, plies, alpha, beta);
+                    break;
+                case WILD_DRAW_TWO:
+                    target = advance(mover);
+                    value = penalty(target, 2, -1, advance(target), chance, plies, alpha, beta);
+                    break;
+                case DRAW_FIVE:
+                    // as GameModel.handleDrawFive: on to the target, past them once they
+                    // have drawn, then once more when the turn ends
+                    target = advance(mover);
+                    value = penalty(target, 5, -1, advance(advance(target)), chance, plies, alpha, beta);
+                    break;
+                case WILD_DRAW_COLOR:
+                    // moves the turn as DRAW_FIVE does
+                    target = advance(mover);
+                    value = penalty(target, WILD_DRAW_COLOR_LIMIT, chosen, advance(advance(target)),
+                            chance, plies, alpha, beta);
+                    break;
+                default:
+                    current = advance(mover);
+                    value = search(chance, plies, alpha, beta);
+                    break;
+            }
+        }
+
+        current = mover;
+        topColor = savedTopColor;
+        topValue = savedTopValue;
+        dir = savedDir;
+        side = savedSide;
+        passes = savedPasses;
+        addToHand(mover, t);
+        return value;
+    }
+
+    /**
+     * Chance node for cards a player is forced to draw
+     * @param remaining cards still to draw
+     * @param untilColor for Wild Draw Color, drawing stops at this color; -1 otherwise
+     * @param next the player on turn once the drawing is done
+     */
+    private double penalty(int target, int remaining, int untilColor, int next,
+                           int chance, int plies, double alpha, double beta) {
+        if (remaining == 0 || deckLeft == 0 || deckTotal == 0) {
+            int saved = current;
+            current = next;
+            double v = search(chance, plies, alpha, beta);
+            current = saved;
+            return v;
+        }
+        if (chance == 0) {
+            int savedPos = orderPos;
+            int t = nextSampled();
+            if (t < 0) {
+                orderPos = savedPos;
+                return penalty(target, 0, untilColor, next, 0, plies, alpha, beta);
+            }
+            drawFromDeck(target, t);
+            int left = untilColor >= 0 && COLOR[side][t] == untilColor ? 0 : remaining - 1;
+            double v = penalty(target, left, untilColor, next, 0, plies, alpha, beta);
+            returnToDeck(target, t);
+            orderPos = savedPos;
+            return v;
+        }
+
+        nodes++;
+        double sum = 0;
+        int total = deckTotal;
+        for (int t = 0; t < TYPES && !aborted; t++) {
+            int copies = deck[t];
+            if (copies == 0) continue;
+            drawFromDeck(target, t);
+            int left = untilColor >= 0 && COLOR[side][t] == untilColor ? 0 : remaining - 1;
+            sum += copies * penalty(target, left, untilColor, next, chance - 1, plies, 0.0, 1.0);
+            returnToDeck(target, t);
+        }
+        return sum / total;
+    }
+
+    /**
+     * The player on turn has nothing to play: draw a card and play it if possible,
+     * or pass when the deck is empty
+     */
+    private double drawOrPass(int chance, int plies) {
+        int mover = current;
+        if (deckLeft == 0 || deckTotal == 0) {
+            passes++;
+            current = advance(mover);
+            double v = search(chance, plies - 1, 0.0, 1.0);
+            current = mover;
+            passes--;
+            return v;
+        }
+
+        int savedPasses = passes;
+        passes = 0;
+        double v;
+        if (chance == 0) {
+            int savedPos = orderPos;
+            int t = nextSampled();
+            v = t < 0 ? evaluate(mover, 1) : afterDraw(mover, t, 0, plies);
+            orderPos = savedPos;
+        } else {
+            nodes++;
+            double sum = 0;
+            int total = deckTotal;
+            for (int t = 0; t < TYPES && !aborted; t++) {
+                int copies = deck[t];
+                if (copies > 0) sum += copies * afterDraw(mover, t, chance - 1, plies);
+            }
+            v = sum / total;
+        }
+        passes = savedPasses;
+        return v;
+    }
+
+    /**
+     * The mover draws one card of the given type and plays it if it fits
+     */
+    private double afterDraw(int mover, int t, int chance, int plies) {
+        drawFromDeck(mover, t);
+        double v;
+        if (playable(t, topColor, topValue)) {
+            if (COLOR[side][t] == NO_COLOR) {
+                boolean maximizing = mover == root;
+                v = maximizing ? -1.0 : 2.0;
+                for (int c = 0; c < 4; c++) {
+                    double option = play(t * 5 + c, chance, plies - 1, 0.0, 1.0);
+                    v = maximizing ? Math.max(v, option) : Math.min(v, option);
+                }
+            } else {
+                v = play(t * 5 + NO_COLOR, chance, plies - 1, 0.0, 1.0);
+            }
+        } else {
+            current = advance(mover);
+            v = search(chance, plies - 1, 0.0, 1.0);
+            current = mover;
+        }
+        returnToDeck(mover, t);
+        return v;
+    }
+
+    private void removeFromHand(int p, int t) {
+        hash ^= Z_HAND[p][t][hand[p][t]];
+        hand[p][t]--;
+        hash ^= Z_HAND[p][t][hand[p][t]];
+        handSize[p]--;
+    }
+
+    private void addToHand(int p, int t) {
+        hash ^= Z_HAND[p][t][hand[p][t]];
+        hand[p][t]++;
+        hash ^= Z_HAND[p][t][hand[p][t]];
+        handSize[p]++;
+    }
+
+    private void drawFromDeck(int p, int t) {
+        hash ^= Z_DECK[t][deck[t]];
+        deck[t]--;
+        hash ^= Z_DECK[t][deck[t]];
+        deckTotal--;
+        deckLeft--;
+        addToHand(p, t);
+    }
+
+    private void returnToDeck(int p, int t) {
+        removeFromHand(p, t);
+        hash ^= Z_DECK[t][deck[t]];
+        deck[t]++;
+        hash ^= Z_DECK[t][deck[t]];
+        deckTotal++;
+        deckLeft++;
+    }
+}
@@ -0,0 +1,737 @@
+package model;
+
+import controller.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static model.EndgameSolver.COLOR;
+import static model.EndgameSolver.EFFECT;
+import static model.EndgameSolver.TYPES;
+import static model.EndgameSolver.VALUE;
+
+/**
+ * Looks a few turns ahead with depth-limited expectimax, for positions where too many
+ * cards are hidden for the endgame solver.
+ *
+ * Only the searching player's hand is known. Its own moves, the color named for a wild
+ * included, are decision nodes. Every other player's turn is a chance node: they play
+ * each card type that fits with the chance of holding it, given how many copies are
+ * unseen and how many cards they hold, or draw when they probably hold nothing that
+ * fits. A card the searching player draws is a chance node over the unseen types too.
+ * Cards forced on it by a draw penalty only count towards its hand size, since a five
+ * card draw would multiply the tree for little gain. Leaves are scored by a logistic
+ * model of the hand sizes and the kinds of cards held, fitted to HARD self-play; a
+ * plain hand size count made the search spend attack cards and wilds as soon as it saw
+ * their effect, since holding them was worth nothing at the horizon.
+ *
+ * Values are win chances between 0 and 1, which bounds every chance node: children are
+ * searched with Star1 windows derived from those bounds, and before that every outcome
+ * is probed with a single move (Star2), which gives lower bounds that can cut the node
+ * without a full search. Moves are ordered by a history table of moves that were best
+ * or caused a cutoff, and the search deepens one turn at a time until its node budget
+ * is spent, keeping the last depth it finished; interrupting the thread ends it the same
+ * way, within a thousand nodes. A caller can name the card its own
+ * strategy would play; that card is kept unless another move wins clearly more often.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class ExpectimaxSearch {
+
+    /** Turns searched by AIPlayer unless configured otherwise */
+    public static final int DEFAULT_DEPTH = 6;
+    /** Nodes a search may visit before it stops deepening */
+    public static final long DEFAULT_NODE_BUDGET = 40_000;
+
+    private static final int NO_COLOR = 4;
+    private static final int FACES = 14;
+    private static final int MAX_MOVES = 64;
+    private static final int MAX_DEPTH = 32;
+    /** Outcome of a chance node where the player draws instead of playing */
+    private static final int DRAWS = TYPES;
+
+    // leaf evaluation, logistic regression weights
+    private static final double EVAL_BIAS = 1.285;
+    private static final double EVAL_OWN_SIZE = -0.302;
+    private static final double EVAL_SMALLEST_OPPONENT = 0.158;
+    private static final double EVAL_NEXT_OPPONENT = 0.047;
+    private static final double EVAL_WILDS = 0.800;
+    private static final double EVAL_DRAWS = 0.339;
+    private static final double EVAL_SKIPS = 0.161;
+    private static final double EVAL_ON_TURN = 0.160;
+    private static final double EVAL_PLAYERS = -0.456;
+    private static final double EVAL_COLORS = -0.207;
+    private static final double EVAL_FITTING = 0.098;
+    private static final double LOWEST = 0.0;
+    private static final double HIGHEST = 1.0;
+    /** Win chance another move needs over the preferred card to replace it */
+    private static final double PREFERENCE_MARGIN = 0.03;
+
+    // settings
+    private int maxDepth = DEFAULT_DEPTH;
+    private long nodeBudget = DEFAULT_NODE_BUDGET;
+    private boolean pruning = true;
+
+    // position being searched
+    private int n;
+    private int root;
+    private final int[] own = new int[TYPES];
+    private final int[] handSize = new int[4];
+    private final int[] unseen = new int[TYPES];
+    private int unseenTotal;
+    private int deckLeft;
+    private int topColor;
+    private int topValue;
+    private int current;
+    private int dir;
+    private int side;
+    private int passes;
+
+    // move ordering and per-depth buffers
+    private final int[] history = new int[TYPES * 5];
+    private final int[][] moveBuffer = new int[MAX_DEPTH + 1][MAX_MOVES];
+    private final int[][] orderBuffer = new int[MAX_DEPTH + 1][MAX_MOVES];
+    private final int[][] outcomeType = new int[MAX_DEPTH + 1][TYPES + 1];
+    private final double[][] outcomeChance = new double[MAX_DEPTH + 1][TYPES + 1];
+    private final double[][] outcomeLower = new double[MAX_DEPTH + 1][TYPES + 1];
+
+    private boolean probing;
+    private long nodes;
+    private boolean aborted;
+    private int completedDepth;
+
+    /**
+     * @param maxDepth turns to look ahead at most, own and other players' alike
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, Math.min(MAX_DEPTH, maxDepth));
+    }
+
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = Math.max(1, nodeBudget);
+    }
+
+    /**
+     * @param pruning false searches every node, for measuring what the Star1/Star2 bounds save
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    /**
+     * @return nodes searched by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return turns reached by the last finished iteration of the last search, -1 if none
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Picks a move for the player on turn
+     * @param state the game state, only the hand sizes of other players are used
+     * @param ownHand the hand of the player on turn
+     * @param beliefs the opponent model of the player on turn, for the cards it has seen
+     *                played; null counts only its own hand and the top card as seen
+     * @return the decision, or null if the position cannot be searched
+     */
+    public EndgameSolver.Decision search(GameState state, List<Card> ownHand, OpponentModel beliefs) {
+        return search(state, ownHand, beliefs, -1);
+    }
+
+    /**
+     * Picks a move for the player on turn, keeping a preferred card unless another move
+     * is better by a clear margin
+     * @param preferred hand index of the card another strategy would play, or -1 for none
+     * @return the decision, or null if the position cannot be searched
+     */
+    public EndgameSolver.Decision search(GameState state, List<Card> ownHand, OpponentModel beliefs,
+                                         int preferred) {
+        nodes = 0;
+        completedDepth = -1;
+        if (state.topDiscard == null || !load(state, ownHand, beliefs)) {
+            return null;
+        }
+
+        int[] ownIndex = new int[TYPES];
+        Arrays.fill(ownIndex, -1);
+        for (int i = ownHand.size() - 1; i >= 0; i--) {
+            ownIndex[EndgameSolver.typeOf(ownHand.get(i))] = i;
+        }
+
+        int[] rootMoves = new int[MAX_MOVES];
+        int rootCount = collectMoves(rootMoves, new int[MAX_MOVES]);
+        if (rootCount == 0) {
+            return new EndgameSolver.Decision(-1, null, Double.NaN);
+        }
+        if (rootCount == 1) {
+            return decision(rootMoves[0], ownIndex, Double.NaN);
+        }
+
+        // the preferred card goes first, in every color if it is a wild
+        int preferredType = preferred >= 0 && preferred < ownHand.size()
+                ? EndgameSolver.typeOf(ownHand.get(preferred)) : -1;
+        int preferredMoves = 0;
+        for (int m = 0; m < rootCount; m++) {
+            if (rootMoves[m] / 5 == preferredType) {
+                int move = rootMoves[m];
+                System.arraycopy(rootMoves, preferredMoves, rootMoves, preferredMoves + 1, m - preferredMoves);
+                rootMoves[preferredMoves++] = move;
+            }
+        }
+
+        // older searches only hint at the order
+        for (int i = 0; i < history.length; i++) history[i] >>= 2;
+
+        int best = rootMoves[0];
+        double bestValue = Double.NaN;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int iterationBest = rootMoves[0];
+            double iterationValue = LOWEST - 1;
+            double bar = LOWEST - 1; // what the next move has to beat
+            for (int m = 0; m < rootCount && !aborted && bar < HIGHEST; m++) {
+                double v = play(root, rootMoves[m] / 5, rootMoves[m] % 5, depth - 1, Math.max(LOWEST, bar), HIGHEST);
+                if (!aborted && v > bar) {
+                    iterationValue = v;
+                    iterationBest = rootMoves[m];
+                    bar = v;
+                }
+                if (m == preferredMoves - 1) {
+                    bar = iterationValue + PREFERENCE_MARGIN; // other cards have to beat it clearly
+                }
+            }
+            if (aborted) break;
+            best = iterationBest;
+            bestValue = iterationValue;
+            completedDepth = depth;
+            history[best] += depth * depth;
+
+            // the best move of this depth is tried first at the next, unless a preferred card is
+            if (preferredMoves == 0) {
+                for (int m = 0; m < rootCount; m++) {
+                    if (rootMoves[m] == best) {
+                        System.arraycopy(rootMoves, 0, rootMoves, 1, m);
+                        rootMoves[0] = best;
+                        break;
+                    }
+                }
+            }
+        }
+        return decision(best, ownIndex, bestValue);
+    }
+
+    private EndgameSolver.Decision decision(int move, int[] ownIndex, double value) {
+        int c = move % 5;
+        return new EndgameSolver.Decision(ownIndex[move / 5],
+                c == NO_COLOR ? null : EndgameSolver.PALETTES[side][c], value);
+    }
+
+    /**
+     * Sets up the root position
+     * @return false if the hand is not one that could be dealt from one deck
+     */
+    private boolean load(GameState state, List<Card> ownHand, OpponentModel beliefs) {
+        n = state.players.size();
+        root = state.currentPlayerIndex;
+        dir = state.clockwise ? 1 : -1;
+        side = state.currentSide == Card.Side.DARK ? 1 : 0;
+        topColor = EndgameSolver.colorIndex(state.topDiscard.getColor());
+        topValue = state.topDiscard.getValue().ordinal();
+        current = root;
+        passes = 0;
+        aborted = false;
+        probing = false;
+        deckLeft = state.deckSize;
+
+        Arrays.fill(own, 0);
+        for (Card card : ownHand) {
+            int t = EndgameSolver.typeOf(card);
+            if (++own[t] > EndgameSolver.FULL_DECK[t]) return false;
+        }
+        for (int p = 0; p < n; p++) {
+            handSize[p] = p == root ? ownHand.size() : state.players.get(p).getHandSize();
+        }
+
+        int[] counts = beliefs != null && beliefs.getObserver() == root ? beliefs.unseenCounts() : null;
+        if (counts == null || Arrays.stream(counts).sum() == 0) {
+            counts = EndgameSolver.FULL_DECK.clone();
+            for (int t = 0; t < TYPES; t++) counts[t] = Math.max(0, counts[t] - own[t]);
+            int topType = EndgameSolver.typeOf(state.topDiscard);
+            counts[topType] = Math.max(0, counts[topType] - 1);
+        }
+        System.arraycopy(counts, 0, unseen, 0, TYPES);
+        unseenTotal = 0;
+        for (int count : unseen) unseenTotal += count;
+        return true;
+    }
+
+    private boolean playable(int t) {
+        int c = COLOR[side][t];
+        return c == NO_COLOR || c == topColor || VALUE[side][t] == topValue;
+    }
+
+    private int advance(int seat) {
+        return (seat + dir + n) % n;
+    }
+
+    /**
+     * Chance of the searching player winning from a position nobody searched further: a
+     * logistic model of the hand sizes and the cards held, fitted to the round results of
+     * HARD self-play
+     */
+    private double evaluate() {
+        int minOpponent = Integer.MAX_VALUE;
+        for (int p = 0; p < n; p++) {
+            if (p != root) minOpponent = Math.min(minOpponent, handSize[p]);
+        }
+        int wilds = 0;
+        int draws = 0;
+        int skips = 0;
+        int fitting = 0;
+        int colors = 0;
+        for (int c = 0; c < NO_COLOR; c++) {
+            if (held(c) > 0) colors++;
+        }
+        for (int t = 0; t < TYPES; t++) {
+            if (own[t] == 0) continue;
+            int effect = EFFECT[side][t];
+            if (COLOR[side][t] == NO_COLOR) wilds += own[t];
+            if (effect == EndgameSolver.DRAW_ONE || effect == EndgameSolver.DRAW_FIVE) draws += own[t];
+            if (effect == EndgameSolver.SKIP || effect == EndgameSolver.SKIP_EVERYONE
+                    || (effect == EndgameSolver.REVERSE && n == 2)) skips += own[t];
+            if (playable(t)) fitting += own[t];
+        }
+
+        double z = EVAL_BIAS
+                + EVAL_OWN_SIZE * handSize[root]
+                + EVAL_SMALLEST_OPPONENT * minOpponent
+                + EVAL_NEXT_OPPONENT * handSize[advance(root)]
+                + EVAL_WILDS * wilds
+                + EVAL_DRAWS * draws
+                + EVAL_SKIPS * skips
+                + EVAL_ON_TURN * (current == root ? 1 : 0)
+                + EVAL_PLAYERS * n
+                + EVAL_COLORS * colors
+                + EVAL_FITTING * fitting;
+        return 1 / (1 + Math.exp(-z));
+    }
+
+    /**
+     * Node for the player on turn with the given number of turns left to search
+     */
+    private double search(int depth, double alpha, double beta) {
+        if (++nodes > nodeBudget || (nodes & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+            aborted = true;
+            return 0.5;
+        }
+        if (depth <= 0) {
+            return evaluate();
+        }
+        if (passes >= n) {
+            return 1.0 / n; // nobody can play or draw, the round is redealt
+        }
+        if (probing) {
+            // Star2 probe: one move of the searching player bounds the node from below
+            probing = false;
+            return current == root ? decide(depth, LOWEST, HIGHEST, true) : LOWEST;
+        }
+        return current == root ? decide(depth, alpha, beta, false) : reply(depth, alpha, beta);
+    }
+
+    /**
+     * Decision node of the searching player
+     * @param probe try only the first move, which gives a lower bound
+     */
+    private double decide(int depth, double alpha, double beta, boolean probe) {
+        int[] moves = moveBuffer[depth];
+        int count = generateMoves(depth);
+        if (count == 0) {
+            return probe ? LOWEST : drawOwn(depth, alpha, beta);
+        }
+
+        double best = LOWEST - 1;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            double v = play(root, moves[i] / 5, moves[i] % 5, depth - 1, Math.max(alpha, best), beta);
+            if (aborted) return 0.5;
+            if (v > best) {
+                best = v;
+                bestMove = moves[i];
+            }
+            if (probe || (pruning && best >= beta)) break;
+        }
+        history[bestMove] += depth * depth;
+        return best;
+    }
+
+    /**
+     * Lists the searching player's playable moves, wilds once per color, best history first
+     * @return the number of moves
+     */
+    private int generateMoves(int depth) {
+        int[] moves = moveBuffer[depth];
+        int[] order = orderBuffer[depth];
+        int count = collectMoves(moves, order);
+        for (int i = 0; i < count; i++) order[i] += Math.min(history[moves[i]], 1 << 20) << 8;
+        for (int i = 1; i < count; i++) {
+            int m = moves[i];
+            int o = order[i];
+            int j = i - 1;
+            while (j >= 0 && order[j] < o) {
+                moves[j + 1] = moves[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            moves[j + 1] = m;
+            order[j + 1] = o;
+        }
+        return count;
+    }
+
+    /**
+     * Lists the cards in the own hand that fit the top card with a static order: attacks,
+     * then reverses and flips, numbers and wilds, wild colors held in hand first
+     * @return the number of moves
+     */
+    private int collectMoves(int[] moves, int[] order) {
+        int count = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (own[t] == 0 || !playable(t)) continue;
+            int effect = EFFECT[side][t];
+            int score = effect == EndgameSolver.NUMBER ? 10
+                    : effect == EndgameSolver.REVERSE || effect == EndgameSolver.FLIP ? 20
+                    : effect == EndgameSolver.WILD ? 0 : 30;
+            if (COLOR[side][t] == NO_COLOR) {
+                for (int c = 0; c < NO_COLOR; c++) {
+                    moves[count] = t * 5 + c;
+                    order[count++] = score + 2 * held(c);
+                }
+            } else {
+                moves[count] = t * 5 + NO_COLOR;
+                order[count++] = score;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return cards of a color in the own hand
+     */
+    private int held(int color) {
+        int total = 0;
+        for (int t = color * FACES; t < (color + 1) * FACES; t++) total += own[t];
+        return total;
+    }
+
+    /**
+     * Chance node for another player's turn: each card type that fits, in proportion to
+     * its unseen copies, with the chance that the player holds any of them; drawing otherwise
+     */
+    private double reply(int depth, double alpha, double beta) {
+        int[] types = outcomeType[depth];
+        double[] chances = outcomeChance[depth];
+        int fitting = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (unseen[t] > 0 && playable(t)) fitting += unseen[t];
+        }
+
+        int count = 0;
+        double playChance = unseenTotal == 0 ? 0
+                : 1 - Math.pow(1 - (double) fitting / unseenTotal, handSize[current]);
+        for (int t = 0; t < TYPES; t++) {
+            if (unseen[t] > 0 && playable(t)) {
+                types[count] = t;
+                chances[count++] = playChance * unseen[t] / fitting;
+            }
+        }
+        if (playChance < 1) {
+            types[count] = DRAWS;
+            chances[count++] = 1 - playChance;
+        }
+        sortOutcomes(types, chances, count);
+        return chance(depth, count, false, alpha, beta);
+    }
+
+    /**
+     * Chance node for the searching player drawing because nothing fits, or passing
+     * when the deck is empty
+     */
+    private double drawOwn(int depth, double alpha, double beta) {
+        if (deckLeft == 0 || unseenTotal == 0) {
+            passes++;
+            current = advance(root);
+            double v = search(depth - 1, alpha, beta);
+            current = root;
+            passes--;
+            return v;
+        }
+
+        int[] types = outcomeType[depth];
+        double[] chances = outcomeChance[depth];
+        int count = 0;
+        for (int t = 0; t < TYPES; t++) {
+            if (unseen[t] > 0) {
+                types[count] = t;
+                chances[count++] = (double) unseen[t] / unseenTotal;
+            }
+        }
+        sortOutcomes(types, chances, count);
+        return chance(depth, count, true, alpha, beta);
+    }
+
+    private static void sortOutcomes(int[] types, double[] chances, int count) {
+        for (int i = 1; i < count; i++) {
+            int t = types[i];
+            double c = chances[i];
+            int j = i - 1;
+            while (j >= 0 && chances[j] < c) {
+                types[j + 1] = types[j];
+                chances[j + 1] = chances[j];
+                j--;
+            }
+            types[j + 1] = t;
+            chances[j + 1] = c;
+        }
+    }
+
+    /**
+     * Expected value over the outcomes listed for this depth, with Star2 probing and
+     * Star1 windows when pruning
+     * @param ownDraw whether the outcomes are cards drawn by the searching player
+     */
+    private double chance(int depth, int count, boolean ownDraw, double alpha, double beta) {
+        int[] types = outcomeType[depth];
+        double[] chances = outcomeChance[depth];
+        double[] lower = outcomeLower[depth];
+        if (!pruning) {
+            double sum = 0;
+            for (int i = 0; i < count && !aborted; i++) {
+                sum += chances[i] * outcome(types[i], depth, ownDraw, LOWEST, HIGHEST);
+            }
+            return aborted ? 0.5 : sum;
+        }
+
+        // Star2: a probe of every outcome gives lower bounds that may already reach beta
+        double lowerSum = 0;
+        for (int i = 0; i < count; i++) {
+            lower[i] = LOWEST;
+        }
+        if (beta < HIGHEST) {
+            for (int i = 0; i < count; i++) {
+                probing = true;
+                lower[i] = outcome(types[i], depth, ownDraw, LOWEST, HIGHEST);
+                probing = false;
+                if (aborted) return 0.5;
+                lowerSum += chances[i] * lower[i];
+                if (lowerSum >= beta) return lowerSum;
+            }
+        }
+
+        // Star1: each child gets the window that could still move the node past alpha or beta
+        double sum = 0;
+        double rest = 1.0;
+        double restLower = lowerSum;
+        for (int i = 0; i < count; i++) {
+            double p = chances[i];
+            rest -= p;
+            restLower -= p * lower[i];
+            double childAlpha = Math.max(LOWEST, (alpha - sum - rest * HIGHEST) / p);
+            double childBeta = Math.min(HIGHEST, (beta - sum - restLower) / p);
+            double v = outcome(types[i], depth, ownDraw, childAlpha, childBeta);
+            if (aborted) return 0.5;
+            sum += p * v;
+            if (sum + rest * HIGHEST <= alpha) return sum + rest * HIGHEST;
+            if (sum + restLower >= beta) return sum + restLower;
+        }
+        return sum;
+    }
+
+    private double outcome(int type, int depth, boolean ownDraw, double alpha, double beta) {
+        return ownDraw ? afterOwnDraw(type, depth, alpha, beta) : afterReply(type, depth, alpha, beta);
+    }
+
+    /**
+     * The searching player draws a card of the given type and plays it if it fits
+     */
+    private double afterOwnDraw(int t, int depth, double alpha, double beta) {
+        boolean probe = probing;
+        unseen[t]--;
+        unseenTotal--;
+        own[t]++;
+        handSize[root]++;
+        deckLeft--;
+
+        double v;
+        if (!playable(t)) {
+            current = advance(root);
+            v = search(depth - 1, alpha, beta);
+            current = root;
+        } else if (COLOR[side][t] == NO_COLOR) {
+            v = LOWEST - 1;
+            for (int c = 0; c < (probe ? 1 : NO_COLOR) && !aborted; c++) {
+                v = Math.max(v, play(root, t, c, depth - 1, Math.max(alpha, v), beta));
+            }
+        } else {
+            v = play(root, t, NO_COLOR, depth - 1, alpha, beta);
+        }
+
+        deckLeft++;
+        handSize[root]--;
+        own[t]--;
+        unseen[t]++;
+        unseenTotal++;
+        return v;
+    }
+
+    /**
+     * Another player plays a card of the given type, or draws
+     */
+    private double afterReply(int t, int depth, double alpha, double beta) {
+        int mover = current;
+        double v;
+        if (t == DRAWS) {
+            boolean pass = deckLeft == 0;
+            if (pass) passes++;
+            else {
+                handSize[mover]++;
+                deckLeft--;
+            }
+            current = advance(mover);
+            v = search(depth - 1, alpha, beta);
+            current = mover;
+            if (pass) passes--;
+            else {
+                handSize[mover]--;
+                deckLeft++;
+            }
+            return v;
+        }
+
+        unseen[t]--;
+        unseenTotal--;
+        v = play(mover, t, COLOR[side][t] == NO_COLOR ? scarcestColor() : NO_COLOR, depth - 1, alpha, beta);
+        unseen[t]++;
+        unseenTotal++;
+        return v;
+    }
+
+    /**
+     * @return the color the searching player holds fewest of, what an opponent would name
+     */
+    private int scarcestColor() {
+        int best = 0;
+        int fewest = Integer.MAX_VALUE;
+        for (int c = 0; c < NO_COLOR; c++) {
+            int count = held(c);
+            if (count < fewest) {
+                fewest = count;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays a card for a player, applies its effect and searches on
+     * @param chosen the color named for a wild, NO_COLOR otherwise
+     */
+    private double play(int mover, int t, int chosen, int depth, double alpha, double beta) {
+        int savedTopColor = topColor;
+        int savedTopValue = topValue;
+        int savedDir = dir;
+        int savedSide = side;
+        int savedPasses = passes;
+
+        if (mover == root) own[t]--;
+        handSize[mover]--;
+        double value;
+        if (handSize[mover] == 0) {
+            value = mover == root ? HIGHEST : LOWEST;
+        } else {
+            topColor = COLOR[side][t] == NO_COLOR ? chosen : COLOR[side][t];
+            topValue = VALUE[side][t];
+            passes = 0;
+
+            int target = advance(mover);
+            switch (EFFECT[side][t]) {
+                case EndgameSolver.SKIP:
+                    value = next(advance(target), depth, alpha, beta);
+                    break;
+                case EndgameSolver.REVERSE:
+                    dir = -dir;
+                    value = next(n == 2 ? mover : advance(mover), depth, alpha, beta);
+                    break;
+                case EndgameSolver.FLIP:
+                    side ^= 1;
+                    topValue = VALUE[side][t];
+                    value = next(target, depth, alpha, beta);
+                    break;
+                case EndgameSolver.SKIP_EVERYONE:
+                    value = next(mover, depth, alpha, beta);
+                    break;
+                case EndgameSolver.DRAW_ONE:
+                    value = penalty(target, 1, advance(target), depth, alpha, beta);
+                    break;
+                case EndgameSolver.WILD_DRAW_TWO:
+                    value = penalty(target, 2, advance(target), depth, alpha, beta);
+                    break;
+                case EndgameSolver.DRAW_FIVE:
+                    value = penalty(target, 5, advance(advance(target)), depth, alpha, beta);
+                    break;
+                case EndgameSolver.WILD_DRAW_COLOR:
+                    value = penalty(target, drawsUntil(chosen), advance(advance(target)), depth, alpha, beta);
+                    break;
+                default:
+                    value = next(target, depth, alpha, beta);
+                    break;
+            }
+        }
+
+        handSize[mover]++;
+        if (mover == root) own[t]++;
+        topColor = savedTopColor;
+        topValue = savedTopValue;
+        dir = savedDir;
+        side = savedSide;
+        passes = savedPasses;
+        return value;
+    }
+
+    private double next(int seat, int depth, double alpha, double beta) {
+        int saved = current;
+        current = seat;
+        double v = search(depth, alpha, beta);
+        current = saved;
+        return v;
+    }
+
+    /**
+     * A player takes a draw penalty; the cards only count towards the hand size
+     */
+    private double penalty(int target, int cards, int seat, int depth, double alpha, double beta) {
+        int drawn = Math.min(cards, deckLeft);
+        handSize[target] += drawn;
+        deckLeft -= drawn;
+        double v = next(seat, depth, alpha, beta);
+        deckLeft += drawn;
+        handSize[target] -= drawn;
+        return v;
+    }
+
+    /**
+     * @return cards expected to be drawn before one of the named color turns up, capped
+     *         like the game caps Wild Draw Color
+     */
+    private int drawsUntil(int color) {
+        int ofColor = 0;
+        for (int t = color * FACES; t < (color + 1) * FACES; t++) ofColor += unseen[t];
+        int expected = (int) Math.round((unseenTotal + 1.0) / (ofColor + 1.0));
+        return Math.min(EndgameSolver.WILD_DRAW_COLOR_LIMIT, expected);
+    }
+}
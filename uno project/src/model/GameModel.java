@@ -17,17 +17,30 @@ import controller.GameState;
 public class GameModel {
 
     private List<Player> players;
+    private Random random = new Random();
     private List<Card> discardPile;
     private Deck deck;
     private int currentPlayerIndex;
     private boolean isClockwise;
     private transient List<GameModelListener> listeners; // Don't serialize listeners
-    private static final int TARGET_SCORE = 500;
+    private final List<OpponentModel> opponentModels = new ArrayList<>(); // fed without copying state
+    private GameRules rules = GameRules.standard();
     private static final int INITIAL_HAND_SIZE = 7;
     private boolean currentTurnTaken = false;
     private Card.Side currentSide = Card.Side.LIGHT;
     private Stack<GameState> undoStack = new Stack<>();
     private Stack<GameState> redoStack = new Stack<>();
+    private long aiTurnDelayMillis = 3000;
+    private boolean recordHistory = true;
+    private transient SpeculativeAIPlanner planner;
+    private transient SearchBudgetController budgetController;
+    private boolean speculativeCopy = false;
+    private int roundsCompleted = 0;
+    private int lastRoundWinner = -1;
+    private int gameWinner = -1;
+    private int pendingDraw = 0; // stacked draw penalty waiting for the current player
+    private int cardsDrawn = 0;
+    private final AIDecisionContext aiContext = new AIDecisionContext(); // refilled every AI turn
 
     /**
      * Saves the current game state to a file
@@ -97,7 +110,7 @@ public class GameModel {
             this.players.add(player);
         }
 
-        this.deck = new Deck();
+        this.deck = new Deck(random);
         this.discardPile = new ArrayList<>();
         this.currentPlayerIndex = 0;
         this.isClockwise = true;
@@ -106,6 +119,89 @@ public class GameModel {
         this.redoStack = new Stack<GameState>();
     }
 
+    /**
+     * Creates a game with prepared players and a fixed shuffle seed,
+     * used to replay or compare AI players on identical deals.
+     *
+     * @param players the players in seat order
+     * @param seed the seed for every deck shuffled in this game
+     */
+    public GameModel(List<? extends Player> players, long seed) {
+        if (players == null || players.size() < 2 || players.size() > 4) {
+            throw new IllegalArgumentException("Game requires 2-4 players");
+        }
+
+        this.players = new ArrayList<>(players);
+        this.random = new Random(seed);
+        this.deck = new Deck(random);
+        this.discardPile = new ArrayList<>();
+        this.currentPlayerIndex = 0;
+        this.isClockwise = true;
+        this.listeners = new ArrayList<>();
+        this.undoStack = new Stack<GameState>();
+        this.redoStack = new Stack<GameState>();
+    }
+
+    /**
+     * Creates a listener-free copy of another model for background simulation.
+     * The copy does not record undo history, does not pause on AI turns and
+     * reports AI decisions to the source model's planner instead of asking it.
+     * Its AIs carry copies of their originals' opponent models.
+     *
+     * @param source the model to copy
+     */
+    private GameModel(GameModel source) {
+        this.players = new ArrayList<>();
+        for (Player original : source.players) {
+            this.players.add(copyPlayer(original));
+        }
+
+        this.discardPile = new ArrayList<>();
+        for (Card card : source.discardPile) {
+            this.discardPile.add(new Card(card));
+        }
+
+        this.deck = new Deck(source.deck);
+        this.currentPlayerIndex = source.currentPlayerIndex;
+        this.isClockwise = source.isClockwise;
+        this.currentTurnTaken = source.currentTurnTaken;
+        this.currentSide = source.currentSide;
+        this.rules = source.rules;
+        this.pendingDraw = source.pendingDraw;
+        this.listeners = new ArrayList<>();
+        this.undoStack = new Stack<GameState>();
+        this.redoStack = new Stack<GameState>();
+        this.recordHistory = false;
+        this.aiTurnDelayMillis = 0;
+        this.planner = source.planner;
+        this.budgetController = source.budgetController;
+        this.speculativeCopy = true;
+        copyOpponentModels(source);
+    }
+
+    /**
+     * Gives each copied AI a snapshot of its original's beliefs about the other hands,
+     * fed by this copy's events from here on, so its endgame search deals the same way
+     * the live AI would instead of uniformly. The originals are left untouched.
+     */
+    private void copyOpponentModels(GameModel source) {
+        for (int i = 0; i < players.size(); i++) {
+            Player original = source.players.get(i);
+            if (original instanceof AIPlayer && ((AIPlayer) original).getOpponentModel() != null) {
+                OpponentModel beliefs = new OpponentModel(((AIPlayer) original).getOpponentModel(), random.nextLong());
+                ((AIPlayer) players.get(i)).setOpponentModel(beliefs);
+                opponentModels.add(beliefs);
+            }
+        }
+    }
+
+    /**
+     * @return a deep copy of this model for speculative simulation
+     */
+    GameModel copyForSimulation() {
+        return new GameModel(this);
+    }
+
     public void startGame() {
         for (Player player : players) {
             for (int i = 0; i < INITIAL_HAND_SIZE; i++) {
@@ -126,7 +222,27 @@ public class GameModel {
             discardPile.add(firstCard);
         }
 
+        attachOpponentModels();
         fireModelInit();
+        speculateIfHumanTurn();
+    }
+
+    /**
+     * Gives every AI player that searches the endgame a model of the other hands,
+     * fed by this model's events. They are not listeners, so a game without a view
+     * still skips copying its state for every event.
+     */
+    private void attachOpponentModels() {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) instanceof AIPlayer) {
+                AIPlayer ai = (AIPlayer) players.get(i);
+                if (ai.getEndgameThreshold() > 0 && ai.getOpponentModel() == null) {
+                    OpponentModel beliefs = new OpponentModel(i, OpponentModel.DEFAULT_PARTICLES, random.nextLong());
+                    ai.setOpponentModel(beliefs);
+                    opponentModels.add(beliefs);
+                }
+            }
+        }
     }
 
     public void playCard(Player player, int handIndex, Card.Color chosenColor) {
@@ -172,10 +288,16 @@ public class GameModel {
         saveStateOnMove();
         Player currentPlayer = players.get(currentPlayerIndex);
 
-        Card drawnCard = deck.drawCard();
+        if (pendingDraw > 0) {
+            Card last = takeDrawPenalty(currentPlayer);
+            currentTurnTaken = true;
+            fireStateUpdated();
+            return last;
+        }
+
+        Card drawnCard = drawFor(currentPlayer);
 
         if (drawnCard != null) {
-            currentPlayer.drawCard(drawnCard);
             currentTurnTaken = !isCardPlayable(drawnCard);
             fireStateUpdated();
             return drawnCard;
@@ -189,6 +311,7 @@ public class GameModel {
         saveStateOnMove();
         advanceToNextPlayer();
         currentTurnTaken = false;
+        speculateIfHumanTurn();
         fireTurnAdvanced(players.get(currentPlayerIndex));
     }
 
@@ -256,13 +379,40 @@ public class GameModel {
         return playableIndices;
     }
 
+    /**
+     * Refills the AI decision context for the player on turn from the live table
+     */
+    AIDecisionContext decisionContext() {
+        aiContext.reset(players, currentPlayerIndex, isClockwise);
+        List<Card> hand = players.get(currentPlayerIndex).getHand();
+        for (int i = 0; i < hand.size(); i++) {
+            Card card = hand.get(i);
+            if (isCardPlayable(card)) {
+                aiContext.markPlayable(i, card.getColor() == Card.Color.WILD);
+            }
+        }
+        return aiContext;
+    }
+
     private boolean isCardPlayable(Card card) {
-        Card topCard = getTopDiscardCard();
+        return isPlayable(card, getTopDiscardCard(), pendingDraw);
+    }
 
+    /**
+     * The rule every move is checked against: anything goes on an empty pile, only a
+     * matching draw card answers a stacked penalty, and otherwise a wild, the same color
+     * or the same value
+     * @param pendingDraw cards the player on turn must draw unless they stack
+     */
+    public static boolean isPlayable(Card card, Card topCard, int pendingDraw) {
         if (topCard == null) {
             return true;
         }
 
+        if (pendingDraw > 0) {
+            return card.getValue() == topCard.getValue();
+        }
+
         if (card.getColor() == Card.Color.WILD) {
             return true;
         }
@@ -305,22 +455,23 @@ public class GameModel {
                 break;
 
             case DRAW_ONE:
-                advanceToNextPlayer();
-                Player drawOneTarget = players.get(currentPlayerIndex);
-                Card drawn = deck.drawCard();
-                if (drawn != null) {
-                    drawOneTarget.drawCard(drawn);
+                if (rules.isDrawStacking()) {
+                    stackDrawPenalty(1);
+                    break;
                 }
+                advanceToNextPlayer();
+                drawFor(players.get(currentPlayerIndex));
                 break;
 
             case WILD_DRAW_TWO:
+                if (rules.isDrawStacking()) {
+                    stackDrawPenalty(2);
+                    break;
+                }
                 advanceToNextPlayer();
                 Player drawTwoTarget = players.get(currentPlayerIndex);
                 for (int i = 0; i < 2; i++) {
-                    Card drawnCard = deck.drawCard();
-                    if (drawnCard != null) {
-                        drawTwoTarget.drawCard(drawnCard);
-                    }
+                    drawFor(drawTwoTarget);
                 }
                 break;
 
@@ -332,6 +483,10 @@ public class GameModel {
                 break;
 
             case DRAW_FIVE:
+                if (rules.isDrawStacking()) {
+                    stackDrawPenalty(5);
+                    break;
+                }
                 handleDrawFive();
                 break;
 
@@ -369,10 +524,8 @@ public class GameModel {
         Player target = players.get(currentPlayerIndex);
 
         for (int i = 0; i < 5; i++) {
-            Card drawnCard = deck.drawCard();
-            if (drawnCard != null) {
-                target.drawCard(drawnCard);
-            } else {
+            Card drawnCard = drawFor(target);
+            if (drawnCard == null) {
                 fireError("Deck exhausted during Draw Five");
                 break;
             }
@@ -394,20 +547,19 @@ public class GameModel {
         }
 
         Card drawnCard;
-        int cardsDrawn = 0;
-        int maxCards = 20;
+        int drawnHere = 0;
+        int maxCards = rules.getWildDrawColorCap();
 
         do {
-            drawnCard = deck.drawCard();
+            drawnCard = drawFor(target);
             if (drawnCard != null) {
-                target.drawCard(drawnCard);
-                cardsDrawn++;
+                drawnHere++;
             } else {
                 fireError("Deck exhausted during Wild Draw Color");
                 break;
             }
 
-            if (cardsDrawn >= maxCards) {
+            if (drawnHere >= maxCards) {
                 fireError("Maximum cards drawn for Wild Draw Color");
                 break;
             }
@@ -417,22 +569,70 @@ public class GameModel {
         advanceToNextPlayer();
     }
 
-    private void advanceToNextPlayer() {
-        if (isClockwise) {
-            currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
-        } else {
-            currentPlayerIndex = (currentPlayerIndex - 1 + players.size()) % players.size();
+    /**
+     * Adds a draw card's penalty to the stack; the turn then passes as usual to its
+     * target, who may answer with the same value or take the whole stack
+     */
+    private void stackDrawPenalty(int cards) {
+        pendingDraw += cards;
+    }
+
+    /**
+     * Gives the stacked penalty to the player on turn. A stacked Draw Five still skips
+     * the player after drawing, which taking the penalty's lost turn covers.
+     * @return the last card drawn, or null if the deck ran out first
+     */
+    private Card takeDrawPenalty(Player target) {
+        Card last = null;
+        for (int i = 0; i < pendingDraw; i++) {
+            Card drawnCard = drawFor(target);
+            if (drawnCard == null) {
+                fireError("Deck exhausted during stacked draw");
+                break;
+            }
+            last = drawnCard;
+        }
+        pendingDraw = 0;
+        return last;
+    }
+
+    /**
+     * Moves the top card of the deck into a player's hand, counting it
+     * @return the card, or null if the deck is empty
+     */
+    private Card drawFor(Player target) {
+        Card card = deck.drawCard();
+        if (card != null) {
+            target.drawCard(card);
+            cardsDrawn++;
         }
+        return card;
+    }
+
+    private void advanceToNextPlayer() {
+        currentPlayerIndex = nextSeat(currentPlayerIndex, isClockwise, players.size());
+    }
+
+    /**
+     * Moves the turn on one seat. Every card effect passes the turn in these steps, and
+     * {@link EndgameSolver} takes the same steps, so the two agree on who plays next.
+     * @return the seat after this one in the direction of play
+     */
+    static int nextSeat(int seat, boolean clockwise, int playerCount) {
+        return clockwise ? (seat + 1) % playerCount : (seat - 1 + playerCount) % playerCount;
     }
 
     private void handleRoundWin(int winnerIndex) {
         Player winner = players.get(winnerIndex);
         int points = calculateRoundScore(winnerIndex);
+        lastRoundWinner = winnerIndex;
+        roundsCompleted++;
 
         fireRoundWon(winner, points);
 
-        Player gameWinner = checkForGameWinner(TARGET_SCORE);
+        Player gameWinner = checkForGameWinner(rules.getTargetScore());
         if (gameWinner != null) {
+            this.gameWinner = players.indexOf(gameWinner);
             fireGameWon(gameWinner);
             return;
         }
@@ -441,6 +641,13 @@ public class GameModel {
     }
 
     private void fireModelInit() {
+        if (!opponentModels.isEmpty()) {
+            GameState observed = observedState();
+            for (OpponentModel beliefs : opponentModels) {
+                beliefs.onModelInit(observed);
+            }
+        }
+        if (listeners.isEmpty()) return;
         GameState state = getState();
         for (GameModelListener listener : listeners) {
             listener.onModelInit(state);
@@ -448,6 +655,13 @@ public class GameModel {
     }
 
     private void fireStateUpdated() {
+        if (!opponentModels.isEmpty()) {
+            GameState observed = observedState();
+            for (OpponentModel beliefs : opponentModels) {
+                beliefs.onStateUpdated(observed);
+            }
+        }
+        if (listeners.isEmpty()) return;
         GameState state = getState();
         for (GameModelListener listener : listeners) {
             listener.onStateUpdated(state);
@@ -455,6 +669,13 @@ public class GameModel {
     }
 
     private void fireTurnAdvanced(Player current) {
+        if (!opponentModels.isEmpty()) {
+            GameState observed = observedState();
+            for (OpponentModel beliefs : opponentModels) {
+                beliefs.onTurnAdvanced(current, observed);
+            }
+        }
+        if (listeners.isEmpty()) return;
         GameState state = getState();
         for (GameModelListener listener : listeners) {
             listener.onTurnAdvanced(current, state);
@@ -462,6 +683,10 @@ public class GameModel {
     }
 
     private void fireRoundWon(Player winner, int points) {
+        for (OpponentModel beliefs : opponentModels) {
+            beliefs.onRoundWon(winner, points, null);
+        }
+        if (listeners.isEmpty()) return;
         GameState state = getState();
         for (GameModelListener listener : listeners) {
             listener.onRoundWon(winner, points, state);
@@ -469,6 +694,10 @@ public class GameModel {
     }
 
     private void fireGameWon(Player winner) {
+        for (OpponentModel beliefs : opponentModels) {
+            beliefs.onGameWon(winner, null);
+        }
+        if (listeners.isEmpty()) return;
         GameState state = getState();
         for (GameModelListener listener : listeners) {
             listener.onGameWon(winner, state);
@@ -481,6 +710,25 @@ public class GameModel {
         }
     }
 
+    /**
+     * What the opponent models read, without copying: the live players and top card,
+     * which they only look at during the event
+     * @return the state, with no playable indices or history
+     */
+    private GameState observedState() {
+        GameState state = new GameState();
+        state.players = players;
+        state.currentPlayerIndex = currentPlayerIndex;
+        state.currentPlayer = players.get(currentPlayerIndex);
+        state.topDiscard = getTopDiscardCard();
+        state.deckSize = deck.size();
+        state.clockwise = isClockwise;
+        state.turnTaken = currentTurnTaken;
+        state.currentSide = currentSide;
+        state.pendingDraw = pendingDraw;
+        return state;
+    }
+
     /**
      * method to get the current gamestate using deep copies
      * @return the gamestate
@@ -490,49 +738,61 @@ public class GameModel {
 
         state.players = new ArrayList<>();
         for (Player original : players) {
-            Player copy;
-            if (original instanceof AIPlayer) {
-                AIPlayer aiOriginal = (AIPlayer) original;
-                copy = new AIPlayer(aiOriginal.getName(), aiOriginal.getDifficultyLevel());
-            } else {
-                copy = new Player(original.getName());
-            }
-            copy.setScore(original.getScore());
-
-            for (Card originalCard : original.getHand()) {
-                Card cardCopy = new Card(
-                        originalCard.getLightColor(),
-                        originalCard.getLightValue(),
-                        originalCard.getDarkColor(),
-                        originalCard.getDarkValue(),
-                        originalCard.getCurrentSide()
-                );
-                copy.drawCard(cardCopy);
-            }
-            state.players.add(copy);
+            state.players.add(copyPlayer(original));
         }
 
         state.currentPlayerIndex = currentPlayerIndex;
         state.currentPlayer = state.players.get(currentPlayerIndex);
 
         Card top = getTopDiscardCard();
-        state.topDiscard = (top != null) ? new Card(
-                top.getLightColor(), top.getLightValue(),
-                top.getDarkColor(), top.getDarkValue(),
-                top.getCurrentSide()
-        ) : null;
+        state.topDiscard = (top != null) ? new Card(top) : null;
 
         state.deckSize = deck.size();
         state.playableIndices = getPlayableIndices();
         state.clockwise = isClockwise;
         state.turnTaken = currentTurnTaken;
         state.currentSide = currentSide;
+        state.pendingDraw = pendingDraw;
         state.undoStack = undoStack;
         state.redoStack = redoStack;
 
         return state;
     }
 
+    /**
+     * Copies a player with their score and hand, keeping AI difficulty
+     * @param original the player to copy
+     * @return the copy
+     */
+    private static Player copyPlayer(Player original) {
+        Player copy;
+        if (original instanceof AIPlayer) {
+            AIPlayer aiOriginal = (AIPlayer) original;
+            copy = new AIPlayer(aiOriginal.getName(), aiOriginal.getDifficultyLevel(), aiOriginal.getWeights());
+            ((AIPlayer) copy).setEndgameThreshold(aiOriginal.getEndgameThreshold());
+            ((AIPlayer) copy).setSearchDepth(aiOriginal.getSearchDepth());
+            ((AIPlayer) copy).setNodeBudget(aiOriginal.getNodeBudget());
+            ((AIPlayer) copy).setPolicyTable(aiOriginal.getPolicyTable());
+            ((AIPlayer) copy).setLearnedPolicy(aiOriginal.getLearnedPolicy());
+            ((AIPlayer) copy).setStrategy(aiOriginal.getStrategy());
+        } else {
+            copy = new Player(original.getName());
+        }
+        copy.setScore(original.getScore());
+
+        for (Card originalCard : original.getHand()) {
+            Card cardCopy = new Card(
+                    originalCard.getLightColor(),
+                    originalCard.getLightValue(),
+                    originalCard.getDarkColor(),
+                    originalCard.getDarkValue(),
+                    originalCard.getCurrentSide()
+            );
+            copy.drawCard(cardCopy);
+        }
+        return copy;
+    }
+
     public List<GameModelListener> getListeners() {
         return listeners;
     }
@@ -542,8 +802,9 @@ public class GameModel {
             p.getHand().clear();
         }
 
-        deck = new Deck();
+        deck = new Deck(random);
         discardPile.clear();
+        pendingDraw = 0;
         discardPile.add(deck.drawCard());
 
         for (Player p : players) {
@@ -559,6 +820,7 @@ public class GameModel {
         currentSide = Card.Side.LIGHT;
 
         fireStateUpdated();
+        speculateIfHumanTurn();
     }
 
     public void processAITurn() {
@@ -570,20 +832,54 @@ public class GameModel {
 
         AIPlayer aiPlayer = (AIPlayer) currentPlayer;
 
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (aiTurnDelayMillis > 0) {
+            try {
+                Thread.sleep(aiTurnDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         GameState state = getState();
 
-        int cardIndex = aiPlayer.selectCardToPlay(state);
+        int cardIndex;
+        if (planner == null) {
+            cardIndex = decide(aiPlayer, state);
+        } else if (speculativeCopy) {
+            cardIndex = decide(aiPlayer, state);
+            planner.recordDecision(state, cardIndex);
+        } else {
+            cardIndex = planner.selectCardToPlay(state, () -> decide(aiPlayer, state));
+        }
+
+        applyAIDecision(aiPlayer, cardIndex);
+    }
+
+    /**
+     * Has the AI decide, through the budget controller when there is one so that every
+     * search it runs, live or speculative, is timed and budgeted alike
+     */
+    private int decide(AIPlayer aiPlayer, GameState state) {
+        if (budgetController != null) {
+            return budgetController.selectCardToPlay(aiPlayer, state, decisionContext());
+        }
+        return aiPlayer.selectCardToPlay(state, decisionContext());
+    }
 
+    /**
+     * Carries out an AI decision: plays the card, or draws and plays the drawn card if it
+     * fits and the player's strategy wants to
+     * @param cardIndex the hand index to play, or -1 to draw
+     */
+    void applyAIDecision(AIPlayer aiPlayer, int cardIndex) {
+        if (pendingDraw > 0 && cardIndex >= 0 && !isCardPlayable(aiPlayer.getHand().get(cardIndex))) {
+            cardIndex = -1; // searches do not model stacking; a card that cannot answer means taking the penalty
+        }
         if (cardIndex == -1) {
+            boolean penalty = pendingDraw > 0;
             Card drawnCard = drawCard();
 
-            if (drawnCard != null && isCardPlayable(drawnCard)) {
+            if (!penalty && drawnCard != null && isCardPlayable(drawnCard) && aiPlayer.playDrawnCard(drawnCard)) {
                 int drawnCardIndex = aiPlayer.getHandSize() - 1;
                 handleAICardPlay(aiPlayer, drawnCardIndex);
             } else {
@@ -600,11 +896,10 @@ public class GameModel {
         Card.Color chosenColor = null;
 
         if (playedCard.getColor() == Card.Color.WILD) {
-            if (playedCard.getValue() == Card.Value.WILD ||
-                    playedCard.getValue() == Card.Value.WILD_DRAW_TWO) {
-                chosenColor = aiPlayer.chooseWildColor();
-            } else if (playedCard.getValue() == Card.Value.WILD_DRAW_COLOR) {
+            if (currentSide == Card.Side.DARK) {
                 chosenColor = aiPlayer.chooseWildDrawColor();
+            } else {
+                chosenColor = aiPlayer.chooseWildColor();
             }
         }
 
@@ -632,6 +927,7 @@ public class GameModel {
      * save the game state whenever a move is made
      */
     private void saveStateOnMove() {
+        if (!recordHistory) return;
         undoStack.push(getState());
         redoStack.clear();
     }
@@ -669,6 +965,7 @@ public class GameModel {
         this.isClockwise = state.clockwise;
         this.currentTurnTaken = state.turnTaken;
         this.currentSide = state.currentSide;
+        this.pendingDraw = state.pendingDraw;
         this.undoStack = state.undoStack;
         this.redoStack = state.redoStack;
 
@@ -692,15 +989,10 @@ public class GameModel {
 
         discardPile.clear();
         if (state.topDiscard != null) {
-            Card topCopy = new Card(
-                    state.topDiscard.getLightColor(),
-                    state.topDiscard.getLightValue(),
-                    state.topDiscard.getDarkColor(),
-                    state.topDiscard.getDarkValue(),
-                    state.topDiscard.getCurrentSide()
-            );
-            discardPile.add(topCopy);
+            discardPile.add(new Card(state.topDiscard));
         }
+
+        speculateIfHumanTurn();
     }
 
     /**
@@ -714,6 +1006,200 @@ public class GameModel {
         newRound();
     }
 
+    /**
+     * Sets the house rules; takes effect from the next card played
+     * @param rules the rules, for example a variant under test by RuleExperiment
+     */
+    public void setRules(GameRules rules) {
+        this.rules = rules == null ? GameRules.standard() : rules;
+    }
+
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Sets how long an AI turn pauses before deciding, 0 for no pause. The pause blocks
+     * the calling thread; the GUI sets it to 0 and paces AI turns itself.
+     * @param millis the delay in milliseconds
+     */
+    public void setAITurnDelay(long millis) {
+        this.aiTurnDelayMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Turns undo/redo snapshots on or off; headless games skip them
+     * @param recordHistory true to keep undo history
+     */
+    public void setRecordHistory(boolean recordHistory) {
+        this.recordHistory = recordHistory;
+        if (!recordHistory) {
+            undoStack.clear();
+            redoStack.clear();
+        }
+    }
+
+    /**
+     * @return the number of cards held by all players together
+     */
+    int cardsInHands() {
+        int total = 0;
+        for (Player p : players) {
+            total += p.getHandSize();
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of cards left to draw
+     */
+    int deckSize() {
+        return deck.size();
+    }
+
+    /**
+     * @return the cards players have drawn from the deck this game, not counting deals
+     */
+    int cardsDrawn() {
+        return cardsDrawn;
+    }
+
+    /**
+     * @return the player whose turn it is
+     */
+    Player currentPlayer() {
+        return players.get(currentPlayerIndex);
+    }
+
+    /**
+     * Gives every AI player at the table the same heuristic weights
+     * @param weights the weights, for example a profile tuned by WeightTuner
+     */
+    public void setAIWeights(AIWeights weights) {
+        for (Player p : players) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).setWeights(weights);
+            }
+        }
+    }
+
+    /**
+     * Gives every AI player at the table the same precomputed policy table
+     * @param table the table, or null to decide from the heuristics only
+     */
+    public void setAIPolicyTable(PolicyTable table) {
+        for (Player p : players) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).setPolicyTable(table);
+            }
+        }
+    }
+
+    /**
+     * Sets how many turns the HARD AI players search ahead
+     * @param depth turns to search, 0 to score cards with the heuristics
+     */
+    public void setAISearchDepth(int depth) {
+        for (Player p : players) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).setSearchDepth(depth);
+            }
+        }
+    }
+
+    /**
+     * Gives every AI player at the table the same learned policy
+     * @param policy the policy, or null to decide from the heuristics
+     */
+    public void setAILearnedPolicy(LearnedPolicy policy) {
+        for (Player p : players) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).setLearnedPolicy(policy);
+            }
+        }
+    }
+
+    /**
+     * Times this table's AI decisions and adapts their search budget to a latency target.
+     * With a speculative planner attached, the decisions its branches make ahead of time
+     * and the live decisions it falls back to are timed too; a decision served from its
+     * cache searches nothing and is not.
+     * @param controller the controller, or null to search with fixed budgets
+     */
+    public void setAIBudgetController(SearchBudgetController controller) {
+        this.budgetController = controller;
+    }
+
+    public SearchBudgetController getAIBudgetController() {
+        return budgetController;
+    }
+
+    /**
+     * Has every AI player at the table play with the same strategy
+     * @param strategy the strategy, or null to play by difficulty level
+     */
+    public void setAIStrategy(AIStrategy strategy) {
+        for (Player p : players) {
+            if (p instanceof AIPlayer) {
+                ((AIPlayer) p).setStrategy(strategy);
+            }
+        }
+    }
+
+    /**
+     * Seeds the AI players the way HeadlessGame does, so simulations replay the same choices
+     */
+    void seedAIPlayers(long seed) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) instanceof AIPlayer) {
+                ((AIPlayer) players.get(i)).setSeed(seed * 31 + i);
+            }
+        }
+    }
+
+    /**
+     * @return rounds won since this model was created or copied
+     */
+    int roundsCompleted() {
+        return roundsCompleted;
+    }
+
+    /**
+     * @return the seat that won the last completed round, or -1 if none has been
+     */
+    int lastRoundWinner() {
+        return lastRoundWinner;
+    }
+
+    /**
+     * @return the seat that won the game, or -1 while it is still being played
+     */
+    int gameWinner() {
+        return gameWinner;
+    }
+
+    /**
+     * Attaches a planner that precomputes AI replies while a human is on turn
+     * @param planner the planner, or null to decide every AI turn on demand
+     */
+    public void setSpeculativePlanner(SpeculativeAIPlanner planner) {
+        if (this.planner != null) {
+            this.planner.cancelAll();
+        }
+        this.planner = planner;
+        speculateIfHumanTurn();
+    }
+
+    /**
+     * Starts speculative AI work if a human is on turn and a planner is attached
+     */
+    private void speculateIfHumanTurn() {
+        if (planner == null || speculativeCopy || discardPile.isEmpty()) return;
+        if (!(players.get(currentPlayerIndex) instanceof AIPlayer)) {
+            planner.speculate(this);
+        }
+    }
+
     /**
      * Simple functions to determine if a player can use the undo button
      *
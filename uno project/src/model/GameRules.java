@@ -0,0 +1,116 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * The house rules a game is played under: the score that wins the game, the most cards a
+ * Wild Draw Color can force, and whether draw penalties stack.
+ *
+ * With draw stacking, a player hit by Draw One, Wild Draw Two or Draw Five may answer
+ * with a card of the same value to pass the combined penalty on; the first player who
+ * cannot (or draws instead) takes every card and loses the turn.
+ *
+ * Rules are immutable; the with methods return modified copies. A spec string such as
+ * {@code target=300,cap=10,stacking} lists the differences from {@link #standard()}.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class GameRules implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int targetScore;
+    private final int wildDrawColorCap;
+    private final boolean drawStacking;
+
+    private GameRules(int targetScore, int wildDrawColorCap, boolean drawStacking) {
+        if (targetScore <= 0 || wildDrawColorCap <= 0) {
+            throw new IllegalArgumentException("Target score and Wild Draw Color cap must be positive");
+        }
+        this.targetScore = targetScore;
+        this.wildDrawColorCap = wildDrawColorCap;
+        this.drawStacking = drawStacking;
+    }
+
+    /**
+     * @return the rules the game has always used: 500 points, at most 20 cards from a
+     *         Wild Draw Color, no stacking
+     */
+    public static GameRules standard() {
+        return new GameRules(500, 20, false);
+    }
+
+    public GameRules withTargetScore(int targetScore) {
+        return new GameRules(targetScore, wildDrawColorCap, drawStacking);
+    }
+
+    public GameRules withWildDrawColorCap(int cap) {
+        return new GameRules(targetScore, cap, drawStacking);
+    }
+
+    public GameRules withDrawStacking(boolean drawStacking) {
+        return new GameRules(targetScore, wildDrawColorCap, drawStacking);
+    }
+
+    public int getTargetScore() {
+        return targetScore;
+    }
+
+    public int getWildDrawColorCap() {
+        return wildDrawColorCap;
+    }
+
+    public boolean isDrawStacking() {
+        return drawStacking;
+    }
+
+    /**
+     * Reads rules from a comma separated spec: {@code target=<points>}, {@code cap=<cards>},
+     * {@code stacking} or {@code stacking=false}; an empty spec or "standard" gives the
+     * standard rules
+     */
+    public static GameRules parse(String spec) {
+        GameRules rules = standard();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=", 2);
+            String key = kv[0].trim().toLowerCase();
+            String value = kv.length > 1 ? kv[1].trim() : "";
+            switch (key) {
+                case "":
+                case "standard":
+                    break;
+                case "target":
+                    rules = rules.withTargetScore(Integer.parseInt(value));
+                    break;
+                case "cap":
+                    rules = rules.withWildDrawColorCap(Integer.parseInt(value));
+                    break;
+                case "stacking":
+                    rules = rules.withDrawStacking(value.isEmpty() || Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown rule: " + part.trim());
+            }
+        }
+        return rules;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameRules)) return false;
+        GameRules other = (GameRules) o;
+        return targetScore == other.targetScore && wildDrawColorCap == other.wildDrawColorCap
+                && drawStacking == other.drawStacking;
+    }
+
+    @Override
+    public int hashCode() {
+        return (targetScore * 31 + wildDrawColorCap) * 2 + (drawStacking ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "target=" + targetScore + ",cap=" + wildDrawColorCap + (drawStacking ? ",stacking" : "");
+    }
+}
@@ -0,0 +1,122 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a complete game between AI players without a view, for tournaments and tuning.
+ * All shuffles and AI random choices derive from one seed, so a game can be replayed
+ * exactly and different players can be compared on the same deals.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class HeadlessGame {
+
+    /** Upper bound on AI turns before a game is abandoned */
+    public static final int MAX_TURNS = 20000;
+
+    private final List<AIPlayer> seats;
+    private final long seed;
+    private final GameRules rules;
+
+    /**
+     * Outcome of one headless game
+     */
+    public static final class Result {
+        public final long seed;
+        public final int[] scores;
+        public final int winnerSeat;
+        public final int rounds;
+        public final int turns;
+        /** Cards drawn from the deck during play, not counting deals */
+        public final int cardsDrawn;
+        public final boolean finished;
+
+        Result(long seed, int[] scores, int winnerSeat, int rounds, int turns, int cardsDrawn, boolean finished) {
+            this.seed = seed;
+            this.scores = scores;
+            this.winnerSeat = winnerSeat;
+            this.rounds = rounds;
+            this.turns = turns;
+            this.cardsDrawn = cardsDrawn;
+            this.finished = finished;
+        }
+
+        /**
+         * Compares two seats by finishing position
+         * @return 1 if seat a beat seat b, 0.5 for a tie, 0 if b beat a
+         */
+        public double outcome(int a, int b) {
+            if (a == winnerSeat) return 1.0;
+            if (b == winnerSeat) return 0.0;
+            if (scores[a] == scores[b]) return 0.5;
+            return scores[a] > scores[b] ? 1.0 : 0.0;
+        }
+    }
+
+    /**
+     * @param seats the AI players in seat order, fresh instances with empty hands
+     * @param seed seed for the deck shuffles and AI random choices
+     */
+    public HeadlessGame(List<AIPlayer> seats, long seed) {
+        this(seats, seed, GameRules.standard());
+    }
+
+    /**
+     * @param seats the AI players in seat order, fresh instances with empty hands
+     * @param seed seed for the deck shuffles and AI random choices
+     * @param rules the house rules to play under
+     */
+    public HeadlessGame(List<AIPlayer> seats, long seed, GameRules rules) {
+        if (seats.size() < 2 || seats.size() > 4) {
+            throw new IllegalArgumentException("Game requires 2-4 players");
+        }
+        this.seats = new ArrayList<>(seats);
+        this.seed = seed;
+        this.rules = rules;
+    }
+
+    /**
+     * Plays until a player reaches the target score. A round where every player
+     * passes with an empty deck is redealt without scoring.
+     *
+     * @return the result
+     */
+    public Result play() {
+        for (int i = 0; i < seats.size(); i++) {
+            seats.get(i).setSeed(seed * 31 + i);
+        }
+
+        GameModel model = new GameModel(seats, seed);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.setRules(rules);
+        model.startGame(); // no listeners, so no event copies the game state
+
+        int turns = 0;
+        int passes = 0;
+        while (model.gameWinner() < 0 && turns < MAX_TURNS) {
+            int cardsBefore = model.cardsInHands();
+            int roundsBefore = model.roundsCompleted();
+            model.processAITurn();
+            turns++;
+
+            boolean passed = model.deckSize() == 0
+                    && model.roundsCompleted() == roundsBefore
+                    && model.cardsInHands() == cardsBefore;
+            passes = passed ? passes + 1 : 0;
+            if (passes >= seats.size() * 2) {
+                model.newRound();
+                passes = 0;
+            }
+        }
+
+        int[] scores = new int[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            scores[i] = seats.get(i).getScore();
+        }
+        int winnerSeat = model.gameWinner();
+        return new Result(seed, scores, winnerSeat, model.roundsCompleted(), turns, model.cardsDrawn(), winnerSeat >= 0);
+    }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Counts latencies in log-linear buckets: eight buckets per power of two, so any
+ * percentile read back is within 12.5% of the true value whatever the scale, from
+ * nanoseconds to minutes, in a fixed 2 KB of counters.
+ *
+ * Not thread safe; {@link SearchBudgetController} guards its histograms.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Enough buckets for any non-negative long */
+    public static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, such as 0.99
+     * @return the upper bound of the bucket holding that quantile, never above the
+     *         largest value recorded; 0 when empty
+     */
+    public long percentile(double quantile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * @return a copy of the bucket counts, bucket i covering values up to {@link #upperBound(int)}
+     */
+    public long[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * Adds every value recorded by another histogram, to combine several tables
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, BUCKETS);
+        copy.count = count;
+        copy.total = total;
+        copy.max = max;
+        return copy;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return the largest value that falls in a bucket
+     */
+    public static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long low = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return low + ((1L << (exponent - SUB_BITS)) - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d decisions, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+                count, mean() / 1e6, percentile(0.5) / 1e6, percentile(0.99) / 1e6, max / 1e6);
+    }
+}
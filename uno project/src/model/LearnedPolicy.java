@@ -0,0 +1,423 @@
+package model;
+
+import controller.GameState;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A linear policy learned by self-play (see {@link LearnedPolicyTrainer}).
+ *
+ * An action is a playable card and, for wilds, the color to name. Its preference is the
+ * dot product of the weights with a short feature vector describing the card, what it
+ * leaves in hand and the threat from the next player; training samples actions in
+ * proportion to the exponent of the preference, play takes the highest. Choosing a move
+ * scores every action once, reusing a per-thread feature buffer, so a decision costs
+ * around a microsecond. The weights never change after construction, so one policy can
+ * decide for several threads at once.
+ *
+ * Weights are stored as a small binary file: magic, version and feature count as ints,
+ * then one double per feature.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class LearnedPolicy {
+
+    static final int MAGIC = 0x554E4F51; // "UNOQ"
+    static final int VERSION = 1;
+
+    /** Feature indices */
+    static final int BIAS = 0;
+    static final int WILD = 1;
+    static final int WILD_DRAW = 2;
+    static final int DRAW = 3;
+    static final int SKIP = 4;
+    static final int REVERSE = 5;
+    static final int FLIP = 6;
+    static final int NUMBER = 7;
+    static final int SAME_COLOR = 8;
+    static final int POINTS = 9;
+    static final int HAND_LEFT = 10;
+    static final int NEXT_THREAT = 11;
+    static final int ATTACK_ON_THREAT = 12;
+    static final int ATTACK_NEXT_SIZE = 13;
+    static final int COLOR_SHARE = 14;
+    static final int FOLLOW_UPS = 15;
+    static final int WILDS_LEFT = 16;
+    static final int LAST_CARD = 17;
+    static final int DARK_SIDE = 18;
+    static final int REVERSE_HEADS_UP = 19;
+    static final int ANY_THREAT = 20;
+    static final int WILD_WITH_CHOICE = 21;
+    static final int COLOR_POINTS = 22;
+    public static final int FEATURES = 23;
+
+    private static final int NO_COLOR = 4;
+
+    private final double[] weights;
+
+    /**
+     * Hand summary and feature buffer reused by every decision on a thread
+     */
+    private static final class Scratch {
+        final int[] colorCount = new int[NO_COLOR + 1];
+        final int[] colorPoints = new int[NO_COLOR + 1];
+        final double[] features = new double[FEATURES];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private LearnedPolicy(double[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * @param weights one weight per feature, copied
+     */
+    public static LearnedPolicy of(double[] weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights, got " + weights.length);
+        }
+        return new LearnedPolicy(weights.clone());
+    }
+
+    /**
+     * @return a policy with every weight zero, the starting point for training
+     */
+    public static LearnedPolicy zero() {
+        return new LearnedPolicy(new double[FEATURES]);
+    }
+
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    /**
+     * Picks the best action for the player on turn
+     * @param state the game state
+     * @param hand the hand of the player on turn
+     * @return the move as hand index * 5 + color index (4 for no color), or -1 if nothing is playable
+     */
+    public int select(GameState state, List<Card> hand) {
+        Scratch scratch = SCRATCH.get();
+        summarize(hand, scratch);
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int idx : state.playableIndices) {
+            boolean wild = hand.get(idx).getColor() == Card.Color.WILD;
+            int first = wild ? 0 : NO_COLOR;
+            int last = wild ? NO_COLOR - 1 : NO_COLOR;
+            for (int c = first; c <= last; c++) {
+                features(state, hand, idx, c, scratch, scratch.features);
+                double value = dot(scratch.features);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = idx * 5 + c;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decides every decision in a batch, exactly as {@link #select} would one at a time.
+     * Scores are accumulated feature by feature straight from the batch's flat arrays,
+     * so no feature vector, card or player object is touched; the JDK in use has no
+     * Vector API, so the loops are plain Java.
+     * @param batch the packed decisions; their actions and colors are filled in
+     */
+    public void selectAll(DecisionBatch batch) {
+        int actions = batch.expandActions();
+        batch.summarizeHands();
+        final double[] w = weights;
+        final int wildValue = Card.Value.WILD.ordinal();
+        final int lastNumber = Card.Value.NINE.ordinal();
+
+        for (int a = 0; a < actions; a++) {
+            int d = batch.actionDecision[a];
+            int c = batch.actionCard[a];
+            int v = batch.value[c];
+            int cardColor = batch.palette[c];
+            boolean wild = cardColor == NO_COLOR;
+            int resultColor = wild ? batch.actionColor[a] : cardColor;
+            int left = batch.handSize[d] - 1;
+            int nextSize = batch.nextHandSize[d];
+            boolean attack = isAttack(v);
+            int base = d * (NO_COLOR + 1);
+
+            double score = w[BIAS];
+            score += w[WILD] * (v == wildValue ? 1 : 0);
+            score += w[WILD_DRAW] * (wild && v != wildValue ? 1 : 0);
+            score += w[DRAW] * (v == Card.Value.DRAW_ONE.ordinal() || v == Card.Value.DRAW_FIVE.ordinal() ? 1 : 0);
+            score += w[SKIP] * (v == Card.Value.SKIP.ordinal() || v == Card.Value.SKIP_EVERYONE.ordinal() ? 1 : 0);
+            score += w[REVERSE] * (v == Card.Value.REVERSE.ordinal() ? 1 : 0);
+            score += w[FLIP] * (v == Card.Value.FLIP.ordinal() ? 1 : 0);
+            score += w[NUMBER] * (v <= lastNumber ? 1 : 0);
+            score += w[SAME_COLOR] * (!wild && batch.color[c] == batch.topColor[d] ? 1 : 0);
+            score += w[POINTS] * (batch.points[c] / 50.0);
+            score += w[HAND_LEFT] * (left / 10.0);
+            score += w[NEXT_THREAT] * (nextSize <= 2 ? 1 : 0);
+            score += w[ATTACK_ON_THREAT] * (attack && nextSize <= 2 ? 1 : 0);
+            score += w[ATTACK_NEXT_SIZE] * (attack ? Math.min(nextSize, 10) / 10.0 : 0);
+
+            // what the hand looks like once the card is gone
+            double colorShare = 0, followUps = 0, wildsShare = 0, colorPoints = 0;
+            if (left > 0) {
+                int sameResult = resultColor < NO_COLOR ? batch.colorCount[base + resultColor] - (wild ? 0 : 1) : 0;
+                int wildsLeft = batch.colorCount[base + NO_COLOR] - (wild ? 1 : 0);
+                colorShare = (double) sameResult / left;
+                wildsShare = (double) wildsLeft / left;
+
+                int follow = wildsLeft;
+                int end = batch.handStart[d] + batch.handSize[d];
+                for (int o = batch.handStart[d]; o < end; o++) {
+                    if (o == c || batch.palette[o] == NO_COLOR) continue;
+                    if (batch.palette[o] == resultColor || batch.value[o] == v) follow++;
+                }
+                followUps = (double) follow / left;
+
+                int total = 0;
+                for (int k = 0; k <= NO_COLOR; k++) total += batch.colorPoints[base + k];
+                int points = total - batch.points[c];
+                int sameColorPoints = resultColor < NO_COLOR
+                        ? batch.colorPoints[base + resultColor] - (wild ? 0 : batch.points[c]) : 0;
+                colorPoints = points > 0 ? (double) sameColorPoints / points : 0;
+            }
+            score += w[COLOR_SHARE] * colorShare;
+            score += w[FOLLOW_UPS] * followUps;
+            score += w[WILDS_LEFT] * wildsShare;
+            score += w[LAST_CARD] * (left == 1 ? 1 : 0);
+            score += w[DARK_SIDE] * (batch.dark[d] ? 1 : 0);
+            score += w[REVERSE_HEADS_UP] * (v == Card.Value.REVERSE.ordinal() && batch.players[d] == 2 ? 1 : 0);
+            score += w[ANY_THREAT] * (batch.smallestOpponent[d] <= 2 ? 1 : 0);
+            score += w[WILD_WITH_CHOICE] * (wild && batch.coloredPlayable[d] ? 1 : 0);
+            score += w[COLOR_POINTS] * colorPoints;
+            batch.actionScore[a] = score;
+        }
+
+        // best action per decision; actions are grouped by decision in hand order
+        for (int d = 0; d < batch.size; d++) {
+            batch.action[d] = -1;
+            batch.chosenColor[d] = NO_COLOR;
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < actions; a++) {
+            int d = batch.actionDecision[a];
+            if (a == 0 || d != batch.actionDecision[a - 1]) best = Double.NEGATIVE_INFINITY;
+            if (batch.actionScore[a] > best) {
+                best = batch.actionScore[a];
+                batch.action[d] = batch.actionCard[a] - batch.handStart[d];
+                batch.chosenColor[d] = batch.actionColor[a];
+            }
+        }
+    }
+
+    private static boolean isAttack(int value) {
+        return value == Card.Value.DRAW_ONE.ordinal() || value == Card.Value.DRAW_FIVE.ordinal()
+                || value == Card.Value.WILD_DRAW_TWO.ordinal() || value == Card.Value.WILD_DRAW_COLOR.ordinal()
+                || value == Card.Value.SKIP.ordinal() || value == Card.Value.SKIP_EVERYONE.ordinal();
+    }
+
+    /**
+     * @return the hand index of a move returned by {@link #select}
+     */
+    public static int handIndexOf(int move) {
+        return move < 0 ? -1 : move / 5;
+    }
+
+    /**
+     * @return the color named by a move returned by {@link #select}, or null if it names none
+     */
+    public static Card.Color colorOf(int move, Card.Side side) {
+        if (move < 0 || move % 5 == NO_COLOR) return null;
+        return EndgameSolver.PALETTES[side == Card.Side.DARK ? 1 : 0][move % 5];
+    }
+
+    /**
+     * Names a color for a wild the policy did not choose itself, such as a drawn card
+     * played straight away: the color whose share of the hand is worth the most
+     */
+    public Card.Color chooseWildColor(List<Card> hand, Card.Side side) {
+        Scratch scratch = SCRATCH.get();
+        summarize(hand, scratch);
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        int size = Math.max(1, hand.size());
+        int points = Math.max(1, totalPoints(scratch));
+        for (int c = 0; c < NO_COLOR; c++) {
+            double value = weights[COLOR_SHARE] * scratch.colorCount[c] / size
+                    + weights[COLOR_POINTS] * scratch.colorPoints[c] / points;
+            if (value > bestValue) {
+                bestValue = value;
+                best = c;
+            }
+        }
+        return EndgameSolver.PALETTES[side == Card.Side.DARK ? 1 : 0][best];
+    }
+
+    /**
+     * @return the preference for an action given its features
+     */
+    double dot(double[] features) {
+        double value = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            value += weights[i] * features[i];
+        }
+        return value;
+    }
+
+    /**
+     * Fills the feature vector of playing a card, naming a color for wilds
+     * @param color palette index to name, or 4 for a card that names none
+     */
+    static void features(GameState state, List<Card> hand, int idx, int color, double[] out) {
+        Scratch scratch = SCRATCH.get();
+        summarize(hand, scratch);
+        features(state, hand, idx, color, scratch, out);
+    }
+
+    private static void features(GameState state, List<Card> hand, int idx, int color,
+                                 Scratch scratch, double[] out) {
+        Arrays.fill(out, 0);
+        Card card = hand.get(idx);
+        Card top = state.topDiscard;
+        Card.Value value = card.getValue();
+        int cardColor = EndgameSolver.colorIndex(card.getColor());
+        int resultColor = cardColor == NO_COLOR ? color : cardColor;
+        int left = hand.size() - 1;
+
+        int n = state.players.size();
+        int next = Math.floorMod(state.currentPlayerIndex + (state.clockwise ? 1 : -1), n);
+        int nextSize = state.players.get(next).getHandSize();
+        int minOpponent = Integer.MAX_VALUE;
+        for (int p = 0; p < n; p++) {
+            if (p != state.currentPlayerIndex) minOpponent = Math.min(minOpponent, state.players.get(p).getHandSize());
+        }
+
+        boolean wild = cardColor == NO_COLOR;
+        boolean attack = value == Card.Value.DRAW_ONE || value == Card.Value.DRAW_FIVE
+                || value == Card.Value.WILD_DRAW_TWO || value == Card.Value.WILD_DRAW_COLOR
+                || value == Card.Value.SKIP || value == Card.Value.SKIP_EVERYONE;
+
+        out[BIAS] = 1;
+        out[WILD] = value == Card.Value.WILD ? 1 : 0;
+        out[WILD_DRAW] = wild && value != Card.Value.WILD ? 1 : 0;
+        out[DRAW] = value == Card.Value.DRAW_ONE || value == Card.Value.DRAW_FIVE ? 1 : 0;
+        out[SKIP] = value == Card.Value.SKIP || value == Card.Value.SKIP_EVERYONE ? 1 : 0;
+        out[REVERSE] = value == Card.Value.REVERSE ? 1 : 0;
+        out[FLIP] = value == Card.Value.FLIP ? 1 : 0;
+        out[NUMBER] = value.ordinal() <= Card.Value.NINE.ordinal() ? 1 : 0;
+        out[SAME_COLOR] = !wild && top != null && card.getColor() == top.getColor() ? 1 : 0;
+        out[POINTS] = card.getPointValue() / 50.0;
+        out[HAND_LEFT] = left / 10.0;
+        out[NEXT_THREAT] = nextSize <= 2 ? 1 : 0;
+        out[ATTACK_ON_THREAT] = attack && nextSize <= 2 ? 1 : 0;
+        out[ATTACK_NEXT_SIZE] = attack ? Math.min(nextSize, 10) / 10.0 : 0;
+        out[DARK_SIDE] = state.currentSide == Card.Side.DARK ? 1 : 0;
+        out[REVERSE_HEADS_UP] = value == Card.Value.REVERSE && n == 2 ? 1 : 0;
+        out[ANY_THREAT] = minOpponent <= 2 ? 1 : 0;
+        out[LAST_CARD] = left == 1 ? 1 : 0;
+
+        // what the hand looks like once the card is gone
+        if (left > 0) {
+            int sameResult = resultColor < NO_COLOR ? scratch.colorCount[resultColor] - (wild ? 0 : 1) : 0;
+            int wildsLeft = scratch.colorCount[NO_COLOR] - (wild ? 1 : 0);
+            out[COLOR_SHARE] = (double) sameResult / left;
+            out[WILDS_LEFT] = (double) wildsLeft / left;
+
+            int followUps = wildsLeft;
+            for (int i = 0; i < hand.size(); i++) {
+                Card other = hand.get(i);
+                if (i == idx || other.getColor() == Card.Color.WILD) continue;
+                if (EndgameSolver.colorIndex(other.getColor()) == resultColor || other.getValue() == value) followUps++;
+            }
+            out[FOLLOW_UPS] = (double) followUps / left;
+
+            int points = totalPoints(scratch) - card.getPointValue();
+            int colorPoints = resultColor < NO_COLOR
+                    ? scratch.colorPoints[resultColor] - (wild ? 0 : card.getPointValue()) : 0;
+            out[COLOR_POINTS] = points > 0 ? (double) colorPoints / points : 0;
+        }
+
+        if (wild) {
+            boolean otherPlayable = false;
+            for (int i : state.playableIndices) {
+                if (hand.get(i).getColor() != Card.Color.WILD) {
+                    otherPlayable = true;
+                    break;
+                }
+            }
+            out[WILD_WITH_CHOICE] = otherPlayable ? 1 : 0;
+        }
+    }
+
+    private static void summarize(List<Card> hand, Scratch scratch) {
+        Arrays.fill(scratch.colorCount, 0);
+        Arrays.fill(scratch.colorPoints, 0);
+        for (Card card : hand) {
+            int c = EndgameSolver.colorIndex(card.getColor());
+            scratch.colorCount[c]++;
+            scratch.colorPoints[c] += card.getPointValue();
+        }
+    }
+
+    private static int totalPoints(Scratch scratch) {
+        int total = 0;
+        for (int points : scratch.colorPoints) total += points;
+        return total;
+    }
+
+    /**
+     * Reads weights written by {@link #save}
+     * @throws IOException if the file cannot be read or holds a different feature set
+     */
+    public static LearnedPolicy load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC || data.readInt() != VERSION || data.readInt() != FEATURES) {
+                throw new IOException("Not a learned policy for this version: " + file);
+            }
+            double[] weights = new double[FEATURES];
+            for (int i = 0; i < FEATURES; i++) {
+                weights[i] = data.readDouble();
+            }
+            return new LearnedPolicy(weights);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(FEATURES);
+            for (double weight : weights) {
+                data.writeDouble(weight);
+            }
+            data.flush();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LearnedPolicy && Arrays.equals(weights, ((LearnedPolicy) o).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+    @Override
+    public String toString() {
+        return "LearnedPolicy" + Arrays.toString(weights);
+    }
+}
@@ -0,0 +1,368 @@
+package model;
+
+import controller.GameState;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Trains a {@link LearnedPolicy} by policy gradient over self-play rounds.
+ *
+ * Worker threads play rounds on the headless engine with the latest published policy,
+ * sampling each action with softmax probability over the preferences. At the end of a
+ * round every decision is credited with the player's reward: the round's points for the
+ * winner, an equal share of their loss for everyone else. Workers fill private batches
+ * and hand full ones over through a lock-free queue; the calling thread drains it,
+ * applies gradient steps to the weights and publishes a new policy snapshot after every
+ * batch. A worker does not start a round while batches are still waiting to be learned,
+ * so a busy machine cannot leave it playing a stale policy for thousands of rounds; a
+ * step takes microseconds against milliseconds per round, so the wait costs little, and
+ * with one worker training is reproducible from the seed.
+ *
+ * Usage:
+ * <pre>
+ * java model.LearnedPolicyTrainer --games=50000 --seats=2,3,4 --out=ai_learned.bin
+ * java model.LearnedPolicyTrainer --start=ai_learned.bin --games=20000 --rate=0.002
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class LearnedPolicyTrainer {
+
+    private static final int MAX_TURNS = 2000;
+    private static final int BATCH_SIZE = 2048;
+    private static final double POINT_SCALE = 100.0;
+
+    private final int[] seatCounts;
+    private final int threads;
+    private final PrintStream out;
+    private double learningRate = 0.01;
+
+    /**
+     * Experiences collected by one worker: the log-probability gradient of each decision
+     * and the advantage it is credited with
+     */
+    static final class Batch {
+        final double[] gradients = new double[BATCH_SIZE * LearnedPolicy.FEATURES];
+        final double[] advantages = new double[BATCH_SIZE];
+        int size;
+
+        boolean add(double[] gradient, double advantage) {
+            System.arraycopy(gradient, 0, gradients, size * LearnedPolicy.FEATURES, LearnedPolicy.FEATURES);
+            advantages[size++] = advantage;
+            return size == BATCH_SIZE;
+        }
+    }
+
+    /**
+     * A self-play seat that samples its moves and records their gradients
+     */
+    private static final class TrainingPlayer extends AIPlayer {
+        private static final long serialVersionUID = 1L;
+        private final Worker worker;
+        private final List<double[]> history = new ArrayList<>();
+        private int[] moves = new int[16];
+        private double[] values = new double[16];
+        private double[][] features = new double[16][LearnedPolicy.FEATURES];
+        private Card.Color chosenColor;
+
+        TrainingPlayer(String name, Worker worker) {
+            super(name, DifficultyLevel.HARD);
+            setEndgameThreshold(0);
+            this.worker = worker;
+        }
+
+        @Override
+        public int selectCardToPlay(GameState state, AIDecisionContext context) {
+            chosenColor = null;
+            if (context.playableCount() == 0) return -1;
+
+            // softmax over the action preferences, remembering every action's features
+            LearnedPolicy policy = worker.policy;
+            List<Card> hand = getHand();
+            int actions = 0;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int idx : state.playableIndices) {
+                boolean wild = hand.get(idx).getColor() == Card.Color.WILD;
+                for (int c = wild ? 0 : 4; c <= (wild ? 3 : 4); c++) {
+                    if (actions == moves.length) grow();
+                    LearnedPolicy.features(state, hand, idx, c, features[actions]);
+                    values[actions] = policy.dot(features[actions]);
+                    moves[actions] = idx * 5 + c;
+                    max = Math.max(max, values[actions]);
+                    actions++;
+                }
+            }
+            double total = 0;
+            for (int a = 0; a < actions; a++) {
+                values[a] = Math.exp(values[a] - max);
+                total += values[a];
+            }
+            double pick = worker.random.nextDouble() * total;
+            int chosen = actions - 1;
+            for (int a = 0; a < actions; a++) {
+                pick -= values[a];
+                if (pick < 0) {
+                    chosen = a;
+                    break;
+                }
+            }
+
+            // gradient of the log probability: chosen features minus their expectation
+            double[] gradient = new double[LearnedPolicy.FEATURES];
+            for (int a = 0; a < actions; a++) {
+                double p = values[a] / total;
+                for (int i = 0; i < gradient.length; i++) {
+                    gradient[i] += ((a == chosen ? 1 : 0) - p) * features[a][i];
+                }
+            }
+            history.add(gradient);
+
+            chosenColor = LearnedPolicy.colorOf(moves[chosen], state.currentSide);
+            return moves[chosen] / 5;
+        }
+
+        private void grow() {
+            int size = moves.length * 2;
+            moves = Arrays.copyOf(moves, size);
+            values = Arrays.copyOf(values, size);
+            features = Arrays.copyOf(features, size);
+            for (int a = size / 2; a < size; a++) features[a] = new double[LearnedPolicy.FEATURES];
+        }
+
+        @Override
+        public Card.Color chooseWildColor() {
+            Card.Color color = chosenColor;
+            chosenColor = null;
+            return color != null ? color : worker.policy.chooseWildColor(getHand(), Card.Side.LIGHT);
+        }
+
+        @Override
+        public Card.Color chooseWildDrawColor() {
+            Card.Color color = chosenColor;
+            chosenColor = null;
+            return color != null ? color : worker.policy.chooseWildColor(getHand(), Card.Side.DARK);
+        }
+
+        /**
+         * Credits every decision of the round with how much better than average it ended
+         */
+        void finish(double advantage) {
+            for (double[] gradient : history) worker.record(gradient, advantage);
+            history.clear();
+        }
+    }
+
+    /**
+     * One self-play thread and its current batch
+     */
+    private final class Worker implements Runnable {
+        final Random random;
+        final AtomicReference<LearnedPolicy> published;
+        final ConcurrentLinkedQueue<Batch> queue;
+        final AtomicInteger pending;
+        final AtomicInteger gamesLeft;
+        final AtomicInteger gamesPlayed;
+        LearnedPolicy policy;
+        Batch batch = new Batch();
+
+        Worker(long seed, AtomicReference<LearnedPolicy> published, ConcurrentLinkedQueue<Batch> queue,
+               AtomicInteger pending, AtomicInteger gamesLeft, AtomicInteger gamesPlayed) {
+            this.random = new Random(seed);
+            this.published = published;
+            this.queue = queue;
+            this.pending = pending;
+            this.gamesLeft = gamesLeft;
+            this.gamesPlayed = gamesPlayed;
+        }
+
+        void record(double[] gradient, double advantage) {
+            if (batch.add(gradient, advantage)) {
+                pending.incrementAndGet();
+                queue.offer(batch);
+                batch = new Batch();
+            }
+        }
+
+        @Override
+        public void run() {
+            int game;
+            while ((game = gamesLeft.getAndDecrement()) > 0) {
+                while (pending.get() > 0) {
+                    LockSupport.parkNanos(100_000);
+                }
+                policy = published.get();
+                playRound(seatCounts[game % seatCounts.length], random.nextLong());
+                gamesPlayed.incrementAndGet();
+            }
+            if (batch.size > 0) {
+                pending.incrementAndGet();
+                queue.offer(batch);
+            }
+        }
+
+        private void playRound(int seats, long seed) {
+            List<TrainingPlayer> players = new ArrayList<>();
+            for (int s = 0; s < seats; s++) {
+                players.add(new TrainingPlayer("Seat " + s, this));
+            }
+            GameModel model = new GameModel(players, seed);
+            model.setAITurnDelay(0);
+            model.setRecordHistory(false);
+            model.startGame();
+
+            int stalled = 0;
+            for (int turn = 0; turn < MAX_TURNS && model.roundsCompleted() == 0 && stalled < seats * 2; turn++) {
+                int cardsBefore = model.cardsInHands();
+                model.processAITurn();
+                stalled = model.deckSize() == 0 && model.cardsInHands() == cardsBefore ? stalled + 1 : 0;
+            }
+
+            // the winner gains the round's points and the others share the loss, so the
+            // rewards sum to zero and, with symmetric seats, zero is the baseline
+            int winner = model.lastRoundWinner();
+            double points = winner < 0 ? 0 : players.get(winner).getScore() / POINT_SCALE;
+            for (int s = 0; s < seats; s++) {
+                players.get(s).finish(s == winner ? points : -points / (seats - 1));
+            }
+        }
+    }
+
+    public LearnedPolicyTrainer(int[] seatCounts, int threads, PrintStream out) {
+        this.seatCounts = seatCounts.clone();
+        this.threads = Math.max(1, threads);
+        this.out = out;
+    }
+
+    /**
+     * @param learningRate step size of each gradient update
+     */
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Plays the given number of self-play rounds, learning as batches arrive
+     * @param start the policy to improve, for example {@link LearnedPolicy#zero()}
+     * @return the trained policy
+     */
+    public LearnedPolicy train(LearnedPolicy start, int games, long seed) throws InterruptedException {
+        AtomicReference<LearnedPolicy> published = new AtomicReference<>(start);
+        ConcurrentLinkedQueue<Batch> queue = new ConcurrentLinkedQueue<>();
+        AtomicInteger pending = new AtomicInteger();
+        AtomicInteger gamesLeft = new AtomicInteger(games);
+        AtomicInteger gamesPlayed = new AtomicInteger();
+
+        Random random = new Random(seed);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Worker worker = new Worker(random.nextLong(), published, queue, pending, gamesLeft, gamesPlayed);
+            Thread thread = new Thread(worker, "learner-" + t);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+
+        double[] weights = start.toArray();
+        long updates = 0;
+        double squaredError = 0;
+        int batches = 0;
+        while (true) {
+            Batch batch = queue.poll();
+            if (batch == null) {
+                if (allDone(workers) && queue.isEmpty()) break;
+                LockSupport.parkNanos(1_000_000);
+                continue;
+            }
+            squaredError += learn(weights, batch);
+            updates += batch.size;
+            published.set(LearnedPolicy.of(weights));
+            pending.decrementAndGet();
+            if (++batches % 50 == 0) {
+                out.printf("%d games, %d updates, mean squared advantage %.4f%n",
+                        gamesPlayed.get(), updates, squaredError / (50.0 * BATCH_SIZE));
+                squaredError = 0;
+            }
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        return LearnedPolicy.of(weights);
+    }
+
+    private static boolean allDone(List<Thread> workers) {
+        for (Thread thread : workers) {
+            if (thread.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * One gradient ascent step per decision: its log-probability gradient times its advantage
+     * @return the summed squared advantage, a measure of how noisy the batch was
+     */
+    private double learn(double[] weights, Batch batch) {
+        double total = 0;
+        for (int e = 0; e < batch.size; e++) {
+            int base = e * LearnedPolicy.FEATURES;
+            double advantage = batch.advantages[e];
+            total += advantage * advantage;
+            for (int i = 0; i < LearnedPolicy.FEATURES; i++) {
+                weights[i] += learningRate * advantage * batch.gradients[base + i];
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 50000;
+        int[] seats = {2, 3, 4};
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double rate = 0.01;
+        Path start = null;
+        Path output = Paths.get("ai_learned.bin");
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--games": games = Integer.parseInt(value); break;
+                case "--seats":
+                    seats = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--rate": rate = Double.parseDouble(value); break;
+                case "--start": start = Paths.get(value); break;
+                case "--out": output = Paths.get(value); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        LearnedPolicyTrainer trainer = new LearnedPolicyTrainer(seats, threads, System.out);
+        trainer.setLearningRate(rate);
+        LearnedPolicy policy = trainer.train(start != null ? LearnedPolicy.load(start) : LearnedPolicy.zero(),
+                games, seed);
+        try {
+            policy.save(output);
+        } catch (IOException e) {
+            System.err.println("Could not write learned policy: " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + output + ": " + policy);
+    }
+}
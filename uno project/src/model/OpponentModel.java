@@ -0,0 +1,518 @@
+package model;
+
+import controller.GameModelListener;
+import controller.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * What one AI seat believes the other players hold, kept as a weighted set of
+ * possible hands (particles) per opponent.
+ *
+ * The model listens to the game like a view does and only uses what that seat could
+ * see: its own hand, the cards played and every player's hand size. A play removes the
+ * card from each particle (a particle that did not hold it has another card swapped
+ * for it). A draw while cards were showing on the pile is strong evidence of holding
+ * nothing playable, so particles with a playable card lose most of their weight; a
+ * card drawn and kept is one that did not fit. Wilds played while the same player
+ * could have followed suit, and penalty draws, are folded in the same way. Taking a
+ * stacked draw penalty is not evidence of anything; the hand just grows by the penalty.
+ *
+ * When the weights become uneven the lightest particles are replaced by copies of
+ * heavy ones, a quarter of the set at a time. {@link #sampleHands} picks one particle
+ * per opponent and resolves cards claimed by two opponents, cheap enough to call for
+ * every deal of a search.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class OpponentModel implements GameModelListener {
+
+    /** Particles kept per opponent */
+    public static final int DEFAULT_PARTICLES = 128;
+
+    /** Weight kept by a hand that could have played instead of drawing */
+    private static final double DRAW_EVIDENCE = 0.02;
+    /** Weight kept by a hand that could have followed instead of playing a wild */
+    private static final double WILD_EVIDENCE = 0.5;
+    private static final int SAMPLE_TRIES = 12;
+
+    private final int observer;
+    private final int particleCount;
+    private final Random random;
+
+    private Seat[] seats;
+    private final int[] seen = new int[EndgameSolver.TYPES];  // cards played this round
+    private final int[] own = new int[EndgameSolver.TYPES];   // observer's hand
+    private final int[] unseen = new int[EndgameSolver.TYPES];
+    private int[] unseenCards = new int[0];
+    private int unseenSize;
+    private boolean unseenDirty = true;
+
+    // last observation
+    private int[] lastSizes;
+    private int lastCurrent = -1;
+    private int lastTopColor;
+    private int lastTopValue;
+    private int lastSide;
+    private int lastDeckSize;
+    private int pendingDraw = -1; // seat that drew voluntarily and has not played yet
+    private int lastPenalty;      // stacked draw penalty waiting for the player on turn
+    private boolean roundOver = true;
+
+    /**
+     * The particles for one opponent
+     */
+    private static final class Seat {
+        final int[][] cards;
+        final int[] sizes;
+        final double[] weights;
+        final double[] cumulative;
+        boolean cumulativeDirty = true;
+
+        Seat(int particles) {
+            cards = new int[particles][8];
+            sizes = new int[particles];
+            weights = new double[particles];
+            cumulative = new double[particles];
+        }
+
+        Seat(Seat source) {
+            cards = new int[source.cards.length][];
+            for (int i = 0; i < cards.length; i++) cards[i] = source.cards[i].clone();
+            sizes = source.sizes.clone();
+            weights = source.weights.clone();
+            cumulative = source.cumulative.clone();
+            cumulativeDirty = source.cumulativeDirty;
+        }
+    }
+
+    /**
+     * @param observer the seat of the AI this model belongs to
+     * @param particles particles kept per opponent
+     * @param seed seed for sampling and resampling
+     */
+    public OpponentModel(int observer, int particles, long seed) {
+        this.observer = observer;
+        this.particleCount = Math.max(1, particles);
+        this.random = new Random(seed);
+    }
+
+    public OpponentModel(int observer) {
+        this(observer, DEFAULT_PARTICLES, System.nanoTime());
+    }
+
+    /**
+     * Copies another model's beliefs, for a copy of the game that goes its own way
+     * @param source the model to copy, which is left untouched
+     * @param seed seed for the copy's own sampling and resampling
+     */
+    public OpponentModel(OpponentModel source, long seed) {
+        this.observer = source.observer;
+        this.particleCount = source.particleCount;
+        this.random = new Random(seed);
+        if (source.seats != null) {
+            this.seats = new Seat[source.seats.length];
+            for (int p = 0; p < seats.length; p++) {
+                if (source.seats[p] != null) seats[p] = new Seat(source.seats[p]);
+            }
+        }
+        System.arraycopy(source.seen, 0, seen, 0, seen.length);
+        System.arraycopy(source.own, 0, own, 0, own.length);
+        System.arraycopy(source.unseen, 0, unseen, 0, unseen.length);
+        this.unseenCards = source.unseenCards.clone();
+        this.unseenSize = source.unseenSize;
+        this.unseenDirty = source.unseenDirty;
+        this.lastSizes = source.lastSizes == null ? null : source.lastSizes.clone();
+        this.lastCurrent = source.lastCurrent;
+        this.lastTopColor = source.lastTopColor;
+        this.lastTopValue = source.lastTopValue;
+        this.lastSide = source.lastSide;
+        this.lastDeckSize = source.lastDeckSize;
+        this.pendingDraw = source.pendingDraw;
+        this.lastPenalty = source.lastPenalty;
+        this.roundOver = source.roundOver;
+    }
+
+    public int getObserver() {
+        return observer;
+    }
+
+    /**
+     * Deals every opponent one hand drawn from the particles, as type counts
+     * (see {@link EndgameSolver}); the observer's row is left untouched
+     * @param random source for choosing particles
+     * @param hands one row per seat, overwritten for every opponent
+     * @return false if the model has not seen a deal yet
+     */
+    public boolean sampleHands(Random random, int[][] hands) {
+        if (seats == null) return false;
+        refreshUnseen();
+
+        int[] claimed = new int[EndgameSolver.TYPES];
+        for (int p = 0; p < seats.length; p++) {
+            if (p == observer) continue;
+            Seat seat = seats[p];
+            int i = pick(seat, random);
+            Arrays.fill(hands[p], 0);
+            for (int k = 0; k < seat.sizes[i]; k++) {
+                int t = seat.cards[i][k];
+                if (claimed[t] >= unseen[t]) {
+                    t = freeType(claimed, random); // another opponent already holds every copy
+                    if (t < 0) continue;
+                }
+                claimed[t]++;
+                hands[p][t]++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return copies of each card type the observer has not seen, as of the last event
+     */
+    public int[] unseenCounts() {
+        refreshUnseen();
+        return unseen.clone();
+    }
+
+    /**
+     * @return the chance, over the particles, that an opponent holds at least one card of the type
+     */
+    public double probabilityHolds(int seat, Card card) {
+        if (seats == null || seat == observer) return 0;
+        int t = EndgameSolver.typeOf(card);
+        Seat s = seats[seat];
+        double total = 0;
+        double holding = 0;
+        for (int i = 0; i < particleCount; i++) {
+            total += s.weights[i];
+            if (indexOf(s, i, t) >= 0) holding += s.weights[i];
+        }
+        return total > 0 ? holding / total : 0;
+    }
+
+    // ---- events ----
+
+    @Override
+    public void onModelInit(GameState state) {
+        reset(state);
+    }
+
+    @Override
+    public void onGameInitialized(GameState state) {
+    }
+
+    @Override
+    public void onStateUpdated(GameState state) {
+        observe(state);
+    }
+
+    @Override
+    public void onTurnAdvanced(Player current, GameState state) {
+        observe(state);
+    }
+
+    @Override
+    public void onRoundWon(Player winner, int pointsAwarded, GameState state) {
+        roundOver = true;
+    }
+
+    @Override
+    public void onGameWon(Player winner, GameState state) {
+        roundOver = true;
+    }
+
+    @Override
+    public void onError(String message) {
+    }
+
+    /**
+     * Starts a new round: every opponent gets fresh random hands
+     */
+    private void reset(GameState state) {
+        int n = state.players.size();
+        seats = new Seat[n];
+        lastSizes = new int[n];
+        Arrays.fill(seen, 0);
+        if (state.topDiscard != null) {
+            seen[EndgameSolver.typeOf(state.topDiscard)]++;
+        }
+        readOwnHand(state);
+        unseenDirty = true;
+
+        for (int p = 0; p < n; p++) {
+            if (p == observer) continue;
+            Seat seat = new Seat(particleCount);
+            seats[p] = seat;
+            int size = state.players.get(p).getHandSize();
+            for (int i = 0; i < particleCount; i++) {
+                seat.weights[i] = 1.0;
+                for (int k = 0; k < size; k++) add(seat, i, sampleUnknown(seat, i, -1, -1, -1));
+            }
+        }
+        remember(state);
+        pendingDraw = -1;
+        roundOver = false;
+    }
+
+    /**
+     * Works out what happened since the last state from hand sizes and the top card
+     */
+    private void observe(GameState state) {
+        if (seats == null || roundOver || state.players.size() != seats.length || state.deckSize > lastDeckSize) {
+            // a new round, or an undo put cards back
+
+            reset(state);
+            return;
+        }
+        readOwnHand(state);
+
+        int actor = lastCurrent;
+        int[] sizes = sizesOf(state);
+        int actorChange = sizes[actor] - lastSizes[actor];
+
+        if (actorChange < 0 && state.topDiscard != null) {
+            int t = EndgameSolver.typeOf(state.topDiscard);
+            seen[t]++;
+            unseenDirty = true;
+            if (actor != observer) {
+                if (pendingDraw == actor) {
+                    // the card just drawn went straight onto the pile, the rest of the hand is unchanged
+                    pendingDraw = -1;
+                } else {
+                    if (EndgameSolver.COLOR[lastSide][t] == 4) {
+                        weigh(seats[actor], lastTopColor, lastTopValue, lastSide, true, WILD_EVIDENCE);
+                    }
+                    removePlayed(seats[actor], t);
+                }
+            }
+        } else if (actorChange > 0 && lastPenalty > 0) {
+            // took a stacked penalty: says nothing about the hand, the sizes are matched below
+        } else if (actorChange > 0 && actor != observer && pendingDraw != actor) {
+            // drew instead of playing: nothing in the hand fit the pile
+            weigh(seats[actor], lastTopColor, lastTopValue, lastSide, false, DRAW_EVIDENCE);
+            pendingDraw = actor;
+        }
+
+        if (state.currentPlayerIndex != actor && pendingDraw == actor) {
+            // the turn ended with the drawn card kept, so it did not fit either
+            Seat seat = seats[actor];
+            for (int i = 0; i < particleCount; i++) {
+                add(seat, i, sampleUnknown(seat, i, lastTopColor, lastTopValue, lastSide));
+            }
+            pendingDraw = -1;
+        }
+
+        // penalty draws and anything missed: match every particle to the real hand size
+        for (int p = 0; p < sizes.length; p++) {
+            if (p == observer || p == pendingDraw) continue;
+            Seat seat = seats[p];
+            for (int i = 0; i < particleCount; i++) {
+                while (seat.sizes[i] > sizes[p]) removeAt(seat, i, random.nextInt(seat.sizes[i]));
+                while (seat.sizes[i] < sizes[p]) add(seat, i, sampleUnknown(seat, i, -1, -1, -1));
+            }
+        }
+
+        for (int p = 0; p < sizes.length; p++) {
+            if (p != observer) resampleIfUneven(seats[p]);
+        }
+        remember(state);
+    }
+
+    private void remember(GameState state) {
+        lastSizes = sizesOf(state);
+        lastCurrent = state.currentPlayerIndex;
+        lastDeckSize = state.deckSize;
+        lastPenalty = state.pendingDraw;
+        lastSide = state.currentSide == Card.Side.DARK ? 1 : 0;
+        if (state.topDiscard != null) {
+            lastTopColor = EndgameSolver.colorIndex(state.topDiscard.getColor());
+            lastTopValue = state.topDiscard.getValue().ordinal();
+        }
+    }
+
+    private static int[] sizesOf(GameState state) {
+        int[] sizes = new int[state.players.size()];
+        for (int p = 0; p < sizes.length; p++) {
+            sizes[p] = state.players.get(p).getHandSize();
+        }
+        return sizes;
+    }
+
+    private void readOwnHand(GameState state) {
+        Arrays.fill(own, 0);
+        List<Card> hand = state.players.get(observer).getHand();
+        for (Card card : hand) {
+            own[EndgameSolver.typeOf(card)]++;
+        }
+        unseenDirty = true;
+    }
+
+    // ---- particle updates ----
+
+    /**
+     * Scales down particles that held a card playable on the given top
+     * @param exceptWilds only non-wild cards count as playable
+     */
+    private void weigh(Seat seat, int topColor, int topValue, int side, boolean exceptWilds, double factor) {
+        for (int i = 0; i < particleCount; i++) {
+            for (int k = 0; k < seat.sizes[i]; k++) {
+                int t = seat.cards[i][k];
+                if (exceptWilds && EndgameSolver.COLOR[side][t] == 4) continue;
+                if (fits(t, topColor, topValue, side)) {
+                    seat.weights[i] *= factor;
+                    break;
+                }
+            }
+        }
+        seat.cumulativeDirty = true;
+    }
+
+    /**
+     * Takes a played card out of every particle; particles that did not hold it lose a
+     * random card instead, as their guess for that slot was wrong
+     */
+    private void removePlayed(Seat seat, int t) {
+        for (int i = 0; i < particleCount; i++) {
+            if (seat.sizes[i] == 0) continue;
+            int k = indexOf(seat, i, t);
+            removeAt(seat, i, k >= 0 ? k : random.nextInt(seat.sizes[i]));
+        }
+    }
+
+    /**
+     * When the effective sample size drops below half, copies heavy particles over the
+     * lightest quarter, splitting each copied weight between the two
+     */
+    private void resampleIfUneven(Seat seat) {
+        double sum = 0;
+        double squares = 0;
+        for (double w : seat.weights) {
+            sum += w;
+            squares += w * w;
+        }
+        if (sum <= 0) {
+            Arrays.fill(seat.weights, 1.0);
+            seat.cumulativeDirty = true;
+            return;
+        }
+        if (sum * sum / squares >= particleCount / 2.0) return;
+
+        Integer[] order = new Integer[particleCount];
+        for (int i = 0; i < particleCount; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(seat.weights[a], seat.weights[b]));
+        seat.cumulativeDirty = true;
+        int replace = Math.max(1, particleCount / 4);
+        for (int r = 0; r < replace; r++) {
+            int target = order[r];
+            int donor = pick(seat, random);
+            if (donor == target) continue;
+            seat.cards[target] = Arrays.copyOf(seat.cards[donor], seat.cards[donor].length);
+            seat.sizes[target] = seat.sizes[donor];
+            seat.weights[donor] /= 2;
+            seat.weights[target] = seat.weights[donor];
+            seat.cumulativeDirty = true;
+        }
+
+        // renormalize so weights stay well away from underflow
+        double mean = 0;
+        for (double w : seat.weights) mean += w;
+        mean /= particleCount;
+        for (int i = 0; i < particleCount; i++) seat.weights[i] /= mean;
+    }
+
+    /**
+     * Picks a particle with probability proportional to its weight
+     */
+    private int pick(Seat seat, Random random) {
+        if (seat.cumulativeDirty) {
+            double total = 0;
+            for (int i = 0; i < particleCount; i++) {
+                total += seat.weights[i];
+                seat.cumulative[i] = total;
+            }
+            seat.cumulativeDirty = false;
+        }
+        double total = seat.cumulative[particleCount - 1];
+        if (total <= 0) return random.nextInt(particleCount);
+        int i = Arrays.binarySearch(seat.cumulative, random.nextDouble() * total);
+        if (i < 0) i = -i - 1;
+        return Math.min(i, particleCount - 1);
+    }
+
+    /**
+     * Draws an unseen card the particle does not already hold every copy of; when a top
+     * is given, the card must not fit on it
+     */
+    private int sampleUnknown(Seat seat, int i, int topColor, int topValue, int side) {
+        refreshUnseen();
+        if (unseenSize == 0) return random.nextInt(EndgameSolver.TYPES);
+        int t = unseenCards[random.nextInt(unseenSize)];
+        for (int tries = 0; tries < SAMPLE_TRIES; tries++) {
+            boolean fitsTop = side >= 0 && fits(t, topColor, topValue, side);
+            if (!fitsTop && count(seat, i, t) < unseen[t]) break;
+            t = unseenCards[random.nextInt(unseenSize)];
+        }
+        return t;
+    }
+
+    private int freeType(int[] claimed, Random random) {
+        int start = random.nextInt(EndgameSolver.TYPES);
+        for (int k = 0; k < EndgameSolver.TYPES; k++) {
+            int t = (start + k) % EndgameSolver.TYPES;
+            if (claimed[t] < unseen[t]) return t;
+        }
+        return -1;
+    }
+
+    private void refreshUnseen() {
+        if (!unseenDirty) return;
+        unseenSize = 0;
+        for (int t = 0; t < EndgameSolver.TYPES; t++) {
+            unseen[t] = Math.max(0, EndgameSolver.FULL_DECK[t] - seen[t] - own[t]);
+            unseenSize += unseen[t];
+        }
+        if (unseenCards.length < unseenSize) unseenCards = new int[unseenSize];
+        int k = 0;
+        for (int t = 0; t < EndgameSolver.TYPES; t++) {
+            for (int c = 0; c < unseen[t]; c++) unseenCards[k++] = t;
+        }
+        unseenDirty = false;
+    }
+
+    private static boolean fits(int t, int topColor, int topValue, int side) {
+        int c = EndgameSolver.COLOR[side][t];
+        return c == 4 || c == topColor || EndgameSolver.VALUE[side][t] == topValue;
+    }
+
+    private static int indexOf(Seat seat, int i, int t) {
+        int[] cards = seat.cards[i];
+        for (int k = 0; k < seat.sizes[i]; k++) {
+            if (cards[k] == t) return k;
+        }
+        return -1;
+    }
+
+    private static int count(Seat seat, int i, int t) {
+        int count = 0;
+        int[] cards = seat.cards[i];
+        for (int k = 0; k < seat.sizes[i]; k++) {
+            if (cards[k] == t) count++;
+        }
+        return count;
+    }
+
+    private static void add(Seat seat, int i, int t) {
+        if (seat.sizes[i] == seat.cards[i].length) {
+            seat.cards[i] = Arrays.copyOf(seat.cards[i], seat.cards[i].length * 2);
+        }
+        seat.cards[i][seat.sizes[i]++] = t;
+    }
+
+    private static void removeAt(Seat seat, int i, int k) {
+        seat.cards[i][k] = seat.cards[i][--seat.sizes[i]];
+    }
+}
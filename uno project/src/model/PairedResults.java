@@ -0,0 +1,207 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Head-to-head statistics from duplicate deals, where every seat rotation of a table is
+ * played on the same shuffle so the luck of the deal cancels out of each comparison.
+ *
+ * For every pair of entrants at a table, a game scores {@code 2 * outcome - 1} for the
+ * first of the two: +1 when it finished ahead, -1 when behind, averaged over the seat
+ * pairs they held. A deal's paired difference is the mean of that score over all its
+ * rotations. The mean, standard error and significance of a comparison come from the
+ * spread of those per-deal differences; the variance reduction compares that error with
+ * the one the same games would give if every game had been dealt independently.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PairedResults {
+
+    private final String[] names;
+    private final Accumulator[][] pairs;
+    private int dealsRecorded;
+
+    /**
+     * Running sums for one pair of entrants, from the first entrant's side
+     */
+    private static final class Accumulator {
+        int deals;
+        double dealSum;
+        double dealSquares;
+        int games;
+        double gameSum;
+        double gameSquares;
+        double inverseRotations; // sum of 1 / games per deal, to scale the unpaired variance
+    }
+
+    /**
+     * One pair's paired-difference summary
+     */
+    public static final class Comparison {
+        public final String first;
+        public final String second;
+        public final int deals;
+        public final int games;
+        /** Mean per-deal difference in [-1, 1]; positive when first is ahead */
+        public final double mean;
+        public final double stdError;
+        public final double ci95;
+        /** Two-sided p-value of no difference */
+        public final double pValue;
+        /** How many times more independently dealt games would give the same error */
+        public final double varianceReduction;
+
+        Comparison(String first, String second, int deals, int games, double mean, double stdError,
+                   double pValue, double varianceReduction) {
+            this.first = first;
+            this.second = second;
+            this.deals = deals;
+            this.games = games;
+            this.mean = mean;
+            this.stdError = stdError;
+            this.ci95 = 1.96 * stdError;
+            this.pValue = pValue;
+            this.varianceReduction = varianceReduction;
+        }
+
+        /**
+         * @return whether the difference is significant at the 5% level
+         */
+        public boolean significant() {
+            return pValue < 0.05;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-16s vs %-16s %+.3f +/- %.3f  p=%.4f  %5d deals  %6d games  %5.1fx variance reduction",
+                    first, second, mean, ci95, pValue, deals, games, varianceReduction);
+        }
+    }
+
+    /**
+     * @param names entrant names, indexed like the entrant numbers passed to recordDeal
+     */
+    public PairedResults(String[] names) {
+        this.names = names.clone();
+        this.pairs = new Accumulator[names.length][names.length];
+        for (int i = 0; i < names.length; i++) {
+            for (int j = i + 1; j < names.length; j++) {
+                pairs[i][j] = new Accumulator();
+            }
+        }
+    }
+
+    /**
+     * Adds every rotation of one table played on one deal
+     * @param entrantBySeat the entrant number in each seat, one array per rotation
+     * @param results the result of each rotation, in the same order
+     */
+    public synchronized void recordDeal(List<int[]> entrantBySeat, List<HeadlessGame.Result> results) {
+        if (entrantBySeat.size() != results.size() || results.isEmpty()) {
+            throw new IllegalArgumentException("Need one result per rotation");
+        }
+        for (int i = 0; i < names.length; i++) {
+            for (int j = i + 1; j < names.length; j++) {
+                Accumulator pair = pairs[i][j];
+                double dealTotal = 0;
+                int played = 0;
+                for (int g = 0; g < results.size(); g++) {
+                    double score = gameScore(entrantBySeat.get(g), results.get(g), i, j);
+                    if (Double.isNaN(score)) continue;
+                    dealTotal += score;
+                    played++;
+                    pair.games++;
+                    pair.gameSum += score;
+                    pair.gameSquares += score * score;
+                }
+                if (played == 0) continue;
+                double difference = dealTotal / played;
+                pair.deals++;
+                pair.dealSum += difference;
+                pair.dealSquares += difference * difference;
+                pair.inverseRotations += 1.0 / played;
+            }
+        }
+        dealsRecorded++;
+    }
+
+    /**
+     * @return the mean of {@code 2 * outcome - 1} over the seats held by i and j, or NaN
+     *         when they did not meet in this game
+     */
+    private static double gameScore(int[] entrantBySeat, HeadlessGame.Result result, int i, int j) {
+        double total = 0;
+        int meetings = 0;
+        for (int a = 0; a < entrantBySeat.length; a++) {
+            if (entrantBySeat[a] != i) continue;
+            for (int b = 0; b < entrantBySeat.length; b++) {
+                if (entrantBySeat[b] != j) continue;
+                total += 2 * result.outcome(a, b) - 1;
+                meetings++;
+            }
+        }
+        return meetings == 0 ? Double.NaN : total / meetings;
+    }
+
+    public synchronized int getDealsRecorded() {
+        return dealsRecorded;
+    }
+
+    /**
+     * @return the comparison between two entrants, from the first one's side
+     */
+    public synchronized Comparison compare(int first, int second) {
+        if (first == second) {
+            throw new IllegalArgumentException("An entrant cannot be compared with itself");
+        }
+        boolean flipped = first > second;
+        Accumulator pair = flipped ? pairs[second][first] : pairs[first][second];
+        int n = pair.deals;
+        double mean = n == 0 ? 0 : pair.dealSum / n;
+        double dealVariance = n < 2 ? Double.NaN : (pair.dealSquares - n * mean * mean) / (n - 1);
+        double stdError = n < 2 ? Double.POSITIVE_INFINITY : Math.sqrt(Math.max(0, dealVariance) / n);
+
+        double gameMean = pair.games == 0 ? 0 : pair.gameSum / pair.games;
+        double gameVariance = pair.games < 2 ? Double.NaN
+                : (pair.gameSquares - pair.games * gameMean * gameMean) / (pair.games - 1);
+        double unpairedError = n == 0 ? Double.NaN : Math.sqrt(Math.max(0, gameVariance) * pair.inverseRotations) / n;
+        double reduction = unpairedError * unpairedError / (stdError * stdError);
+
+        double pValue;
+        if (n < 2) {
+            pValue = 1.0;
+        } else if (stdError == 0) {
+            pValue = mean == 0 ? 1.0 : 0.0;
+        } else {
+            pValue = 2 * (1 - normalCdf(Math.abs(mean) / stdError));
+        }
+        return new Comparison(names[first], names[second], n, pair.games, flipped ? -mean : mean, stdError,
+                pValue, Double.isNaN(reduction) ? 1.0 : reduction);
+    }
+
+    /**
+     * @return every pair that has met, the first name being the earlier entrant
+     */
+    public synchronized List<Comparison> comparisons() {
+        List<Comparison> result = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            for (int j = i + 1; j < names.length; j++) {
+                if (pairs[i][j].deals > 0) result.add(compare(i, j));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Standard normal distribution function, Abramowitz and Stegun 26.2.17 (error below 1e-7)
+     */
+    static double normalCdf(double z) {
+        double t = 1 / (1 + 0.2316419 * Math.abs(z));
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937
+                + t * (-1.821255978 + t * 1.330274429))));
+        return z >= 0 ? 1 - tail : tail;
+    }
+}
@@ -0,0 +1,148 @@
+package model;
+
+/**
+ * Sequential probability ratio test on paired differences, B minus A, for deciding an
+ * A/B comparison as soon as the data allow instead of after a fixed number of games.
+ *
+ * Two one-sided tests run side by side, "no difference" against "B is higher by the
+ * effect" and against "B is lower by the effect". Each uses the normal log-likelihood
+ * ratio with the variance estimated from the differences so far (the generalized SPRT),
+ * with Wald's bounds at half the false positive rate each. The comparison is decided as
+ * soon as one side accepts a difference, or both accept that there is none worth the
+ * effect.
+ *
+ * The effect is either absolute, such as 0.05 for a win rate, or relative to A's mean,
+ * such as 0.05 for a 5% change in game length.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PairedSprt {
+
+    /** Pairs needed before the variance estimate is trusted */
+    public static final int MIN_PAIRS = 30;
+
+    public enum Decision {
+        UNDECIDED, B_HIGHER, B_LOWER, NO_DIFFERENCE
+    }
+
+    private final String metric;
+    private final double effect;
+    private final boolean relative;
+    private final double lowerBound;
+    private final double upperBound;
+
+    private int pairs;
+    private double sumA;
+    private double sumB;
+    private double sumDifference;
+    private double sumSquaredDifference;
+    private Decision decision = Decision.UNDECIDED;
+    private int decidedAt;
+
+    /**
+     * @param metric name for reports
+     * @param effect smallest difference worth detecting
+     * @param relative true if the effect is a share of A's mean
+     * @param alpha chance of declaring a difference when there is none
+     * @param beta chance of missing a difference of the full effect
+     */
+    public PairedSprt(String metric, double effect, boolean relative, double alpha, double beta) {
+        if (effect <= 0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Need a positive effect and error rates between 0 and 1");
+        }
+        this.metric = metric;
+        this.effect = effect;
+        this.relative = relative;
+        this.lowerBound = Math.log(beta / (1 - alpha / 2));
+        this.upperBound = Math.log((1 - beta) / (alpha / 2));
+    }
+
+    /**
+     * Adds one pair of measurements, A and B on the same deal. Pairs added after the
+     * test is decided still update the means but not the decision.
+     */
+    public void add(double a, double b) {
+        pairs++;
+        sumA += a;
+        sumB += b;
+        double difference = b - a;
+        sumDifference += difference;
+        sumSquaredDifference += difference * difference;
+        if (decision == Decision.UNDECIDED && pairs >= MIN_PAIRS) {
+            double up = logLikelihoodRatio(+1);
+            double down = logLikelihoodRatio(-1);
+            if (up >= upperBound) {
+                decide(Decision.B_HIGHER);
+            } else if (down >= upperBound) {
+                decide(Decision.B_LOWER);
+            } else if (up <= lowerBound && down <= lowerBound) {
+                decide(Decision.NO_DIFFERENCE);
+            }
+        }
+    }
+
+    private void decide(Decision decision) {
+        this.decision = decision;
+        this.decidedAt = pairs;
+    }
+
+    /**
+     * @param sign +1 for the test of B higher, -1 for B lower
+     * @return the log-likelihood ratio of a difference of the effect against none
+     */
+    double logLikelihoodRatio(int sign) {
+        double delta = sign * effectSize();
+        double mean = sumDifference / pairs;
+        double variance = (sumSquaredDifference - pairs * mean * mean) / Math.max(1, pairs - 1);
+        // identical pairs give no variance; a tiny floor lets the ratio settle the test
+        variance = Math.max(variance, 1e-6 * delta * delta);
+        return pairs * (delta * mean - delta * delta / 2) / variance;
+    }
+
+    /**
+     * @return the effect in the metric's units
+     */
+    public double effectSize() {
+        double size = relative ? effect * Math.abs(meanA()) : effect;
+        return size > 0 ? size : effect;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public boolean isDecided() {
+        return decision != Decision.UNDECIDED;
+    }
+
+    /**
+     * @return the pairs it took to decide, 0 while undecided
+     */
+    public int getDecidedAt() {
+        return decidedAt;
+    }
+
+    public int getPairs() {
+        return pairs;
+    }
+
+    public double meanA() {
+        return pairs == 0 ? 0 : sumA / pairs;
+    }
+
+    public double meanB() {
+        return pairs == 0 ? 0 : sumB / pairs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s A %9.3f  B %9.3f  B-A %+9.3f (effect %.3f)  %-13s %s",
+                metric, meanA(), meanB(), meanB() - meanA(), effectSize(), decision,
+                isDecided() ? "after " + decidedAt + " pairs" : "after " + pairs + " pairs");
+    }
+}
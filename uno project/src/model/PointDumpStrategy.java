@@ -0,0 +1,62 @@
+package model;
+
+import controller.GameState;
+
+import java.util.List;
+
+/**
+ * An experimental strategy that sheds points as fast as it can: it plays the most
+ * valuable colored card it can, falls back to wilds only when nothing else fits, names
+ * the color holding the most points and keeps a drawn wild for later while it still has
+ * a few cards. Registered as DUMP.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PointDumpStrategy implements AIStrategy {
+
+    /** Hand size above which a drawn wild is kept rather than played */
+    private static final int KEEP_WILD_ABOVE = 2;
+
+    @Override
+    public String name() {
+        return "DUMP";
+    }
+
+    @Override
+    public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+        List<Card> hand = player.getHand();
+        int best = -1;
+        int bestPoints = -1;
+        boolean colored = context.hasColoredPlayable();
+        for (int idx = context.nextPlayable(0); idx >= 0; idx = context.nextPlayable(idx + 1)) {
+            if (colored && context.isWildPlayable(idx)) continue;
+            int points = hand.get(idx).getPointValue();
+            if (points > bestPoints) {
+                bestPoints = points;
+                best = idx;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public Card.Color chooseWildColor(AIPlayer player, Card.Side side) {
+        Card.Color[] palette = EndgameSolver.PALETTES[side == Card.Side.DARK ? 1 : 0];
+        int[] points = new int[palette.length];
+        for (Card card : player.getHand()) {
+            int c = EndgameSolver.colorIndex(card.getColor());
+            if (c < palette.length) points[c] += card.getPointValue() + 1;
+        }
+        int best = 0;
+        for (int c = 1; c < palette.length; c++) {
+            if (points[c] > points[best]) best = c;
+        }
+        return palette[best];
+    }
+
+    @Override
+    public boolean playDrawnCard(AIPlayer player, Card drawn) {
+        return drawn.getColor() != Card.Color.WILD || player.getHandSize() <= KEEP_WILD_ABOVE;
+    }
+}
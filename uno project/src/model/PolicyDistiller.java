@@ -0,0 +1,474 @@
+package model;
+
+import controller.GameState;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Distills a slow searching AI (the teacher) into a {@link LearnedPolicy} (the student)
+ * that decides in about a microsecond.
+ *
+ * Positions come from seeded HARD self-play at 2, 3 and 4 seats, generated on all
+ * cores; every turn with a real choice is labelled with the teacher's move, which by
+ * default is HARD with {@link ExpectimaxSearch} looking {@link ExpectimaxSearch#DEFAULT_DEPTH}
+ * turns ahead. The student is fitted to the labels by maximum likelihood over the
+ * policy's softmax, with part of the corpus held out. The report gives how often the
+ * student picks the teacher's move on the held-out positions, the cost of a decision
+ * for each, and the student's Elo difference from the teacher over heads-up games.
+ *
+ * The student is written in the {@link LearnedPolicy} format, so it plays with
+ * {@code --ai-learned=ai_distilled.bin}; {@link DistilledStrategy} ships a student
+ * distilled this way as the DISTILLED strategy.
+ *
+ * Usage:
+ * <pre>
+ * java model.PolicyDistiller --positions=20000 --games=200 --out=ai_distilled.bin
+ * java model.PolicyDistiller --teacher=HARD --depth=4 --threads=8 --seed=7
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PolicyDistiller {
+
+    private static final int MAX_TURNS = 200;
+    private static final int POSITIONS_PER_GAME = 40;
+    private static final int LATENCY_SAMPLE = 500;
+    private static final double L2 = 1e-4;
+
+    private final AIStrategy teacher;
+    private final int teacherDepth;
+    private final int threads;
+    private final PrintStream out;
+    private int epochs = 400;
+    private double learningRate = 1.0;
+    private double holdout = 0.2;
+
+    /**
+     * Labelled positions: the features of every candidate action, flat, and the index of
+     * the one the teacher chose
+     */
+    static final class Corpus {
+        double[] features = new double[1 << 16];
+        int[] actionStart = new int[1024]; // first action of each position, plus an end marker
+        int[] chosen = new int[1024];
+        int size;
+        int actions;
+        final List<GameState> sample = new ArrayList<>(); // a few positions for timing
+        long teacherNanos;
+
+        void add(double[][] candidates, int count, int choice) {
+            if (size + 2 > actionStart.length) {
+                actionStart = Arrays.copyOf(actionStart, actionStart.length * 2);
+                chosen = Arrays.copyOf(chosen, chosen.length * 2);
+            }
+            int needed = (actions + count) * LearnedPolicy.FEATURES;
+            if (needed > features.length) {
+                features = Arrays.copyOf(features, Math.max(needed, features.length * 2));
+            }
+            for (int a = 0; a < count; a++) {
+                System.arraycopy(candidates[a], 0, features, (actions + a) * LearnedPolicy.FEATURES,
+                        LearnedPolicy.FEATURES);
+            }
+            chosen[size] = choice;
+            actions += count;
+            actionStart[++size] = actions;
+        }
+
+        void addAll(Corpus other) {
+            for (int p = 0; p < other.size; p++) {
+                int first = other.actionStart[p];
+                int count = other.actionStart[p + 1] - first;
+                double[][] candidates = new double[count][];
+                for (int a = 0; a < count; a++) {
+                    int from = (first + a) * LearnedPolicy.FEATURES;
+                    candidates[a] = Arrays.copyOfRange(other.features, from, from + LearnedPolicy.FEATURES);
+                }
+                add(candidates, count, other.chosen[p]);
+            }
+            teacherNanos += other.teacherNanos;
+            for (GameState state : other.sample) {
+                if (sample.size() < LATENCY_SAMPLE) sample.add(state);
+            }
+        }
+    }
+
+    /**
+     * What a distillation produced
+     */
+    public static final class Report {
+        public final LearnedPolicy student;
+        public final int positions;
+        public final double trainAgreement;
+        public final double agreement;
+        public final double eloGap;
+        public final double eloCi95;
+        public final int games;
+        public final double teacherMicros;
+        public final double studentMicros;
+
+        Report(LearnedPolicy student, int positions, double trainAgreement, double agreement,
+               double eloGap, double eloCi95, int games, double teacherMicros, double studentMicros) {
+            this.student = student;
+            this.positions = positions;
+            this.trainAgreement = trainAgreement;
+            this.agreement = agreement;
+            this.eloGap = eloGap;
+            this.eloCi95 = eloCi95;
+            this.games = games;
+            this.teacherMicros = teacherMicros;
+            this.studentMicros = studentMicros;
+        }
+
+        @Override
+        public String toString() {
+            String elo = games == 0 ? "not measured"
+                    : String.format("%+.0f +/- %.0f over %d games", eloGap, eloCi95, games);
+            return String.format("%d positions, agreement %.1f%% held out (%.1f%% trained), "
+                            + "Elo gap %s, %.1f us/decision teacher vs %.2f us student",
+                    positions, agreement * 100, trainAgreement * 100, elo, teacherMicros, studentMicros);
+        }
+    }
+
+    /**
+     * @param teacher the strategy to imitate
+     * @param teacherDepth expectimax depth given to the teacher's players, 0 for none
+     */
+    public PolicyDistiller(AIStrategy teacher, int teacherDepth, int threads, PrintStream out) {
+        this.teacher = teacher;
+        this.teacherDepth = Math.max(0, teacherDepth);
+        this.threads = Math.max(1, threads);
+        this.out = out;
+    }
+
+    public void setEpochs(int epochs) {
+        this.epochs = Math.max(1, epochs);
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * @param holdout share of the positions kept out of training to measure agreement
+     */
+    public void setHoldout(double holdout) {
+        this.holdout = Math.min(0.9, Math.max(0.0, holdout));
+    }
+
+    /**
+     * Labels positions, fits the student and measures it
+     * @param positions positions to label
+     * @param games heads-up games of student against teacher for the Elo gap, 0 to skip
+     */
+    public Report distill(int positions, int games, long seed) throws InterruptedException {
+        Corpus corpus = label(positions, seed);
+        int train = (int) Math.round(corpus.size * (1 - holdout));
+        out.printf("Labelled %d positions, %d candidate actions%n", corpus.size, corpus.actions);
+
+        LearnedPolicy student = fit(corpus, 0, train);
+        double trainAgreement = agreement(student, corpus, 0, train);
+        double agreement = train < corpus.size ? agreement(student, corpus, train, corpus.size) : trainAgreement;
+
+        double teacherMicros = corpus.teacherNanos / 1000.0 / Math.max(1, corpus.size);
+        double studentMicros = studentMicros(student, corpus.sample);
+
+        double gap = 0;
+        double ci = 0;
+        if (games > 0) {
+            EloRatings ratings = playMatch(student, games, seed);
+            for (EloRatings.Standing s : ratings.standings()) {
+                if (s.name.equals("student")) ci = s.ci95;
+            }
+            gap = ratings.ratingOf("student") - ratings.ratingOf("teacher");
+        }
+        return new Report(student, corpus.size, trainAgreement, agreement, gap, ci, games,
+                teacherMicros, studentMicros);
+    }
+
+    /**
+     * Plays seeded self-play games on all cores and labels their positions with the
+     * teacher's moves; the corpus is the same for any number of threads
+     */
+    Corpus label(int positions, long seed) throws InterruptedException {
+        Corpus corpus = new Corpus();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long game = seed;
+            while (corpus.size < positions) {
+                List<Future<Corpus>> wave = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long gameSeed = game++;
+                    wave.add(executor.submit(() -> labelGame(gameSeed)));
+                }
+                int before = corpus.size;
+                for (Future<Corpus> future : wave) {
+                    Corpus part = future.get();
+                    if (corpus.size < positions) corpus.addAll(part);
+                }
+                if (before * 10 / positions != Math.min(corpus.size, positions) * 10 / positions) {
+                    out.printf("  %d/%d positions labelled%n", Math.min(corpus.size, positions), positions);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Labelling failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        while (corpus.size > positions) { // the last game may overshoot
+            corpus.size--;
+            corpus.actions = corpus.actionStart[corpus.size];
+        }
+        return corpus;
+    }
+
+    private Corpus labelGame(long seed) {
+        Corpus corpus = new Corpus();
+        int seats = 2 + (int) Math.floorMod(seed, 3L);
+        List<AIPlayer> players = new ArrayList<>();
+        for (int s = 0; s < seats; s++) {
+            AIPlayer player = new AIPlayer("Seat " + s, AIPlayer.DifficultyLevel.HARD);
+            player.setSeed(seed * 31 + s);
+            players.add(player);
+        }
+        GameModel model = new GameModel(players, seed);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.startGame();
+
+        double[][] candidates = new double[16][LearnedPolicy.FEATURES];
+        for (int turn = 0; turn < MAX_TURNS && corpus.size < POSITIONS_PER_GAME; turn++) {
+            GameState state = model.getState();
+            if (state.topDiscard != null && state.currentPlayer instanceof AIPlayer && hasChoice(state)) {
+                candidates = labelPosition(state, seed * 1_000_003L + turn, candidates, corpus);
+            }
+            model.processAITurn();
+        }
+        return corpus;
+    }
+
+    /**
+     * @return whether the player on turn has more than one action, counting wild colors
+     */
+    private static boolean hasChoice(GameState state) {
+        if (state.playableIndices.size() > 1) return true;
+        return state.playableIndices.size() == 1
+                && state.currentPlayer.getHand().get(state.playableIndices.get(0)).getColor() == Card.Color.WILD;
+    }
+
+    private double[][] labelPosition(GameState state, long seed, double[][] candidates, Corpus corpus) {
+        List<Card> hand = state.currentPlayer.getHand();
+        int count = 0;
+        for (int idx : state.playableIndices) {
+            count += hand.get(idx).getColor() == Card.Color.WILD ? 4 : 1;
+        }
+        if (count > candidates.length) {
+            candidates = new double[count][LearnedPolicy.FEATURES];
+        }
+
+        // the teacher plays from the copy of the player on turn
+        AIPlayer player = (AIPlayer) state.currentPlayer;
+        player.setSeed(seed);
+        player.setStrategy(teacher);
+        player.setEndgameThreshold(AIPlayer.DEFAULT_ENDGAME_THRESHOLD);
+        player.setSearchDepth(teacherDepth);
+        long start = System.nanoTime();
+        int move = player.selectCardToPlay(state);
+        Card.Color color = null;
+        if (move >= 0 && move < hand.size() && hand.get(move).getColor() == Card.Color.WILD) {
+            color = state.currentSide == Card.Side.DARK ? player.chooseWildDrawColor() : player.chooseWildColor();
+        }
+        corpus.teacherNanos += System.nanoTime() - start;
+
+        int choice = -1;
+        int a = 0;
+        for (int idx : state.playableIndices) {
+            boolean wild = hand.get(idx).getColor() == Card.Color.WILD;
+            for (int c = wild ? 0 : 4; c <= (wild ? 3 : 4); c++) {
+                LearnedPolicy.features(state, hand, idx, c, candidates[a]);
+                if (idx == move && (!wild || EndgameSolver.colorIndex(color) == c)) choice = a;
+                a++;
+            }
+        }
+        if (choice >= 0) { // a teacher that draws holding a playable card teaches nothing here
+            corpus.add(candidates, count, choice);
+            if (corpus.sample.size() < LATENCY_SAMPLE) corpus.sample.add(state);
+        }
+        return candidates;
+    }
+
+    /**
+     * Fits weights maximising the likelihood of the teacher's choices under the
+     * policy's softmax, by full-batch gradient ascent with a little L2 shrinkage
+     */
+    LearnedPolicy fit(Corpus corpus, int from, int to) {
+        int n = LearnedPolicy.FEATURES;
+        double[] weights = new double[n];
+        double[] gradient = new double[n];
+        double[] expected = new double[n];
+        double[] values = new double[64];
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            Arrays.fill(gradient, 0);
+            for (int p = from; p < to; p++) {
+                int first = corpus.actionStart[p];
+                int count = corpus.actionStart[p + 1] - first;
+                if (count > values.length) values = new double[count];
+
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < count; a++) {
+                    values[a] = dot(weights, corpus.features, (first + a) * n);
+                    max = Math.max(max, values[a]);
+                }
+                double total = 0;
+                for (int a = 0; a < count; a++) {
+                    values[a] = Math.exp(values[a] - max);
+                    total += values[a];
+                }
+
+                Arrays.fill(expected, 0);
+                for (int a = 0; a < count; a++) {
+                    double share = values[a] / total;
+                    int base = (first + a) * n;
+                    for (int i = 0; i < n; i++) expected[i] += share * corpus.features[base + i];
+                }
+                int base = (first + corpus.chosen[p]) * n;
+                for (int i = 0; i < n; i++) gradient[i] += corpus.features[base + i] - expected[i];
+            }
+            int examples = Math.max(1, to - from);
+            for (int i = 0; i < n; i++) {
+                weights[i] += learningRate * (gradient[i] / examples - L2 * weights[i]);
+            }
+        }
+        return LearnedPolicy.of(weights);
+    }
+
+    /**
+     * @return share of positions where the student's best action is the teacher's
+     */
+    double agreement(LearnedPolicy student, Corpus corpus, int from, int to) {
+        double[] weights = student.toArray();
+        int agreed = 0;
+        for (int p = from; p < to; p++) {
+            int first = corpus.actionStart[p];
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < corpus.actionStart[p + 1] - first; a++) {
+                double value = dot(weights, corpus.features, (first + a) * LearnedPolicy.FEATURES);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = a;
+                }
+            }
+            if (best == corpus.chosen[p]) agreed++;
+        }
+        return to > from ? (double) agreed / (to - from) : 0;
+    }
+
+    private static double dot(double[] weights, double[] features, int base) {
+        double value = 0;
+        for (int i = 0; i < weights.length; i++) value += weights[i] * features[base + i];
+        return value;
+    }
+
+    private static double studentMicros(LearnedPolicy student, List<GameState> sample) {
+        if (sample.isEmpty()) return 0;
+        long sink = 0;
+        int rounds = 200;
+        for (int r = 0; r < rounds / 4; r++) { // warm up
+            for (GameState state : sample) sink += student.select(state, state.currentPlayer.getHand());
+        }
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (GameState state : sample) sink += student.select(state, state.currentPlayer.getHand());
+        }
+        long elapsed = System.nanoTime() - start;
+        return sink == Long.MIN_VALUE ? 0 : elapsed / 1000.0 / ((double) rounds * sample.size());
+    }
+
+    /**
+     * Heads-up games of student against teacher, seats swapped every other game
+     */
+    private EloRatings playMatch(LearnedPolicy student, int games, long seed) throws InterruptedException {
+        EloRatings ratings = new EloRatings(new String[]{"student", "teacher"});
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<HeadlessGame.Result>> results = new ArrayList<>();
+            for (int g = 0; g < games; g++) {
+                boolean studentFirst = g % 2 == 0;
+                long gameSeed = seed + 1_000_003L * (g / 2);
+                results.add(executor.submit(() -> {
+                    AIPlayer s = new AIPlayer("Student", AIPlayer.DifficultyLevel.MEDIUM);
+                    s.setLearnedPolicy(student);
+                    AIPlayer t = new AIPlayer("Teacher", AIPlayer.DifficultyLevel.HARD);
+                    t.setStrategy(teacher);
+                    t.setSearchDepth(teacherDepth);
+                    return new HeadlessGame(studentFirst ? Arrays.asList(s, t) : Arrays.asList(t, s), gameSeed).play();
+                }));
+            }
+            for (int g = 0; g < games; g++) {
+                ratings.record(g % 2 == 0 ? new int[]{0, 1} : new int[]{1, 0}, results.get(g).get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Match game failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return ratings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int positions = 20000;
+        int games = 200;
+        String teacherName = "HARD";
+        int depth = ExpectimaxSearch.DEFAULT_DEPTH;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int epochs = 400;
+        long seed = 1L;
+        Path output = Paths.get("ai_distilled.bin");
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--positions": positions = Integer.parseInt(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--teacher": teacherName = value; break;
+                case "--depth": depth = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--epochs": epochs = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--out": output = Paths.get(value); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        AIStrategy teacher = AIStrategies.find(teacherName);
+        if (teacher == null) {
+            System.err.println("Unknown teacher strategy: " + teacherName);
+            return;
+        }
+        PolicyDistiller distiller = new PolicyDistiller(teacher, depth, threads, System.out);
+        distiller.setEpochs(epochs);
+        Report report = distiller.distill(positions, games, seed);
+        System.out.println(report);
+        try {
+            report.student.save(output);
+        } catch (IOException e) {
+            System.err.println("Could not write student policy: " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + output + ": " + report.student);
+    }
+}
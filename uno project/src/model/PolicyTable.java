@@ -0,0 +1,221 @@
+package model;
+
+import controller.GameState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Precomputed best actions for abstracted AI decisions, read from a memory-mapped file.
+ *
+ * A situation is described by the side in play, the kind of top card, buckets of how
+ * many cards in hand match the top by color, by value, are wild or are matching action
+ * cards, the hand size, the number of colors held and the next player's hand size. Each
+ * situation maps to one byte naming a class of card to play (see the ACTION constants),
+ * 0 when the generator never decided it. Looking an action up is one index computation
+ * and one byte read; the mapped file is shared by every process through the page cache.
+ * Reads are absolute and never move the buffer's position, so one table can be looked
+ * up from several threads at once.
+ *
+ * File layout: magic, version and entry count as big-endian ints, then one byte per
+ * situation. {@link PolicyTableGenerator} writes it.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PolicyTable {
+
+    static final int MAGIC = 0x554E4F50; // "UNOP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+
+    public static final byte NO_ACTION = 0;
+    /** Number card of the top card's color */
+    public static final byte ACTION_NUMBER_COLOR = 1;
+    /** Number card matching only the top card's value */
+    public static final byte ACTION_NUMBER_VALUE = 2;
+    /** Skip, reverse, flip or skip everyone of the top card's color */
+    public static final byte ACTION_SPECIAL_COLOR = 3;
+    /** Skip, reverse, flip or skip everyone matching only the top card's value */
+    public static final byte ACTION_SPECIAL_VALUE = 4;
+    /** Draw one or draw five of the top card's color */
+    public static final byte ACTION_DRAW_COLOR = 5;
+    /** Draw one or draw five matching only the top card's value */
+    public static final byte ACTION_DRAW_VALUE = 6;
+    public static final byte ACTION_WILD = 7;
+    public static final byte ACTION_WILD_DRAW = 8;
+    static final int ACTIONS = 9;
+
+    // bucket sizes, in key order
+    private static final int SIDES = 2;
+    private static final int TOP_KINDS = 4;
+    private static final int COLOR_MATCHES = 4;
+    private static final int VALUE_MATCHES = 3;
+    private static final int WILDS = 3;
+    private static final int SPECIAL_MATCHES = 3;
+    private static final int HAND_SIZES = 6;
+    private static final int COLORS_HELD = 4;
+    private static final int NEXT_HAND_SIZES = 4;
+
+    /** Number of distinct situations */
+    public static final int SITUATIONS = SIDES * TOP_KINDS * COLOR_MATCHES * VALUE_MATCHES * WILDS
+            * SPECIAL_MATCHES * HAND_SIZES * COLORS_HELD * NEXT_HAND_SIZES;
+
+    private final ByteBuffer actions;
+
+    private PolicyTable(ByteBuffer actions) {
+        this.actions = actions;
+    }
+
+    /**
+     * Maps a table file read-only
+     * @throws IOException if the file cannot be read or is not a policy table
+     */
+    public static PolicyTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + (long) SITUATIONS) {
+                throw new IOException("Not a policy table: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != SITUATIONS) {
+                throw new IOException("Not a policy table: " + file);
+            }
+            return new PolicyTable(buffer.position(HEADER_BYTES).slice());
+        }
+    }
+
+    /**
+     * Writes one action per situation in the format {@link #open} reads
+     */
+    static void write(Path file, byte[] table) throws IOException {
+        if (table.length != SITUATIONS) {
+            throw new IllegalArgumentException("Expected " + SITUATIONS + " actions, got " + table.length);
+        }
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + SITUATIONS);
+        out.putInt(MAGIC).putInt(VERSION).putInt(SITUATIONS).put(table);
+        Files.write(file, out.array());
+    }
+
+    /**
+     * @return the stored action for a situation, NO_ACTION if the generator left it open
+     */
+    public byte action(int situation) {
+        return actions.get(situation);
+    }
+
+    /**
+     * Looks up the player on turn's move
+     * @param state the game state
+     * @param hand the hand of the player on turn
+     * @return the hand index to play, or -1 on a miss so the caller falls back
+     */
+    public int lookup(GameState state, List<Card> hand) {
+        if (state.topDiscard == null || state.playableIndices.isEmpty()) return -1;
+        byte action = action(situation(state, hand));
+        return action == NO_ACTION ? -1 : cardFor(action, state, hand);
+    }
+
+    /**
+     * Plays the most points of the chosen class, dumping them before someone goes out
+     * @return the hand index, or -1 if no playable card is of that class
+     */
+    static int cardFor(byte action, GameState state, List<Card> hand) {
+        int best = -1;
+        for (int idx : state.playableIndices) {
+            if (actionOf(hand.get(idx), state.topDiscard) == action
+                    && (best < 0 || hand.get(idx).getPointValue() > hand.get(best).getPointValue())) {
+                best = idx;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the action class that playing the card on the top card belongs to
+     */
+    static byte actionOf(Card card, Card top) {
+        if (card.getColor() == Card.Color.WILD) {
+            return card.getValue() == Card.Value.WILD ? ACTION_WILD : ACTION_WILD_DRAW;
+        }
+        boolean sameColor = card.getColor() == top.getColor();
+        if (isDraw(card.getValue())) return sameColor ? ACTION_DRAW_COLOR : ACTION_DRAW_VALUE;
+        if (isNumber(card.getValue())) return sameColor ? ACTION_NUMBER_COLOR : ACTION_NUMBER_VALUE;
+        return sameColor ? ACTION_SPECIAL_COLOR : ACTION_SPECIAL_VALUE;
+    }
+
+    /**
+     * @return the index of the abstracted situation of the player on turn
+     */
+    static int situation(GameState state, List<Card> hand) {
+        Card top = state.topDiscard;
+        int colorMatches = 0;
+        int valueMatches = 0;
+        int wilds = 0;
+        int specialMatches = 0;
+        int colorMask = 0;
+        for (Card card : hand) {
+            if (card.getColor() == Card.Color.WILD) {
+                wilds++;
+                continue;
+            }
+            colorMask |= 1 << card.getColor().ordinal();
+            boolean sameColor = card.getColor() == top.getColor();
+            if (sameColor) {
+                colorMatches++;
+            } else if (card.getValue() == top.getValue()) {
+                valueMatches++;
+            }
+            if ((sameColor || card.getValue() == top.getValue()) && !isNumber(card.getValue())) {
+                specialMatches++;
+            }
+        }
+
+        int n = state.players.size();
+        int next = Math.floorMod(state.currentPlayerIndex + (state.clockwise ? 1 : -1), n);
+        int nextHand = state.players.get(next).getHandSize();
+
+        int key = state.currentSide == Card.Side.DARK ? 1 : 0;
+        key = key * TOP_KINDS + topKind(top);
+        key = key * COLOR_MATCHES + Math.min(colorMatches, COLOR_MATCHES - 1);
+        key = key * VALUE_MATCHES + Math.min(valueMatches, VALUE_MATCHES - 1);
+        key = key * WILDS + Math.min(wilds, WILDS - 1);
+        key = key * SPECIAL_MATCHES + Math.min(specialMatches, SPECIAL_MATCHES - 1);
+        key = key * HAND_SIZES + handSizeBucket(hand.size());
+        key = key * COLORS_HELD + Math.max(0, Math.min(Integer.bitCount(colorMask), COLORS_HELD) - 1);
+        key = key * NEXT_HAND_SIZES + nextHandBucket(nextHand);
+        return key;
+    }
+
+    private static int topKind(Card top) {
+        Card.Value value = top.getValue();
+        if (isNumber(value)) return 0;
+        if (isDraw(value) || value == Card.Value.WILD_DRAW_TWO || value == Card.Value.WILD_DRAW_COLOR) return 2;
+        if (value == Card.Value.WILD) return 3;
+        return 1;
+    }
+
+    private static int handSizeBucket(int size) {
+        if (size <= 3) return Math.max(0, size - 1);
+        if (size <= 5) return 3;
+        return size <= 8 ? 4 : 5;
+    }
+
+    private static int nextHandBucket(int size) {
+        if (size <= 2) return Math.max(0, size - 1);
+        return size <= 4 ? 2 : 3;
+    }
+
+    private static boolean isNumber(Card.Value value) {
+        return value.ordinal() <= Card.Value.NINE.ordinal();
+    }
+
+    private static boolean isDraw(Card.Value value) {
+        return value == Card.Value.DRAW_ONE || value == Card.Value.DRAW_FIVE;
+    }
+}
@@ -0,0 +1,302 @@
+package model;
+
+import controller.GameState;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a {@link PolicyTable} offline from rollouts.
+ *
+ * Games between heuristic HARD players supply realistic decisions. At a sample of them,
+ * every class of card the player could play is tried on copies of the model and the
+ * round is played out several times with different AI seeds; the value of a class is
+ * how much more often the player on turn went on to win the round than after the card
+ * the heuristic picked, using the same seeds for both. The rollouts see every hand, but
+ * the table only keys on what the player can see, so the result averages over the
+ * hidden cards of all positions that share a situation. Only actions that beat the
+ * heuristic by a clear margin are stored, so a sparse run leaves the heuristics in charge.
+ *
+ * Usage:
+ * <pre>
+ * java model.PolicyTableGenerator --games=20000 --seats=2,3,4 --rollouts=8 --out=ai_policy.bin
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PolicyTableGenerator {
+
+    private static final int MAX_TURNS = 2000;
+    /** How many standard errors an action must beat the heuristic by to be stored */
+    private static final double MIN_T = 2.5;
+
+    private final int[] seatCounts;
+    private final int rollouts;
+    private final int threads;
+    private final PrintStream out;
+    private double sampleRate = 0.25;
+    private int minVisits = 32;
+
+    /**
+     * Rollout advantages over the heuristic's own choice per situation and action, one
+     * set per worker and merged at the end
+     */
+    static final class Stats {
+        final double[] advantage = new double[PolicyTable.SITUATIONS * PolicyTable.ACTIONS];
+        final double[] squares = new double[PolicyTable.SITUATIONS * PolicyTable.ACTIONS];
+        final int[] visits = new int[PolicyTable.SITUATIONS * PolicyTable.ACTIONS];
+        long decisions;
+
+        void add(Stats other) {
+            for (int i = 0; i < visits.length; i++) {
+                advantage[i] += other.advantage[i];
+                squares[i] += other.squares[i];
+                visits[i] += other.visits[i];
+            }
+            decisions += other.decisions;
+        }
+    }
+
+    public PolicyTableGenerator(int[] seatCounts, int rollouts, int threads, PrintStream out) {
+        this.seatCounts = seatCounts.clone();
+        this.rollouts = Math.max(1, rollouts);
+        this.threads = Math.max(1, threads);
+        this.out = out;
+    }
+
+    /**
+     * @param sampleRate share of decisions that are evaluated with rollouts
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param minVisits rollouts an action needs in a situation before it can be stored
+     */
+    public void setMinVisits(int minVisits) {
+        this.minVisits = Math.max(1, minVisits);
+    }
+
+    /**
+     * Plays the games and stores the actions that clearly beat the heuristics
+     * @return one action per situation, NO_ACTION where nothing was decided
+     */
+    public byte[] generate(int games, long seed) throws InterruptedException {
+        Random random = new Random(seed);
+        long[] seeds = new long[games];
+        for (int g = 0; g < games; g++) {
+            seeds[g] = random.nextLong();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Stats total = new Stats();
+        try {
+            List<Future<Stats>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                futures.add(executor.submit(() -> playSlice(seeds, first, threads)));
+            }
+            for (Future<Stats> future : futures) {
+                try {
+                    total.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Generation failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        byte[] table = choose(total);
+        int decided = 0;
+        for (byte action : table) {
+            if (action != PolicyTable.NO_ACTION) decided++;
+        }
+        out.printf("%d games, %d decisions evaluated, %d of %d situations decided%n",
+                games, total.decisions, decided, PolicyTable.SITUATIONS);
+        return table;
+    }
+
+    /**
+     * Stores, per situation, the action that beat the heuristic's choice by the widest
+     * margin, if that margin is clearly more than noise; everywhere else the table
+     * stays open and the heuristics decide
+     */
+    byte[] choose(Stats stats) {
+        byte[] table = new byte[PolicyTable.SITUATIONS];
+        for (int s = 0; s < table.length; s++) {
+            byte best = PolicyTable.NO_ACTION;
+            double bestMean = 0;
+            for (int a = 1; a < PolicyTable.ACTIONS; a++) {
+                int i = s * PolicyTable.ACTIONS + a;
+                int n = stats.visits[i];
+                if (n < minVisits) continue;
+                double mean = stats.advantage[i] / n;
+                double variance = Math.max(stats.squares[i] / n - mean * mean, 1e-9);
+                if (mean > bestMean && mean / Math.sqrt(variance / n) >= MIN_T) {
+                    bestMean = mean;
+                    best = (byte) a;
+                }
+            }
+            table[s] = best;
+        }
+        return table;
+    }
+
+    /**
+     * Plays every threads-th game starting at the given one
+     */
+    private Stats playSlice(long[] seeds, int first, int step) {
+        Stats stats = new Stats();
+        for (int g = first; g < seeds.length; g += step) {
+            playRound(seatCounts[g % seatCounts.length], seeds[g], stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Plays one round between heuristic players, evaluating a sample of its decisions
+     */
+    private void playRound(int seats, long seed, Stats stats) {
+        List<AIPlayer> players = new ArrayList<>();
+        for (int s = 0; s < seats; s++) {
+            AIPlayer ai = new AIPlayer("Seat " + s, AIPlayer.DifficultyLevel.HARD);
+            ai.setEndgameThreshold(0);
+            players.add(ai);
+        }
+        GameModel model = new GameModel(players, seed);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.seedAIPlayers(seed);
+        model.startGame();
+
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        int stalled = 0;
+        for (int turn = 0; turn < MAX_TURNS && model.roundsCompleted() == 0 && stalled < seats * 2; turn++) {
+            if (random.nextDouble() < sampleRate) {
+                evaluate(model, (AIPlayer) model.currentPlayer(), random, stats);
+            }
+            int cardsBefore = model.cardsInHands();
+            model.processAITurn();
+            stalled = model.deckSize() == 0 && model.cardsInHands() == cardsBefore ? stalled + 1 : 0;
+        }
+    }
+
+    /**
+     * Tries each playable class of card in the current position against the class the
+     * heuristic picks, with the same rollout seeds for both so the deal's luck cancels
+     */
+    private void evaluate(GameModel model, AIPlayer ai, Random random, Stats stats) {
+        GameState state = model.getState();
+        if (state.topDiscard == null || state.playableIndices.size() < 2) return;
+        List<Card> hand = ai.getHand();
+
+        int heuristic = ai.selectCardToPlay(state);
+        if (heuristic < 0) return;
+        byte heuristicAction = PolicyTable.actionOf(hand.get(heuristic), state.topDiscard);
+
+        int[] candidates = new int[PolicyTable.ACTIONS];
+        int classes = 0;
+        for (byte a = 1; a < PolicyTable.ACTIONS; a++) {
+            candidates[a] = PolicyTable.cardFor(a, state, hand);
+            if (candidates[a] >= 0 && a != heuristicAction) classes++;
+        }
+        if (classes == 0) return;
+
+        long[] seeds = new long[rollouts];
+        double[] baseline = new double[rollouts];
+        for (int r = 0; r < rollouts; r++) {
+            seeds[r] = random.nextLong();
+            baseline[r] = rollout(model, state.currentPlayerIndex, heuristic, seeds[r]);
+        }
+
+        int situation = PolicyTable.situation(state, hand);
+        for (int a = 1; a < PolicyTable.ACTIONS; a++) {
+            if (candidates[a] < 0 || a == heuristicAction) continue;
+            int i = situation * PolicyTable.ACTIONS + a;
+            for (int r = 0; r < rollouts; r++) {
+                double diff = rollout(model, state.currentPlayerIndex, candidates[a], seeds[r]) - baseline[r];
+                stats.advantage[i] += diff;
+                stats.squares[i] += diff * diff;
+                stats.visits[i]++;
+            }
+        }
+        stats.decisions++;
+    }
+
+    /**
+     * Plays the card on a copy and finishes the round
+     * @return 1 if the mover won the round, 0 if someone else did, an even share if it stalled
+     */
+    private static double rollout(GameModel model, int mover, int cardIndex, long seed) {
+        GameModel sim = model.copyForSimulation();
+        sim.seedAIPlayers(seed);
+        int seats = sim.getState().players.size();
+        sim.applyAIDecision((AIPlayer) sim.currentPlayer(), cardIndex);
+
+        int stalled = 0;
+        for (int turn = 0; turn < MAX_TURNS && sim.roundsCompleted() == 0 && stalled < seats * 2; turn++) {
+            int cardsBefore = sim.cardsInHands();
+            sim.processAITurn();
+            stalled = sim.deckSize() == 0 && sim.cardsInHands() == cardsBefore ? stalled + 1 : 0;
+        }
+        int winner = sim.lastRoundWinner();
+        if (winner < 0) return 1.0 / seats;
+        return winner == mover ? 1.0 : 0.0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 20000;
+        int[] seats = {2, 3, 4};
+        int rollouts = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double sampleRate = 0.25;
+        int minVisits = 32;
+        Path output = Paths.get("ai_policy.bin");
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--games": games = Integer.parseInt(value); break;
+                case "--seats":
+                    seats = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    break;
+                case "--rollouts": rollouts = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--sample-rate": sampleRate = Double.parseDouble(value); break;
+                case "--min-visits": minVisits = Integer.parseInt(value); break;
+                case "--out": output = Paths.get(value); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        PolicyTableGenerator generator = new PolicyTableGenerator(seats, rollouts, threads, System.out);
+        generator.setSampleRate(sampleRate);
+        generator.setMinVisits(minVisits);
+        byte[] table = generator.generate(games, seed);
+        try {
+            PolicyTable.write(output, table);
+        } catch (IOException e) {
+            System.err.println("Could not write policy table: " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + output);
+    }
+}
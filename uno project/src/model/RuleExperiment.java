@@ -0,0 +1,280 @@
+package model;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays two configurations, each a set of house rules and a "hero" AI, head to head on
+ * the headless engine and stops as soon as every metric is statistically decided.
+ *
+ * Every trial draws one deal and plays it under both arms: the hero sits in the same
+ * seat, which moves round the table from trial to trial, and the other seats are filled
+ * with the field AI. The pair of games feeds a {@link PairedSprt} per metric: game
+ * length in turns, cards drawn and the hero's win rate. Trials run on all cores in
+ * waves but are scored in order, so a run is repeatable from its seed whatever the
+ * thread count.
+ *
+ * Usage:
+ * <pre>
+ * java model.RuleExperiment --a=standard --b=stacking --seats=4
+ * java model.RuleExperiment --a=cap=20 --b=cap=10 --metrics=turns,drawn
+ * java model.RuleExperiment --a=target=500 --b=target=300 --hero=HARD --field=MEDIUM
+ * java model.RuleExperiment --hero-a=MEDIUM --hero-b=DUMP --seats=2 --metrics=win
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class RuleExperiment {
+
+    public enum Metric {
+        TURNS, DRAWN, WIN
+    }
+
+    /**
+     * One side of the experiment
+     */
+    public static final class Arm {
+        public final String name;
+        public final GameRules rules;
+        public final Tournament.Entrant hero;
+
+        public Arm(String name, GameRules rules, Tournament.Entrant hero) {
+            this.name = name;
+            this.rules = rules;
+            this.hero = hero;
+        }
+    }
+
+    private final Arm a;
+    private final Arm b;
+    private final Tournament.Entrant field;
+    private final int seats;
+    private final int threads;
+    private final long seed;
+    private final PrintStream out;
+    private double alpha = 0.05;
+    private double beta = 0.05;
+    private double relativeEffect = 0.05;
+    private double winEffect = 0.05;
+    private int maxPairs = 20000;
+    private int reportEvery = 500;
+    private List<Metric> metrics = Arrays.asList(Metric.values());
+
+    public RuleExperiment(Arm a, Arm b, Tournament.Entrant field, int seats, int threads, long seed,
+                          PrintStream out) {
+        if (seats < 2 || seats > 4) {
+            throw new IllegalArgumentException("Tables seat 2-4 players");
+        }
+        this.a = a;
+        this.b = b;
+        this.field = field;
+        this.seats = seats;
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+        this.out = out;
+    }
+
+    /**
+     * @param alpha chance of declaring a difference that is not there
+     * @param beta chance of missing a difference of the full effect
+     */
+    public void setErrorRates(double alpha, double beta) {
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /**
+     * @param relative smallest change in turns or cards drawn worth detecting, as a share of A's mean
+     * @param win smallest change in the hero's win rate worth detecting
+     */
+    public void setEffects(double relative, double win) {
+        this.relativeEffect = relative;
+        this.winEffect = win;
+    }
+
+    /**
+     * @param maxPairs trials to give up after when a metric stays undecided
+     */
+    public void setMaxPairs(int maxPairs) {
+        this.maxPairs = Math.max(PairedSprt.MIN_PAIRS, maxPairs);
+    }
+
+    public void setReportEvery(int pairs) {
+        this.reportEvery = Math.max(1, pairs);
+    }
+
+    /**
+     * @param metrics the metrics that must be decided before the run stops
+     */
+    public void setMetrics(List<Metric> metrics) {
+        if (metrics.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one metric");
+        }
+        this.metrics = new ArrayList<>(metrics);
+    }
+
+    /**
+     * Plays trials until every chosen metric is decided or the trial limit is reached
+     * @return one test per chosen metric, in the order given
+     */
+    public List<PairedSprt> run() throws InterruptedException {
+        List<PairedSprt> tests = new ArrayList<>();
+        for (Metric metric : metrics) {
+            tests.add(metric == Metric.WIN
+                    ? new PairedSprt("win rate", winEffect, false, alpha, beta)
+                    : new PairedSprt(metric == Metric.TURNS ? "turns" : "cards drawn", relativeEffect, true, alpha, beta));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Random seeds = new Random(seed);
+        int pairs = 0;
+        try {
+            while (pairs < maxPairs && !allDecided(tests)) {
+                int wave = Math.min(threads * 4, maxPairs - pairs);
+                List<Future<HeadlessGame.Result[]>> futures = new ArrayList<>();
+                for (int i = 0; i < wave; i++) {
+                    long dealSeed = seeds.nextLong();
+                    int heroSeat = (pairs + i) % seats;
+                    futures.add(executor.submit(() -> new HeadlessGame.Result[]{
+                            play(a, heroSeat, dealSeed), play(b, heroSeat, dealSeed)}));
+                }
+                for (int i = 0; i < wave && !allDecided(tests); i++) {
+                    HeadlessGame.Result[] games;
+                    try {
+                        games = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Game failed", e.getCause());
+                    }
+                    int heroSeat = pairs % seats;
+                    for (int m = 0; m < metrics.size(); m++) {
+                        tests.get(m).add(measure(metrics.get(m), games[0], heroSeat),
+                                measure(metrics.get(m), games[1], heroSeat));
+                    }
+                    pairs++;
+                    if (pairs % reportEvery == 0) {
+                        out.println("After " + pairs + " pairs");
+                        printTests(tests);
+                    }
+                }
+                for (Future<HeadlessGame.Result[]> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        out.println((allDecided(tests) ? "Decided" : "Stopped undecided") + " after " + pairs + " pairs ("
+                + 2 * pairs + " games): A = " + a.name + ", B = " + b.name);
+        printTests(tests);
+        return tests;
+    }
+
+    private HeadlessGame.Result play(Arm arm, int heroSeat, long dealSeed) {
+        List<AIPlayer> players = new ArrayList<>();
+        for (int seat = 0; seat < seats; seat++) {
+            players.add(seat == heroSeat ? arm.hero.newPlayer() : field.newPlayer());
+        }
+        return new HeadlessGame(players, dealSeed, arm.rules).play();
+    }
+
+    private static double measure(Metric metric, HeadlessGame.Result result, int heroSeat) {
+        switch (metric) {
+            case TURNS:
+                return result.turns;
+            case DRAWN:
+                return result.cardsDrawn;
+            default:
+                return result.winnerSeat == heroSeat ? 1 : 0;
+        }
+    }
+
+    private static boolean allDecided(List<PairedSprt> tests) {
+        for (PairedSprt test : tests) {
+            if (!test.isDecided()) return false;
+        }
+        return true;
+    }
+
+    private void printTests(List<PairedSprt> tests) {
+        for (PairedSprt test : tests) {
+            out.println("  " + test);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        GameRules rulesA = GameRules.standard();
+        GameRules rulesB = GameRules.standard();
+        String nameA = "standard";
+        String nameB = "standard";
+        String heroA = "MEDIUM";
+        String heroB = "MEDIUM";
+        String fieldSpec = "MEDIUM";
+        int seats = 4;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double alpha = 0.05;
+        double beta = 0.05;
+        double effect = 0.05;
+        double winEffect = 0.05;
+        int maxPairs = 20000;
+        List<Metric> metrics = Arrays.asList(Metric.values());
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--a": rulesA = GameRules.parse(value); nameA = value; break;
+                case "--b": rulesB = GameRules.parse(value); nameB = value; break;
+                case "--hero": heroA = value; heroB = value; break;
+                case "--hero-a": heroA = value; break;
+                case "--hero-b": heroB = value; break;
+                case "--field": fieldSpec = value; break;
+                case "--seats": seats = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--alpha": alpha = Double.parseDouble(value); break;
+                case "--beta": beta = Double.parseDouble(value); break;
+                case "--effect": effect = Double.parseDouble(value); break;
+                case "--win-effect": winEffect = Double.parseDouble(value); break;
+                case "--max-pairs": maxPairs = Integer.parseInt(value); break;
+                case "--metrics":
+                    metrics = new ArrayList<>();
+                    for (String m : value.split(",")) {
+                        switch (m.trim().toLowerCase()) {
+                            case "turns": metrics.add(Metric.TURNS); break;
+                            case "drawn": metrics.add(Metric.DRAWN); break;
+                            case "win": metrics.add(Metric.WIN); break;
+                            default:
+                                System.err.println("Unknown metric: " + m);
+                                return;
+                        }
+                    }
+                    break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        Arm a = new Arm(heroA + " " + nameA, rulesA, Tournament.Entrant.parse(heroA));
+        Arm b = new Arm(heroB + " " + nameB, rulesB, Tournament.Entrant.parse(heroB));
+        System.out.println("Rule experiment: A = " + a.name + " (" + rulesA + "), B = " + b.name + " (" + rulesB
+                + "), field " + fieldSpec + ", " + seats + " seats, " + threads + " threads, seed " + seed);
+        RuleExperiment experiment = new RuleExperiment(a, b, Tournament.Entrant.parse(fieldSpec), seats, threads,
+                seed, System.out);
+        experiment.setErrorRates(alpha, beta);
+        experiment.setEffects(effect, winEffect);
+        experiment.setMaxPairs(maxPairs);
+        experiment.setMetrics(metrics);
+        experiment.run();
+    }
+}
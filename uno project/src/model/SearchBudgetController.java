@@ -0,0 +1,141 @@
+package model;
+
+import controller.GameState;
+
+/**
+ * Keeps one table's AI think time under a latency target by adjusting how many nodes
+ * its searches may visit.
+ *
+ * Every decision made through {@link #selectCardToPlay} is timed. After each window of
+ * {@link #WINDOW} decisions the window's p99 is compared with the target: above it the
+ * budget shrinks in proportion to the overshoot, well below it the budget grows by a
+ * quarter, within the configured bounds. A single decision more than twice over the
+ * target shrinks the budget at once. Measuring wall time rather than counting nodes
+ * means the budget falls when other tables compete for the cores and climbs back when
+ * they go idle.
+ *
+ * Decisions a speculative planner makes on its worker threads are timed here too, so
+ * recording, the budget and the histograms can all be used from any thread.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class SearchBudgetController {
+
+    /** Decisions between regular adjustments */
+    public static final int WINDOW = 50;
+    /** The budget grows while the window's p99 stays under this share of the target */
+    private static final double GROW_BELOW = 0.6;
+    private static final double GROWTH = 1.25;
+    /** Shrinking aims this far under the target, so the next window is not over again */
+    private static final double HEADROOM = 0.9;
+    private static final double LARGEST_CUT = 0.5;
+
+    private final long targetNanos;
+    private final long minBudget;
+    private final long maxBudget;
+    private long budget;
+    private final LatencyHistogram all = new LatencyHistogram();
+    private final LatencyHistogram window = new LatencyHistogram();
+    private int adjustments;
+
+    /**
+     * @param targetNanos p99 think time to stay under
+     */
+    public SearchBudgetController(long targetNanos) {
+        this(targetNanos, 1_000, 20 * ExpectimaxSearch.DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     * @param targetNanos p99 think time to stay under
+     * @param minBudget fewest nodes a search is ever given
+     * @param maxBudget most nodes a search is ever given
+     */
+    public SearchBudgetController(long targetNanos, long minBudget, long maxBudget) {
+        if (targetNanos <= 0 || minBudget <= 0 || maxBudget < minBudget) {
+            throw new IllegalArgumentException("Need a positive target and 0 < minBudget <= maxBudget");
+        }
+        this.targetNanos = targetNanos;
+        this.minBudget = minBudget;
+        this.maxBudget = maxBudget;
+        this.budget = Math.max(minBudget, Math.min(maxBudget, ExpectimaxSearch.DEFAULT_NODE_BUDGET));
+    }
+
+    /**
+     * Decides an AI turn with the current budget and records how long it took
+     * @return the player's choice, as {@link AIPlayer#selectCardToPlay(GameState, AIDecisionContext)}
+     */
+    public int selectCardToPlay(AIPlayer player, GameState state, AIDecisionContext context) {
+        player.setNodeBudget(getBudget());
+        long start = System.nanoTime();
+        int choice = player.selectCardToPlay(state, context);
+        record(System.nanoTime() - start);
+        return choice;
+    }
+
+    /**
+     * Records one decision's think time and adjusts the budget when due
+     */
+    public synchronized void record(long nanos) {
+        all.record(nanos);
+        window.record(nanos);
+        if (nanos > 2 * targetNanos) {
+            shrink(nanos);
+        } else if (window.count() >= WINDOW) {
+            long p99 = window.percentile(0.99);
+            if (p99 > targetNanos) {
+                shrink(p99);
+            } else if (p99 < GROW_BELOW * targetNanos && budget < maxBudget) {
+                budget = Math.min(maxBudget, (long) (budget * GROWTH));
+                adjustments++;
+            }
+            window.reset();
+        }
+    }
+
+    private void shrink(long observed) {
+        double factor = Math.max(LARGEST_CUT, HEADROOM * targetNanos / observed);
+        long shrunk = Math.max(minBudget, (long) (budget * factor));
+        if (shrunk != budget) adjustments++;
+        budget = shrunk;
+        window.reset();
+    }
+
+    /**
+     * @return nodes the next search may visit
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    public long getTargetNanos() {
+        return targetNanos;
+    }
+
+    /**
+     * @return a copy of the histogram of every decision so far
+     */
+    public synchronized LatencyHistogram getHistogram() {
+        return all.copy();
+    }
+
+    /**
+     * @return a copy of the histogram of the decisions since the last adjustment
+     */
+    public synchronized LatencyHistogram getWindowHistogram() {
+        return window.copy();
+    }
+
+    /**
+     * @return how many times the budget has changed
+     */
+    public synchronized int getAdjustments() {
+        return adjustments;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("budget %,d nodes (target p99 %.1f ms, %d adjustments): %s",
+                budget, targetNanos / 1e6, adjustments, all);
+    }
+}
@@ -0,0 +1,310 @@
+package model;
+
+import controller.GameState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Precomputes AI replies in the background while a human player is thinking.
+ *
+ * When a human turn starts, every move the human can legally make (each playable
+ * card, each wild color, or a draw followed by playing or keeping the drawn card) is
+ * applied to its own copy of the model. The AI players that move next are then played
+ * forward on that copy on a worker thread and each decision is stored against the
+ * exact position it was made in. Once the human commits, the
+ * branch that matches the real position is kept, the others are cancelled, and the AI
+ * turn reads its decision from the cache instead of searching again. A branch still
+ * deciding is waited on for at most {@link #DEFAULT_MAX_WAIT_MILLIS}; after that the AI
+ * turn decides for itself, so a slow branch never holds up the caller for longer.
+ *
+ * The copied AI players share their weights, policy table, learned policy and strategy
+ * with the live ones. Those are read-only or keep their scratch space per thread, so
+ * the workers and the live turn can use them at once. Each copy gets its own snapshot
+ * of the live AI's opponent model, so an endgame solved ahead of time deals the other
+ * hands from the same beliefs the live turn would.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.2
+ */
+public class SpeculativeAIPlanner {
+
+    private static final Card.Color[] LIGHT_COLORS = {Card.Color.RED, Card.Color.BLUE,
+            Card.Color.GREEN, Card.Color.YELLOW};
+    private static final Card.Color[] DARK_COLORS = {Card.Color.TEAL, Card.Color.PURPLE,
+            Card.Color.PINK, Card.Color.ORANGE};
+
+    /** Longest the live AI turn waits for a branch that has not decided yet */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 100;
+
+    private final ExecutorService executor;
+    private final long maxWaitMillis;
+    private final Map<String, CompletableFuture<Integer>> decisions = new ConcurrentHashMap<>();
+    private final List<Branch> branches = new ArrayList<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * One speculative human move and the background task playing the AI replies to it
+     */
+    private static final class Branch {
+        final String firstKey;
+        final Future<?> task;
+
+        Branch(String firstKey, Future<?> task) {
+            this.firstKey = firstKey;
+            this.task = task;
+        }
+    }
+
+    public SpeculativeAIPlanner() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * @param threads number of background worker threads
+     */
+    public SpeculativeAIPlanner(int threads) {
+        this(threads, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * @param threads number of background worker threads
+     * @param maxWaitMillis longest an AI turn waits for a branch still deciding its move
+     */
+    public SpeculativeAIPlanner(int threads, long maxWaitMillis) {
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "uno-ai-speculation");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Starts background work for every move the human on turn can make.
+     * Must be called on the thread that owns the model; only copies are handed
+     * to the workers.
+     *
+     * @param model the live model, a human must be on turn
+     */
+    synchronized void speculate(GameModel model) {
+        cancelAll();
+
+        GameState state = model.getState();
+        Player human = state.currentPlayer;
+
+        if (state.turnTaken) {
+            startBranch(model.copyForSimulation());
+            return;
+        }
+
+        for (int idx : state.playableIndices) {
+            if (human.getHandSize() == 1) {
+                break; // the human goes out, there is no AI reply to prepare
+            }
+            Card card = human.getHand().get(idx);
+            for (Card.Color color : colorChoices(card, state.currentSide)) {
+                GameModel sim = model.copyForSimulation();
+                sim.playCard(sim.getState().currentPlayer, idx, color);
+                startBranch(sim);
+            }
+        }
+        speculateDraw(model, state.currentSide);
+    }
+
+    /**
+     * Queues the replies to the human drawing, which is allowed with or without a card to
+     * play, then playing or keeping the drawn card
+     */
+    private void speculateDraw(GameModel model, Card.Side side) {
+        GameModel sim = model.copyForSimulation();
+        Card drawn = sim.drawCard();
+        GameState afterDraw = sim.getState();
+        if (drawn != null && !afterDraw.turnTaken) {
+            // the drawn card fits: the human may play it, or keep it by ending the turn
+            int drawnIndex = afterDraw.currentPlayer.getHandSize() - 1;
+            for (Card.Color color : colorChoices(drawn, side)) {
+                GameModel playSim = sim.copyForSimulation();
+                playSim.playCard(playSim.getState().currentPlayer, drawnIndex, color);
+                startBranch(playSim);
+            }
+        }
+        startBranch(sim);
+    }
+
+    /**
+     * Finishes the human turn on the copy and queues the AI replies to it.
+     * Branches that lead to an already queued position are dropped.
+     */
+    private void startBranch(GameModel sim) {
+        sim.endTurn();
+        GameState next = sim.getState();
+        if (!(next.currentPlayer instanceof AIPlayer)) {
+            return;
+        }
+
+        String key = keyOf(next);
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        if (decisions.putIfAbsent(key, first) != null) {
+            return;
+        }
+
+        int maxTurns = next.players.size() * 2;
+        Future<?> task = executor.submit(() -> {
+            try {
+                for (int turn = 0; turn < maxTurns; turn++) {
+                    if (Thread.currentThread().isInterrupted()) break;
+                    if (!sim.getState().currentPlayer.isAI()) break;
+                    sim.processAITurn();
+                }
+            } finally {
+                first.cancel(false); // no-op once the first decision was recorded
+            }
+        });
+        branches.add(new Branch(key, task));
+    }
+
+    /**
+     * Called by a speculative copy of the model when one of its AI players has decided,
+     * storing the decision for the matching real position
+     */
+    void recordDecision(GameState state, int choice) {
+        String key = keyOf(state);
+        CompletableFuture<Integer> pending = decisions.putIfAbsent(key, CompletableFuture.completedFuture(choice));
+        if (pending != null) {
+            pending.complete(choice);
+        }
+    }
+
+    /**
+     * Returns the AI decision for a real position, from the cache when a branch
+     * computed it in time and from the AI player otherwise. The first lookup
+     * after a human move cancels every branch that did not happen.
+     *
+     * @param state the live state
+     * @param decideLive decides for the AI on turn in the live model when nothing was cached
+     * @return the chosen hand index, or -1 to draw
+     */
+    int selectCardToPlay(GameState state, IntSupplier decideLive) {
+        String key = keyOf(state);
+        pruneBranches(key);
+
+        // leave the entry in place until it completes so the worker can still find it
+        CompletableFuture<Integer> cached = decisions.get(key);
+        if (cached != null) {
+            try {
+                int choice = cached.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+                decisions.remove(key, cached);
+                if (choice == -1 ? state.playableIndices.isEmpty() : state.playableIndices.contains(choice)) {
+                    hits.incrementAndGet();
+                    return choice;
+                }
+            } catch (CancellationException | ExecutionException e) {
+                // the branch died before deciding, fall through to a live decision
+            } catch (TimeoutException e) {
+                decisions.remove(key, cached); // still deciding, so decide here rather than wait longer
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        misses.incrementAndGet();
+        return decideLive.getAsInt();
+    }
+
+    /**
+     * Cancels the branches whose first AI position differs from the real one
+     */
+    private synchronized void pruneBranches(String actualKey) {
+        if (branches.isEmpty()) return;
+        for (Branch branch : branches) {
+            if (!branch.firstKey.equals(actualKey)) {
+                branch.task.cancel(true);
+                decisions.remove(branch.firstKey);
+            }
+        }
+        branches.clear();
+    }
+
+    /**
+     * Cancels all background work and forgets every stored decision
+     */
+    public synchronized void cancelAll() {
+        for (Branch branch : branches) {
+            branch.task.cancel(true);
+        }
+        branches.clear();
+        decisions.clear();
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the colors a human may name for a card, a single null for non-wild cards
+     */
+    private static Card.Color[] colorChoices(Card card, Card.Side side) {
+        if (card.getColor() != Card.Color.WILD) {
+            return new Card.Color[]{null};
+        }
+        return side == Card.Side.DARK ? DARK_COLORS : LIGHT_COLORS;
+    }
+
+    /**
+     * Builds a key for everything an AI decision depends on: whose turn it is, the
+     * direction, side and top card, every hand size and the exact hand on turn.
+     */
+    static String keyOf(GameState state) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(state.currentPlayerIndex).append(state.clockwise ? '+' : '-')
+                .append(state.currentSide.ordinal()).append(state.turnTaken ? 'T' : 'F')
+                .append(state.deckSize).append('|');
+        Card top = state.topDiscard;
+        if (top != null) {
+            appendCard(sb, top);
+            sb.append(':').append(top.getColor().ordinal());
+        }
+        sb.append('|');
+        for (Player p : state.players) {
+            sb.append(p.getHandSize()).append(',');
+        }
+        sb.append('|');
+        for (Card c : state.currentPlayer.getHand()) {
+            appendCard(sb, c);
+        }
+        return sb.toString();
+    }
+
+    private static void appendCard(StringBuilder sb, Card c) {
+        sb.append((char) ('A' + c.getLightColor().ordinal()))
+                .append((char) ('A' + c.getLightValue().ordinal()))
+                .append(c.getCurrentSide() == Card.Side.LIGHT ? 'l' : 'd');
+    }
+}
@@ -0,0 +1,409 @@
+package model;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Plays AI configurations against each other on all cores and rates them.
+ *
+ * Each table (a choice of entrants for 2, 3 or 4 seats) is played once per seat
+ * rotation so every entrant spends the same number of games in the first seat.
+ * Round robin plays every table up front; Swiss re-pairs neighbours in the current
+ * standings each round. Duplicate plays the round robin tables on a library of deals
+ * generated up front from the seed, with every rotation of a table on the same deal, so
+ * each entrant holds each hand once; results are also paired per deal in
+ * {@link PairedResults}, whose differences are free of the luck of the deal. Standings
+ * are printed as games complete.
+ *
+ * Usage:
+ * <pre>
+ * java model.Tournament --entrants=EASY,MEDIUM,HARD --seats=2,3,4 --format=roundrobin --games=20
+ * java model.Tournament --format=swiss --rounds=8 --threads=4 --seed=7
+ * java model.Tournament --entrants=HARD,HARD@ai_weights.properties --seats=2
+ * java model.Tournament --entrants=MEDIUM,DUMP --seats=2,4
+ * java model.Tournament --entrants=MEDIUM,HARD --format=duplicate --games=200 --seats=2
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class Tournament {
+
+    public enum Format {
+        ROUND_ROBIN, SWISS, DUPLICATE
+    }
+
+    /**
+     * A named AI configuration; the factory builds a fresh player for every seat
+     */
+    public static final class Entrant {
+        public final String name;
+        private final Supplier<AIPlayer> factory;
+
+        public Entrant(String name, Supplier<AIPlayer> factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        AIPlayer newPlayer() {
+            return factory.get();
+        }
+
+        /**
+         * Builds an entrant from a command line spec: a difficulty such as HARD, optionally
+         * followed by a weights profile, as in HARD@ai_weights.properties, or the name of
+         * a registered {@link AIStrategy}
+         */
+        public static Entrant parse(String spec) {
+            String[] parts = spec.trim().split("@", 2);
+            String name = parts[0].trim().toUpperCase();
+            AIStrategy strategy = AIStrategies.find(name);
+            if (strategy == null) {
+                throw new IllegalArgumentException("Unknown AI strategy " + parts[0]);
+            }
+            if (Arrays.stream(AIPlayer.DifficultyLevel.values()).noneMatch(l -> l.name().equals(name))) {
+                return new Entrant(spec.trim(), () -> {
+                    AIPlayer player = new AIPlayer(strategy.name(), AIPlayer.DifficultyLevel.MEDIUM);
+                    player.setStrategy(strategy);
+                    return player;
+                });
+            }
+            AIPlayer.DifficultyLevel level = AIPlayer.DifficultyLevel.valueOf(name);
+            AIWeights weights;
+            try {
+                weights = parts.length > 1 ? AIWeights.load(Paths.get(parts[1])) : AIWeights.defaults();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read weights profile " + parts[1], e);
+            }
+            return new Entrant(spec.trim(), () -> new AIPlayer(level.name(), level, weights));
+        }
+    }
+
+    private final List<Entrant> entrants;
+    private final int[] seatCounts;
+    private final Format format;
+    private final int gamesPerRotation;
+    private final int swissRounds;
+    private final int threads;
+    private final long seed;
+    private final PrintStream out;
+    private final EloRatings ratings;
+    private final PairedResults paired;
+    private int reportEvery = 100;
+
+    public Tournament(List<Entrant> entrants, int[] seatCounts, Format format, int gamesPerRotation,
+                      int swissRounds, int threads, long seed, PrintStream out) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        }
+        for (int seats : seatCounts) {
+            if (seats < 2 || seats > 4) {
+                throw new IllegalArgumentException("Tables seat 2-4 players");
+            }
+        }
+        this.entrants = new ArrayList<>(entrants);
+        this.seatCounts = seatCounts.clone();
+        this.format = format;
+        this.gamesPerRotation = Math.max(1, gamesPerRotation);
+        this.swissRounds = Math.max(1, swissRounds);
+        this.threads = Math.max(1, threads);
+        this.seed = seed;
+        this.out = out;
+
+        String[] names = new String[entrants.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = entrants.get(i).name;
+        }
+        this.ratings = new EloRatings(names);
+        this.paired = new PairedResults(names);
+    }
+
+    /**
+     * @param games print standings after this many completed games
+     */
+    public void setReportEvery(int games) {
+        this.reportEvery = Math.max(1, games);
+    }
+
+    /**
+     * Plays the whole schedule
+     * @return the final ratings
+     */
+    public EloRatings run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Random seeds = new Random(seed);
+            if (format == Format.ROUND_ROBIN) {
+                List<int[]> tables = new ArrayList<>();
+                for (int seats : seatCounts) {
+                    tables.addAll(roundRobinTables(entrants.size(), seats));
+                }
+                playTables(executor, tables, seeds);
+            } else if (format == Format.DUPLICATE) {
+                long[] deals = new long[gamesPerRotation];
+                for (int d = 0; d < deals.length; d++) {
+                    deals[d] = seeds.nextLong();
+                }
+                List<int[]> tables = new ArrayList<>();
+                for (int seats : seatCounts) {
+                    tables.addAll(roundRobinTables(entrants.size(), seats));
+                }
+                playDuplicate(executor, tables, deals);
+            } else {
+                for (int round = 1; round <= swissRounds; round++) {
+                    out.println("Swiss round " + round + "/" + swissRounds);
+                    List<int[]> tables = new ArrayList<>();
+                    for (int seats : seatCounts) {
+                        tables.addAll(swissTables(seats));
+                    }
+                    playTables(executor, tables, seeds);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        out.println("Final standings after " + ratings.getGamesRecorded() + " games");
+        printStandings();
+        if (format == Format.DUPLICATE) {
+            out.println("Paired differences over " + paired.getDealsRecorded() + " deals");
+            printComparisons();
+        }
+        return ratings;
+    }
+
+    public EloRatings getRatings() {
+        return ratings;
+    }
+
+    /**
+     * @return the per-deal comparisons, filled by the duplicate format
+     */
+    public PairedResults getPairedResults() {
+        return paired;
+    }
+
+    /**
+     * Plays every seat rotation of every table and streams results into the ratings
+     */
+    private void playTables(ExecutorService executor, List<int[]> tables, Random seeds)
+            throws InterruptedException {
+        CompletionService<Object[]> completion = new ExecutorCompletionService<>(executor);
+        int submitted = 0;
+        for (int[] table : tables) {
+            for (int rotation = 0; rotation < table.length; rotation++) {
+                int[] bySeat = rotate(table, rotation);
+                for (int g = 0; g < gamesPerRotation; g++) {
+                    long gameSeed = seeds.nextLong();
+                    completion.submit(() -> new Object[]{bySeat, playGame(bySeat, gameSeed)});
+                    submitted++;
+                }
+            }
+        }
+
+        for (int i = 0; i < submitted; i++) {
+            try {
+                Object[] done = completion.take().get();
+                ratings.record((int[]) done[0], (HeadlessGame.Result) done[1]);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
+            if (ratings.getGamesRecorded() % reportEvery == 0) {
+                out.println("After " + ratings.getGamesRecorded() + " games");
+                printStandings();
+            }
+        }
+    }
+
+    /**
+     * Plays every rotation of every table on every deal. A deal's results are paired once
+     * all of its rotations are in.
+     */
+    private void playDuplicate(ExecutorService executor, List<int[]> tables, long[] deals)
+            throws InterruptedException {
+        CompletionService<Object[]> completion = new ExecutorCompletionService<>(executor);
+        List<List<int[]>> seatings = new ArrayList<>();
+        List<HeadlessGame.Result[]> groups = new ArrayList<>();
+        int[] remaining = new int[tables.size() * deals.length];
+        int submitted = 0;
+        for (int[] table : tables) {
+            List<int[]> rotations = new ArrayList<>();
+            for (int rotation = 0; rotation < table.length; rotation++) {
+                rotations.add(rotate(table, rotation));
+            }
+            for (long deal : deals) {
+                int group = groups.size();
+                seatings.add(rotations);
+                groups.add(new HeadlessGame.Result[rotations.size()]);
+                remaining[group] = rotations.size();
+                for (int rotation = 0; rotation < rotations.size(); rotation++) {
+                    int[] bySeat = rotations.get(rotation);
+                    int index = rotation;
+                    completion.submit(() -> new Object[]{group, index, playGame(bySeat, deal)});
+                    submitted++;
+                }
+            }
+        }
+
+        for (int i = 0; i < submitted; i++) {
+            Object[] done;
+            try {
+                done = completion.take().get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
+            int group = (Integer) done[0];
+            int rotation = (Integer) done[1];
+            HeadlessGame.Result result = (HeadlessGame.Result) done[2];
+            groups.get(group)[rotation] = result;
+            ratings.record(seatings.get(group).get(rotation), result);
+            if (--remaining[group] == 0) {
+                paired.recordDeal(seatings.get(group), Arrays.asList(groups.get(group)));
+                groups.set(group, null);
+            }
+            if (ratings.getGamesRecorded() % reportEvery == 0) {
+                out.println("After " + ratings.getGamesRecorded() + " games");
+                printStandings();
+                printComparisons();
+            }
+        }
+    }
+
+    private HeadlessGame.Result playGame(int[] entrantBySeat, long gameSeed) {
+        List<AIPlayer> seats = new ArrayList<>();
+        for (int seat = 0; seat < entrantBySeat.length; seat++) {
+            seats.add(entrants.get(entrantBySeat[seat]).newPlayer());
+        }
+        return new HeadlessGame(seats, gameSeed).play();
+    }
+
+    private void printStandings() {
+        for (EloRatings.Standing s : ratings.standings()) {
+            out.println("  " + s);
+        }
+    }
+
+    private void printComparisons() {
+        for (PairedResults.Comparison c : paired.comparisons()) {
+            out.println("  " + c);
+        }
+    }
+
+    /**
+     * Every multiset of entrants of the given size holding at least two different entrants
+     */
+    static List<int[]> roundRobinTables(int entrantCount, int seats) {
+        List<int[]> tables = new ArrayList<>();
+        collectTables(entrantCount, new int[seats], 0, 0, tables);
+        return tables;
+    }
+
+    private static void collectTables(int entrantCount, int[] table, int pos, int from, List<int[]> out) {
+        if (pos == table.length) {
+            if (table[0] != table[table.length - 1]) {
+                out.add(table.clone());
+            }
+            return;
+        }
+        for (int e = from; e < entrantCount; e++) {
+            table[pos] = e;
+            collectTables(entrantCount, table, pos + 1, e, out);
+        }
+    }
+
+    /**
+     * Groups entrants that are next to each other in the standings
+     */
+    private List<int[]> swissTables(int seats) {
+        EloRatings.Standing[] standings = ratings.standings();
+        int[] order = new int[standings.length];
+        for (int i = 0; i < standings.length; i++) {
+            for (int e = 0; e < entrants.size(); e++) {
+                if (entrants.get(e).name.equals(standings[i].name)) {
+                    order[i] = e;
+                }
+            }
+        }
+
+        List<int[]> tables = new ArrayList<>();
+        for (int start = 0; start < order.length; start += seats) {
+            int[] table = new int[seats];
+            for (int s = 0; s < seats; s++) {
+                table[s] = order[(start + s) % order.length];
+            }
+            if (Arrays.stream(table).distinct().count() > 1) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    private static int[] rotate(int[] table, int by) {
+        int[] rotated = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            rotated[i] = table[(i + by) % table.length];
+        }
+        return rotated;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        List<Entrant> entrants = new ArrayList<>();
+        int[] seats = {2, 3, 4};
+        Format format = Format.ROUND_ROBIN;
+        int games = 10;
+        int rounds = 5;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--entrants":
+                    for (String spec : value.split(",")) entrants.add(Entrant.parse(spec));
+                    break;
+                case "--seats":
+                    seats = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    break;
+                case "--format":
+                    format = value.equalsIgnoreCase("swiss") ? Format.SWISS
+                            : value.equalsIgnoreCase("duplicate") ? Format.DUPLICATE : Format.ROUND_ROBIN;
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+        if (entrants.isEmpty()) {
+            for (AIPlayer.DifficultyLevel level : AIPlayer.DifficultyLevel.values()) {
+                entrants.add(Entrant.parse(level.name()));
+            }
+        }
+
+        System.out.println("Tournament: " + format + ", seats " + Arrays.toString(seats)
+                + ", " + threads + " threads, seed " + seed);
+        new Tournament(entrants, seats, format, games, rounds, threads, seed, System.out).run();
+    }
+}
@@ -0,0 +1,343 @@
+package model;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Genetic search over {@link AIWeights} using parallel headless games.
+ *
+ * Each generation every candidate plays the same list of seeded deals against the
+ * baseline opponents (common random numbers), so fitness differences come from the
+ * weights rather than the luck of the deal. Fitness is the candidate's average
+ * head-to-head score against the other seats. The best candidates survive unchanged,
+ * the rest are bred by tournament selection, blend crossover and gaussian mutation.
+ *
+ * The best weights so far play each generation's deals too, so they are only replaced
+ * by a candidate that beats them on the same deals; the fitness kept with them is their
+ * score on the latest deals. After every generation the population is checkpointed and
+ * the best weights are written as a profile that {@link AIWeights#load(Path)} reads.
+ *
+ * Usage:
+ * <pre>
+ * java model.WeightTuner --generations=40 --population=24 --games=400 --seats=2,3,4
+ * java model.WeightTuner --resume --checkpoint=tuner.ckpt --profile=ai_weights.properties
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class WeightTuner {
+
+    private static final int ELITES = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double MUTATION_RATE = 0.3;
+    private static final double MAX_THREAT_HAND_SIZE = 7;
+
+    private final int populationSize;
+    private final int gamesPerCandidate;
+    private final int[] seatCounts;
+    private final AIPlayer.DifficultyLevel difficulty;
+    private final AIWeights opponentWeights;
+    private final int threads;
+    private final PrintStream out;
+    private double stepSize = 0.25;
+
+    /**
+     * Everything needed to resume a run, written with Java serialization like save games
+     */
+    public static final class Checkpoint implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        int generation;
+        Random random;
+        List<double[]> population = new ArrayList<>();
+        double[] bestWeights;
+        double bestFitness = Double.NEGATIVE_INFINITY; // on the latest generation's deals
+    }
+
+    public WeightTuner(int populationSize, int gamesPerCandidate, int[] seatCounts,
+                       AIPlayer.DifficultyLevel difficulty, AIWeights opponentWeights,
+                       int threads, PrintStream out) {
+        if (populationSize <= ELITES) {
+            throw new IllegalArgumentException("Population must be larger than " + ELITES);
+        }
+        this.populationSize = populationSize;
+        this.gamesPerCandidate = Math.max(1, gamesPerCandidate);
+        this.seatCounts = seatCounts.clone();
+        this.difficulty = difficulty;
+        this.opponentWeights = opponentWeights;
+        this.threads = Math.max(1, threads);
+        this.out = out;
+    }
+
+    /**
+     * @param stepSize mutation standard deviation relative to each weight's magnitude
+     */
+    public void setStepSize(double stepSize) {
+        this.stepSize = stepSize;
+    }
+
+    /**
+     * Starts a population around the default weights
+     */
+    public Checkpoint initialCheckpoint(long seed) {
+        Checkpoint ckpt = new Checkpoint();
+        ckpt.random = new Random(seed);
+        double[] defaults = AIWeights.defaults().toArray();
+        ckpt.population.add(defaults.clone());
+        while (ckpt.population.size() < populationSize) {
+            ckpt.population.add(mutate(defaults, ckpt.random, 1.0));
+        }
+        return ckpt;
+    }
+
+    /**
+     * Runs generations until the checkpoint reaches the given generation count
+     * @param ckpt starting or resumed state, updated in place
+     * @param generations total number of generations
+     * @param checkpointFile where to write the state after every generation, or null
+     * @param profileFile where to write the best weights after every generation, or null
+     * @return the best weights found
+     */
+    public AIWeights run(Checkpoint ckpt, int generations, Path checkpointFile, Path profileFile)
+            throws InterruptedException, IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            while (ckpt.generation < generations) {
+                long[] seeds = new long[gamesPerCandidate];
+                for (int g = 0; g < seeds.length; g++) {
+                    seeds[g] = ckpt.random.nextLong();
+                }
+
+                double[] fitness = evaluate(executor, ckpt.population, seeds);
+                Integer[] order = rank(fitness);
+                double[] best = ckpt.population.get(order[0]);
+                double incumbent = ckpt.bestWeights == null ? Double.NEGATIVE_INFINITY
+                        : fitnessOf(ckpt.bestWeights, ckpt.population, fitness, executor, seeds);
+                if (fitness[order[0]] > incumbent) {
+                    ckpt.bestFitness = fitness[order[0]];
+                    ckpt.bestWeights = best.clone();
+                } else {
+                    ckpt.bestFitness = incumbent;
+                }
+
+                out.printf("generation %d: best %.4f  median %.4f  kept %.4f  %s%n", ckpt.generation + 1,
+                        fitness[order[0]], fitness[order[order.length / 2]], ckpt.bestFitness,
+                        AIWeights.of(ckpt.bestWeights));
+
+                ckpt.population = breed(ckpt.population, fitness, order, ckpt.random);
+                ckpt.generation++;
+
+                if (checkpointFile != null) {
+                    saveCheckpoint(ckpt, checkpointFile);
+                }
+                if (profileFile != null) {
+                    AIWeights.of(ckpt.bestWeights).save(profileFile, String.format(
+                            "WeightTuner generation %d, fitness %.4f", ckpt.generation, ckpt.bestFitness));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return AIWeights.of(ckpt.bestWeights);
+    }
+
+    /**
+     * @return the weights' score on these deals, taken from the population's scores when
+     * the weights are among them and played afresh otherwise
+     */
+    private double fitnessOf(double[] weights, List<double[]> population, double[] fitness,
+                             ExecutorService executor, long[] seeds) throws InterruptedException {
+        for (int i = 0; i < fitness.length; i++) {
+            if (Arrays.equals(weights, population.get(i))) return fitness[i];
+        }
+        return evaluate(executor, List.of(weights), seeds)[0];
+    }
+
+    /**
+     * Plays every candidate on the same deals, one task per candidate and seat count
+     * @return average head-to-head score of each candidate
+     */
+    double[] evaluate(ExecutorService executor, List<double[]> population, long[] seeds)
+            throws InterruptedException {
+        List<Future<Double>> futures = new ArrayList<>();
+        for (double[] candidate : population) {
+            AIWeights weights = AIWeights.of(candidate);
+            for (int table = 0; table < seatCounts.length; table++) {
+                int t = table;
+                futures.add(executor.submit(() -> playTable(weights, seeds, t)));
+            }
+        }
+
+        double[] fitness = new double[population.size()];
+        for (int i = 0; i < fitness.length; i++) {
+            double total = 0;
+            for (int t = 0; t < seatCounts.length; t++) {
+                try {
+                    total += futures.get(i * seatCounts.length + t).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Evaluation failed", e.getCause());
+                }
+            }
+            fitness[i] = total / seeds.length;
+        }
+        return fitness;
+    }
+
+    /**
+     * Plays one candidate on the deals of one table size: table size rotates with the game
+     * number, and the candidate's seat with each round of table sizes
+     * @param table index into the seat counts
+     * @return the candidate's total score over those deals
+     */
+    private double playTable(AIWeights weights, long[] seeds, int table) {
+        double total = 0;
+        for (int g = table; g < seeds.length; g += seatCounts.length) {
+            int seats = seatCounts[table];
+            int candidateSeat = (g / seatCounts.length) % seats;
+
+            List<AIPlayer> players = new ArrayList<>();
+            for (int s = 0; s < seats; s++) {
+                AIWeights w = s == candidateSeat ? weights : opponentWeights;
+                players.add(new AIPlayer("Seat " + s, difficulty, w));
+            }
+            HeadlessGame.Result result = new HeadlessGame(players, seeds[g]).play();
+
+            double score = 0;
+            for (int s = 0; s < seats; s++) {
+                if (s != candidateSeat) score += result.outcome(candidateSeat, s);
+            }
+            total += score / (seats - 1);
+        }
+        return total;
+    }
+
+    private static Integer[] rank(double[] fitness) {
+        Integer[] order = new Integer[fitness.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+        return order;
+    }
+
+    private List<double[]> breed(List<double[]> population, double[] fitness, Integer[] order, Random random) {
+        List<double[]> next = new ArrayList<>();
+        for (int e = 0; e < ELITES; e++) {
+            next.add(population.get(order[e]).clone());
+        }
+        while (next.size() < populationSize) {
+            double[] a = population.get(select(fitness, random));
+            double[] b = population.get(select(fitness, random));
+            double[] child = new double[a.length];
+            for (int i = 0; i < child.length; i++) {
+                double mix = random.nextDouble();
+                child[i] = mix * a[i] + (1 - mix) * b[i];
+            }
+            next.add(mutate(child, random, MUTATION_RATE));
+        }
+        return next;
+    }
+
+    private static int select(double[] fitness, Random random) {
+        int best = random.nextInt(fitness.length);
+        for (int k = 1; k < TOURNAMENT_SIZE; k++) {
+            int other = random.nextInt(fitness.length);
+            if (fitness[other] > fitness[best]) best = other;
+        }
+        return best;
+    }
+
+    private double[] mutate(double[] parent, Random random, double rate) {
+        double[] child = parent.clone();
+        for (int i = 0; i < child.length; i++) {
+            if (random.nextDouble() < rate) {
+                double scale = Math.max(Math.abs(child[i]), 0.1);
+                child[i] += random.nextGaussian() * stepSize * scale;
+            }
+        }
+        int threat = AIWeights.Weight.THREAT_HAND_SIZE.ordinal();
+        child[threat] = Math.max(0, Math.min(MAX_THREAT_HAND_SIZE, child[threat]));
+        return child;
+    }
+
+    static void saveCheckpoint(Checkpoint ckpt, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmp.toFile()))) {
+            out.writeObject(ckpt);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Checkpoint loadCheckpoint(Path file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file.toFile()))) {
+            return (Checkpoint) in.readObject();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int generations = 30;
+        int population = 24;
+        int games = 300;
+        int[] seats = {2, 3, 4};
+        AIPlayer.DifficultyLevel difficulty = AIPlayer.DifficultyLevel.HARD;
+        AIWeights opponents = AIWeights.defaults();
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        double step = 0.25;
+        Path checkpoint = Paths.get("tuner.ckpt");
+        Path profile = Paths.get("ai_weights.properties");
+        boolean resume = false;
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--generations": generations = Integer.parseInt(value); break;
+                case "--population": population = Integer.parseInt(value); break;
+                case "--games": games = Integer.parseInt(value); break;
+                case "--seats":
+                    seats = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    break;
+                case "--difficulty": difficulty = AIPlayer.DifficultyLevel.valueOf(value.toUpperCase()); break;
+                case "--opponent-profile": opponents = AIWeights.load(Paths.get(value)); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--step": step = Double.parseDouble(value); break;
+                case "--checkpoint": checkpoint = Paths.get(value); break;
+                case "--profile": profile = Paths.get(value); break;
+                case "--resume": resume = true; break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        WeightTuner tuner = new WeightTuner(population, games, seats, difficulty, opponents, threads, System.out);
+        tuner.setStepSize(step);
+        Checkpoint ckpt = resume && Files.exists(checkpoint)
+                ? loadCheckpoint(checkpoint)
+                : tuner.initialCheckpoint(seed);
+        System.out.println("Tuning " + difficulty + " weights from generation " + ckpt.generation
+                + " with " + threads + " threads");
+
+        AIWeights best = tuner.run(ckpt, generations, checkpoint, profile);
+        System.out.println("Best weights: " + best);
+        System.out.println("Profile written to " + profile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,72 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+
+/**
+ * Something moving on the animation overlay, advanced by the {@link AnimationEngine} one
+ * fixed step at a time, so its motion does not depend on how often frames are painted.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public abstract class Animation {
+
+    private final int delaySteps;
+    private final int durationSteps;
+    private int elapsed;
+
+    /**
+     * @param delayMillis how long to wait before showing
+     * @param durationMillis how long the motion takes once started
+     */
+    protected Animation(int delayMillis, int durationMillis) {
+        this.delaySteps = AnimationEngine.steps(delayMillis);
+        this.durationSteps = Math.max(1, AnimationEngine.steps(durationMillis));
+    }
+
+    final void step() {
+        elapsed++;
+    }
+
+    public boolean isStarted() {
+        return elapsed >= delaySteps;
+    }
+
+    public boolean isFinished() {
+        return elapsed >= delaySteps + durationSteps;
+    }
+
+    /**
+     * @return how far through the motion this is, from 0 to 1
+     */
+    protected double progress() {
+        return Math.max(0, Math.min(1, (elapsed - delaySteps) / (double) durationSteps));
+    }
+
+    /**
+     * @return fast at first and settling at the end
+     */
+    static double easeOut(double t) {
+        double rest = 1 - t;
+        return 1 - rest * rest * rest;
+    }
+
+    static Rectangle between(Rectangle from, Rectangle to, double t) {
+        return new Rectangle(
+                (int) Math.round(from.x + (to.x - from.x) * t),
+                (int) Math.round(from.y + (to.y - from.y) * t),
+                (int) Math.round(from.width + (to.width - from.width) * t),
+                (int) Math.round(from.height + (to.height - from.height) * t));
+    }
+
+    /**
+     * @return where the animation paints at this step, or null while it is not showing
+     */
+    public abstract Rectangle bounds();
+
+    /**
+     * Paints the animation at this step, within {@link #bounds()}
+     */
+    public abstract void paint(Graphics2D g);
+}
@@ -0,0 +1,174 @@
+package view;
+
+import javax.swing.JComponent;
+import javax.swing.JLayer;
+import javax.swing.Timer;
+import javax.swing.plaf.LayerUI;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs {@link Animation}s on an overlay above the game view.
+ *
+ * Animations advance in fixed steps of 1/60 s, however often the Swing timer actually
+ * ticks. A late tick runs the steps it missed and paints once, so frames are skipped
+ * rather than queued; a stall longer than {@link #MAX_CATCH_UP_STEPS} steps, such as a
+ * modal dialog, is dropped rather than replayed. Each tick repaints only the area each
+ * animation covered before and after it, and the timer stops while nothing is moving.
+ *
+ * Everything runs on the event dispatch thread.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class AnimationEngine {
+
+    public static final int STEPS_PER_SECOND = 60;
+    static final long STEP_NANOS = 1_000_000_000L / STEPS_PER_SECOND;
+    /** The most steps one tick runs to catch up; any more are dropped */
+    public static final int MAX_CATCH_UP_STEPS = 15;
+
+    private final LongSupplier clock;
+    private final Timer timer;
+    private final List<Animation> active = new ArrayList<>();
+    private final Map<Animation, Rectangle> painted = new HashMap<>();
+    private JComponent surface;
+    private long lastTick;
+    private long lag;
+    private long ticks;
+    private long stepsRun;
+    private long stepsDropped;
+
+    public AnimationEngine() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param clock the time in nanoseconds, such as {@code System::nanoTime}
+     */
+    public AnimationEngine(LongSupplier clock) {
+        this.clock = clock;
+        this.timer = new Timer(1000 / STEPS_PER_SECOND, e -> tick());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * @return the number of whole steps in this many milliseconds
+     */
+    static int steps(int millis) {
+        return (int) Math.round(millis * STEPS_PER_SECOND / 1000.0);
+    }
+
+    /**
+     * Puts the view under an overlay that this engine paints and repaints
+     * @return the view and overlay together, to add in place of the view
+     */
+    public JLayer<JComponent> wrap(JComponent view) {
+        JLayer<JComponent> layer = new JLayer<>(view, new LayerUI<JComponent>() {
+            @Override
+            public void paint(Graphics g, JComponent c) {
+                super.paint(g, c);
+                paintAnimations((Graphics2D) g);
+            }
+        });
+        setSurface(layer);
+        return layer;
+    }
+
+    /**
+     * @param surface the component whose damaged areas are repainted each tick
+     */
+    public void setSurface(JComponent surface) {
+        this.surface = surface;
+    }
+
+    public void start(Animation animation) {
+        active.add(animation);
+        if (!timer.isRunning()) {
+            lastTick = clock.getAsLong();
+            lag = 0;
+            timer.start();
+        }
+    }
+
+    /**
+     * Advances every animation by the steps due since the last tick and repaints what
+     * moved; run by the timer, and public so a test can drive it with its own clock
+     */
+    public void tick() {
+        long now = clock.getAsLong();
+        lag += now - lastTick;
+        lastTick = now;
+        long due = lag / STEP_NANOS;
+        lag -= due * STEP_NANOS;
+        int steps = (int) Math.min(due, MAX_CATCH_UP_STEPS);
+        stepsDropped += due - steps;
+        ticks++;
+
+        for (int s = 0; s < steps; s++) {
+            for (Animation animation : active) {
+                if (!animation.isFinished()) animation.step();
+            }
+        }
+        stepsRun += steps;
+
+        for (int i = active.size() - 1; i >= 0; i--) {
+            Animation animation = active.get(i);
+            Rectangle before = painted.remove(animation);
+            Rectangle after = animation.isFinished() ? null : animation.bounds();
+            Rectangle damage = before == null ? after : after == null ? before : before.union(after);
+            if (damage != null && surface != null) surface.repaint(damage);
+            if (animation.isFinished()) {
+                active.remove(i);
+            } else if (after != null) {
+                painted.put(animation, after);
+            }
+        }
+        if (active.isEmpty()) timer.stop();
+    }
+
+    private void paintAnimations(Graphics2D graphics) {
+        if (active.isEmpty()) return;
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            Rectangle clip = g.getClipBounds();
+            for (Animation animation : active) {
+                Rectangle r = painted.get(animation);
+                if (r != null && (clip == null || clip.intersects(r))) animation.paint(g);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public long getTickCount() {
+        return ticks;
+    }
+
+    public long getStepsRun() {
+        return stepsRun;
+    }
+
+    /**
+     * @return steps given up after stalls, which is how far animations fell behind
+     */
+    public long getStepsDropped() {
+        return stepsDropped;
+    }
+}
@@ -0,0 +1,301 @@
+package view;
+
+import model.Card;
+import model.Deck;
+
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads card icons into a {@link CardImageCache} on a background thread, so the event
+ * thread never waits on decoding or scaling.
+ *
+ * {@link #warmAll} queues every face on both sides, the given side first. An icon asked
+ * for before it is ready comes back as a placeholder in the card's color, and its face
+ * jumps to the front of the queue; once it is loaded the ready callback runs on the event
+ * thread so the view can paint the real art. {@link #prioritize} puts cards about to be
+ * shown, such as the dealt hand, at the front too.
+ *
+ * Each queued face loads the sizes the view uses: the hand card, enabled and faded, and
+ * the top card, each with the variant the screen's scale draws, so a HiDPI paint does
+ * not have to make it.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public final class CardAssetLoader implements CardIcons {
+
+    /** Width, height and enabled of each icon loaded per face */
+    private static final int[][] SIZES = {{80, 120, 1}, {80, 120, 0}, {160, 240, 1}};
+
+    private final CardImageCache cache;
+    private final Executor executor;
+    private final Runnable onReady;
+    private final Deque<Request> queue = new LinkedBlockingDeque<>();
+    private final Set<String> prioritized = ConcurrentHashMap.newKeySet();
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+    private final Set<String> waitedFor = ConcurrentHashMap.newKeySet();
+    private final Map<String, ImageIcon> placeholders = new ConcurrentHashMap<>();
+    private final AtomicBoolean readyPosted = new AtomicBoolean();
+    private volatile double displayScale = screenScale();
+
+    /**
+     * A face to load and the icon sizes to load it at
+     */
+    private static final class Request {
+        final Card card;
+        final int[][] sizes;
+
+        Request(Card card, int[][] sizes) {
+            this.card = new Card(card);
+            this.sizes = sizes;
+        }
+    }
+
+    /**
+     * Loads on a daemon thread of its own
+     * @param onReady run on the event thread after art that was shown as a placeholder loads
+     */
+    public CardAssetLoader(CardImageCache cache, Runnable onReady) {
+        this(cache, backgroundThread(), onReady);
+    }
+
+    /**
+     * @param executor runs the loads, one face per task in queue order
+     */
+    public CardAssetLoader(CardImageCache cache, Executor executor, Runnable onReady) {
+        this.cache = cache;
+        this.executor = executor;
+        this.onReady = onReady;
+    }
+
+    private static ExecutorService backgroundThread() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "card-asset-loader");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * @return the largest scale of any screen, such as 2.0 for a HiDPI display, or 1.0
+     * with no screen
+     */
+    static double screenScale() {
+        if (GraphicsEnvironment.isHeadless()) return 1.0;
+        double scale = 1.0;
+        for (GraphicsDevice device : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+            AffineTransform transform = device.getDefaultConfiguration().getDefaultTransform();
+            scale = Math.max(scale, Math.max(transform.getScaleX(), transform.getScaleY()));
+        }
+        return scale;
+    }
+
+    /**
+     * Loads faces with the variant a display at this scale draws, rather than the
+     * largest screen's
+     */
+    public void setDisplayScale(double scale) {
+        this.displayScale = scale;
+    }
+
+    /**
+     * Runs a task on the loading thread ahead of anything queued after it, such as
+     * opening a {@link CardRasterCache}
+     */
+    public void runFirst(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Queues every card face, those on the given side first
+     */
+    public void warmAll(Card.Side first) {
+        List<Card> light = new ArrayList<>();
+        List<Card> dark = new ArrayList<>();
+        for (Card card : allFaces().values()) {
+            (card.getCurrentSide() == Card.Side.LIGHT ? light : dark).add(card);
+        }
+        for (Card card : first == Card.Side.LIGHT ? light : dark) enqueue(new Request(card, SIZES), false);
+        for (Card card : first == Card.Side.LIGHT ? dark : light) enqueue(new Request(card, SIZES), false);
+    }
+
+    /**
+     * Moves every face on this side ahead of the rest, as when the game flips
+     */
+    public void favor(Card.Side side) {
+        List<Card> cards = new ArrayList<>();
+        for (Card card : allFaces().values()) {
+            if (card.getCurrentSide() == side) cards.add(card);
+        }
+        prioritize(cards);
+    }
+
+    /**
+     * @return one card for each distinct face in the deck, light and dark, by face
+     */
+    static Map<String, Card> allFaces() {
+        Map<String, Card> faces = new LinkedHashMap<>();
+        Deck deck = new Deck(new Random(0));
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            faces.putIfAbsent(CardImageCache.resourcePath(card), card);
+            Card flipped = new Card(card);
+            flipped.flip();
+            faces.putIfAbsent(CardImageCache.resourcePath(flipped), flipped);
+        }
+        return faces;
+    }
+
+    /**
+     * Moves these cards' faces to the front of the queue, the first card first
+     */
+    public void prioritize(Collection<Card> cards) {
+        List<Card> order = new ArrayList<>(cards);
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Card card = order.get(i);
+            if (!isLoaded(card) && prioritized.add(CardImageCache.resourcePath(card))) {
+                enqueue(new Request(card, SIZES), true);
+            }
+        }
+    }
+
+    private void enqueue(Request request, boolean front) {
+        if (front) queue.addFirst(request);
+        else queue.addLast(request);
+        executor.execute(this::loadNext);
+    }
+
+    /**
+     * Loads the face at the front of the queue. A face whose art cannot be read is
+     * counted as missing, so it is not asked for again and the view stops waiting on it.
+     */
+    private void loadNext() {
+        Request request = queue.pollFirst();
+        if (request == null) return;
+        String face = CardImageCache.resourcePath(request.card);
+        try {
+            for (int[] size : request.sizes) {
+                if (cache.getIcon(request.card, size[0], size[1], size[2] == 1, displayScale) == null) {
+                    missing.add(face);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            missing.add(face);
+            System.err.println("Card art unavailable for " + face + ", leaving it out: " + e.getMessage());
+        } finally {
+            prioritized.remove(face);
+            if (waitedFor.remove(face) && readyPosted.compareAndSet(false, true)) {
+                SwingUtilities.invokeLater(() -> {
+                    readyPosted.set(false);
+                    onReady.run();
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the usual sizes plus this one if it is not among them
+     */
+    private static int[][] withSize(int width, int height, boolean enabled) {
+        int[] size = {width, height, enabled ? 1 : 0};
+        for (int[] usual : SIZES) {
+            if (Arrays.equals(usual, size)) return SIZES;
+        }
+        int[][] sizes = Arrays.copyOf(SIZES, SIZES.length + 1);
+        sizes[SIZES.length] = size;
+        return sizes;
+    }
+
+    private boolean isLoaded(Card card) {
+        for (int[] size : SIZES) {
+            if (cache.peekIcon(card, size[0], size[1], size[2] == 1) == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the icon if loaded, otherwise a placeholder while the face is fetched first,
+     * or null if the card has no art
+     */
+    @Override
+    public ImageIcon getIcon(Card card, int width, int height, boolean enabled) {
+        ImageIcon icon = cache.peekIcon(card, width, height, enabled);
+        if (icon != null) return icon;
+
+        String face = CardImageCache.resourcePath(card);
+        if (missing.contains(face)) return null;
+        waitedFor.add(face);
+        if (prioritized.add(face)) {
+            enqueue(new Request(card, withSize(width, height, enabled)), true);
+        }
+        return placeholder(card.getColor(), width, height, enabled);
+    }
+
+    /**
+     * @return a plain card in the card's color, drawn once per color and size
+     */
+    private ImageIcon placeholder(Card.Color color, int width, int height, boolean enabled) {
+        return placeholders.computeIfAbsent(color + "/" + width + "x" + height + "/" + enabled, k -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int arc = Math.max(6, width / 8);
+            g.setColor(Color.WHITE);
+            g.fillRoundRect(0, 0, width, height, arc, arc);
+            g.setColor(colorOf(color));
+            int inset = Math.max(3, width / 16);
+            g.fillRoundRect(inset, inset, width - 2 * inset, height - 2 * inset, arc, arc);
+            g.setColor(Color.LIGHT_GRAY);
+            g.setStroke(new BasicStroke(1f));
+            g.drawRoundRect(0, 0, width - 1, height - 1, arc, arc);
+            g.dispose();
+            return new ImageIcon(enabled ? image : CardImageCache.disabled(image));
+        });
+    }
+
+    private static Color colorOf(Card.Color color) {
+        switch (color) {
+            case RED: return new Color(0xD7, 0x26, 0x00);
+            case YELLOW: return new Color(0xEC, 0xD4, 0x07);
+            case GREEN: return new Color(0x37, 0x97, 0x11);
+            case BLUE: return new Color(0x09, 0x56, 0xBF);
+            case ORANGE: return new Color(0xF3, 0x8B, 0x00);
+            case PINK: return new Color(0xE9, 0x4F, 0x9A);
+            case PURPLE: return new Color(0x6C, 0x2A, 0x9C);
+            case TEAL: return new Color(0x00, 0x9A, 0x9A);
+            default: return Color.DARK_GRAY;
+        }
+    }
+
+    /**
+     * @return how many faces are still queued
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+}
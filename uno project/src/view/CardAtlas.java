@@ -0,0 +1,150 @@
+package view;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Every card face, light and dark, packed into one image with an index of where each
+ * face sits, so the view reads and decodes one PNG instead of one per face.
+ *
+ * The atlas is not shipped with the game: {@link #open} builds it from the card PNGs with
+ * {@link CardAtlasBuilder} the first time, keeps it in a directory such as
+ * {@code ~/.uno}, and builds it again when the card art changes. Faces are named by their
+ * path under {@code view/}, such as {@code unoCards/one/blue.png}, and can be drawn
+ * straight from the atlas or taken as sub-images that share its pixels.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public final class CardAtlas {
+
+    /** File name of the packed image */
+    public static final String IMAGE_FILE = "card-atlas.png";
+    /** File name of the index, one name=x,y,width,height line per face */
+    public static final String INDEX_FILE = "card-atlas.properties";
+    /** Index entry holding the checksum of the card PNGs the atlas was made from */
+    static final String CHECKSUM_KEY = "checksum";
+
+    private final BufferedImage image;
+    private final Map<String, Rectangle> faces;
+    private final boolean built;
+
+    public CardAtlas(BufferedImage image, Map<String, Rectangle> faces) {
+        this(image, faces, false);
+    }
+
+    private CardAtlas(BufferedImage image, Map<String, Rectangle> faces, boolean built) {
+        this.image = image;
+        this.faces = Collections.unmodifiableMap(new LinkedHashMap<>(faces));
+        this.built = built;
+    }
+
+    /**
+     * @return where the atlas is kept unless told otherwise: {@code ~/.uno}
+     */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".uno");
+    }
+
+    /**
+     * Reads the atlas kept in the directory, first building it from the card PNGs on the
+     * classpath if it is missing or was made from different art
+     * @return the atlas, or null if there are no card PNGs to build it from
+     */
+    public static CardAtlas open(Path directory, ClassLoader loader) throws IOException {
+        Long checksum = CardAtlasBuilder.sourceChecksum(loader);
+        if (checksum == null) return null;
+
+        CardAtlas atlas = read(directory, checksum);
+        if (atlas != null) return atlas;
+
+        CardAtlas packed = CardAtlasBuilder.pack(CardAtlasBuilder.readFaces(loader), CardAtlasBuilder.WIDTH);
+        CardAtlasBuilder.write(packed, directory, checksum);
+        return new CardAtlas(packed.image, packed.faces, true);
+    }
+
+    /**
+     * @return the atlas in the directory, or null if it is missing or was made from art
+     * with a different checksum
+     */
+    private static CardAtlas read(Path directory, long checksum) throws IOException {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        Path imageFile = directory.resolve(IMAGE_FILE);
+        if (!Files.isRegularFile(indexFile) || !Files.isRegularFile(imageFile)) return null;
+
+        Properties index = new Properties();
+        try (InputStream in = Files.newInputStream(indexFile)) {
+            index.load(in);
+        }
+        if (!String.valueOf(checksum).equals(index.getProperty(CHECKSUM_KEY))) return null;
+        BufferedImage image = ImageIO.read(imageFile.toFile());
+        return image == null ? null : new CardAtlas(image, parseIndex(index));
+    }
+
+    static Map<String, Rectangle> parseIndex(Properties index) {
+        Map<String, Rectangle> faces = new LinkedHashMap<>();
+        for (String name : index.stringPropertyNames()) {
+            if (name.equals(CHECKSUM_KEY)) continue;
+            String[] parts = index.getProperty(name).split(",");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Bad atlas entry " + name + "=" + index.getProperty(name));
+            }
+            faces.put(name, new Rectangle(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim())));
+        }
+        return faces;
+    }
+
+    /**
+     * @param name a face such as {@code unoCards/one/blue.png}
+     * @return where the face sits in the atlas, or null if it is not packed
+     */
+    public Rectangle bounds(String name) {
+        return faces.get(name);
+    }
+
+    /**
+     * @return the face as a sub-image sharing the atlas pixels, or null if it is not packed
+     */
+    public BufferedImage face(String name) {
+        Rectangle r = faces.get(name);
+        return r == null ? null : image.getSubimage(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Draws a face from the atlas, scaled into the given rectangle
+     * @return false if the face is not packed
+     */
+    public boolean draw(Graphics2D g, String name, int x, int y, int width, int height) {
+        Rectangle r = faces.get(name);
+        if (r == null) return false;
+        g.drawImage(image, x, y, x + width, y + height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+        return true;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public Map<String, Rectangle> getFaces() {
+        return faces;
+    }
+
+    /**
+     * @return true if {@link #open} had to build the atlas rather than read it back
+     */
+    public boolean wasBuilt() {
+        return built;
+    }
+}
@@ -0,0 +1,260 @@
+package view;
+
+import model.Card;
+import model.Deck;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Packs the card face PNGs into the {@link CardAtlas} image and index. The game does this
+ * itself the first time it needs the atlas and again whenever the card art changes; the
+ * tool below does it ahead of time.
+ *
+ * The faces are the PNGs under {@code view/unoCards} and {@code view/DarkSideCards} on the
+ * classpath, one per face in the deck. They are packed on shelves, tallest first, with a
+ * one pixel gutter so scaled draws never pick up a neighbour's edge.
+ *
+ * Usage, writing to {@code ~/.uno} unless told otherwise:
+ * <pre>
+ * java view.CardAtlasBuilder --out=atlas --width=2048
+ * </pre>
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.2
+ */
+public class CardAtlasBuilder {
+
+    /** Width of the atlas the game builds */
+    public static final int WIDTH = 2048;
+    private static final int GUTTER = 1;
+
+    private static final Map<ClassLoader, Long> CHECKSUMS = new WeakHashMap<>();
+
+    /**
+     * @return the name of every face in the deck, light and dark, such as
+     * {@code unoCards/one/blue.png}, in name order
+     */
+    public static List<String> faceNames() {
+        TreeSet<String> names = new TreeSet<>();
+        Deck deck = new Deck(new Random(0));
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            for (int side = 0; side < 2; side++) {
+                names.add(CardImageCache.resourcePath(card).substring("view/".length()));
+                card.flip();
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Reads every face from the classpath
+     * @return faces by name, in name order, leaving out any with no PNG
+     */
+    public static Map<String, BufferedImage> readFaces(ClassLoader loader) throws IOException {
+        Map<String, BufferedImage> faces = new TreeMap<>();
+        for (String name : faceNames()) {
+            try (InputStream in = loader.getResourceAsStream("view/" + name)) {
+                if (in == null) continue;
+                BufferedImage image = ImageIO.read(in);
+                if (image == null) {
+                    throw new IOException("Not a readable PNG: " + name);
+                }
+                faces.put(name, image);
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * @return a CRC32 over the name, size and modification time of every face PNG, or of
+     * the jar holding them, so changed art can be noticed without reading the art, or null
+     * if there are none. Worked out once per class loader and kept for the rest of the run.
+     */
+    public static Long sourceChecksum(ClassLoader loader) throws IOException {
+        synchronized (CHECKSUMS) {
+            if (CHECKSUMS.containsKey(loader)) return CHECKSUMS.get(loader);
+            Long checksum = stampFaces(loader);
+            CHECKSUMS.put(loader, checksum);
+            return checksum;
+        }
+    }
+
+    private static Long stampFaces(ClassLoader loader) throws IOException {
+        CRC32 crc = new CRC32();
+        Set<Path> jars = new HashSet<>();
+        boolean found = false;
+        for (String name : faceNames()) {
+            URL url = loader.getResource("view/" + name);
+            if (url == null) continue;
+            found = true;
+            crc.update(name.getBytes(StandardCharsets.UTF_8));
+            Path file = localFile(url);
+            if (file == null) {
+                readInto(crc, url);
+            } else if (url.getProtocol().equals("jar")) {
+                if (jars.add(file)) stampInto(crc, file);
+            } else {
+                stampInto(crc, file);
+            }
+        }
+        return found ? crc.getValue() : null;
+    }
+
+    /**
+     * @return the file a face comes from, the jar for a face inside one, or null if it is
+     * not on the local disk
+     */
+    private static Path localFile(URL url) throws IOException {
+        try {
+            if (url.getProtocol().equals("file")) return Paths.get(url.toURI());
+            if (url.getProtocol().equals("jar")) {
+                URLConnection connection = url.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    URL jar = ((JarURLConnection) connection).getJarFileURL();
+                    if (jar.getProtocol().equals("file")) return Paths.get(jar.toURI());
+                }
+            }
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        return null;
+    }
+
+    private static void stampInto(CRC32 crc, Path file) throws IOException {
+        ByteBuffer stamp = ByteBuffer.allocate(16);
+        stamp.putLong(Files.size(file));
+        stamp.putLong(Files.getLastModifiedTime(file).toMillis());
+        crc.update(stamp.array());
+    }
+
+    private static void readInto(CRC32 crc, URL url) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = url.openStream()) {
+            for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+                crc.update(buffer, 0, n);
+            }
+        }
+    }
+
+    /**
+     * Packs faces onto shelves of an image the given width wide
+     */
+    public static CardAtlas pack(Map<String, BufferedImage> faces, int width) {
+        List<String> order = new ArrayList<>(faces.keySet());
+        order.sort(Comparator.comparingInt((String n) -> -faces.get(n).getHeight()).thenComparing(n -> n));
+
+        Map<String, Rectangle> placed = new LinkedHashMap<>();
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        for (String name : order) {
+            BufferedImage face = faces.get(name);
+            if (face.getWidth() > width) {
+                throw new IllegalArgumentException(name + " is wider than the atlas");
+            }
+            if (x + face.getWidth() > width) {
+                x = 0;
+                y += shelfHeight + GUTTER;
+                shelfHeight = 0;
+            }
+            placed.put(name, new Rectangle(x, y, face.getWidth(), face.getHeight()));
+            x += face.getWidth() + GUTTER;
+            shelfHeight = Math.max(shelfHeight, face.getHeight());
+        }
+
+        BufferedImage atlas = new BufferedImage(width, Math.max(1, y + shelfHeight), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        for (Map.Entry<String, Rectangle> entry : placed.entrySet()) {
+            Rectangle r = entry.getValue();
+            g.drawImage(faces.get(entry.getKey()), r.x, r.y, null);
+        }
+        g.dispose();
+        return new CardAtlas(atlas, new TreeMap<>(placed));
+    }
+
+    /**
+     * Writes the atlas image and index into the directory, each replacing any old one in
+     * a single move. The index goes last and records the checksum of the faces, so an
+     * index that reads back with the right checksum always has its image beside it.
+     */
+    public static void write(CardAtlas atlas, Path directory, long checksum) throws IOException {
+        Files.createDirectories(directory);
+        Path image = Files.createTempFile(directory, "card-atlas", ".tmp");
+        Path index = Files.createTempFile(directory, "card-atlas", ".tmp");
+        try {
+            ImageIO.write(atlas.getImage(), "png", image.toFile());
+            try (Writer out = Files.newBufferedWriter(index, StandardCharsets.UTF_8)) {
+                out.write("# Card faces in " + CardAtlas.IMAGE_FILE + ": name=x,y,width,height. Made by view.CardAtlasBuilder.\n");
+                out.write(CardAtlas.CHECKSUM_KEY + "=" + checksum + "\n");
+                for (Map.Entry<String, Rectangle> entry : atlas.getFaces().entrySet()) {
+                    Rectangle r = entry.getValue();
+                    out.write(entry.getKey() + "=" + r.x + "," + r.y + "," + r.width + "," + r.height + "\n");
+                }
+            }
+            Files.move(image, directory.resolve(CardAtlas.IMAGE_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(index, directory.resolve(CardAtlas.INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(image);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = CardAtlas.defaultDirectory();
+        int width = WIDTH;
+
+        for (String arg : args) {
+            String[] kv = arg.split("=", 2);
+            String value = kv.length > 1 ? kv[1] : "";
+            switch (kv[0]) {
+                case "--out": out = Paths.get(value); break;
+                case "--width": width = Integer.parseInt(value); break;
+                default:
+                    System.err.println("Unknown option: " + arg);
+                    return;
+            }
+        }
+
+        ClassLoader loader = CardAtlasBuilder.class.getClassLoader();
+        Long checksum = sourceChecksum(loader);
+        if (checksum == null) {
+            System.err.println("No card faces on the classpath");
+            return;
+        }
+        Map<String, BufferedImage> faces = readFaces(loader);
+        CardAtlas atlas = pack(faces, width);
+        write(atlas, out, checksum);
+        System.out.printf("Packed %d faces into a %dx%d atlas in %s%n",
+                faces.size(), atlas.getImage().getWidth(), atlas.getImage().getHeight(), out);
+    }
+}
@@ -0,0 +1,24 @@
+package view;
+
+import model.Card;
+
+import javax.swing.ImageIcon;
+
+/**
+ * Where the view's painters get card icons: straight from the {@link CardImageCache}, or
+ * through the {@link CardAssetLoader}, which never makes the caller wait.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public interface CardIcons {
+
+    /**
+     * @param card the card to show
+     * @param width icon width in pixels
+     * @param height icon height in pixels
+     * @param enabled false for the faded look of a card that cannot be clicked
+     * @return the icon, or null if there is no art for the card
+     */
+    ImageIcon getIcon(Card card, int width, int height, boolean enabled);
+}
@@ -0,0 +1,84 @@
+package view;
+
+import java.awt.Image;
+import java.awt.image.AbstractMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * A card face at 1x, 1.5x and 2x its logical size, so Java2D draws it crisply on scaled
+ * displays by picking the variant that matches the screen instead of stretching the 1x
+ * pixels on every paint.
+ *
+ * The 1x variant is made up front. The others are made when first asked for and then
+ * kept, so a 1x display never pays for them and a 2x display pays once. Whoever makes
+ * the image can {@link #prepare} the variant its screen needs, so the paint that first
+ * draws it does not have to.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+final class CardImage extends AbstractMultiResolutionImage {
+
+    /** The display scales a variant is kept for, smallest first */
+    static final double[] SCALES = {1.0, 1.5, 2.0};
+
+    private final BufferedImage[] variants = new BufferedImage[SCALES.length];
+    private final DoubleFunction<BufferedImage> renderer;
+
+    /**
+     * @param base the face at its logical size
+     * @param renderer makes the face at a scale from {@link #SCALES}
+     */
+    CardImage(BufferedImage base, DoubleFunction<BufferedImage> renderer) {
+        this.variants[0] = base;
+        this.renderer = renderer;
+    }
+
+    @Override
+    protected Image getBaseImage() {
+        return variants[0];
+    }
+
+    /**
+     * @return the smallest variant at least as large as the destination, or the largest
+     */
+    @Override
+    public Image getResolutionVariant(double destImageWidth, double destImageHeight) {
+        BufferedImage base = variants[0];
+        for (int i = 0; i < SCALES.length - 1; i++) {
+            if (base.getWidth() * SCALES[i] >= destImageWidth - 0.5
+                    && base.getHeight() * SCALES[i] >= destImageHeight - 0.5) {
+                return variant(i);
+            }
+        }
+        return variant(SCALES.length - 1);
+    }
+
+    /**
+     * Makes the variant a display at this scale draws, if it is not made yet
+     */
+    void prepare(double displayScale) {
+        BufferedImage base = variants[0];
+        getResolutionVariant(base.getWidth() * displayScale, base.getHeight() * displayScale);
+    }
+
+    @Override
+    public List<Image> getResolutionVariants() {
+        List<Image> all = new ArrayList<>();
+        for (int i = 0; i < SCALES.length; i++) all.add(variant(i));
+        return all;
+    }
+
+    /**
+     * @return the variant for {@code SCALES[index]}, made now if this is the first ask
+     */
+    synchronized BufferedImage variant(int index) {
+        if (variants[index] == null) {
+            variants[index] = renderer.apply(SCALES[index]);
+        }
+        return variants[index];
+    }
+}
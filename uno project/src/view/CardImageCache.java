@@ -0,0 +1,321 @@
+package view;
+
+import model.Card;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Card face icons for the view, decoded and scaled once instead of on every render.
+ *
+ * Given a directory to keep it in, faces come from the {@link CardAtlas}, read and decoded
+ * once on first use, or built there from the card PNGs if it is not there yet; a face
+ * missing from the atlas, or every face when there is no atlas, is read from its own PNG
+ * on the classpath the first time any card needs it. With a
+ * {@link CardRasterCache} attached, icons at the cached sizes skip decoding and scaling
+ * altogether. Each icon,
+ * keyed by side, value, color, size and whether it is enabled, is scaled from the
+ * decoded face once with bicubic interpolation (halving first for large reductions)
+ * and, for the disabled look, faded once. Wild cards share one face whatever color
+ * was chosen, so their key ignores the color.
+ *
+ * Each icon holds a {@link CardImage} with variants for scaled displays, so Swing picks
+ * pixels that match the screen rather than stretching the 1x ones. Given the screen's
+ * scale, an icon comes with the variant that screen draws already made.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.3
+ */
+public final class CardImageCache implements CardIcons {
+
+    /** Stands in for a face with no PNG, since the maps cannot hold null */
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    private final ClassLoader loader;
+    private final Map<String, BufferedImage> faces = new ConcurrentHashMap<>();
+    private final Map<Key, ImageIcon> icons = new ConcurrentHashMap<>();
+    private final AtomicInteger decodes = new AtomicInteger();
+    private final AtomicInteger variants = new AtomicInteger();
+    private volatile Path atlasDirectory;
+    private volatile CardAtlas atlas;
+    private volatile boolean atlasLoaded;
+    private volatile CardRasterCache rasters;
+
+    /**
+     * What one icon depends on
+     */
+    private static final class Key {
+        final Card.Side side;
+        final Card.Value value;
+        final Card.Color color;
+        final int width;
+        final int height;
+        final boolean enabled;
+
+        Key(Card card, int width, int height, boolean enabled) {
+            this.side = card.getCurrentSide();
+            this.value = card.getValue();
+            this.color = isWild(value) ? Card.Color.WILD : card.getColor();
+            this.width = width;
+            this.height = height;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return side == k.side && value == k.value && color == k.color
+                    && width == k.width && height == k.height && enabled == k.enabled;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(side, value, color, width, height, enabled);
+        }
+    }
+
+    public CardImageCache() {
+        this(CardImageCache.class.getClassLoader());
+    }
+
+    /**
+     * @param loader where the card PNGs are looked up
+     */
+    public CardImageCache(ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Takes faces from the atlas kept in this directory, building it there the first time
+     * a face is needed if it is missing or stale; call before any icon is asked for
+     * @param directory where the atlas is kept, or null to read each face's own PNG
+     */
+    public void setAtlasDirectory(Path directory) {
+        this.atlasDirectory = directory;
+    }
+
+    /**
+     * Takes enabled icons at the cached sizes from pre-scaled pixels on disk
+     * @param rasters the cache, or null to always scale from the decoded faces
+     */
+    public void setRasterCache(CardRasterCache rasters) {
+        this.rasters = rasters;
+    }
+
+    /**
+     * @param card the card to show
+     * @param width icon width in pixels
+     * @param height icon height in pixels
+     * @param enabled false for the faded look of a card that cannot be clicked
+     * @return the icon, at 1x, 1.5x and 2x so it stays sharp on scaled displays, or null
+     * if there is no art for the card
+     */
+    @Override
+    public ImageIcon getIcon(Card card, int width, int height, boolean enabled) {
+        return getIcon(card, width, height, enabled, 1.0);
+    }
+
+    /**
+     * As {@link #getIcon(Card, int, int, boolean)}, but a new icon also gets the variant
+     * a display at this scale draws before it is handed out, so painting it there makes
+     * nothing
+     * @param displayScale the screen's scale, such as 2.0 for a HiDPI display
+     */
+    public ImageIcon getIcon(Card card, int width, int height, boolean enabled, double displayScale) {
+        Key key = new Key(card, width, height, enabled);
+        ImageIcon icon = icons.get(key);
+        if (icon == null) {
+            CardImage image;
+            if (enabled) {
+                Card face = new Card(card); // the variants are made later, after the card may have changed
+                BufferedImage base = render(face, width, height);
+                if (base == null) return null;
+                image = new CardImage(base, scale -> {
+                    variants.incrementAndGet();
+                    return render(face, (int) Math.round(width * scale), (int) Math.round(height * scale));
+                });
+            } else {
+                ImageIcon enabledIcon = getIcon(card, width, height, true, displayScale);
+                if (enabledIcon == null) return null;
+                CardImage faded = (CardImage) enabledIcon.getImage();
+                image = new CardImage(disabled(faded.variant(0)), scale -> {
+                    variants.incrementAndGet();
+                    return disabled(faded.variant(scaleIndex(scale)));
+                });
+            }
+            image.prepare(displayScale);
+            icon = new ImageIcon(image);
+            ImageIcon raced = icons.putIfAbsent(key, icon);
+            if (raced != null) icon = raced;
+        }
+        return icon;
+    }
+
+    /**
+     * @return the icon if it has already been made, or null, without loading anything
+     */
+    public ImageIcon peekIcon(Card card, int width, int height, boolean enabled) {
+        return icons.get(new Key(card, width, height, enabled));
+    }
+
+    /**
+     * @return the enabled face at exactly this size, or null if there is no art for it
+     */
+    private BufferedImage render(Card card, int width, int height) {
+        BufferedImage scaled = prescaled(card, width, height);
+        if (scaled != null) return scaled;
+        BufferedImage face = face(resourcePath(card));
+        return face == MISSING ? null : scale(face, width, height);
+    }
+
+    private static int scaleIndex(double scale) {
+        for (int i = 0; i < CardImage.SCALES.length; i++) {
+            if (CardImage.SCALES[i] == scale) return i;
+        }
+        throw new IllegalArgumentException("No variant at scale " + scale);
+    }
+
+    private BufferedImage prescaled(Card card, int width, int height) {
+        CardRasterCache cache = rasters;
+        return cache == null ? null : cache.get(resourcePath(card).substring("view/".length()), width, height);
+    }
+
+    /**
+     * @return how many PNGs, the atlas or the faces it was built from included, have been
+     * decoded so far
+     */
+    public int getDecodeCount() {
+        return decodes.get();
+    }
+
+    /**
+     * @return how many 1.5x and 2x variants have been made so far
+     */
+    public int getVariantCount() {
+        return variants.get();
+    }
+
+    /**
+     * @return how many icons are cached
+     */
+    public int size() {
+        return icons.size();
+    }
+
+    private BufferedImage face(String path) {
+        return faces.computeIfAbsent(path, p -> {
+            CardAtlas packed = atlas();
+            BufferedImage fromAtlas = packed == null ? null : packed.face(p.substring("view/".length()));
+            if (fromAtlas != null) return fromAtlas;
+
+            try (InputStream is = loader.getResourceAsStream(p)) {
+                if (is == null) return MISSING;
+                BufferedImage image = ImageIO.read(is);
+                decodes.incrementAndGet();
+                return image == null ? MISSING : image;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read card art " + p, e);
+            }
+        });
+    }
+
+    /**
+     * @return the atlas, read or built on first call, or null if there is no directory
+     * for it or it cannot be made
+     */
+    private CardAtlas atlas() {
+        if (!atlasLoaded) {
+            synchronized (this) {
+                if (!atlasLoaded) {
+                    atlas = openAtlas();
+                    if (atlas != null) decodes.addAndGet(atlas.wasBuilt() ? atlas.getFaces().size() : 1);
+                    atlasLoaded = true;
+                }
+            }
+        }
+        return atlas;
+    }
+
+    private CardAtlas openAtlas() {
+        Path directory = atlasDirectory;
+        if (directory == null) return null;
+        try {
+            return CardAtlas.open(directory, loader);
+        } catch (IOException e) {
+            System.err.println("Card atlas unavailable, reading each card's art instead: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the classpath location of a card's art
+     */
+    static String resourcePath(Card card) {
+        Card.Value value = card.getValue();
+        String folder = card.getCurrentSide() == Card.Side.LIGHT ? "view/unoCards/" : "view/DarkSideCards/";
+        String name = isWild(value) ? value.name() : card.getColor().name();
+        return folder + (value.name() + "/" + name + ".png").toLowerCase();
+    }
+
+    private static boolean isWild(Card.Value value) {
+        return value == Card.Value.WILD || value == Card.Value.WILD_DRAW_TWO || value == Card.Value.WILD_DRAW_COLOR;
+    }
+
+    /**
+     * Resizes with bicubic interpolation, halving step by step first while the target is
+     * under half the size so no source pixels are skipped
+     */
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return target;
+    }
+
+    /**
+     * Fades a face to show it cannot be played
+     */
+    static BufferedImage disabled(Image image) {
+        BufferedImage buffered = new BufferedImage(image.getWidth(null), image.getHeight(null),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffered.createGraphics();
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f));
+        g.drawImage(image, 0, 0, null);
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
+        g.setColor(new Color(200, 200, 200));
+        g.fillRect(0, 0, buffered.getWidth(), buffered.getHeight());
+        g.dispose();
+        return buffered;
+    }
+}
@@ -0,0 +1,220 @@
+package view;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on-disk copy of every card face already decoded and scaled to the sizes the view
+ * draws, as raw ARGB pixels, so a cold start reads faces without decoding any PNG.
+ *
+ * The file is memory mapped; a face is one bulk copy from the mapping into a standard
+ * int raster, which Java2D can draw at full speed. The file records the checksum of the
+ * card PNGs it was made from, taken from their sizes and modification times, so changed
+ * card art rebuilds it on the next start.
+ *
+ * Layout: the header length, then a header of magic, version, checksum, sizes and face
+ * names, padded to four bytes, then each face's pixels at each size in turn, big endian.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public final class CardRasterCache {
+
+    /** Icon sizes kept in the cache: hand cards and the top card */
+    public static final int[][] SIZES = {{80, 120}, {160, 240}};
+
+    private static final int MAGIC = 0x554E4F52; // "UNOR"
+    private static final int VERSION = 1;
+
+    private final IntBuffer pixels;
+    private final Map<String, Integer> faceIndex;
+    private final long checksum;
+    private final boolean rebuilt;
+    private final int pixelsPerFace;
+
+    private CardRasterCache(IntBuffer pixels, Map<String, Integer> faceIndex, long checksum, boolean rebuilt) {
+        this.pixels = pixels;
+        this.faceIndex = faceIndex;
+        this.checksum = checksum;
+        this.rebuilt = rebuilt;
+        int total = 0;
+        for (int[] size : SIZES) total += size[0] * size[1];
+        this.pixelsPerFace = total;
+    }
+
+    /**
+     * @return where the cache lives unless told otherwise: {@code ~/.uno/card-rasters.bin}
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty("user.home"), ".uno", "card-rasters.bin");
+    }
+
+    /**
+     * Maps the cache file, first rebuilding it from the card PNGs if it is missing,
+     * damaged or made from different card art
+     * @return the cache, or null if there are no card PNGs to build it from
+     */
+    public static CardRasterCache open(Path file, ClassLoader loader) throws IOException {
+        Long checksum = CardAtlasBuilder.sourceChecksum(loader);
+        if (checksum == null) return null;
+
+        CardRasterCache cache = map(file, checksum, false);
+        if (cache != null) return cache;
+
+        write(file, CardAtlasBuilder.readFaces(loader), checksum);
+        cache = map(file, checksum, true);
+        if (cache == null) {
+            throw new IOException("Card raster cache " + file + " did not read back");
+        }
+        return cache;
+    }
+
+    /**
+     * @return the mapped cache, or null if the file is missing or does not match
+     */
+    private static CardRasterCache map(Path file, long checksum, boolean rebuilt) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < 4) return null;
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.order(ByteOrder.BIG_ENDIAN);
+            int headerLength = mapped.getInt(0);
+            if (headerLength <= 0 || headerLength > length - 4) return null;
+
+            byte[] header = new byte[headerLength];
+            mapped.position(4);
+            mapped.get(header);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != checksum) return null;
+            int sizeCount = in.readInt();
+            if (sizeCount != SIZES.length) return null;
+            for (int[] size : SIZES) {
+                if (in.readInt() != size[0] || in.readInt() != size[1]) return null;
+            }
+            int faceCount = in.readInt();
+            Map<String, Integer> faces = new HashMap<>();
+            for (int f = 0; f < faceCount; f++) {
+                faces.put(in.readUTF(), f);
+            }
+
+            int dataStart = align(4 + headerLength);
+            long expected = dataStart + (long) faceCount * perFace() * 4;
+            if (length != expected) return null;
+            mapped.position(dataStart);
+            IntBuffer pixels = mapped.slice().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+            return new CardRasterCache(pixels, faces, checksum, rebuilt);
+        }
+    }
+
+    /**
+     * Scales every face to every size and writes the file, replacing any old one in a
+     * single move
+     */
+    private static void write(Path file, Map<String, BufferedImage> faces, long checksum) throws IOException {
+        List<String> names = new ArrayList<>(faces.keySet());
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeLong(checksum);
+        header.writeInt(SIZES.length);
+        for (int[] size : SIZES) {
+            header.writeInt(size[0]);
+            header.writeInt(size[1]);
+        }
+        header.writeInt(names.size());
+        for (String name : names) {
+            header.writeUTF(name);
+        }
+        header.flush();
+
+        int dataStart = align(4 + headerBytes.size());
+        ByteBuffer out = ByteBuffer.allocate(dataStart + names.size() * perFace() * 4).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(headerBytes.size());
+        out.put(headerBytes.toByteArray());
+        out.position(dataStart);
+        IntBuffer ints = out.asIntBuffer();
+        for (String name : names) {
+            BufferedImage face = faces.get(name);
+            for (int[] size : SIZES) {
+                BufferedImage scaled = CardImageCache.scale(face, size[0], size[1]);
+                ints.put(((DataBufferInt) scaled.getRaster().getDataBuffer()).getData());
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "card-rasters", ".tmp");
+        try {
+            Files.write(temp, out.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static int perFace() {
+        int total = 0;
+        for (int[] size : SIZES) total += size[0] * size[1];
+        return total;
+    }
+
+    private static int align(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    /**
+     * @param face a face name as in the {@link CardAtlas}, such as {@code unoCards/one/blue.png}
+     * @return the face at that size in a new image, or null if the cache does not hold it
+     */
+    public BufferedImage get(String face, int width, int height) {
+        Integer index = faceIndex.get(face);
+        if (index == null) return null;
+        int offset = index * pixelsPerFace;
+        for (int[] size : SIZES) {
+            if (size[0] == width && size[1] == height) {
+                BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                int[] target = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                pixels.duplicate().position(offset).get(target);
+                return image;
+            }
+            offset += size[0] * size[1];
+        }
+        return null;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * @return true if the file was missing or stale and had to be made on this open
+     */
+    public boolean wasRebuilt() {
+        return rebuilt;
+    }
+
+    public int size() {
+        return faceIndex.size();
+    }
+}
@@ -0,0 +1,42 @@
+package view;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+
+/**
+ * A card moving, and growing or shrinking, from one place to another: a card played from
+ * the hand onto the discard pile, or one drawn from the deck into a hand.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class CardSlide extends Animation {
+
+    private final Image image;
+    private final Rectangle from;
+    private final Rectangle to;
+
+    /**
+     * @param image the card, already scaled by the {@link CardImageCache}
+     * @param from where the card starts, in overlay coordinates
+     * @param to where the card ends up
+     */
+    public CardSlide(Image image, Rectangle from, Rectangle to, int delayMillis, int durationMillis) {
+        super(delayMillis, durationMillis);
+        this.image = image;
+        this.from = new Rectangle(from);
+        this.to = new Rectangle(to);
+    }
+
+    @Override
+    public Rectangle bounds() {
+        return isStarted() ? between(from, to, easeOut(progress())) : null;
+    }
+
+    @Override
+    public void paint(Graphics2D g) {
+        Rectangle r = bounds();
+        if (r != null) g.drawImage(image, r.x, r.y, r.width, r.height, null);
+    }
+}
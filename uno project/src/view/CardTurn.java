@@ -0,0 +1,52 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+
+/**
+ * A card turning over in place, as the discard pile does when a FLIP is played: the old
+ * face narrows to an edge and the new face widens out of it.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class CardTurn extends Animation {
+
+    private final Image front;
+    private final Image back;
+    private final Rectangle at;
+    private final Color background;
+
+    /**
+     * @param front the face showing before the turn
+     * @param back the face showing after it
+     * @param at where the card sits, in overlay coordinates
+     * @param background painted behind the narrowed card to hide what sits under it
+     */
+    public CardTurn(Image front, Image back, Rectangle at, Color background, int delayMillis, int durationMillis) {
+        super(delayMillis, durationMillis);
+        this.front = front;
+        this.back = back;
+        this.at = new Rectangle(at);
+        this.background = background;
+    }
+
+    @Override
+    public Rectangle bounds() {
+        return isStarted() ? new Rectangle(at) : null;
+    }
+
+    @Override
+    public void paint(Graphics2D g) {
+        if (!isStarted()) return;
+        double t = progress();
+        int width = (int) Math.round(at.width * Math.abs(Math.cos(Math.PI * t)));
+        g.setColor(background);
+        g.fillRect(at.x, at.y, at.width, at.height);
+        if (width > 0) {
+            g.drawImage(t < 0.5 ? front : back, at.x + (at.width - width) / 2, at.y, width, at.height, null);
+        }
+    }
+}
@@ -5,14 +5,11 @@ import controller.GameState;
 import model.Card;
 import model.Player;
 import model.AIPlayer;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * The view for the uno GUI with Save/Load functionality
@@ -29,8 +26,11 @@ public final class GameView {
     private final JLabel topCardText = new JLabel("", SwingConstants.CENTER);
     private final JLabel currentLabel = new JLabel("Current: -");
     private final JLabel statusLabel = new JLabel("Status: -");
-    private final JPanel handStrip = new JPanel();
-    private final JScrollPane handScroll = new JScrollPane(handStrip);
+
+    // The hand section keeps its side buttons and hand between renders; the hand
+    // repaints only the cards in view whose face or state changed
+    private final JPanel leftButtons = new JPanel();
+    private final JPanel rightButtons = new JPanel();
 
     // Buttons
     private final JButton nextBtn = new JButton("Next");
@@ -41,6 +41,17 @@ public final class GameView {
     private final JButton loadBtn = new JButton("Load Game");
 
     private final JTextArea scoreArea = new JTextArea(3, 30);
+    private Card shownTop;
+    private Card.Side favoredSide;
+
+    private final CardImageCache cardImages = new CardImageCache();
+    private final CardAssetLoader assets = new CardAssetLoader(cardImages, this::assetsReady);
+    private final HandComponent handView = new HandComponent(assets);
+    private final RenderScheduler renderScheduler = new RenderScheduler(this::draw);
+    private final AnimationEngine animations = new AnimationEngine();
+    private final JComponent layered = animations.wrap(root);
+    private final JScrollPane handScroll = new JScrollPane(handView,
+            ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
 
     public GameView() {
         root.setLayout(new BoxLayout(root, BoxLayout.Y_AXIS));
@@ -62,9 +73,18 @@ public final class GameView {
         // Hand section
         JPanel hand = titled("Your Hand");
         hand.setLayout(new BorderLayout());
-        handStrip.setLayout(new BoxLayout(handStrip, BoxLayout.X_AXIS));
         handScroll.setBorder(null);
+        leftButtons.setLayout(new BoxLayout(leftButtons, BoxLayout.Y_AXIS));
+        leftButtons.add(wrapLeft(nextBtn));
+        leftButtons.add(Box.createVerticalStrut(5));
+        leftButtons.add(wrapLeft(undoBtn));
+        rightButtons.setLayout(new BoxLayout(rightButtons, BoxLayout.Y_AXIS));
+        rightButtons.add(wrapRight(drawBtn));
+        rightButtons.add(Box.createVerticalStrut(5));
+        rightButtons.add(wrapRight(redoBtn));
+        hand.add(leftButtons, BorderLayout.WEST);
         hand.add(handScroll, BorderLayout.CENTER);
+        hand.add(rightButtons, BorderLayout.EAST);
         root.add(hand);
 
         // Scoreboard section
@@ -88,6 +108,21 @@ public final class GameView {
         redoBtn.setActionCommand("REDO");
         saveBtn.setActionCommand("SAVE");
         loadBtn.setActionCommand("LOAD");
+
+        // Card art loads in the background; anything not ready yet is shown as a placeholder
+        assets.runFirst(() -> {
+            cardImages.setAtlasDirectory(CardAtlas.defaultDirectory());
+            try {
+                cardImages.setRasterCache(CardRasterCache.open(CardRasterCache.defaultFile(), getClass().getClassLoader()));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Card raster cache unavailable, decoding card art instead: " + e.getMessage());
+            }
+        });
+        assets.warmAll(Card.Side.LIGHT);
+        favoredSide = Card.Side.LIGHT;
+
+        renderScheduler.addFrameListener(
+                new MoveAnimator(animations, assets, root, handView, handScroll, topCardText, scoreArea));
     }
 
     private JPanel titled(String title) {
@@ -96,8 +131,15 @@ public final class GameView {
         return p;
     }
 
-    public JPanel getRoot() {
-        return root;
+    /**
+     * @return the whole view, under the overlay that card animations are painted on
+     */
+    public JComponent getRoot() {
+        return layered;
+    }
+
+    public AnimationEngine getAnimations() {
+        return animations;
     }
 
     public void bindController(GameController c) {
@@ -108,74 +150,29 @@ public final class GameView {
         redoBtn.addActionListener(c);
         saveBtn.addActionListener(c);
         loadBtn.addActionListener(c);
+        handView.addActionListener(c);
     }
 
-    private String getPath(Card c) {
-        String resourcePath = "";
-        Card.Value value = c.getValue();
-        Card.Color color = c.getColor();
-        Card.Side side = c.getCurrentSide();
-
-        if (side == Card.Side.LIGHT) {
-            resourcePath = "view/unoCards/";
-        } else {
-            resourcePath = "view/DarkSideCards/";
-        }
-
-        if (value == Card.Value.WILD || value == Card.Value.WILD_DRAW_TWO || value == Card.Value.WILD_DRAW_COLOR) {
-            resourcePath += value + "/" + value + ".png";
-        } else {
-            resourcePath += value + "/" + color + ".png";
-        }
-
-        return resourcePath;
+    /**
+     * Renders a state now, along with any still waiting for the next frame
+     */
+    public void render(GameState s) {
+        renderScheduler.renderNow(s);
     }
 
-    private ImageIcon getIcon(Card c, int x, int y) {
-        ClassLoader classLoader = getClass().getClassLoader();
-        String resourcePath = getPath(c);
-
-        System.out.println("Trying to load: " + resourcePath);
-
-        InputStream is = classLoader.getResourceAsStream(resourcePath);
-
-        if (is != null) {
-            ImageIcon icon = null;
-            try {
-                icon = new ImageIcon(ImageIO.read(is));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            Image image = icon.getImage();
-            return new ImageIcon(image.getScaledInstance(x, y, Image.SCALE_SMOOTH));
-        }
-
-        return null;
+    /**
+     * Renders a state at the end of the current frame, together with any others that
+     * arrive before then
+     */
+    public void scheduleRender(GameState s) {
+        renderScheduler.submit(s);
     }
 
-    private ImageIcon getDisabledIcon(ImageIcon icon) {
-        Image image = icon.getImage();
-
-        BufferedImage buffered = new BufferedImage(
-                image.getWidth(null),
-                image.getHeight(null),
-                BufferedImage.TYPE_INT_ARGB
-        );
-
-        Graphics2D g = buffered.createGraphics();
-
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f));
-        g.drawImage(image, 0, 0, null);
-
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f));
-        g.setColor(new Color(200, 200, 200));
-        g.fillRect(0, 0, buffered.getWidth(), buffered.getHeight());
-        g.dispose();
-
-        return new ImageIcon(buffered);
+    public RenderScheduler getRenderScheduler() {
+        return renderScheduler;
     }
 
-    public void render(GameState s) {
+    private void draw(GameState s) {
         currentLabel.setText("Current Player: " + s.currentPlayer.getName() + (s.clockwise ? "  →" : "  ←"));
         statusLabel.setText("Status: ");
 
@@ -183,55 +180,20 @@ public final class GameView {
             statusLabel.setText("Status: WILD " + s.topDiscard.getColor());
         }
 
-        handStrip.removeAll();
-
         boolean isAIPlayer = s.currentPlayer.isAI();
-        if (!isAIPlayer) {
-            JPanel leftButtons = new JPanel();
-            leftButtons.setLayout(new BoxLayout(leftButtons, BoxLayout.Y_AXIS));
-            leftButtons.add(wrapLeft(nextBtn));
-            leftButtons.add(Box.createVerticalStrut(5));
-            leftButtons.add(wrapLeft(undoBtn));
-            handStrip.add(leftButtons);
-        }
-
+        leftButtons.setVisible(!isAIPlayer);
+        rightButtons.setVisible(!isAIPlayer);
         List<Card> hand = s.currentPlayer.getHand();
-        for (int i = 0; i < hand.size(); i++) {
-            Card c = hand.get(i);
-            System.out.println(c);
-            JButton cardBtn = new JButton();
-            cardBtn.setIcon(getIcon(c, 80, 120));
-            cardBtn.setDisabledIcon(getDisabledIcon(Objects.requireNonNull(getIcon(c, 80, 120))));
-            cardBtn.setSize(80, handStrip.getHeight());
-            final int idx = i;
-            boolean playable = s.playableIndices.contains(i);
-            if (playable) cardBtn.setBorder(BorderFactory.createLineBorder(Color.GREEN, 2));
-
-            cardBtn.setActionCommand("PLAY:" + idx);
-            cardBtn.addActionListener(controller);
-            handStrip.add(Box.createHorizontalStrut(16));
-            handStrip.add(cardBtn);
-
-            if (s.turnTaken || isAIPlayer) {
-                cardBtn.setEnabled(false);
-            }
-
-            topCardText.setIcon(getIcon(s.topDiscard, 160, 240));
-        }
-
-        handStrip.add(Box.createHorizontalGlue());
-
-        if (!isAIPlayer) {
-            JPanel rightButtons = new JPanel();
-            rightButtons.setLayout(new BoxLayout(rightButtons, BoxLayout.Y_AXIS));
-            rightButtons.add(wrapRight(drawBtn));
-            rightButtons.add(Box.createVerticalStrut(5));
-            rightButtons.add(wrapRight(redoBtn));
-            handStrip.add(rightButtons);
+        if (s.currentSide != favoredSide) {
+            favoredSide = s.currentSide;
+            assets.favor(favoredSide);
         }
-
-        handStrip.revalidate();
-        handStrip.repaint();
+        List<Card> shown = new ArrayList<>(hand);
+        shown.add(0, s.topDiscard);
+        assets.prioritize(shown);
+        handView.setHand(hand, s.playableIndices, !s.turnTaken && !isAIPlayer);
+        shownTop = s.topDiscard;
+        topCardText.setIcon(assets.getIcon(shownTop, 160, 240, true));
 
         if (!isAIPlayer) {
             boolean hasPlayable = !s.playableIndices.isEmpty();
@@ -244,6 +206,14 @@ public final class GameView {
         scoreArea.setText(sb.toString());
     }
 
+    /**
+     * Swaps in card art that was still loading when last painted
+     */
+    private void assetsReady() {
+        handView.repaint();
+        if (shownTop != null) topCardText.setIcon(assets.getIcon(shownTop, 160, 240, true));
+    }
+
     private JComponent wrapLeft(JComponent c) {
         JPanel p = new JPanel(new BorderLayout());
         p.add(c, BorderLayout.WEST);
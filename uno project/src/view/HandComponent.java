@@ -0,0 +1,316 @@
+package view;
+
+import model.Card;
+
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The current player's hand as one painted component instead of a button per card.
+ *
+ * Cards are painted from cached {@link CardIcons} left to right, playable ones outlined
+ * in green. Up to {@link #FAN_AFTER} cards sit side by side; a larger hand is fanned into
+ * the same width with the cards overlapping. Clicking a card fires {@code PLAY:<index>}
+ * to the action listeners, just as the card buttons did, and the card under the mouse is
+ * lifted. Changing the hand repaints only the cards that changed or moved.
+ *
+ * A hand too long even when fanned is scrolled in a viewport a card or a page at a time.
+ * Only the cards in view, plus {@link #OVERSCAN} either side so scrolling has them ready,
+ * are looked at when painting, hit-testing or diffing, so the cost follows the width of
+ * the viewport rather than the size of the hand.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class HandComponent extends JComponent implements Scrollable {
+
+    private static final long serialVersionUID = 1L;
+    public static final int CARD_WIDTH = 80;
+    public static final int CARD_HEIGHT = 120;
+    /** Space between cards that are not fanned */
+    public static final int GAP = 16;
+    /** Hands larger than this are fanned into the width this many cards take */
+    public static final int FAN_AFTER = 10;
+    /** The least of each card that stays visible in a fan */
+    public static final int MIN_STEP = 24;
+    /** Cards either side of the view whose art is fetched ahead of scrolling */
+    public static final int OVERSCAN = 2;
+    /** How far the card under the mouse is raised */
+    static final int LIFT = 8;
+    private static final Color PLAYABLE = Color.GREEN;
+
+    private final CardIcons cardImages;
+    private List<Card> cards = new ArrayList<>();
+    /** The face last painted in each slot, or null if the slot has not been painted */
+    private String[] shownFaces = new String[0];
+    private BitSet playable = new BitSet();
+    private boolean interactive;
+    private int hover = -1;
+
+    public HandComponent(CardIcons cardImages) {
+        this.cardImages = cardImages;
+        setOpaque(false);
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHover(indexAt(e.getPoint()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHover(-1);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = indexAt(e.getPoint());
+                if (index >= 0 && interactive) {
+                    fireAction("PLAY:" + index);
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    public void addActionListener(ActionListener l) {
+        listenerList.add(ActionListener.class, l);
+    }
+
+    public void removeActionListener(ActionListener l) {
+        listenerList.remove(ActionListener.class, l);
+    }
+
+    private void fireAction(String command) {
+        ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, command);
+        for (ActionListener l : listenerList.getListeners(ActionListener.class)) {
+            l.actionPerformed(event);
+        }
+    }
+
+    /**
+     * Shows a hand, repainting only the cards in view whose face or outline changed
+     * @param hand the cards in hand order
+     * @param playableIndices indices of the cards to outline as playable
+     * @param interactive false if no card may be played, which fades every card
+     */
+    public void setHand(List<Card> hand, Collection<Integer> playableIndices, boolean interactive) {
+        BitSet newPlayable = new BitSet();
+        for (int i : playableIndices) {
+            if (i >= 0 && i < hand.size()) newPlayable.set(i);
+        }
+
+        int oldCount = cards.size();
+        int[] oldRange = materializedRange();
+        boolean wasInteractive = this.interactive;
+        BitSet oldPlayable = playable;
+
+        this.cards = new ArrayList<>(hand);
+        this.playable = newPlayable;
+        this.interactive = interactive;
+        if (oldCount != hand.size()) {
+            shownFaces = Arrays.copyOf(shownFaces, hand.size());
+        }
+        if (hover >= hand.size()) hover = -1;
+
+        if (oldCount != hand.size()) {
+            revalidate();
+        }
+        if (step(oldCount) != step(hand.size()) || wasInteractive != interactive) {
+            repaint();
+            return;
+        }
+        // With the same step every slot stays put, so only slots showing something new need
+        // paint, and slots out of view are painted afresh when they scroll in
+        Rectangle dirty = null;
+        int[] range = materializedRange();
+        for (int i = range[0]; i <= range[1]; i++) {
+            if (!CardImageCache.resourcePath(cards.get(i)).equals(shownFaces[i])
+                    || oldPlayable.get(i) != newPlayable.get(i)) {
+                dirty = union(dirty, paintBounds(i));
+            }
+        }
+        for (int i = Math.max(hand.size(), oldRange[0]); i <= oldRange[1]; i++) {
+            dirty = union(dirty, paintBounds(i));
+        }
+        if (dirty != null) repaint(dirty);
+    }
+
+    private static Rectangle union(Rectangle a, Rectangle b) {
+        return a == null ? b : a.union(b);
+    }
+
+    /**
+     * @return the distance from one card's left edge to the next for a hand of this size
+     */
+    static int step(int count) {
+        if (count <= FAN_AFTER) return CARD_WIDTH + GAP;
+        int width = FAN_AFTER * (CARD_WIDTH + GAP) - GAP;
+        return Math.max(MIN_STEP, (width - CARD_WIDTH) / (count - 1));
+    }
+
+    /**
+     * @return where the card at this index is drawn when not lifted
+     */
+    public Rectangle cardBounds(int index) {
+        return new Rectangle(GAP + index * step(cards.size()), LIFT, CARD_WIDTH, CARD_HEIGHT);
+    }
+
+    /**
+     * @return everything the card at this index can cover, lifted or not
+     */
+    private Rectangle paintBounds(int index) {
+        Rectangle r = cardBounds(index);
+        r.y -= LIFT;
+        r.height += LIFT;
+        return r;
+    }
+
+    /**
+     * @return the index of the topmost card under the point, or -1 if there is none
+     */
+    public int indexAt(Point p) {
+        int[] range = indexRange(p.x, p.x + 1);
+        for (int i = range[1]; i >= range[0]; i--) {
+            Rectangle r = cardBounds(i);
+            if (i == hover && interactive) r.y -= LIFT;
+            if (r.contains(p)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the first and last index of the cards overlapping {@code [from, to)} along
+     * the strip; the first is past the last if there are none
+     */
+    int[] indexRange(int from, int to) {
+        int step = step(cards.size());
+        int first = Math.max(0, Math.floorDiv(from - GAP - CARD_WIDTH, step) + 1);
+        int last = Math.min(cards.size() - 1, Math.floorDiv(to - 1 - GAP, step));
+        return new int[]{first, last};
+    }
+
+    /**
+     * @return the first and last index of the cards in view plus the overscan either side
+     */
+    public int[] materializedRange() {
+        Rectangle view = getVisibleRect();
+        int[] range = indexRange(view.x, view.x + view.width);
+        range[0] = Math.max(0, range[0] - OVERSCAN);
+        range[1] = Math.min(cards.size() - 1, range[1] + OVERSCAN);
+        return range;
+    }
+
+    public int getHandSize() {
+        return cards.size();
+    }
+
+    public int getHover() {
+        return hover;
+    }
+
+    private void setHover(int index) {
+        if (index == hover) return;
+        if (hover >= 0) repaint(paintBounds(hover));
+        hover = index;
+        if (hover >= 0) repaint(paintBounds(hover));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        int count = cards.size();
+        int width = count == 0 ? 0 : GAP + (count - 1) * step(count) + CARD_WIDTH;
+        return new Dimension(width, CARD_HEIGHT + LIFT);
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            Rectangle clip = g.getClipBounds();
+            int[] range = materializedRange();
+            for (int i = range[0]; i <= range[1]; i++) {
+                ImageIcon icon = cardImages.getIcon(cards.get(i), CARD_WIDTH, CARD_HEIGHT, interactive);
+                Rectangle r = cardBounds(i);
+                if (i == hover && interactive) r.y -= LIFT;
+                if (clip != null && !clip.intersects(r)) continue;
+                paintCard(g, i, icon, r);
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintCard(Graphics2D g, int index, ImageIcon icon, Rectangle r) {
+        shownFaces[index] = CardImageCache.resourcePath(cards.get(index));
+        if (icon != null) {
+            g.drawImage(icon.getImage(), r.x, r.y, r.width, r.height, null);
+        } else {
+            g.setColor(Color.LIGHT_GRAY);
+            g.fillRoundRect(r.x, r.y, r.width, r.height, 10, 10);
+            g.setColor(Color.DARK_GRAY);
+            g.drawString(cards.get(index).getValue().name(), r.x + 4, r.y + r.height / 2);
+        }
+        if (playable.get(index)) {
+            g.setColor(PLAYABLE);
+            g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+            g.drawRect(r.x + 1, r.y + 1, r.width - 3, r.height - 3);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(FAN_AFTER * (CARD_WIDTH + GAP) + GAP, CARD_HEIGHT + LIFT);
+    }
+
+    /**
+     * Scrolls one card at a time
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.HORIZONTAL ? step(cards.size()) : LIFT;
+    }
+
+    /**
+     * Pages by as many whole cards as fit in view
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        if (orientation != SwingConstants.HORIZONTAL) return visibleRect.height;
+        int step = step(cards.size());
+        return Math.max(step, visibleRect.width / step * step);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return true;
+    }
+}
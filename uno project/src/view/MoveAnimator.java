@@ -0,0 +1,214 @@
+package view;
+
+import controller.GameState;
+import model.Card;
+import model.Player;
+
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Turns the states of each rendered frame into animations: a played card slides from the
+ * hand onto the discard pile, drawn cards fly from the deck to whoever drew them, and the
+ * discard pile turns over when the game flips.
+ *
+ * It compares each state with the one before, including the states the
+ * {@link RenderScheduler} coalesced away, so every move in an AI chain is shown, one after
+ * another. The model never waits for an animation.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+final class MoveAnimator implements RenderScheduler.FrameListener {
+
+    static final int PLAY_MILLIS = 300;
+    static final int DRAW_MILLIS = 350;
+    static final int DRAW_STAGGER_MILLIS = 70;
+    static final int TURN_MILLIS = 400;
+    /** Drawing more than this many at once shows only this many cards flying */
+    static final int MAX_DRAWS_SHOWN = 5;
+    /** Moves in one frame start at most this far apart, so a long AI chain stays short */
+    static final int MAX_CHAIN_DELAY_MILLIS = 3 * PLAY_MILLIS;
+
+    private static final int TOP_WIDTH = 160;
+    private static final int TOP_HEIGHT = 240;
+
+    private final AnimationEngine engine;
+    private final CardIcons cardImages;
+    private final JComponent surface;
+    private final HandComponent hand;
+    private final JComponent handArea;
+    private final JComponent topCard;
+    private final JComponent scoreboard;
+    private BufferedImage cardBack;
+    private GameState last;
+
+    /**
+     * @param surface the component the engine's overlay covers; all places are taken
+     *                relative to it
+     */
+    MoveAnimator(AnimationEngine engine, CardIcons cardImages, JComponent surface, HandComponent hand,
+                 JComponent handArea, JComponent topCard, JComponent scoreboard) {
+        this.engine = engine;
+        this.cardImages = cardImages;
+        this.surface = surface;
+        this.hand = hand;
+        this.handArea = handArea;
+        this.topCard = topCard;
+        this.scoreboard = scoreboard;
+    }
+
+    @Override
+    public void onFrame(List<GameState> states) {
+        if (!surface.isShowing()) {
+            last = states.get(states.size() - 1);
+            return;
+        }
+        int delay = 0;
+        for (GameState state : states) {
+            if (last != null && delay <= MAX_CHAIN_DELAY_MILLIS && animate(last, state, delay)) {
+                delay += PLAY_MILLIS;
+            }
+            last = state;
+        }
+    }
+
+    /**
+     * Starts the animations for one change of state
+     * @return true if anything was started
+     */
+    private boolean animate(GameState before, GameState after, int delay) {
+        if (before.players.size() != after.players.size()) return false;
+        boolean started = false;
+
+        int mover = before.currentPlayerIndex;
+        int handBefore = before.players.get(mover).getHandSize();
+        int handAfter = after.players.get(mover).getHandSize();
+        if (after.topDiscard != null && handAfter < handBefore && !sameCard(before.topDiscard, after.topDiscard)) {
+            Rectangle from = playedFrom(before, after, mover);
+            Image image = image(after.topDiscard, TOP_WIDTH, TOP_HEIGHT);
+            if (from != null && image != null) {
+                engine.start(new CardSlide(image, from, topCardBounds(), delay, PLAY_MILLIS));
+                started = true;
+            }
+        }
+
+        if (before.currentSide != after.currentSide && before.topDiscard != null && after.topDiscard != null) {
+            Image front = image(before.topDiscard, TOP_WIDTH, TOP_HEIGHT);
+            Image back = image(after.topDiscard, TOP_WIDTH, TOP_HEIGHT);
+            if (front != null && back != null) {
+                int turnDelay = started ? delay + PLAY_MILLIS : delay;
+                engine.start(new CardTurn(front, back, topCardBounds(), topCard.getParent().getBackground(),
+                        turnDelay, TURN_MILLIS));
+                started = true;
+            }
+        }
+
+        for (int i = 0; i < after.players.size(); i++) {
+            Player drawer = after.players.get(i);
+            int drawn = drawer.getHandSize() - before.players.get(i).getHandSize();
+            for (int k = 0; k < Math.min(drawn, MAX_DRAWS_SHOWN); k++) {
+                int index = drawer.getHandSize() - 1 - k;
+                boolean shown = i == after.currentPlayerIndex && !drawer.isAI();
+                Image image = shown ? image(drawer.getHand().get(index), HandComponent.CARD_WIDTH,
+                        HandComponent.CARD_HEIGHT) : cardBack();
+                Rectangle to = i == after.currentPlayerIndex ? handSlot(index) : scoreboardSlot();
+                engine.start(new CardSlide(image, deckBounds(), to, delay + k * DRAW_STAGGER_MILLIS, DRAW_MILLIS));
+                started = true;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * @return where the played card was in the hand, or the middle of the hand area if
+     * the hand on show is no longer the mover's or the card was scrolled out of view
+     */
+    private Rectangle playedFrom(GameState before, GameState after, int mover) {
+        if (after.currentPlayerIndex == mover) {
+            List<Card> was = before.players.get(mover).getHand();
+            List<Card> now = after.players.get(mover).getHand();
+            int index = 0;
+            while (index < now.size() && sameCard(was.get(index), now.get(index))) index++;
+            return handSlot(index);
+        }
+        return handCentre();
+    }
+
+    private Rectangle handSlot(int index) {
+        Rectangle slot = hand.cardBounds(index);
+        if (!hand.getVisibleRect().contains(slot)) return handCentre();
+        return SwingUtilities.convertRectangle(hand, slot, surface);
+    }
+
+    private Rectangle handCentre() {
+        Rectangle area = SwingUtilities.convertRectangle(handArea.getParent(), handArea.getBounds(), surface);
+        return new Rectangle(area.x + (area.width - HandComponent.CARD_WIDTH) / 2,
+                area.y + (area.height - HandComponent.CARD_HEIGHT) / 2, HandComponent.CARD_WIDTH, HandComponent.CARD_HEIGHT);
+    }
+
+    private Rectangle topCardBounds() {
+        Rectangle label = SwingUtilities.convertRectangle(topCard.getParent(), topCard.getBounds(), surface);
+        return new Rectangle(label.x + (label.width - TOP_WIDTH) / 2, label.y + (label.height - TOP_HEIGHT) / 2,
+                TOP_WIDTH, TOP_HEIGHT);
+    }
+
+    /**
+     * @return the deck, which sits to the left of the discard pile
+     */
+    private Rectangle deckBounds() {
+        Rectangle top = topCardBounds();
+        return new Rectangle(Math.max(0, top.x - TOP_WIDTH - 40), top.y + (TOP_HEIGHT - HandComponent.CARD_HEIGHT) / 2,
+                HandComponent.CARD_WIDTH, HandComponent.CARD_HEIGHT);
+    }
+
+    /**
+     * @return where cards drawn by a player whose hand is not on show go: the scoreboard
+     */
+    private Rectangle scoreboardSlot() {
+        Rectangle board = SwingUtilities.convertRectangle(scoreboard.getParent(), scoreboard.getBounds(), surface);
+        return new Rectangle(board.x + board.width / 2 - 20, board.y + board.height / 2 - 30, 40, 60);
+    }
+
+    private Image image(Card card, int width, int height) {
+        ImageIcon icon = cardImages.getIcon(card, width, height, true);
+        return icon == null ? null : icon.getImage();
+    }
+
+    /**
+     * @return the back of a card, drawn once
+     */
+    private Image cardBack() {
+        if (cardBack == null) {
+            int w = HandComponent.CARD_WIDTH;
+            int h = HandComponent.CARD_HEIGHT;
+            BufferedImage back = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = back.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+            g.fillRoundRect(0, 0, w, h, 12, 12);
+            g.setColor(new Color(0xD7, 0x26, 0x00));
+            g.fillOval(8, 30, w - 16, h - 60);
+            g.setColor(Color.YELLOW);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 20));
+            g.drawString("UNO", w / 2 - g.getFontMetrics().stringWidth("UNO") / 2, h / 2 + 7);
+            g.dispose();
+            cardBack = back;
+        }
+        return cardBack;
+    }
+
+    private static boolean sameCard(Card a, Card b) {
+        if (a == null || b == null) return a == b;
+        return a.getCurrentSide() == b.getCurrentSide() && a.getValue() == b.getValue() && a.getColor() == b.getColor();
+    }
+}
@@ -0,0 +1,132 @@
+package view;
+
+import controller.GameState;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces game states into at most one render per frame.
+ *
+ * A single move fires several state updates, and an AI chain many more. Each one is
+ * handed to {@link #submit}; the first in a frame starts a one-shot Swing timer, and when
+ * it fires the latest state alone is rendered. Every state submitted during the frame is
+ * passed on in order to the frame listeners, so animations can still show the steps the
+ * render skipped. States are snapshots from {@code GameModel.getState()}, so holding on to
+ * them is safe.
+ *
+ * Everything runs on the event dispatch thread; states submitted from elsewhere are
+ * moved onto it.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public final class RenderScheduler {
+
+    /** One frame at 60 frames a second */
+    public static final int FRAME_MILLIS = 16;
+
+    /**
+     * Told about every state that arrived in a frame, after the frame is rendered
+     */
+    public interface FrameListener {
+        /**
+         * @param states the states submitted since the last frame, oldest first, the
+         *               rendered state last
+         */
+        void onFrame(List<GameState> states);
+    }
+
+    private final Consumer<GameState> renderer;
+    private final Timer timer;
+    private final List<GameState> pending = new ArrayList<>();
+    private final List<FrameListener> frameListeners = new CopyOnWriteArrayList<>();
+    private int submitted;
+    private int rendered;
+
+    /**
+     * @param renderer draws a state into the view
+     */
+    public RenderScheduler(Consumer<GameState> renderer) {
+        this(renderer, FRAME_MILLIS);
+    }
+
+    public RenderScheduler(Consumer<GameState> renderer, int frameMillis) {
+        this.renderer = renderer;
+        this.timer = new Timer(frameMillis, e -> frame());
+        this.timer.setRepeats(false);
+    }
+
+    public void addFrameListener(FrameListener listener) {
+        frameListeners.add(listener);
+    }
+
+    public void removeFrameListener(FrameListener listener) {
+        frameListeners.remove(listener);
+    }
+
+    /**
+     * Queues a state to be rendered at the end of the current frame
+     */
+    public void submit(GameState state) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> submit(state));
+            return;
+        }
+        pending.add(state);
+        submitted++;
+        if (!timer.isRunning()) timer.start();
+    }
+
+    /**
+     * Renders a state straight away along with anything still queued, for when the view
+     * must be current before going on, such as before a dialog
+     */
+    public void renderNow(GameState state) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> renderNow(state));
+            return;
+        }
+        pending.add(state);
+        submitted++;
+        frame();
+    }
+
+    /**
+     * Renders whatever is queued now instead of at the end of the frame
+     */
+    public void flush() {
+        if (!pending.isEmpty()) frame();
+    }
+
+    private void frame() {
+        timer.stop();
+        if (pending.isEmpty()) return;
+        List<GameState> states = Collections.unmodifiableList(new ArrayList<>(pending));
+        pending.clear();
+        rendered++;
+        renderer.accept(states.get(states.size() - 1));
+        for (FrameListener listener : frameListeners) {
+            listener.onFrame(states);
+        }
+    }
+
+    /**
+     * @return how many states have been submitted, rendered or not
+     */
+    public int getSubmittedCount() {
+        return submitted;
+    }
+
+    /**
+     * @return how many renders the submitted states were coalesced into
+     */
+    public int getRenderCount() {
+        return rendered;
+    }
+}
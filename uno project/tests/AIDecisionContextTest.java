@@ -0,0 +1,139 @@
+import controller.GameState;
+import model.AIDecisionContext;
+import model.AIPlayer;
+import model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the per-turn AI decision context.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class AIDecisionContextTest {
+
+    private AIPlayer handOf(Card... cards) {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.setEndgameThreshold(0);
+        for (Card card : cards) {
+            ai.drawCard(card);
+        }
+        return ai;
+    }
+
+    @Test
+    public void testSeatsFollowTheDirection() {
+        AIPlayer ai = handOf(new Card(Card.Color.RED, Card.Value.ONE));
+        Card top = new Card(Card.Color.RED, Card.Value.FIVE);
+
+        AIDecisionContext context = new AIDecisionContext().load(TestStates.stateFor(ai, 0, true, top, 7, 2, 4));
+        assertEquals(4, context.players());
+        assertEquals(0, context.seat());
+        assertEquals(1, context.nextSeat());
+        assertEquals(3, context.previousSeat());
+        assertEquals(7, context.nextHandSize());
+        assertEquals(2, context.smallestOpponentHand());
+        assertFalse(context.nextThreatens(2));
+        assertTrue(context.anyOpponentThreatens(2));
+
+        context.load(TestStates.stateFor(ai, 0, false, top, 7, 2, 4));
+        assertEquals(3, context.nextSeat());
+        assertEquals(1, context.previousSeat());
+        assertEquals(4, context.nextHandSize());
+        assertEquals(1, context.handSize(0));
+    }
+
+    @Test
+    public void testPlayableMasksAndColorCounts() {
+        AIPlayer ai = handOf(
+                new Card(Card.Color.BLUE, Card.Value.TWO),
+                new Card(Card.Color.WILD, Card.Value.WILD),
+                new Card(Card.Color.RED, Card.Value.THREE),
+                new Card(Card.Color.RED, Card.Value.FIVE),
+                new Card(Card.Color.YELLOW, Card.Value.EIGHT));
+        AIDecisionContext context = new AIDecisionContext()
+                .load(TestStates.stateFor(ai, 2, true, new Card(Card.Color.RED, Card.Value.EIGHT), 7, 2, 4));
+
+        assertEquals(4, context.playableCount());
+        assertTrue(context.hasWildPlayable());
+        assertTrue(context.hasColoredPlayable());
+        assertFalse(context.isPlayable(0));
+        assertTrue(context.isWildPlayable(1));
+        assertFalse(context.isWildPlayable(2));
+        assertEquals(1, context.nextPlayable(0));
+        assertEquals(2, context.nextPlayable(2));
+        assertEquals(-1, context.nextPlayable(5));
+        assertEquals(4, context.playableAt(3));
+        assertEquals(-1, context.playableAt(4));
+
+        assertEquals(2, context.colorCount(Card.Color.RED));
+        assertEquals(1, context.colorCount(Card.Color.WILD));
+        assertEquals(0, context.colorCount(Card.Color.GREEN));
+    }
+
+    @Test
+    public void testWalksHandsLongerThanOneWord() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.EASY);
+        for (int i = 0; i < 70; i++) {
+            ai.drawCard(new Card(i % 2 == 0 ? Card.Color.RED : Card.Color.BLUE, Card.Value.ONE));
+        }
+        AIDecisionContext context = new AIDecisionContext()
+                .load(TestStates.stateFor(ai, 0, true, new Card(Card.Color.BLUE, Card.Value.FIVE), 7, 2, 4));
+
+        assertEquals(35, context.playableCount());
+        assertEquals(63, context.nextPlayable(62));
+        assertEquals(65, context.nextPlayable(64));
+        assertEquals(69, context.playableAt(34));
+        assertFalse(context.isPlayable(70));
+    }
+
+    @Test
+    public void testDecidesLikeTheStatePath() {
+        Card[] cards = {
+                new Card(Card.Color.WILD, Card.Value.WILD),
+                new Card(Card.Color.RED, Card.Value.SKIP),
+                new Card(Card.Color.RED, Card.Value.TWO),
+                new Card(Card.Color.YELLOW, Card.Value.TWO),
+                new Card(Card.Color.GREEN, Card.Value.SEVEN)};
+        for (AIPlayer.DifficultyLevel level : Arrays.asList(AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.HARD)) {
+            AIPlayer ai = new AIPlayer("AI", level);
+            ai.setEndgameThreshold(0);
+            for (Card card : cards) {
+                ai.drawCard(card);
+            }
+            GameState state = TestStates.stateFor(ai, 1, true, new Card(Card.Color.RED, Card.Value.TWO), 7, 2, 4);
+            int expected = ai.selectCardToPlay(state);
+            assertEquals(expected, ai.selectCardToPlay(state, new AIDecisionContext().load(state)), level.name());
+        }
+    }
+
+    @Test
+    public void testReloadingDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemoryEnabled()) return;
+
+        AIPlayer ai = handOf(
+                new Card(Card.Color.RED, Card.Value.ONE),
+                new Card(Card.Color.WILD, Card.Value.WILD),
+                new Card(Card.Color.BLUE, Card.Value.FIVE));
+        GameState state = TestStates.stateFor(ai, 0, true, new Card(Card.Color.RED, Card.Value.FIVE), 7, 2, 4);
+        AIDecisionContext context = new AIDecisionContext();
+        for (int i = 0; i < 20_000; i++) {
+            context.load(state);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10_000; i++) {
+            context.load(state);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated < 10_000, "reload allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,160 @@
+import controller.GameState;
+import model.AIDecisionContext;
+import model.AIPlayer;
+import model.AIStrategies;
+import model.AIStrategy;
+import model.GameModel;
+import model.HeadlessGame;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmarks every registered AI strategy: decisions per second, bytes allocated per
+ * decision and p99 decision latency on a fixed corpus of positions, then win rate
+ * against a baseline strategy in heads-up games with the seats swapped half the time.
+ *
+ * The corpus is recorded from seeded MEDIUM self-play, keeping the turns with more than
+ * one playable card, so every run and every strategy sees the same positions.
+ *
+ * Usage: java AIStrategyBenchmark [positions] [games] [baseline] [strategy...]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class AIStrategyBenchmark {
+
+    private static final int PASSES = 5;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        AIStrategy baseline = AIStrategies.find(args.length > 2 ? args[2] : "MEDIUM");
+        if (baseline == null) {
+            System.err.println("Unknown baseline strategy: " + args[2]);
+            return;
+        }
+        List<AIStrategy> strategies = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            AIStrategy strategy = AIStrategies.find(args[i]);
+            if (strategy == null) {
+                System.err.println("Unknown strategy: " + args[i]);
+                return;
+            }
+            strategies.add(strategy);
+        }
+        if (strategies.isEmpty()) strategies = AIStrategies.all();
+
+        List<GameState> corpus = recordCorpus(positions, 1L);
+        System.out.printf("%,d positions, %d games per strategy against %s%n",
+                corpus.size(), games, baseline.name());
+        System.out.printf("%-10s %14s %14s %12s %10s%n", "strategy", "decisions/s", "bytes/decision",
+                "p99 (us)", "win rate");
+        for (AIStrategy strategy : strategies) {
+            double[] cost = measure(strategy, corpus);
+            double winRate = strategy == baseline ? 0.5 : winRate(strategy, baseline, games);
+            System.out.printf("%-10s %,14.0f %,14.0f %12.1f %10.3f%n",
+                    strategy.name(), cost[0], cost[1], cost[2] / 1000.0, winRate);
+        }
+    }
+
+    /**
+     * Records positions from seeded self-play until enough are collected
+     */
+    private static List<GameState> recordCorpus(int positions, long seed) {
+        List<GameState> corpus = new ArrayList<>();
+        for (long game = seed; corpus.size() < positions; game++) {
+            List<AIPlayer> players = new ArrayList<>();
+            int seats = 2 + (int) (game % 3);
+            for (int s = 0; s < seats; s++) {
+                AIPlayer player = new AIPlayer("Seat " + s, AIPlayer.DifficultyLevel.MEDIUM);
+                player.setSeed(game * 31 + s);
+                players.add(player);
+            }
+            GameModel model = new GameModel(players, game);
+            model.setAITurnDelay(0);
+            model.setRecordHistory(false);
+            model.startGame();
+            for (int turn = 0; turn < 200 && corpus.size() < positions; turn++) {
+                GameState state = model.getState();
+                if (state.playableIndices.size() > 1) corpus.add(state);
+                model.processAITurn();
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * @return decisions per second, bytes allocated per decision and p99 latency in ns
+     */
+    private static double[] measure(AIStrategy strategy, List<GameState> corpus) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        AIDecisionContext context = new AIDecisionContext();
+        long sink = 0;
+        for (GameState state : corpus) {
+            configure((AIPlayer) state.currentPlayer, strategy);
+        }
+
+        for (int pass = 0; pass < PASSES; pass++) { // warm up
+            for (GameState state : corpus) {
+                sink += strategy.selectCard((AIPlayer) state.currentPlayer, state, context.load(state));
+            }
+        }
+
+        long[] latencies = new long[corpus.size() * PASSES];
+        int n = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int pass = 0; pass < PASSES; pass++) {
+            for (GameState state : corpus) {
+                long t0 = System.nanoTime();
+                sink += strategy.selectCard((AIPlayer) state.currentPlayer, state, context.load(state));
+                latencies[n++] = System.nanoTime() - t0;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        if (sink == Long.MIN_VALUE) System.out.println(); // keep the decisions alive
+        return new double[]{
+                n * 1e9 / elapsed,
+                (double) allocated / n,
+                latencies[Math.min(n - 1, (int) Math.ceil(n * 0.99) - 1)]};
+    }
+
+    /**
+     * Plays heads-up games, the strategy in the first seat for even games
+     * @return the strategy's share of games won, ties counting half
+     */
+    private static double winRate(AIStrategy strategy, AIStrategy baseline, int games) {
+        double won = 0;
+        for (int g = 0; g < games; g++) {
+            AIPlayer candidate = playerFor(strategy);
+            AIPlayer reference = playerFor(baseline);
+            boolean first = g % 2 == 0;
+            List<AIPlayer> seats = first ? Arrays.asList(candidate, reference) : Arrays.asList(reference, candidate);
+            HeadlessGame.Result result = new HeadlessGame(seats, 1000L + g / 2).play();
+            won += first ? result.outcome(0, 1) : result.outcome(1, 0);
+        }
+        return won / games;
+    }
+
+    private static AIPlayer playerFor(AIStrategy strategy) {
+        AIPlayer player = new AIPlayer(strategy.name(), AIPlayer.DifficultyLevel.MEDIUM);
+        configure(player, strategy);
+        return player;
+    }
+
+    /**
+     * Sets a player up for a strategy; the built-in levels get their own endgame settings
+     */
+    private static void configure(AIPlayer player, AIStrategy strategy) {
+        player.setStrategy(strategy);
+        boolean hard = strategy == AIStrategies.of(AIPlayer.DifficultyLevel.HARD);
+        player.setEndgameThreshold(hard ? AIPlayer.DEFAULT_ENDGAME_THRESHOLD : 0);
+    }
+}
@@ -0,0 +1,161 @@
+import controller.GameState;
+import model.AIDecisionContext;
+import model.AIPlayer;
+import model.AIStrategies;
+import model.AIStrategy;
+import model.Card;
+import model.GameModel;
+import model.PointDumpStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the AI strategy SPI and its registry.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class AIStrategyTest {
+
+    /**
+     * Plays the last playable card, names the last color of the palette and never plays
+     * a drawn card
+     */
+    private static final class LastCardStrategy implements AIStrategy {
+        @Override
+        public String name() {
+            return "LAST";
+        }
+
+        @Override
+        public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+            return context.playableAt(context.playableCount() - 1);
+        }
+
+        @Override
+        public Card.Color chooseWildColor(AIPlayer player, Card.Side side) {
+            return side == Card.Side.DARK ? Card.Color.ORANGE : Card.Color.YELLOW;
+        }
+
+        @Override
+        public boolean playDrawnCard(AIPlayer player, Card drawn) {
+            return false;
+        }
+    }
+
+    private AIPlayer handOf(AIPlayer.DifficultyLevel level, Card... cards) {
+        AIPlayer ai = new AIPlayer("AI", level);
+        ai.setEndgameThreshold(0);
+        for (Card card : cards) {
+            ai.drawCard(card);
+        }
+        return ai;
+    }
+
+    @Test
+    public void testRegistryHoldsBuiltInAndLoadedStrategies() {
+        List<String> names = new ArrayList<>();
+        for (AIStrategy strategy : AIStrategies.all()) {
+            names.add(strategy.name());
+        }
+        assertEquals(Arrays.asList("EASY", "MEDIUM", "HARD"), names.subList(0, 3));
+        assertTrue(AIStrategies.find("dump") instanceof PointDumpStrategy, "loaded from META-INF/services");
+        assertSame(AIStrategies.of(AIPlayer.DifficultyLevel.HARD), AIStrategies.find("Hard"));
+        assertNull(AIStrategies.find("NO_SUCH_STRATEGY"));
+    }
+
+    @Test
+    public void testBuiltInStrategyPlaysLikeItsLevel() {
+        Card top = new Card(Card.Color.RED, Card.Value.TWO);
+        Card[] cards = {
+                new Card(Card.Color.WILD, Card.Value.WILD),
+                new Card(Card.Color.RED, Card.Value.SKIP),
+                new Card(Card.Color.RED, Card.Value.THREE),
+                new Card(Card.Color.YELLOW, Card.Value.TWO)};
+        AIPlayer medium = handOf(AIPlayer.DifficultyLevel.MEDIUM, cards);
+        AIPlayer easy = handOf(AIPlayer.DifficultyLevel.EASY, cards);
+        easy.setStrategy(AIStrategies.of(AIPlayer.DifficultyLevel.MEDIUM));
+
+        assertEquals(medium.selectCardToPlay(TestStates.stateFor(medium, top, 7)),
+                easy.selectCardToPlay(TestStates.stateFor(easy, top, 7)));
+    }
+
+    @Test
+    public void testStrategyReplacesTheDifficulty() {
+        AIPlayer ai = handOf(AIPlayer.DifficultyLevel.MEDIUM,
+                new Card(Card.Color.RED, Card.Value.SKIP),
+                new Card(Card.Color.RED, Card.Value.ONE),
+                new Card(Card.Color.WILD, Card.Value.WILD));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7);
+        assertEquals(0, ai.selectCardToPlay(state), "MEDIUM plays the special card");
+
+        ai.setStrategy(new LastCardStrategy());
+        assertEquals(2, ai.selectCardToPlay(state));
+        assertEquals(Card.Color.YELLOW, ai.chooseWildColor());
+        assertEquals(Card.Color.ORANGE, ai.chooseWildDrawColor());
+    }
+
+    @Test
+    public void testDumpShedsPointsAndKeepsWilds() {
+        AIPlayer ai = handOf(AIPlayer.DifficultyLevel.MEDIUM,
+                new Card(Card.Color.WILD, Card.Value.WILD),
+                new Card(Card.Color.BLUE, Card.Value.THREE),
+                new Card(Card.Color.BLUE, Card.Value.DRAW_ONE),
+                new Card(Card.Color.GREEN, Card.Value.NINE));
+        ai.setStrategy(AIStrategies.find("DUMP"));
+
+        assertEquals(2, ai.selectCardToPlay(TestStates.stateFor(ai, new Card(Card.Color.BLUE, Card.Value.EIGHT), 7)));
+        assertEquals(Card.Color.BLUE, ai.chooseWildColor());
+        assertFalse(ai.playDrawnCard(ai.getHand().get(0)), "keeps a drawn wild with cards to spare");
+        assertTrue(ai.playDrawnCard(ai.getHand().get(3)));
+    }
+
+    @Test
+    public void testModelAsksBeforePlayingADrawnCard() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        AIPlayer other = new AIPlayer("Other", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.setStrategy(new LastCardStrategy());
+        GameModel model = new GameModel(Arrays.asList(ai, other), 3L);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.startGame();
+
+        // whenever the strategy player has to draw, even a playable card stays in hand
+        int draws = 0;
+        for (int turn = 0; turn < 200 && ai.getHandSize() > 1; turn++) {
+            GameState state = model.getState();
+            int before = ai.getHandSize();
+            model.processAITurn();
+            if (state.currentPlayerIndex == 0 && state.playableIndices.isEmpty() && state.deckSize > 0) {
+                assertEquals(before + 1, ai.getHandSize(), "the drawn card stays in hand");
+                draws++;
+            }
+        }
+        assertTrue(draws > 0);
+    }
+
+    @Test
+    public void testStrategySurvivesSerialization() throws Exception {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.EASY);
+        ai.setStrategy(AIStrategies.find("DUMP"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ai);
+        }
+        AIPlayer restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (AIPlayer) in.readObject();
+        }
+        assertSame(AIStrategies.find("DUMP"), restored.getStrategy());
+    }
+}
@@ -0,0 +1,242 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.AIWeights;
+import model.Card;
+import model.Deck;
+import model.Player;
+import model.WeightTuner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the AI heuristic weight vector, weight profiles and the weight tuner.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class AIWeightsTest {
+
+    private static final String TEST_PROFILE = "test_weights.properties";
+
+    @AfterEach
+    public void tearDown() {
+        File file = new File(TEST_PROFILE);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testDefaultsPreferSpecialThenColorMatch() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.FIVE));  // value match
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.NINE));   // color match
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.SKIP));   // special
+
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7);
+        assertEquals(2, ai.selectCardToPlay(state));
+
+        ai.getHand().remove(2);
+        state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7);
+        assertEquals(1, ai.selectCardToPlay(state));
+    }
+
+    @Test
+    public void testHardDefaultsKeepWildsAndAttackThreats() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.setEndgameThreshold(0); // heuristics only
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.THREE));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.DRAW_ONE));
+
+        Card top = new Card(Card.Color.RED, Card.Value.FIVE);
+        assertEquals(2, ai.selectCardToPlay(TestStates.stateFor(ai, top, 2)), "attack the threatening player");
+
+        ai.getHand().remove(2);
+        assertEquals(1, ai.selectCardToPlay(TestStates.stateFor(ai, top, 7)), "keep the wild");
+    }
+
+    @Test
+    public void testDefaultsMatchTheOriginalHeuristics() {
+        Random random = new Random(11L);
+        int compared = 0;
+        for (int trial = 0; trial < 3000; trial++) {
+            Deck deck = new Deck(random);
+            boolean dark = random.nextBoolean();
+            Card top = deck.drawCard();
+            while (top.getColor() == Card.Color.WILD || dark && top.getDarkColor() == Card.Color.WILD) {
+                top = deck.drawCard();
+            }
+            if (dark) top.flip();
+
+            AIPlayer medium = new AIPlayer("Medium", AIPlayer.DifficultyLevel.MEDIUM);
+            AIPlayer hard = new AIPlayer("Hard", AIPlayer.DifficultyLevel.HARD);
+            hard.setEndgameThreshold(0); // heuristics only
+            hard.setSearchDepth(0);
+            int handSize = 1 + random.nextInt(8);
+            for (int i = 0; i < handSize; i++) {
+                Card card = deck.drawCard();
+                if (dark) card.flip();
+                medium.drawCard(card);
+                hard.drawCard(new Card(card));
+            }
+            Player next = new Player("Next");
+            Player other = new Player("Other");
+            for (int i = 1 + random.nextInt(4); i > 0; i--) next.drawCard(deck.drawCard());
+            for (int i = 1 + random.nextInt(4); i > 0; i--) other.drawCard(deck.drawCard());
+            boolean clockwise = random.nextBoolean();
+
+            GameState mediumState = tableFor(medium, next, other, top, clockwise, dark);
+            if (mediumState.playableIndices.isEmpty()) continue;
+            GameState hardState = tableFor(hard, next, other, top, clockwise, dark);
+            Player following = clockwise ? next : other;
+
+            assertEquals(originalBasic(medium.getHand(), mediumState.playableIndices, top),
+                    medium.selectCardToPlay(mediumState), "MEDIUM on " + top + " with " + medium.getHand());
+            assertEquals(originalAdvanced(hard.getHand(), hardState.playableIndices, top, following.getHandSize()),
+                    hard.selectCardToPlay(hardState), "HARD on " + top + " with " + hard.getHand());
+            compared++;
+        }
+        assertTrue(compared > 1000, "only " + compared + " positions had a playable card");
+    }
+
+    /**
+     * Three seats with the AI on turn, the given seat after it in the direction of play
+     */
+    private GameState tableFor(AIPlayer ai, Player next, Player other, Card top, boolean clockwise, boolean dark) {
+        GameState state = new GameState();
+        state.players = new ArrayList<>(Arrays.asList(ai, next, other));
+        state.currentPlayer = ai;
+        state.currentPlayerIndex = 0;
+        state.topDiscard = top;
+        state.clockwise = clockwise;
+        state.currentSide = dark ? Card.Side.DARK : Card.Side.LIGHT;
+        state.deckSize = 40;
+        state.playableIndices = TestStates.playableIndices(ai.getHand(), top, 0);
+        return state;
+    }
+
+    /**
+     * MEDIUM as first written: the first special card, else the first color match, else
+     * the highest points
+     */
+    private static int originalBasic(List<Card> hand, List<Integer> playable, Card top) {
+        for (int idx : playable) {
+            if (isSpecial(hand.get(idx))) return idx;
+        }
+        for (int idx : playable) {
+            Card card = hand.get(idx);
+            if (card.getColor() == top.getColor() && card.getColor() != Card.Color.WILD) return idx;
+        }
+        int best = playable.get(0);
+        for (int idx : playable) {
+            if (hand.get(idx).getPointValue() > hand.get(best).getPointValue()) best = idx;
+        }
+        return best;
+    }
+
+    /**
+     * HARD as first written: the first draw or skip card while the next player holds two
+     * cards or fewer, else MEDIUM over the colored cards if there are any
+     */
+    private static int originalAdvanced(List<Card> hand, List<Integer> playable, Card top, int nextHandSize) {
+        if (nextHandSize <= 2) {
+            for (int idx : playable) {
+                Card.Value v = hand.get(idx).getValue();
+                if (v == Card.Value.DRAW_ONE || v == Card.Value.DRAW_FIVE || v == Card.Value.WILD_DRAW_TWO
+                        || v == Card.Value.WILD_DRAW_COLOR || v == Card.Value.SKIP || v == Card.Value.SKIP_EVERYONE) {
+                    return idx;
+                }
+            }
+        }
+        List<Integer> colored = new ArrayList<>();
+        for (int idx : playable) {
+            if (hand.get(idx).getColor() != Card.Color.WILD) colored.add(idx);
+        }
+        return originalBasic(hand, colored.isEmpty() ? playable : colored, top);
+    }
+
+    private static boolean isSpecial(Card card) {
+        return card.getValue().ordinal() > Card.Value.NINE.ordinal();
+    }
+
+    @Test
+    public void testWeightsChangeCardChoice() {
+        double[] values = AIWeights.defaults().toArray();
+        values[AIWeights.Weight.SPECIAL_CARD.ordinal()] = -5.0;
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM, AIWeights.of(values));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.SKIP));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.NINE));
+
+        assertEquals(1, ai.selectCardToPlay(TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7)));
+    }
+
+    @Test
+    public void testWildColorWeightsCanPreferPoints() {
+        double[] values = AIWeights.defaults().toArray();
+        values[AIWeights.Weight.WILD_COLOR_COUNT.ordinal()] = 0.0;
+        values[AIWeights.Weight.WILD_COLOR_POINTS.ordinal()] = 1.0;
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM, AIWeights.of(values));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.ONE));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.TWO));
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.DRAW_ONE));
+
+        assertEquals(Card.Color.BLUE, ai.chooseWildColor());
+    }
+
+    @Test
+    public void testProfileRoundTrip() throws IOException {
+        double[] values = AIWeights.defaults().toArray();
+        values[AIWeights.Weight.THREAT_HAND_SIZE.ordinal()] = 3.0;
+        AIWeights weights = AIWeights.of(values);
+
+        weights.save(Path.of(TEST_PROFILE), "test");
+        AIWeights loaded = AIWeights.load(Path.of(TEST_PROFILE));
+
+        assertEquals(weights, loaded);
+        assertEquals(3.0, loaded.get(AIWeights.Weight.THREAT_HAND_SIZE));
+    }
+
+    @Test
+    public void testOfRejectsWrongLength() {
+        assertThrows(IllegalArgumentException.class, () -> AIWeights.of(new double[]{1.0}));
+    }
+
+    @Test
+    public void testTunerWritesLoadableProfile() throws Exception {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        WeightTuner tuner = new WeightTuner(4, 6, new int[]{2}, AIPlayer.DifficultyLevel.HARD,
+                AIWeights.defaults(), 1, quiet);
+
+        Path profile = Path.of(TEST_PROFILE);
+        AIWeights best = tuner.run(tuner.initialCheckpoint(1L), 1, null, profile);
+
+        assertEquals(best, AIWeights.load(profile));
+    }
+
+    @Test
+    public void testTunerGivesTheSameWeightsOnAnyNumberOfThreads() throws Exception {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        WeightTuner serial = new WeightTuner(4, 6, new int[]{2, 3}, AIPlayer.DifficultyLevel.MEDIUM,
+                AIWeights.defaults(), 1, quiet);
+        WeightTuner parallel = new WeightTuner(4, 6, new int[]{2, 3}, AIPlayer.DifficultyLevel.MEDIUM,
+                AIWeights.defaults(), 4, quiet);
+
+        AIWeights one = serial.run(serial.initialCheckpoint(2L), 2, null, null);
+        AIWeights many = parallel.run(parallel.initialCheckpoint(2L), 2, null, null);
+
+        assertEquals(one, many, "every candidate and table size is scored on the same deals");
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.jupiter.api.Test;
+import view.AnimationEngine;
+import view.CardSlide;
+import view.CardTurn;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the fixed-step animation engine, driven by a fake clock.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class AnimationEngineTest {
+
+    private static final long STEP = 1_000_000_000L / AnimationEngine.STEPS_PER_SECOND;
+    private static final BufferedImage CARD = new BufferedImage(80, 120, BufferedImage.TYPE_INT_ARGB);
+
+    /** Records the areas it is asked to repaint */
+    private static final class Surface extends JPanel {
+        private static final long serialVersionUID = 1L;
+        final List<Rectangle> damage = new ArrayList<>();
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            if (damage != null) damage.add(new Rectangle(x, y, width, height));
+        }
+    }
+
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    private static void onEventThread(Body body) throws Exception {
+        Exception[] failure = new Exception[1];
+        Error[] error = new Error[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                body.run();
+            } catch (Exception e) {
+                failure[0] = e;
+            } catch (Error e) {
+                error[0] = e;
+            }
+        });
+        if (error[0] != null) throw error[0];
+        if (failure[0] != null) throw failure[0];
+    }
+
+    @Test
+    public void testSlideRunsToItsEndAndStops() throws Exception {
+        onEventThread(() -> {
+            AtomicLong now = new AtomicLong();
+            AnimationEngine engine = new AnimationEngine(now::get);
+            Surface surface = new Surface();
+            engine.setSurface(surface);
+            CardSlide slide = new CardSlide(CARD, new Rectangle(0, 0, 80, 120), new Rectangle(300, 0, 80, 120), 0, 100);
+            engine.start(slide);
+            assertTrue(engine.isRunning());
+
+            now.addAndGet(STEP);
+            engine.tick();
+            Rectangle first = slide.bounds();
+            assertTrue(first.x > 0 && first.x < 300);
+            assertEquals(List.of(first), surface.damage, "the first frame paints only where the card is");
+
+            now.addAndGet(STEP);
+            engine.tick();
+            Rectangle second = slide.bounds();
+            assertEquals(first.union(second), surface.damage.get(1), "the old and new places are repainted");
+
+            now.addAndGet(10 * STEP);
+            engine.tick();
+            assertTrue(slide.isFinished());
+            assertEquals(0, engine.getActiveCount());
+            assertFalse(engine.isRunning(), "the timer stops when nothing moves");
+            assertTrue(surface.damage.get(2).contains(second), "the last place is cleared");
+        });
+    }
+
+    @Test
+    public void testLateTicksSkipFramesAndLongStallsAreDropped() throws Exception {
+        onEventThread(() -> {
+            AtomicLong now = new AtomicLong();
+            AnimationEngine engine = new AnimationEngine(now::get);
+            Surface surface = new Surface();
+            engine.setSurface(surface);
+            CardSlide slide = new CardSlide(CARD, new Rectangle(0, 0, 80, 120), new Rectangle(600, 0, 80, 120), 0, 2000);
+            engine.start(slide);
+
+            now.addAndGet(5 * STEP + STEP / 2);
+            engine.tick();
+            assertEquals(5, engine.getStepsRun(), "a late tick catches up");
+            assertEquals(1, surface.damage.size(), "and paints once");
+
+            now.addAndGet(STEP / 2);
+            engine.tick();
+            assertEquals(6, engine.getStepsRun(), "the leftover part step carries over");
+
+            now.addAndGet(1000 * STEP);
+            engine.tick();
+            assertEquals(6 + AnimationEngine.MAX_CATCH_UP_STEPS, engine.getStepsRun());
+            assertEquals(1000 - AnimationEngine.MAX_CATCH_UP_STEPS, engine.getStepsDropped());
+            assertEquals(3, engine.getTickCount());
+        });
+    }
+
+    @Test
+    public void testDelayedAnimationsShowNothingUntilTheyStart() throws Exception {
+        onEventThread(() -> {
+            AtomicLong now = new AtomicLong();
+            AnimationEngine engine = new AnimationEngine(now::get);
+            Surface surface = new Surface();
+            engine.setSurface(surface);
+            CardTurn turn = new CardTurn(CARD, CARD, new Rectangle(10, 10, 160, 240), Color.WHITE, 100, 400);
+            engine.start(turn);
+
+            now.addAndGet(STEP);
+            engine.tick();
+            assertNull(turn.bounds());
+            assertTrue(surface.damage.isEmpty());
+
+            now.addAndGet(6 * STEP);
+            engine.tick();
+            assertEquals(new Rectangle(10, 10, 160, 240), turn.bounds());
+            assertEquals(1, surface.damage.size());
+        });
+    }
+}
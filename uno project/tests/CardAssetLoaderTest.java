@@ -0,0 +1,182 @@
+import model.Card;
+import model.Deck;
+import org.junit.jupiter.api.Test;
+import view.CardAssetLoader;
+import view.CardImageCache;
+
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for loading card art in the background behind placeholders.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class CardAssetLoaderTest {
+
+    private static final Card RED_FIVE = new Card(Card.Color.RED, Card.Value.FIVE);
+
+    /** Runs queued loads only when the test says so */
+    private static final class StepExecutor implements java.util.concurrent.Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runOne() {
+            tasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) runOne();
+        }
+    }
+
+    private static Card dark(Card light) {
+        Card card = new Card(light);
+        card.flip();
+        return card;
+    }
+
+    @Test
+    public void testPlaceholderUntilLoadedThenTheRealArt() throws Exception {
+        CardImageCache cache = new CardImageCache();
+        StepExecutor loads = new StepExecutor();
+        AtomicInteger ready = new AtomicInteger();
+        CardAssetLoader assets = new CardAssetLoader(cache, loads, ready::incrementAndGet);
+
+        ImageIcon placeholder = assets.getIcon(RED_FIVE, 80, 120, true);
+        assertNotNull(placeholder);
+        assertEquals(80, placeholder.getIconWidth());
+        assertNull(cache.peekIcon(RED_FIVE, 80, 120, true), "nothing was decoded on the caller's thread");
+        assertSame(placeholder, assets.getIcon(new Card(Card.Color.RED, Card.Value.TWO), 80, 120, true),
+                "placeholders are drawn once per color and size");
+        assets.getIcon(RED_FIVE, 80, 120, true);
+        assertEquals(2, loads.tasks.size(), "asking again does not queue a face again");
+
+        loads.runAll();
+        SwingUtilities.invokeAndWait(() -> { });
+        assertTrue(ready.get() >= 1 && ready.get() <= 2, "the view is told when the art is in");
+        assertSame(cache.peekIcon(RED_FIVE, 80, 120, true), assets.getIcon(RED_FIVE, 80, 120, true));
+        assertNotNull(cache.peekIcon(RED_FIVE, 80, 120, false), "the faded and top card sizes come with it");
+        assertNotNull(cache.peekIcon(RED_FIVE, 160, 240, true));
+    }
+
+    @Test
+    public void testUnreadableArtIsMissingAndStillReported() throws Exception {
+        ClassLoader broken = new ClassLoader(null) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                InputStream art = CardAssetLoaderTest.class.getClassLoader().getResourceAsStream(name);
+                if (art == null) return null;
+                return new FilterInputStream(art) {
+                    private int left = 64; // a real header, then the disk fails
+
+                    @Override
+                    public int read() throws IOException {
+                        if (left-- <= 0) throw new IOException("disk error");
+                        return super.read();
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        if (left <= 0) throw new IOException("disk error");
+                        int n = super.read(b, off, Math.min(len, left));
+                        if (n > 0) left -= n;
+                        return n;
+                    }
+                };
+            }
+        };
+        StepExecutor loads = new StepExecutor();
+        AtomicInteger ready = new AtomicInteger();
+        CardAssetLoader assets = new CardAssetLoader(new CardImageCache(broken), loads, ready::incrementAndGet);
+
+        assertNotNull(assets.getIcon(RED_FIVE, 80, 120, true), "a placeholder while it loads");
+        loads.runAll();
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(1, ready.get(), "the view stops waiting on the face");
+        assertNull(assets.getIcon(RED_FIVE, 80, 120, true), "the face counts as missing");
+        assertTrue(loads.tasks.isEmpty(), "and is not queued again");
+    }
+
+    @Test
+    public void testScaledVariantsAreMadeBeforeThePaint() {
+        for (double scale : new double[]{1.5, 2.0}) {
+            CardImageCache cache = new CardImageCache();
+            StepExecutor loads = new StepExecutor();
+            CardAssetLoader assets = new CardAssetLoader(cache, loads, () -> { });
+            assets.setDisplayScale(scale);
+            assets.getIcon(RED_FIVE, 80, 120, true);
+            loads.runAll();
+            int made = cache.getVariantCount();
+            assertTrue(made > 0, "the loader made the " + scale + "x variants");
+
+            BufferedImage screen = new BufferedImage(320, 480, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = screen.createGraphics();
+            g.scale(scale, scale);
+            assets.getIcon(RED_FIVE, 80, 120, true).paintIcon(null, g, 0, 0);
+            assets.getIcon(RED_FIVE, 80, 120, false).paintIcon(null, g, 0, 0);
+            assets.getIcon(RED_FIVE, 160, 240, true).paintIcon(null, g, 0, 0);
+            g.dispose();
+            assertEquals(made, cache.getVariantCount(), "painting at " + scale + "x makes nothing");
+        }
+    }
+
+    @Test
+    public void testCurrentSideAndHandLoadFirst() {
+        CardImageCache cache = new CardImageCache();
+        StepExecutor loads = new StepExecutor();
+        CardAssetLoader assets = new CardAssetLoader(cache, loads, () -> { });
+        assets.warmAll(Card.Side.DARK);
+        int queued = assets.getQueuedCount();
+        assertTrue(queued > 100, "every face on both sides: " + queued);
+
+        Card inHand = new Card(Card.Color.BLUE, Card.Value.SEVEN);
+        assets.prioritize(List.of(inHand));
+        loads.runOne();
+        assertNotNull(cache.peekIcon(inHand, 80, 120, true), "the hand jumps the queue");
+
+        loads.runOne();
+        Deck deck = new Deck(new Random(4));
+        int darkLoaded = 0;
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            boolean isHandCard = card.getColor() == Card.Color.BLUE && card.getValue() == Card.Value.SEVEN;
+            if (!isHandCard) assertNull(cache.peekIcon(card, 80, 120, true), "light faces wait: " + card);
+            if (cache.peekIcon(dark(card), 80, 120, true) != null) darkLoaded++;
+        }
+        assertTrue(darkLoaded > 0, "then the favored side");
+    }
+
+    @Test
+    public void testWarmsEveryFaceOnTheBackgroundThread() throws Exception {
+        CardImageCache cache = new CardImageCache();
+        CardAssetLoader assets = new CardAssetLoader(cache, () -> { });
+        assets.warmAll(Card.Side.LIGHT);
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (assets.getQueuedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+
+        Deck deck = new Deck(new Random(5));
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            assertNotNull(cache.peekIcon(card, 80, 120, true), card.toString());
+            assertNotNull(cache.peekIcon(dark(card), 160, 240, true), "dark " + card);
+        }
+    }
+}
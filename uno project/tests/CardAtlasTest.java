@@ -0,0 +1,167 @@
+import model.Card;
+import model.Deck;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import view.CardAtlas;
+import view.CardAtlasBuilder;
+import view.CardImageCache;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for packing the card faces into one atlas and reading them back.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class CardAtlasTest {
+
+    private static final ClassLoader LOADER = CardAtlasTest.class.getClassLoader();
+
+    @TempDir
+    Path dir;
+
+    private static BufferedImage read(String resource) throws IOException {
+        try (InputStream in = LOADER.getResourceAsStream(resource)) {
+            assertNotNull(in, resource);
+            return ImageIO.read(in);
+        }
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual, String name) {
+        assertEquals(expected.getWidth(), actual.getWidth(), name);
+        assertEquals(expected.getHeight(), actual.getHeight(), name);
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), name + " at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testPackedFacesDoNotOverlap() {
+        Map<String, BufferedImage> faces = new LinkedHashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            faces.put("face" + i, new BufferedImage(10 + random.nextInt(50), 10 + random.nextInt(80),
+                    BufferedImage.TYPE_INT_ARGB));
+        }
+        CardAtlas atlas = CardAtlasBuilder.pack(faces, 256);
+
+        List<Rectangle> placed = new ArrayList<>(atlas.getFaces().values());
+        assertEquals(40, placed.size());
+        Rectangle image = new Rectangle(0, 0, atlas.getImage().getWidth(), atlas.getImage().getHeight());
+        for (int i = 0; i < placed.size(); i++) {
+            assertTrue(image.contains(placed.get(i)));
+            for (int j = i + 1; j < placed.size(); j++) {
+                assertFalse(placed.get(i).intersects(placed.get(j)), placed.get(i) + " overlaps " + placed.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testBuildsOnceThenReadsBack() throws IOException {
+        CardAtlas first = CardAtlas.open(dir, LOADER);
+        assertTrue(first.wasBuilt());
+        assertTrue(Files.isRegularFile(dir.resolve(CardAtlas.IMAGE_FILE)));
+
+        CardAtlas second = CardAtlas.open(dir, LOADER);
+        assertFalse(second.wasBuilt(), "an atlas made from the same art is read as is");
+        assertEquals(first.getFaces(), second.getFaces());
+        assertSamePixels(first.getImage(), second.getImage(), "atlas");
+    }
+
+    @Test
+    public void testChangedArtRebuildsTheAtlas() throws IOException {
+        CardAtlas.open(dir, LOADER);
+        Path index = dir.resolve(CardAtlas.INDEX_FILE);
+        String text = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+        Files.write(index, text.replaceFirst("checksum=\\d+", "checksum=1").getBytes(StandardCharsets.UTF_8));
+        assertTrue(CardAtlas.open(dir, LOADER).wasBuilt(), "a different checksum means different art");
+        assertFalse(CardAtlas.open(dir, LOADER).wasBuilt());
+    }
+
+    @Test
+    public void testChecksumReadsNoArtAndNoticesChangedFiles() throws IOException {
+        Path art = dir.resolve("art");
+        for (String name : CardAtlasBuilder.faceNames()) {
+            Path file = art.resolve("view").resolve(name);
+            Files.createDirectories(file.getParent());
+            try (InputStream in = LOADER.getResourceAsStream("view/" + name)) {
+                if (in != null) Files.copy(in, file);
+            }
+        }
+        int[] opened = new int[1];
+        ClassLoader counting = new URLClassLoader(new URL[]{art.toUri().toURL()}, null) {
+            @Override
+            public InputStream getResourceAsStream(String name) {
+                opened[0]++;
+                return super.getResourceAsStream(name);
+            }
+        };
+        Long first = CardAtlasBuilder.sourceChecksum(counting);
+        assertNotNull(first);
+        assertEquals(first, CardAtlasBuilder.sourceChecksum(counting));
+        assertEquals(0, opened[0], "the checksum comes from file stamps, not the art");
+
+        Path face = art.resolve("view").resolve(CardAtlasBuilder.faceNames().get(0));
+        Files.setLastModifiedTime(face, FileTime.fromMillis(Files.getLastModifiedTime(face).toMillis() - 60_000));
+        ClassLoader changed = new URLClassLoader(new URL[]{art.toUri().toURL()}, null);
+        assertNotEquals(first, CardAtlasBuilder.sourceChecksum(changed), "a touched face is different art");
+    }
+
+    @Test
+    public void testBuiltAtlasMatchesTheFaces() throws IOException {
+        CardAtlas atlas = CardAtlas.open(dir, LOADER);
+        assertEquals(112, atlas.getFaces().size());
+        for (String name : new String[]{"unoCards/one/blue.png", "unoCards/wild_draw_two/wild_draw_two.png",
+                "DarkSideCards/skip_everyone/teal.png"}) {
+            assertSamePixels(read("view/" + name), atlas.face(name), name);
+        }
+    }
+
+    @Test
+    public void testEveryDeckCardIsInTheAtlas() throws IOException {
+        CardAtlas atlas = CardAtlas.open(dir, LOADER);
+        Deck deck = new Deck(new Random(2));
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            for (int side = 0; side < 2; side++) {
+                String value = card.getValue().name().toLowerCase();
+                String face = card.getColor() == Card.Color.WILD ? value : card.getColor().name().toLowerCase();
+                String folder = card.getCurrentSide() == Card.Side.LIGHT ? "unoCards/" : "DarkSideCards/";
+                assertNotNull(atlas.bounds(folder + value + "/" + face + ".png"), card.toString());
+                card.flip();
+            }
+        }
+    }
+
+    @Test
+    public void testCacheDecodesOnlyTheAtlas() throws IOException {
+        CardAtlas.open(dir, LOADER);
+        CardImageCache cache = new CardImageCache();
+        cache.setAtlasDirectory(dir);
+        Deck deck = new Deck(new Random(3));
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            assertNotNull(cache.getIcon(card, 80, 120, true));
+            assertNotNull(cache.getIcon(card, 80, 120, false));
+        }
+        assertEquals(1, cache.getDecodeCount());
+    }
+}
@@ -0,0 +1,127 @@
+import model.Card;
+import model.Deck;
+import org.junit.jupiter.api.Test;
+import view.CardImageCache;
+
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the card face icon cache.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class CardImageCacheTest {
+
+    private static List<Card> deckCards() {
+        Deck deck = new Deck(new Random(1));
+        List<Card> cards = new ArrayList<>();
+        for (Card card = deck.drawCard(); card != null; card = deck.drawCard()) {
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    @Test
+    public void testEveryCardHasArtOnBothSides() {
+        CardImageCache cache = new CardImageCache();
+        for (Card card : deckCards()) {
+            assertNotNull(cache.getIcon(card, 80, 120, true), "light " + card);
+            card.flip();
+            assertNotNull(cache.getIcon(card, 80, 120, true), "dark " + card);
+        }
+    }
+
+    @Test
+    public void testRepeatedRendersDecodeNothingNew() {
+        CardImageCache cache = new CardImageCache();
+        List<Card> hand = deckCards().subList(0, 20);
+        for (Card card : hand) {
+            cache.getIcon(card, 80, 120, true);
+            cache.getIcon(card, 80, 120, false);
+        }
+        int decodes = cache.getDecodeCount();
+        int icons = cache.size();
+        assertTrue(decodes <= 20);
+
+        for (int render = 0; render < 10; render++) {
+            for (Card card : hand) {
+                cache.getIcon(card, 80, 120, true);
+                cache.getIcon(card, 80, 120, false);
+            }
+            cache.getIcon(hand.get(0), 160, 240, true);
+        }
+        assertEquals(decodes, cache.getDecodeCount(), "the 160x240 top card reuses the decoded face");
+        assertEquals(icons + 1, cache.size());
+    }
+
+    @Test
+    public void testVariantsAreBuiltOnceAndKeptApart() {
+        CardImageCache cache = new CardImageCache();
+        Card card = new Card(Card.Color.RED, Card.Value.FIVE);
+        ImageIcon enabled = cache.getIcon(card, 80, 120, true);
+        ImageIcon disabled = cache.getIcon(card, 80, 120, false);
+
+        assertSame(enabled, cache.getIcon(new Card(Card.Color.RED, Card.Value.FIVE), 80, 120, true));
+        assertSame(disabled, cache.getIcon(card, 80, 120, false));
+        assertNotSame(enabled, disabled);
+        assertEquals(80, disabled.getIconWidth());
+        assertEquals(120, disabled.getIconHeight());
+        assertNotSame(enabled, cache.getIcon(new Card(Card.Color.BLUE, Card.Value.FIVE), 80, 120, true));
+    }
+
+    @Test
+    public void testWildsShareAFaceWhateverTheColor() {
+        CardImageCache cache = new CardImageCache();
+        Card wild = new Card(Card.Color.WILD, Card.Value.WILD);
+        ImageIcon icon = cache.getIcon(wild, 80, 120, true);
+        wild.setColor(Card.Color.GREEN);
+        assertSame(icon, cache.getIcon(wild, 80, 120, true));
+    }
+
+    @Test
+    public void testScaledDisplaysGetSharperVariants() {
+        CardImageCache cache = new CardImageCache();
+        Card card = new Card(Card.Color.GREEN, Card.Value.SEVEN);
+        for (boolean enabled : new boolean[]{true, false}) {
+            MultiResolutionImage image = (MultiResolutionImage) cache.getIcon(card, 80, 120, enabled).getImage();
+            List<Image> variants = image.getResolutionVariants();
+            assertEquals(3, variants.size());
+            int[][] sizes = {{80, 120}, {120, 180}, {160, 240}};
+            for (int i = 0; i < sizes.length; i++) {
+                assertEquals(sizes[i][0], variants.get(i).getWidth(null));
+                assertEquals(sizes[i][1], variants.get(i).getHeight(null));
+            }
+            assertSame(variants.get(1), image.getResolutionVariant(120, 180), "variants are made once");
+            assertSame(variants.get(2), image.getResolutionVariant(400, 600), "the largest past 2x");
+        }
+    }
+
+    @Test
+    public void testDrawingAt2xUsesThe2xPixels() {
+        CardImageCache cache = new CardImageCache();
+        Card card = new Card(Card.Color.BLUE, Card.Value.NINE);
+        Image icon = cache.getIcon(card, 80, 120, true).getImage();
+        BufferedImage twice = (BufferedImage) ((MultiResolutionImage) icon).getResolutionVariant(160, 240);
+
+        BufferedImage screen = new BufferedImage(160, 240, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = screen.createGraphics();
+        g.scale(2, 2);
+        g.drawImage(icon, 0, 0, null);
+        g.dispose();
+        for (int y = 0; y < 240; y += 11) {
+            for (int x = 0; x < 160; x += 7) {
+                assertEquals(twice.getRGB(x, y), screen.getRGB(x, y), "at " + x + "," + y);
+            }
+        }
+    }
+}
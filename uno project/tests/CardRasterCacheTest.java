@@ -0,0 +1,95 @@
+import model.Card;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import view.CardAtlasBuilder;
+import view.CardImageCache;
+import view.CardRasterCache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the memory-mapped cache of pre-scaled card faces.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class CardRasterCacheTest {
+
+    private static final ClassLoader LOADER = CardRasterCacheTest.class.getClassLoader();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testBuildsOnceThenMaps() throws IOException {
+        Path file = dir.resolve("cards.bin");
+        CardRasterCache first = CardRasterCache.open(file, LOADER);
+        assertTrue(first.wasRebuilt());
+        assertEquals(112, first.size());
+
+        CardRasterCache second = CardRasterCache.open(file, LOADER);
+        assertFalse(second.wasRebuilt(), "a matching file is mapped as is");
+        assertEquals(first.getChecksum(), second.getChecksum());
+    }
+
+    @Test
+    public void testPixelsMatchTheScaledFaces() throws IOException {
+        CardRasterCache cache = CardRasterCache.open(dir.resolve("cards.bin"), LOADER);
+        CardImageCache scaler = new CardImageCache(LOADER);
+
+        for (String name : new String[]{"unoCards/seven/red.png", "DarkSideCards/wild_draw_color/wild_draw_color.png"}) {
+            for (int[] size : CardRasterCache.SIZES) {
+                BufferedImage cached = cache.get(name, size[0], size[1]);
+                assertNotNull(cached, name);
+                MultiResolutionImage icon = (MultiResolutionImage) scaler.getIcon(cardFor(name), size[0], size[1], true).getImage();
+                BufferedImage scaled = (BufferedImage) icon.getResolutionVariant(size[0], size[1]);
+                for (int y = 0; y < size[1]; y += 7) {
+                    for (int x = 0; x < size[0]; x += 5) {
+                        assertEquals(scaled.getRGB(x, y), cached.getRGB(x, y), name + " at " + x + "," + y);
+                    }
+                }
+            }
+            assertTrue(CardAtlasBuilder.faceNames().contains(name));
+        }
+        assertNull(cache.get("unoCards/seven/red.png", 81, 120), "only the cached sizes");
+        assertNull(cache.get("unoCards/seven/mauve.png", 80, 120));
+    }
+
+    private static Card cardFor(String name) {
+        return name.startsWith("unoCards") ? new Card(Card.Color.RED, Card.Value.SEVEN)
+                : new Card(Card.Color.WILD, Card.Value.WILD, Card.Color.WILD, Card.Value.WILD_DRAW_COLOR, Card.Side.DARK);
+    }
+
+    @Test
+    public void testStaleOrDamagedFilesAreRebuilt() throws IOException {
+        Path file = dir.resolve("cards.bin");
+        CardRasterCache.open(file, LOADER);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[16] ^= 1; // inside the recorded checksum
+        Files.write(file, bytes);
+        assertTrue(CardRasterCache.open(file, LOADER).wasRebuilt(), "a different checksum means different art");
+
+        byte[] whole = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(whole, whole.length - 100));
+        assertTrue(CardRasterCache.open(file, LOADER).wasRebuilt(), "a short file is rebuilt");
+        assertFalse(CardRasterCache.open(file, LOADER).wasRebuilt());
+    }
+
+    @Test
+    public void testIconsComeFromTheCacheWithoutDecoding() throws IOException {
+        CardImageCache icons = new CardImageCache(LOADER);
+        icons.setRasterCache(CardRasterCache.open(dir.resolve("cards.bin"), LOADER));
+
+        assertNotNull(icons.getIcon(new Card(Card.Color.BLUE, Card.Value.TWO), 80, 120, true));
+        assertNotNull(icons.getIcon(new Card(Card.Color.GREEN, Card.Value.NINE), 160, 240, true));
+        assertEquals(0, icons.getDecodeCount());
+    }
+}
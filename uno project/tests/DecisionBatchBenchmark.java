@@ -0,0 +1,76 @@
+import controller.GameState;
+import model.DecisionBatch;
+import model.LearnedPolicy;
+
+import java.util.Random;
+
+/**
+ * Compares deciding many tables' AI turns one call at a time with packing them into a
+ * {@link DecisionBatch} and deciding the batch, packing included.
+ *
+ * Usage: java DecisionBatchBenchmark [tables] [rounds] [cardsPerHand]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class DecisionBatchBenchmark {
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int cardsPerHand = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+
+        Random random = new Random(1L);
+        double[] weights = new double[LearnedPolicy.FEATURES];
+        for (int i = 0; i < weights.length; i++) weights[i] = random.nextGaussian();
+        LearnedPolicy policy = LearnedPolicy.of(weights);
+
+        GameState[] positions = new GameState[tables];
+        for (int i = 0; i < tables; i++) {
+            positions[i] = TestStates.randomPosition(random, 2, cardsPerHand);
+        }
+        DecisionBatch batch = new DecisionBatch(tables, cardsPerHand + 2);
+
+        long sink = 0;
+        for (int r = 0; r < rounds / 4; r++) { // warm up both paths
+            sink += single(policy, positions) + batched(policy, batch, positions);
+        }
+
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) sink += single(policy, positions);
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) sink += batched(policy, batch, positions);
+        long batchNanos = System.nanoTime() - start;
+
+        long decisions = (long) tables * rounds;
+        System.out.printf("%,d tables x %d rounds, %d cards in hand%n", tables, rounds, cardsPerHand);
+        System.out.printf("one at a time: %,.0f decisions/ms (%.0f ns each)%n",
+                decisions * 1e6 / singleNanos, (double) singleNanos / decisions);
+        System.out.printf("batched:       %,.0f decisions/ms (%.0f ns each)%n",
+                decisions * 1e6 / batchNanos, (double) batchNanos / decisions);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long single(LearnedPolicy policy, GameState[] positions) {
+        long sum = 0;
+        for (GameState state : positions) {
+            sum += policy.select(state, state.currentPlayer.getHand());
+        }
+        return sum;
+    }
+
+    private static long batched(LearnedPolicy policy, DecisionBatch batch, GameState[] positions) {
+        batch.clear();
+        for (GameState state : positions) {
+            batch.add(state);
+        }
+        policy.selectAll(batch);
+        long sum = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            sum += batch.action(i) * 5L + (batch.color(i) == null ? 4 : batch.color(i).ordinal() % 4);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,123 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.DecisionBatch;
+import model.GameModel;
+import model.LearnedPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for batched AI decisions.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class DecisionBatchTest {
+
+    /**
+     * Positions from seeded self-play at 2-4 seats, both sides of the deck included
+     */
+    private static List<GameState> positions(int count) {
+        List<GameState> positions = new ArrayList<>();
+        for (long game = 1; positions.size() < count; game++) {
+            List<AIPlayer> players = new ArrayList<>();
+            for (int s = 0; s < 2 + game % 3; s++) {
+                AIPlayer player = new AIPlayer("Seat " + s, AIPlayer.DifficultyLevel.MEDIUM);
+                player.setSeed(game * 31 + s);
+                players.add(player);
+            }
+            GameModel model = new GameModel(players, game);
+            model.setAITurnDelay(0);
+            model.setRecordHistory(false);
+            model.startGame();
+            for (int turn = 0; turn < 150 && positions.size() < count; turn++) {
+                positions.add(model.getState());
+                model.processAITurn();
+            }
+        }
+        return positions;
+    }
+
+    private static LearnedPolicy randomPolicy(Random random) {
+        double[] weights = new double[LearnedPolicy.FEATURES];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextGaussian();
+        }
+        return LearnedPolicy.of(weights);
+    }
+
+    @Test
+    public void testBatchDecidesLikeOneAtATime() {
+        List<GameState> positions = positions(600);
+        Random random = new Random(5L);
+        DecisionBatch batch = new DecisionBatch(1, 1); // forces the arrays to grow
+
+        for (int round = 0; round < 5; round++) {
+            LearnedPolicy policy = randomPolicy(random);
+            batch.clear();
+            for (GameState state : positions) {
+                batch.add(state);
+            }
+            policy.selectAll(batch);
+
+            assertEquals(positions.size(), batch.size());
+            for (int i = 0; i < positions.size(); i++) {
+                GameState state = positions.get(i);
+                int move = policy.select(state, state.currentPlayer.getHand());
+                assertEquals(LearnedPolicy.handIndexOf(move), batch.action(i), "decision " + i);
+                assertEquals(LearnedPolicy.colorOf(move, state.currentSide), batch.color(i), "decision " + i);
+            }
+        }
+    }
+
+    @Test
+    public void testNothingPlayableDraws() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.ONE));
+        AIPlayer other = new AIPlayer("Other", AIPlayer.DifficultyLevel.MEDIUM);
+        other.drawCard(new Card(Card.Color.RED, Card.Value.TWO));
+
+        GameState state = new GameState();
+        state.players = new ArrayList<>(Arrays.asList(ai, other));
+        state.currentPlayer = ai;
+        state.currentPlayerIndex = 0;
+        state.topDiscard = new Card(Card.Color.RED, Card.Value.FIVE);
+        state.clockwise = true;
+        state.currentSide = Card.Side.LIGHT;
+        state.playableIndices = new ArrayList<>();
+
+        DecisionBatch batch = new DecisionBatch();
+        batch.add(state);
+        state.playableIndices = new ArrayList<>(List.of(0));
+        batch.add(state);
+        LearnedPolicy.zero().selectAll(batch);
+
+        assertEquals(-1, batch.action(0));
+        assertNull(batch.color(0));
+        assertEquals(0, batch.action(1));
+    }
+
+    @Test
+    public void testClearKeepsNoOldDecisions() {
+        List<GameState> positions = positions(40);
+        DecisionBatch batch = new DecisionBatch();
+        for (GameState state : positions) {
+            batch.add(state);
+        }
+        batch.clear();
+        assertEquals(0, batch.size());
+
+        GameState last = positions.get(positions.size() - 1);
+        assertEquals(0, batch.add(last));
+        LearnedPolicy policy = randomPolicy(new Random(9L));
+        policy.selectAll(batch);
+        assertEquals(LearnedPolicy.handIndexOf(policy.select(last, last.currentPlayer.getHand())), batch.action(0));
+    }
+}
@@ -0,0 +1,63 @@
+import model.AIPlayer;
+import model.EloRatings;
+import model.HeadlessGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the Bradley-Terry/Elo rating fit used by tournaments.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class EloRatingsTest {
+
+    private HeadlessGame.Result play(long seed) {
+        List<AIPlayer> seats = new ArrayList<>();
+        seats.add(new AIPlayer("A", AIPlayer.DifficultyLevel.HARD));
+        seats.add(new AIPlayer("B", AIPlayer.DifficultyLevel.HARD));
+        return new HeadlessGame(seats, seed).play();
+    }
+
+    @Test
+    public void testUnplayedEntrantsShareBaseRating() {
+        EloRatings ratings = new EloRatings(new String[]{"A", "B"});
+
+        for (EloRatings.Standing s : ratings.standings()) {
+            assertEquals(EloRatings.BASE_RATING, s.rating, 1e-6);
+            assertEquals(0, s.pairings);
+        }
+    }
+
+    @Test
+    public void testWinnerIsRatedHigherAndIntervalsShrink() {
+        EloRatings ratings = new EloRatings(new String[]{"A", "B"});
+        HeadlessGame.Result result = play(11L);
+        int[] winnerFirst = result.winnerSeat == 0 ? new int[]{0, 1} : new int[]{1, 0};
+
+        ratings.record(winnerFirst, result);
+        double earlyInterval = ratings.standings()[0].ci95;
+        for (int i = 0; i < 30; i++) {
+            ratings.record(winnerFirst, result);
+        }
+
+        EloRatings.Standing[] standings = ratings.standings();
+        assertEquals("A", standings[0].name);
+        assertTrue(ratings.ratingOf("A") > ratings.ratingOf("B"));
+        assertTrue(standings[0].ci95 < earlyInterval, "more games should narrow the interval");
+        assertEquals(31, ratings.getGamesRecorded());
+    }
+
+    @Test
+    public void testSameEntrantSeatsAreNotCompared() {
+        EloRatings ratings = new EloRatings(new String[]{"A", "B"});
+
+        ratings.record(new int[]{0, 0}, play(5L));
+
+        assertEquals(0, ratings.standings()[0].pairings);
+    }
+}
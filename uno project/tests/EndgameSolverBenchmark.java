@@ -0,0 +1,60 @@
+import controller.GameState;
+import model.EndgameSolver;
+
+import java.util.Random;
+
+/**
+ * Measures the endgame solver's node rate on random low-card positions.
+ *
+ * Usage: java EndgameSolverBenchmark [positions] [players] [cardsPerHand] [seed]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class EndgameSolverBenchmark {
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int cardsPerHand = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        Random random = new Random(seed);
+        EndgameSolver solver = new EndgameSolver();
+
+        // warm up the JIT on positions that are not measured
+        for (int i = 0; i < Math.max(20, positions / 5); i++) {
+            GameState state = TestStates.randomPosition(random, players, cardsPerHand);
+            solver.solve(state, state.currentPlayer.getHand(), random);
+        }
+
+        long nodes = 0; // positions with a single legal move count towards time only
+        long nanos = 0;
+        long worst = 0;
+        int[] depths = new int[8];
+        int trivial = 0;
+        for (int i = 0; i < positions; i++) {
+            GameState state = TestStates.randomPosition(random, players, cardsPerHand);
+            long start = System.nanoTime();
+            solver.solve(state, state.currentPlayer.getHand(), random);
+            long elapsed = System.nanoTime() - start;
+            nanos += elapsed;
+            worst = Math.max(worst, elapsed);
+            nodes += solver.getNodes();
+            if (solver.getCompletedDepth() < 0) {
+                trivial++; // one legal move or none, nothing to search
+            } else {
+                depths[Math.min(depths.length - 1, solver.getCompletedDepth())]++;
+            }
+        }
+
+        System.out.printf("%d positions, %d players, %d cards each%n", positions, players, cardsPerHand);
+        System.out.printf("nodes/s:        %,.0f%n", nodes / (nanos / 1e9));
+        System.out.printf("nodes/decision: %,.0f%n", (double) nodes / positions);
+        System.out.printf("ms/decision:    %.2f avg, %.2f worst%n", nanos / 1e6 / positions, worst / 1e6);
+        System.out.printf("not searched:   %d positions%n", trivial);
+        for (int d = 0; d < depths.length; d++) {
+            if (depths[d] > 0) System.out.printf("draw depth %d:   %d positions%n", d, depths[d]);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.EndgameSolver;
+import model.GameModel;
+import model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Stack;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the endgame solver and its use by AIPlayer.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class EndgameSolverTest {
+
+    @Test
+    public void testKeepsWildForTheWinningTurn() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.SEVEN));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.SEVEN), 3);
+
+        assertEquals(0, ai.selectCardToPlay(state), "heuristic plays the special card");
+
+        ai.setEndgameThreshold(AIPlayer.DEFAULT_ENDGAME_THRESHOLD);
+        ai.setSeed(1L);
+        assertEquals(1, ai.selectCardToPlay(state), "solver keeps the wild to go out next turn");
+    }
+
+    @Test
+    public void testNamesTheColorLeftInHand() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.GREEN, Card.Value.THREE));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 2);
+
+        EndgameSolver.Decision decision = new EndgameSolver().solve(state, ai.getHand(), new Random(3L));
+
+        assertEquals(0, decision.handIndex);
+        assertEquals(Card.Color.GREEN, decision.color);
+        assertTrue(decision.winProbability > 0.5);
+    }
+
+    @Test
+    public void testSolverColorIsUsedForTheWild() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.YELLOW, Card.Value.ONE));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.TWO));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.BLUE, Card.Value.FIVE), 2);
+
+        assertEquals(0, ai.selectCardToPlay(state));
+        Card.Color color = ai.chooseWildColor();
+        assertTrue(color == Card.Color.YELLOW || color == Card.Color.RED, "names a color it can follow with");
+    }
+
+    @Test
+    public void testNoSolveAboveThreshold() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.setEndgameThreshold(3);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.THREE));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.SEVEN), 5);
+
+        assertEquals(1, ai.selectCardToPlay(state), "heuristic keeps the wild");
+        assertEquals(0, new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM).getEndgameThreshold());
+    }
+
+    @Test
+    public void testDrawFiveLineReplaysThroughTheGame() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        Player target = new Player("Target");
+        Player last = new Player("Last");
+        GameModel model = new GameModel(Arrays.asList(ai, target, last), 8L);
+        model.setAITurnDelay(0);
+        model.startGame();
+
+        // three seats on the dark side: the AI holds a Draw Five and a card to follow it
+        // with, and the seat after the target is one card from going out
+        GameState state = new GameState();
+        state.players = new ArrayList<>();
+        Player[] hands = {new Player("AI"), new Player("Target"), new Player("Last")};
+        hands[0].drawCard(new Card(Card.Color.RED, Card.Value.FIVE, Card.Color.TEAL, Card.Value.FIVE, Card.Side.DARK));
+        hands[0].drawCard(new Card(Card.Color.RED, Card.Value.DRAW_ONE, Card.Color.TEAL, Card.Value.DRAW_FIVE, Card.Side.DARK));
+        for (int i = 0; i < 3; i++) {
+            hands[1].drawCard(new Card(Card.Color.BLUE, Card.Value.TWO, Card.Color.PURPLE, Card.Value.TWO, Card.Side.DARK));
+        }
+        hands[2].drawCard(new Card(Card.Color.RED, Card.Value.NINE, Card.Color.TEAL, Card.Value.NINE, Card.Side.DARK));
+        state.players.addAll(Arrays.asList(hands));
+        state.currentPlayer = hands[0];
+        state.currentPlayerIndex = 0;
+        state.topDiscard = new Card(Card.Color.RED, Card.Value.THREE, Card.Color.TEAL, Card.Value.THREE, Card.Side.DARK);
+        state.clockwise = true;
+        state.currentSide = Card.Side.DARK;
+        state.deckSize = 60;
+        state.playableIndices = new ArrayList<>(Arrays.asList(0, 1));
+        state.undoStack = new Stack<>();
+        state.redoStack = new Stack<>();
+        model.restoreState(state);
+
+        EndgameSolver.Decision decision = new EndgameSolver().solve(state, hands[0].getHand(), new Random(4L));
+        assertEquals(1, decision.handIndex, "the Draw Five brings the turn back round to the AI");
+        assertEquals(1.0, decision.winProbability, 1e-9);
+
+        model.playCard(ai, decision.handIndex, decision.color);
+        model.endTurn();
+        assertEquals(8, target.getHandSize(), "the target drew five");
+        assertEquals(1, last.getHandSize());
+        assertEquals(0, model.getState().currentPlayerIndex, "the game passes the turn where the solver did");
+
+        int score = ai.getScore();
+        model.playCard(ai, 0, null);
+        assertTrue(ai.getScore() > score, "the AI went out on the solved line");
+    }
+
+    @Test
+    public void testSameSeedSameDecision() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.SKIP));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.FOUR));
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.FOUR));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FOUR), 3);
+
+        EndgameSolver first = new EndgameSolver();
+        EndgameSolver second = new EndgameSolver();
+        EndgameSolver.Decision a = first.solve(state, ai.getHand(), new Random(9L));
+        EndgameSolver.Decision b = second.solve(state, ai.getHand(), new Random(9L));
+
+        assertEquals(a.handIndex, b.handIndex);
+        assertEquals(a.winProbability, b.winProbability);
+        assertEquals(first.getNodes(), second.getNodes());
+        assertTrue(first.getNodes() > 0);
+        assertTrue(first.getCompletedDepth() >= 0);
+    }
+}
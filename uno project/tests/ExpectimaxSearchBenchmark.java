@@ -0,0 +1,80 @@
+import controller.GameState;
+import model.EndgameSolver;
+import model.ExpectimaxSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the expectimax search's node rate on random mid-round positions, and how
+ * many nodes the Star1/Star2 pruning saves at a fixed depth.
+ *
+ * Usage: java ExpectimaxSearchBenchmark [positions] [players] [cardsPerHand] [depth] [seed]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class ExpectimaxSearchBenchmark {
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int cardsPerHand = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1L;
+
+        Random random = new Random(seed);
+        List<GameState> states = new ArrayList<>();
+        for (int i = 0; i < positions; i++) {
+            states.add(TestStates.randomPosition(random, players, cardsPerHand));
+        }
+
+        ExpectimaxSearch search = new ExpectimaxSearch();
+        for (int i = 0; i < Math.max(20, positions / 5); i++) { // warm up the JIT
+            GameState state = TestStates.randomPosition(random, players, cardsPerHand);
+            search.search(state, state.currentPlayer.getHand(), null);
+        }
+
+        // default settings: deepen until the node budget runs out
+        long nodes = 0;
+        long nanos = 0;
+        long worst = 0;
+        int[] depths = new int[16];
+        for (GameState state : states) {
+            long start = System.nanoTime();
+            search.search(state, state.currentPlayer.getHand(), null);
+            long elapsed = System.nanoTime() - start;
+            nanos += elapsed;
+            worst = Math.max(worst, elapsed);
+            nodes += search.getNodes();
+            if (search.getCompletedDepth() >= 0) depths[Math.min(depths.length - 1, search.getCompletedDepth())]++;
+        }
+        System.out.printf("%d positions, %d players, %d cards each%n", positions, players, cardsPerHand);
+        System.out.printf("nodes/s:        %,.0f%n", nodes / (nanos / 1e9));
+        System.out.printf("nodes/decision: %,.0f%n", (double) nodes / positions);
+        System.out.printf("ms/decision:    %.2f avg, %.2f worst%n", nanos / 1e6 / positions, worst / 1e6);
+        for (int d = 0; d < depths.length; d++) {
+            if (depths[d] > 0) System.out.printf("depth %d:        %d positions%n", d, depths[d]);
+        }
+
+        // fixed depth with and without pruning, which should pick the same moves
+        search.setMaxDepth(depth);
+        search.setNodeBudget(Long.MAX_VALUE);
+        long pruned = 0;
+        long full = 0;
+        int same = 0;
+        for (GameState state : states) {
+            search.setPruning(true);
+            EndgameSolver.Decision a = search.search(state, state.currentPlayer.getHand(), null);
+            pruned += search.getNodes();
+            search.setPruning(false);
+            EndgameSolver.Decision b = search.search(state, state.currentPlayer.getHand(), null);
+            full += search.getNodes();
+            if (a.handIndex == b.handIndex && a.color == b.color) same++;
+        }
+        System.out.printf("depth %d pruned: %,.0f nodes/decision%n", depth, (double) pruned / positions);
+        System.out.printf("depth %d full:   %,.0f nodes/decision%n", depth, (double) full / positions);
+        System.out.printf("same move:      %d of %d positions%n", same, positions);
+    }
+}
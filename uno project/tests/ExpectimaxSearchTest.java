@@ -0,0 +1,118 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.EndgameSolver;
+import model.ExpectimaxSearch;
+import model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the expectimax search and its use by AIPlayer.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class ExpectimaxSearchTest {
+
+    private static Card dark(Card.Value light, Card.Value dark) {
+        return new Card(Card.Color.RED, light, Card.Color.TEAL, dark, Card.Side.DARK);
+    }
+
+    /**
+     * Draw Five, Skip Everyone and a number of one color: with three players both attacks
+     * keep the turn, so playing them first goes out without anyone else moving
+     */
+    private Player comboHand() {
+        Player player = new Player("AI");
+        player.drawCard(dark(Card.Value.FOUR, Card.Value.FOUR));
+        player.drawCard(dark(Card.Value.DRAW_ONE, Card.Value.DRAW_FIVE));
+        player.drawCard(dark(Card.Value.SKIP, Card.Value.SKIP_EVERYONE));
+        return player;
+    }
+
+    @Test
+    public void testFindsDrawFiveIntoSkipEveryone() {
+        Player player = comboHand();
+        GameState state = TestStates.stateFor(player, dark(Card.Value.THREE, Card.Value.THREE), 7, 7);
+
+        EndgameSolver.Decision decision = new ExpectimaxSearch().search(state, player.getHand(), null, 0);
+
+        assertTrue(decision.handIndex == 1 || decision.handIndex == 2, "an attack first, not the number");
+        assertEquals(1.0, decision.winProbability, 1e-9);
+    }
+
+    @Test
+    public void testKeepsPreferredCardWhenNothingIsClearlyBetter() {
+        Player player = new Player("AI");
+        player.drawCard(new Card(Card.Color.RED, Card.Value.THREE));
+        player.drawCard(new Card(Card.Color.RED, Card.Value.FIVE));
+        player.drawCard(new Card(Card.Color.BLUE, Card.Value.SEVEN));
+        player.drawCard(new Card(Card.Color.YELLOW, Card.Value.TWO));
+        GameState state = TestStates.stateFor(player, new Card(Card.Color.RED, Card.Value.NINE), 7);
+
+        ExpectimaxSearch search = new ExpectimaxSearch();
+        assertEquals(0, search.search(state, player.getHand(), null, 0).handIndex);
+        assertEquals(1, search.search(state, player.getHand(), null, 1).handIndex);
+    }
+
+    @Test
+    public void testPruningKeepsTheDecision() {
+        Random random = new Random(7L);
+        ExpectimaxSearch search = new ExpectimaxSearch();
+        search.setMaxDepth(3);
+        search.setNodeBudget(Long.MAX_VALUE);
+        long pruned = 0;
+        long full = 0;
+        for (int i = 0; i < 20; i++) {
+            GameState state = TestStates.randomPosition(random, 2, 7);
+            search.setPruning(true);
+            EndgameSolver.Decision a = search.search(state, state.currentPlayer.getHand(), null);
+            pruned += search.getNodes();
+            search.setPruning(false);
+            EndgameSolver.Decision b = search.search(state, state.currentPlayer.getHand(), null);
+            full += search.getNodes();
+
+            assertEquals(b.handIndex, a.handIndex);
+            assertEquals(b.color, a.color);
+        }
+        assertTrue(pruned < full, "Star1/Star2 bounds cut some nodes");
+    }
+
+    @Test
+    public void testNodeBudgetStopsDeepening() {
+        Random random = new Random(11L);
+        ExpectimaxSearch search = new ExpectimaxSearch();
+        search.setMaxDepth(20);
+        search.setNodeBudget(2_000);
+        for (int i = 0; i < 10; i++) {
+            GameState state = TestStates.randomPosition(random, 2, 7);
+            EndgameSolver.Decision decision = search.search(state, state.currentPlayer.getHand(), null);
+            if (state.playableIndices.size() > 1) {
+                assertTrue(search.getNodes() <= 2_001);
+                assertTrue(search.getCompletedDepth() < 20);
+            }
+            if (!state.playableIndices.isEmpty()) {
+                assertTrue(state.playableIndices.contains(decision.handIndex));
+            }
+        }
+    }
+
+    @Test
+    public void testHardPlayerSearchesWhenEnabled() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.setEndgameThreshold(0);
+        for (Card card : comboHand().getHand()) {
+            ai.drawCard(card);
+        }
+        GameState state = TestStates.stateFor(ai, dark(Card.Value.THREE, Card.Value.THREE), 7, 7);
+
+        ai.setSearchDepth(4);
+        assertEquals(4, ai.getSearchDepth());
+        int chosen = ai.selectCardToPlay(state);
+        assertTrue(chosen == 1 || chosen == 2);
+    }
+}
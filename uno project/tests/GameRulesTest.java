@@ -0,0 +1,152 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.GameModel;
+import model.GameRules;
+import model.HeadlessGame;
+import model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the house rule variants: target score, Wild Draw Color cap and draw stacking.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class GameRulesTest {
+
+    private final Player first = new Player("First");
+    private final Player second = new Player("Second");
+    private final Player third = new Player("Third");
+
+    /**
+     * Starts a three player game, then sets every hand and the top card
+     */
+    private GameModel table(GameRules rules, Card top, List<Card> firstHand, List<Card> secondHand,
+                            List<Card> thirdHand) {
+        GameModel model = new GameModel(Arrays.asList(first, second, third), 3L);
+        model.setRules(rules);
+        model.startGame();
+        GameState state = model.getState();
+        state.topDiscard = top;
+        state.currentPlayerIndex = 0;
+        List<List<Card>> hands = Arrays.asList(firstHand, secondHand, thirdHand);
+        for (int i = 0; i < 3; i++) {
+            state.players.get(i).getHand().clear();
+            for (Card card : hands.get(i)) {
+                state.players.get(i).drawCard(card);
+            }
+        }
+        model.restoreState(state);
+        return model;
+    }
+
+    private static Card card(Card.Color color, Card.Value value) {
+        return new Card(color, value);
+    }
+
+    @Test
+    public void testParseAndStandard() {
+        GameRules standard = GameRules.standard();
+        assertEquals(500, standard.getTargetScore());
+        assertEquals(20, standard.getWildDrawColorCap());
+        assertFalse(standard.isDrawStacking());
+        assertEquals(standard, GameRules.parse("standard"));
+
+        GameRules variant = GameRules.parse("target=300, cap=10, stacking");
+        assertEquals(300, variant.getTargetScore());
+        assertEquals(10, variant.getWildDrawColorCap());
+        assertTrue(variant.isDrawStacking());
+        assertEquals(variant, GameRules.parse(variant.toString()));
+        assertThrows(IllegalArgumentException.class, () -> GameRules.parse("jump-in"));
+        assertThrows(IllegalArgumentException.class, () -> GameRules.parse("cap=0"));
+    }
+
+    @Test
+    public void testDrawOneHitsAtOnceWithoutStacking() {
+        GameModel model = table(GameRules.standard(), card(Card.Color.RED, Card.Value.FIVE),
+                new ArrayList<>(List.of(card(Card.Color.RED, Card.Value.DRAW_ONE), card(Card.Color.RED, Card.Value.TWO))),
+                new ArrayList<>(List.of(card(Card.Color.BLUE, Card.Value.DRAW_ONE))),
+                new ArrayList<>(List.of(card(Card.Color.GREEN, Card.Value.ONE))));
+
+        model.playCard(first, 0, null);
+        model.endTurn();
+        assertEquals(2, second.getHandSize(), "the target draws straight away");
+        assertEquals(2, model.getState().currentPlayerIndex, "and is skipped");
+    }
+
+    @Test
+    public void testStackedDrawsPassToThePlayerWhoCannotAnswer() {
+        GameModel model = table(GameRules.standard().withDrawStacking(true), card(Card.Color.RED, Card.Value.FIVE),
+                new ArrayList<>(List.of(card(Card.Color.RED, Card.Value.DRAW_ONE), card(Card.Color.RED, Card.Value.TWO))),
+                new ArrayList<>(List.of(card(Card.Color.BLUE, Card.Value.DRAW_ONE), card(Card.Color.BLUE, Card.Value.ONE))),
+                new ArrayList<>(List.of(card(Card.Color.GREEN, Card.Value.ONE), card(Card.Color.BLUE, Card.Value.TWO))));
+
+        model.playCard(first, 0, null);
+        model.endTurn();
+        GameState state = model.getState();
+        assertEquals(1, state.currentPlayerIndex);
+        assertEquals(1, state.pendingDraw);
+        assertEquals(List.of(0), state.playableIndices, "only a Draw One can answer");
+
+        model.playCard(second, 0, null);
+        model.endTurn();
+        state = model.getState();
+        assertEquals(2, state.currentPlayerIndex);
+        assertEquals(2, state.pendingDraw);
+        assertTrue(state.playableIndices.isEmpty(), "a matching color does not answer a draw");
+
+        model.drawCard();
+        assertEquals(4, third.getHandSize(), "takes the whole stack");
+        state = model.getState();
+        assertTrue(state.turnTaken, "and loses the turn");
+        assertEquals(0, state.pendingDraw);
+        model.endTurn();
+        assertEquals(0, model.getState().currentPlayerIndex);
+    }
+
+    @Test
+    public void testWildDrawColorCap() {
+        GameModel model = table(GameRules.standard().withWildDrawColorCap(1), card(Card.Color.RED, Card.Value.FIVE),
+                new ArrayList<>(List.of(card(Card.Color.WILD, Card.Value.WILD_DRAW_COLOR), card(Card.Color.RED, Card.Value.TWO))),
+                new ArrayList<>(List.of(card(Card.Color.BLUE, Card.Value.ONE))),
+                new ArrayList<>(List.of(card(Card.Color.GREEN, Card.Value.ONE))));
+
+        model.playCard(first, 0, Card.Color.WILD);
+        assertEquals(1, second.getHandSize(), "no color chosen, nothing drawn");
+
+        model = table(GameRules.standard().withWildDrawColorCap(1), card(Card.Color.RED, Card.Value.FIVE),
+                new ArrayList<>(List.of(card(Card.Color.WILD, Card.Value.WILD_DRAW_COLOR), card(Card.Color.RED, Card.Value.TWO))),
+                new ArrayList<>(List.of(card(Card.Color.BLUE, Card.Value.ONE))),
+                new ArrayList<>(List.of(card(Card.Color.GREEN, Card.Value.ONE))));
+        model.playCard(first, 0, Card.Color.YELLOW);
+        assertEquals(2, second.getHandSize(), "the cap stops the draw after one card");
+    }
+
+    @Test
+    public void testLowerTargetEndsGamesSooner() {
+        int standardRounds = 0;
+        int shortRounds = 0;
+        for (long seed = 1; seed <= 5; seed++) {
+            standardRounds += play(GameRules.standard(), seed).rounds;
+            HeadlessGame.Result result = play(GameRules.standard().withTargetScore(100), seed);
+            assertTrue(result.finished);
+            assertTrue(Arrays.stream(result.scores).max().getAsInt() >= 100);
+            shortRounds += result.rounds;
+        }
+        assertTrue(shortRounds < standardRounds, shortRounds + " rounds vs " + standardRounds);
+    }
+
+    private static HeadlessGame.Result play(GameRules rules, long seed) {
+        List<AIPlayer> seats = new ArrayList<>();
+        seats.add(new AIPlayer("A", AIPlayer.DifficultyLevel.MEDIUM));
+        seats.add(new AIPlayer("B", AIPlayer.DifficultyLevel.MEDIUM));
+        return new HeadlessGame(seats, seed, rules).play();
+    }
+}
@@ -0,0 +1,138 @@
+import model.Card;
+import org.junit.jupiter.api.Test;
+import view.CardImageCache;
+import view.HandComponent;
+
+import javax.swing.JViewport;
+import javax.swing.SwingConstants;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the painted hand: layout, hit-testing and the PLAY commands it fires.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class HandComponentTest {
+
+    private static final CardImageCache IMAGES = new CardImageCache();
+
+    private static List<Card> hand(int size) {
+        List<Card> cards = new ArrayList<>();
+        Card.Value[] values = {Card.Value.ONE, Card.Value.TWO, Card.Value.THREE, Card.Value.FOUR, Card.Value.FIVE,
+                Card.Value.SIX, Card.Value.SEVEN, Card.Value.EIGHT, Card.Value.NINE};
+        for (int i = 0; i < size; i++) {
+            cards.add(new Card(Card.Color.values()[i % 4], values[i % values.length]));
+        }
+        return cards;
+    }
+
+    private static Point centre(Rectangle r) {
+        return new Point(r.x + r.width / 2, r.y + r.height / 2);
+    }
+
+    private static void click(HandComponent hand, Point p) {
+        hand.dispatchEvent(new MouseEvent(hand, MouseEvent.MOUSE_CLICKED, 0, 0, p.x, p.y, 1, false));
+    }
+
+    @Test
+    public void testSmallHandsSitSideBySide() {
+        HandComponent hand = new HandComponent(IMAGES);
+        hand.setHand(hand(5), Collections.emptyList(), true);
+        for (int i = 1; i < 5; i++) {
+            assertFalse(hand.cardBounds(i - 1).intersects(hand.cardBounds(i)));
+        }
+        assertEquals(2, hand.indexAt(centre(hand.cardBounds(2))));
+        assertEquals(-1, hand.indexAt(new Point(hand.cardBounds(2).x - 2, 60)), "the gap hits nothing");
+    }
+
+    @Test
+    public void testLargeHandsAreFannedAndHitTheTopCard() {
+        HandComponent hand = new HandComponent(IMAGES);
+        hand.setHand(hand(10), Collections.emptyList(), true);
+        int width = hand.getPreferredSize().width;
+
+        hand.setHand(hand(30), Collections.emptyList(), true);
+        int fanned = hand.getPreferredSize().width;
+        assertTrue(fanned <= width && fanned > width - HandComponent.MIN_STEP, "thirty cards fan into the width of ten");
+        Rectangle fifth = hand.cardBounds(5);
+        assertTrue(fifth.intersects(hand.cardBounds(6)));
+        assertEquals(6, hand.indexAt(new Point(hand.cardBounds(6).x + 1, fifth.y + 10)), "later cards lie on top");
+        assertEquals(5, hand.indexAt(new Point(fifth.x + 1, fifth.y + 10)));
+    }
+
+    @Test
+    public void testClicksFirePlayCommandsOnlyWhenInteractive() {
+        HandComponent hand = new HandComponent(IMAGES);
+        List<String> commands = new ArrayList<>();
+        hand.addActionListener(e -> commands.add(e.getActionCommand()));
+
+        hand.setHand(hand(4), List.of(1), false);
+        click(hand, centre(hand.cardBounds(3)));
+        assertTrue(commands.isEmpty());
+
+        hand.setHand(hand(4), List.of(1), true);
+        click(hand, centre(hand.cardBounds(3)));
+        click(hand, new Point(2, 2));
+        assertEquals(List.of("PLAY:3"), commands);
+    }
+
+    @Test
+    public void testPaintsEveryCardWithoutFailing() {
+        HandComponent hand = new HandComponent(IMAGES);
+        hand.setHand(hand(14), List.of(0, 3), true);
+        hand.setSize(hand.getPreferredSize());
+        BufferedImage image = new BufferedImage(hand.getWidth(), hand.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        hand.paint(image.createGraphics());
+        Rectangle first = hand.cardBounds(0);
+        assertEquals(0xFF00FF00, image.getRGB(first.x, first.y + 30), "playable cards are outlined in green");
+        assertNotEquals(0, image.getRGB(hand.cardBounds(13).x + 40, 60), "the last card is painted");
+    }
+
+    @Test
+    public void testOnlyCardsInViewAreMaterialized() {
+        CardImageCache images = new CardImageCache();
+        HandComponent hand = new HandComponent(images);
+        JViewport viewport = new JViewport();
+        viewport.setView(hand);
+        viewport.setSize(300, 128);
+        hand.setHand(hand(36 * 4), Collections.emptyList(), true);
+        viewport.doLayout();
+        assertTrue(hand.getWidth() > 3000, "a long hand is wider than the viewport");
+
+        int[] range = hand.materializedRange();
+        assertEquals(0, range[0]);
+        int inView = 300 / HandComponent.MIN_STEP + 1;
+        assertTrue(range[1] <= inView + HandComponent.OVERSCAN, "got " + range[1]);
+
+        BufferedImage image = new BufferedImage(300, 128, BufferedImage.TYPE_INT_ARGB);
+        viewport.paint(image.createGraphics());
+        assertTrue(images.size() <= range[1] + 1, "only cards in view have icons: " + images.size());
+
+        viewport.setViewPosition(new Point(hand.getWidth() - 300, 0));
+        range = hand.materializedRange();
+        assertEquals(hand.getHandSize() - 1, range[1]);
+        assertEquals(hand.getHandSize() - 1, hand.indexAt(centre(hand.cardBounds(range[1]))));
+    }
+
+    @Test
+    public void testScrollsByCardsAndPages() {
+        HandComponent hand = new HandComponent(IMAGES);
+        hand.setHand(hand(80), Collections.emptyList(), true);
+        Rectangle view = new Rectangle(0, 0, 250, 128);
+        int card = hand.getScrollableUnitIncrement(view, SwingConstants.HORIZONTAL, 1);
+        assertEquals(HandComponent.MIN_STEP, card);
+        int page = hand.getScrollableBlockIncrement(view, SwingConstants.HORIZONTAL, 1);
+        assertEquals(0, page % card);
+        assertTrue(page <= 250 && page > 250 - card);
+    }
+}
@@ -0,0 +1,66 @@
+import model.AIPlayer;
+import model.HeadlessGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for headless AI-only games used by tournaments.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class HeadlessGameTest {
+
+    private List<AIPlayer> seats(AIPlayer.DifficultyLevel... levels) {
+        List<AIPlayer> seats = new ArrayList<>();
+        for (int i = 0; i < levels.length; i++) {
+            seats.add(new AIPlayer("AI " + i, levels[i]));
+        }
+        return seats;
+    }
+
+    @Test
+    public void testGameFinishesWithAWinner() {
+        HeadlessGame.Result result = new HeadlessGame(
+                seats(AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.HARD), 42L).play();
+
+        assertTrue(result.finished, "game should reach the target score");
+        assertTrue(result.winnerSeat >= 0);
+        assertTrue(result.scores[result.winnerSeat] >= 500);
+        assertTrue(result.rounds >= 1);
+    }
+
+    @Test
+    public void testSameSeedReplaysSameGame() {
+        HeadlessGame.Result first = new HeadlessGame(seats(AIPlayer.DifficultyLevel.EASY,
+                AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.HARD), 7L).play();
+        HeadlessGame.Result second = new HeadlessGame(seats(AIPlayer.DifficultyLevel.EASY,
+                AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.HARD), 7L).play();
+
+        assertArrayEquals(first.scores, second.scores);
+        assertEquals(first.turns, second.turns);
+        assertEquals(first.winnerSeat, second.winnerSeat);
+    }
+
+    @Test
+    public void testOutcomeRanksWinnerFirst() {
+        HeadlessGame.Result result = new HeadlessGame(seats(AIPlayer.DifficultyLevel.HARD,
+                AIPlayer.DifficultyLevel.HARD, AIPlayer.DifficultyLevel.HARD, AIPlayer.DifficultyLevel.HARD), 3L).play();
+
+        for (int seat = 0; seat < 4; seat++) {
+            if (seat == result.winnerSeat) continue;
+            assertEquals(1.0, result.outcome(result.winnerSeat, seat));
+            assertEquals(0.0, result.outcome(seat, result.winnerSeat));
+        }
+    }
+
+    @Test
+    public void testRejectsSingleSeat() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeadlessGame(seats(AIPlayer.DifficultyLevel.EASY), 1L));
+    }
+}
@@ -0,0 +1,46 @@
+import controller.GameState;
+import model.LearnedPolicy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Measures the learned policy's cost per decision on random positions.
+ *
+ * Usage: java LearnedPolicyBenchmark [decisions] [cardsPerHand] [policyFile]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class LearnedPolicyBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int decisions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int cardsPerHand = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        LearnedPolicy policy = args.length > 2 ? LearnedPolicy.load(Paths.get(args[2])) : LearnedPolicy.zero();
+
+        Random random = new Random(1L);
+        GameState[] positions = new GameState[256];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = TestStates.randomPosition(random, 2, cardsPerHand);
+        }
+
+        long sink = 0;
+        for (int i = 0; i < decisions / 4; i++) { // warm up
+            GameState state = positions[i & (positions.length - 1)];
+            sink += policy.select(state, state.currentPlayer.getHand());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < decisions; i++) {
+            GameState state = positions[i & (positions.length - 1)];
+            sink += policy.select(state, state.currentPlayer.getHand());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%,d decisions, %d cards in hand%n", decisions, cardsPerHand);
+        System.out.printf("ns/decision: %.0f%n", (double) elapsed / decisions);
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,100 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.LearnedPolicy;
+import model.LearnedPolicyTrainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the learned AI policy and its self-play trainer.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class LearnedPolicyTest {
+
+    private static final String TEST_POLICY = "test_learned.bin";
+
+    // feature order of LearnedPolicy
+    private static final int WILD_WITH_CHOICE = 21;
+    private static final int COLOR_SHARE = 14;
+
+    @AfterEach
+    public void tearDown() {
+        File file = new File(TEST_POLICY);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    private static LearnedPolicy withWeight(int feature, double weight) {
+        double[] weights = new double[LearnedPolicy.FEATURES];
+        weights[feature] = weight;
+        weights[COLOR_SHARE] = 1.0;
+        return LearnedPolicy.of(weights);
+    }
+
+    @Test
+    public void testWeightsSteerTheChoice() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.THREE));
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.ONE));
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.SEVEN), 7);
+
+        ai.setLearnedPolicy(withWeight(WILD_WITH_CHOICE, -5.0));
+        assertEquals(1, ai.selectCardToPlay(state));
+
+        ai.setLearnedPolicy(withWeight(WILD_WITH_CHOICE, 5.0));
+        assertEquals(0, ai.selectCardToPlay(state));
+    }
+
+    @Test
+    public void testWildNamesTheColorItChose() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        ai.setEndgameThreshold(0);
+        ai.drawCard(new Card(Card.Color.WILD, Card.Value.WILD));
+        ai.drawCard(new Card(Card.Color.GREEN, Card.Value.ONE));
+        ai.drawCard(new Card(Card.Color.GREEN, Card.Value.TWO));
+        ai.drawCard(new Card(Card.Color.YELLOW, Card.Value.THREE));
+        ai.setLearnedPolicy(withWeight(WILD_WITH_CHOICE, 0.0));
+
+        assertEquals(0, ai.selectCardToPlay(TestStates.stateFor(ai, new Card(Card.Color.BLUE, Card.Value.FIVE), 7)));
+        assertEquals(Card.Color.GREEN, ai.chooseWildColor());
+    }
+
+    @Test
+    public void testSaveLoadRoundTrip() throws IOException {
+        LearnedPolicy policy = withWeight(WILD_WITH_CHOICE, -2.5);
+        policy.save(Path.of(TEST_POLICY));
+
+        assertEquals(policy, LearnedPolicy.load(Path.of(TEST_POLICY)));
+        assertTrue(Files.size(Path.of(TEST_POLICY)) < 256, "weights file stays small");
+    }
+
+    @Test
+    public void testRejectsOtherFilesAndLengths() throws IOException {
+        Files.write(Path.of(TEST_POLICY), new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11});
+        assertThrows(IOException.class, () -> LearnedPolicy.load(Path.of(TEST_POLICY)));
+        assertThrows(IllegalArgumentException.class, () -> LearnedPolicy.of(new double[3]));
+    }
+
+    @Test
+    public void testSelfPlayLearnsToKeepWilds() throws Exception {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        LearnedPolicyTrainer trainer = new LearnedPolicyTrainer(new int[]{2}, 1, quiet);
+        LearnedPolicy policy = trainer.train(LearnedPolicy.zero(), 30000, 1L);
+
+        assertTrue(policy.toArray()[WILD_WITH_CHOICE] < 0, "playing a wild while able to follow is penalised");
+    }
+}
@@ -0,0 +1,181 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.GameModel;
+import model.OpponentModel;
+import model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the particle filter that models opponent hands.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class OpponentModelTest {
+
+    private static final int TYPES = 58;
+
+    /**
+     * State with the given hand sizes, the observer holding a fixed hand
+     */
+    private GameState stateFor(int current, Card top, int... handSizes) {
+        GameState state = new GameState();
+        state.players = new ArrayList<>();
+        for (int p = 0; p < handSizes.length; p++) {
+            Player player = new Player("Player " + p);
+            for (int i = 0; i < handSizes[p]; i++) {
+                // the observer's cards, the rest are placeholders the model never looks at
+                player.drawCard(new Card(p == 0 ? Card.Color.BLUE : Card.Color.YELLOW, Card.Value.values()[i % 10]));
+            }
+            state.players.add(player);
+        }
+        state.currentPlayerIndex = current;
+        state.currentPlayer = state.players.get(current);
+        state.topDiscard = top;
+        state.clockwise = true;
+        state.currentSide = Card.Side.LIGHT;
+        state.deckSize = 80;
+        state.playableIndices = new ArrayList<>();
+        return state;
+    }
+
+    @Test
+    public void testDrawingMakesPlayableCardsUnlikely() {
+        OpponentModel model = new OpponentModel(0, 256, 1L);
+        Card top = new Card(Card.Color.RED, Card.Value.FIVE);
+        Card redSeven = new Card(Card.Color.RED, Card.Value.SEVEN);
+
+        model.onModelInit(stateFor(1, top, 7, 7));
+        double before = model.probabilityHolds(1, redSeven);
+
+        GameState drew = stateFor(1, top, 7, 8);
+        drew.deckSize = 79;
+        model.onStateUpdated(drew);
+        GameState passed = stateFor(0, top, 7, 8);
+        passed.deckSize = 79;
+        model.onTurnAdvanced(passed.players.get(0), passed);
+
+        double after = model.probabilityHolds(1, redSeven);
+        assertTrue(before > 0.05, "a random hand often holds the card, was " + before);
+        assertTrue(after < before / 3, "drawing is evidence of no red, was " + after);
+    }
+
+    @Test
+    public void testTakingAStackedPenaltyIsNoEvidence() {
+        OpponentModel model = new OpponentModel(0, 256, 1L);
+        Card top = new Card(Card.Color.RED, Card.Value.FIVE);
+        Card drawOne = new Card(Card.Color.RED, Card.Value.DRAW_ONE);
+        Card redSeven = new Card(Card.Color.RED, Card.Value.SEVEN);
+
+        model.onModelInit(stateFor(0, top, 7, 7));
+        GameState stacked = stateFor(0, drawOne, 6, 7);
+        stacked.pendingDraw = 1;
+        model.onStateUpdated(stacked);
+        GameState passed = stateFor(1, drawOne, 6, 7);
+        passed.pendingDraw = 1;
+        model.onTurnAdvanced(passed.players.get(1), passed);
+        double before = model.probabilityHolds(1, redSeven);
+
+        // only another Draw One could have answered, so drawing says nothing about red cards
+        GameState took = stateFor(1, drawOne, 6, 8);
+        took.deckSize = 79;
+        model.onStateUpdated(took);
+        GameState back = stateFor(0, drawOne, 6, 8);
+        back.deckSize = 79;
+        model.onTurnAdvanced(back.players.get(0), back);
+
+        double after = model.probabilityHolds(1, redSeven);
+        assertTrue(after > before * 0.8, "a penalty draw is not evidence of no red, was " + before + " then " + after);
+        int[][] hands = new int[2][TYPES];
+        assertTrue(model.sampleHands(new Random(1L), hands));
+        assertEquals(8, Arrays.stream(hands[1]).sum());
+    }
+
+    @Test
+    public void testPlayedCardIsNoLongerUnseen() {
+        OpponentModel model = new OpponentModel(0, 64, 2L);
+        Card top = new Card(Card.Color.GREEN, Card.Value.FIVE);
+        Card played = new Card(Card.Color.GREEN, Card.Value.NINE);
+        int type = Card.Color.GREEN.ordinal() * 14 + 9;
+
+        model.onModelInit(stateFor(1, top, 7, 7));
+        int before = model.unseenCounts()[type];
+        model.onStateUpdated(stateFor(1, played, 7, 6));
+
+        assertEquals(before - 1, model.unseenCounts()[type]);
+        int[][] hands = new int[2][TYPES];
+        assertTrue(model.sampleHands(new Random(1L), hands));
+        assertEquals(6, Arrays.stream(hands[1]).sum());
+    }
+
+    @Test
+    public void testSampledHandsFitHandSizesAndUnseenCards() {
+        OpponentModel model = new OpponentModel(0, 64, 3L);
+        model.onModelInit(stateFor(0, new Card(Card.Color.RED, Card.Value.ONE), 5, 9, 12, 4));
+        int[] unseen = model.unseenCounts();
+
+        Random random = new Random(4L);
+        int[][] hands = new int[4][TYPES];
+        for (int n = 0; n < 200; n++) {
+            assertTrue(model.sampleHands(random, hands));
+            assertEquals(9, Arrays.stream(hands[1]).sum());
+            assertEquals(12, Arrays.stream(hands[2]).sum());
+            assertEquals(4, Arrays.stream(hands[3]).sum());
+            for (int t = 0; t < TYPES; t++) {
+                assertTrue(hands[1][t] + hands[2][t] + hands[3][t] <= unseen[t], "type " + t + " dealt twice");
+            }
+        }
+    }
+
+    @Test
+    public void testCopyKeepsBeliefsAndGoesItsOwnWay() {
+        OpponentModel model = new OpponentModel(0, 256, 5L);
+        Card top = new Card(Card.Color.RED, Card.Value.FIVE);
+        Card redSeven = new Card(Card.Color.RED, Card.Value.SEVEN);
+        model.onModelInit(stateFor(1, top, 7, 7));
+
+        OpponentModel copy = new OpponentModel(model, 6L);
+        assertEquals(model.probabilityHolds(1, redSeven), copy.probabilityHolds(1, redSeven));
+        assertArrayEquals(model.unseenCounts(), copy.unseenCounts());
+
+        GameState drew = stateFor(1, top, 7, 8);
+        drew.deckSize = 79;
+        copy.onStateUpdated(drew);
+        GameState passed = stateFor(0, top, 7, 8);
+        passed.deckSize = 79;
+        copy.onTurnAdvanced(passed.players.get(0), passed);
+
+        assertTrue(copy.probabilityHolds(1, redSeven) < model.probabilityHolds(1, redSeven) / 2,
+                "the copy should learn from its own events");
+        int[][] hands = new int[2][TYPES];
+        assertTrue(model.sampleHands(new Random(1L), hands));
+        assertEquals(7, Arrays.stream(hands[1]).sum(), "the original should not see the copy's draw");
+    }
+
+    @Test
+    public void testNothingToSampleBeforeTheDeal() {
+        assertFalse(new OpponentModel(0).sampleHands(new Random(), new int[2][TYPES]));
+    }
+
+    @Test
+    public void testStartGameAttachesModelsToSearchingAI() {
+        AIPlayer hard = new AIPlayer("Hard", AIPlayer.DifficultyLevel.HARD);
+        AIPlayer medium = new AIPlayer("Medium", AIPlayer.DifficultyLevel.MEDIUM);
+        GameModel model = new GameModel(List.of(hard, medium), 5L);
+        model.startGame();
+
+        assertNotNull(hard.getOpponentModel());
+        assertEquals(0, hard.getOpponentModel().getObserver());
+        assertNull(medium.getOpponentModel());
+        assertTrue(hard.getOpponentModel().sampleHands(new Random(), new int[2][TYPES]));
+        assertTrue(model.getListeners().isEmpty(), "models are fed directly, so a game with no view copies no state");
+    }
+}
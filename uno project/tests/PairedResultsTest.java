@@ -0,0 +1,101 @@
+import model.AIPlayer;
+import model.HeadlessGame;
+import model.PairedResults;
+import model.Tournament;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for duplicate-deal pairing and the duplicate tournament format.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PairedResultsTest {
+
+    private static HeadlessGame.Result play(long seed, AIPlayer.DifficultyLevel first, AIPlayer.DifficultyLevel second) {
+        List<AIPlayer> seats = new ArrayList<>();
+        seats.add(new AIPlayer("First", first));
+        seats.add(new AIPlayer("Second", second));
+        return new HeadlessGame(seats, seed).play();
+    }
+
+    @Test
+    public void testSplitDealCancels() {
+        PairedResults paired = new PairedResults(new String[]{"A", "B"});
+        HeadlessGame.Result seatZeroWins = null;
+        for (long seed = 1; seatZeroWins == null; seed++) {
+            HeadlessGame.Result result = play(seed, AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.MEDIUM);
+            if (result.winnerSeat == 0) seatZeroWins = result;
+        }
+
+        // the deal favours seat 0, so each entrant wins once when it holds that seat
+        paired.recordDeal(Arrays.asList(new int[]{0, 1}, new int[]{1, 0}), Arrays.asList(seatZeroWins, seatZeroWins));
+        paired.recordDeal(Arrays.asList(new int[]{0, 1}, new int[]{1, 0}), Arrays.asList(seatZeroWins, seatZeroWins));
+        PairedResults.Comparison comparison = paired.compare(0, 1);
+        assertEquals(0, comparison.mean, 1e-12);
+        assertEquals(0, comparison.stdError, 1e-12);
+        assertEquals(4, comparison.games);
+        assertFalse(comparison.significant());
+    }
+
+    @Test
+    public void testStatisticsFromTheOtherSide() {
+        PairedResults paired = new PairedResults(new String[]{"A", "B", "C"});
+        HeadlessGame.Result result = play(3L, AIPlayer.DifficultyLevel.MEDIUM, AIPlayer.DifficultyLevel.MEDIUM);
+        int[] winnerIsA = result.winnerSeat == 0 ? new int[]{0, 1} : new int[]{1, 0};
+        for (int d = 0; d < 10; d++) {
+            paired.recordDeal(List.of(winnerIsA), List.of(result));
+        }
+        paired.recordDeal(List.of(winnerIsA.clone()), List.of(result));
+        paired.recordDeal(List.of(new int[]{winnerIsA[1], winnerIsA[0]}), List.of(result));
+
+        PairedResults.Comparison ab = paired.compare(0, 1);
+        PairedResults.Comparison ba = paired.compare(1, 0);
+        assertEquals(12, ab.deals);
+        assertEquals(10.0 / 12, ab.mean, 1e-12);
+        assertEquals(-ab.mean, ba.mean, 1e-12);
+        assertEquals(ab.pValue, ba.pValue, 1e-12);
+        assertTrue(ab.significant());
+        assertEquals(1, paired.comparisons().size(), "C never played");
+    }
+
+    @Test
+    public void testDuplicateTournamentRemovesDealLuck() throws InterruptedException {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        Tournament tournament = new Tournament(
+                Arrays.asList(Tournament.Entrant.parse("MEDIUM"), new Tournament.Entrant("MEDIUM again",
+                        () -> new AIPlayer("MEDIUM", AIPlayer.DifficultyLevel.MEDIUM))),
+                new int[]{2}, Tournament.Format.DUPLICATE, 20, 1, 2, 9L, quiet);
+        tournament.run();
+
+        // identical players swapping seats on the same deal replay the same game, so every
+        // deal splits evenly however lopsided it was
+        PairedResults.Comparison same = tournament.getPairedResults().compare(0, 1);
+        assertEquals(20, same.deals);
+        assertEquals(40, same.games);
+        assertEquals(0, same.mean, 1e-12);
+        assertEquals(0, same.stdError, 1e-12);
+        assertEquals(40, tournament.getRatings().getGamesRecorded());
+    }
+
+    @Test
+    public void testDuplicateFindsTheStrongerEntrantQuickly() throws InterruptedException {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        Tournament tournament = new Tournament(
+                Arrays.asList(Tournament.Entrant.parse("EASY"), Tournament.Entrant.parse("MEDIUM")),
+                new int[]{2}, Tournament.Format.DUPLICATE, 40, 1, 2, 5L, quiet);
+        tournament.run();
+
+        PairedResults.Comparison comparison = tournament.getPairedResults().compare(1, 0);
+        assertTrue(comparison.mean > 0, comparison.toString());
+        assertTrue(comparison.varianceReduction > 1, comparison.toString());
+    }
+}
@@ -0,0 +1,56 @@
+import model.AIStrategies;
+import model.AIPlayer;
+import model.AIStrategy;
+import model.DistilledStrategy;
+import model.LearnedPolicy;
+import model.PolicyDistiller;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for distilling a teacher strategy into a learned policy.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PolicyDistillerTest {
+
+    private static final PrintStream QUIET = new PrintStream(new ByteArrayOutputStream());
+
+    @Test
+    public void testStudentImitatesASimpleTeacher() throws Exception {
+        // DUMP plays its most valuable colored card, which the policy's features can express
+        PolicyDistiller distiller = new PolicyDistiller(AIStrategies.find("DUMP"), 0, 1, QUIET);
+        PolicyDistiller.Report report = distiller.distill(400, 2, 3L);
+
+        assertEquals(400, report.positions);
+        assertTrue(report.agreement > 0.7, "held-out agreement " + report.agreement);
+        assertEquals(2, report.games);
+        assertTrue(Double.isFinite(report.eloGap));
+        assertTrue(report.studentMicros > 0);
+    }
+
+    @Test
+    public void testCorpusDoesNotDependOnThreads() throws Exception {
+        AIStrategy teacher = AIStrategies.of(AIPlayer.DifficultyLevel.MEDIUM);
+        PolicyDistiller one = new PolicyDistiller(teacher, 0, 1, QUIET);
+        PolicyDistiller three = new PolicyDistiller(teacher, 0, 3, QUIET);
+        one.setEpochs(50);
+        three.setEpochs(50);
+
+        LearnedPolicy a = one.distill(150, 0, 11L).student;
+        LearnedPolicy b = three.distill(150, 0, 11L).student;
+        assertEquals(a, b);
+    }
+
+    @Test
+    public void testDistilledStrategyIsRegistered() {
+        AIStrategy strategy = AIStrategies.find("distilled");
+        assertTrue(strategy instanceof DistilledStrategy);
+        assertEquals(LearnedPolicy.FEATURES, ((DistilledStrategy) strategy).getPolicy().toArray().length);
+    }
+}
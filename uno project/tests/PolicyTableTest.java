@@ -0,0 +1,105 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.PolicyTable;
+import model.PolicyTableGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the memory-mapped policy table and its generator.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class PolicyTableTest {
+
+    private static final String TEST_TABLE = "test_policy.bin";
+
+    @AfterEach
+    public void tearDown() {
+        File file = new File(TEST_TABLE);
+        if (file.exists()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes a table file holding the same action for every situation
+     */
+    private PolicyTable tableOf(byte action) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + PolicyTable.SITUATIONS);
+        buffer.putInt(0x554E4F50).putInt(1).putInt(PolicyTable.SITUATIONS);
+        while (buffer.hasRemaining()) buffer.put(action);
+        Files.write(Path.of(TEST_TABLE), buffer.array());
+        return PolicyTable.open(Path.of(TEST_TABLE));
+    }
+
+    private AIPlayer mediumWithHand() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.MEDIUM);
+        ai.drawCard(new Card(Card.Color.BLUE, Card.Value.FIVE));  // value match
+        ai.drawCard(new Card(Card.Color.RED, Card.Value.NINE));   // color match
+        return ai;
+    }
+
+    @Test
+    public void testMappedTableReadsEveryEntry() throws IOException {
+        PolicyTable table = tableOf(PolicyTable.ACTION_WILD_DRAW);
+        assertEquals(PolicyTable.ACTION_WILD_DRAW, table.action(0));
+        assertEquals(PolicyTable.ACTION_WILD_DRAW, table.action(PolicyTable.SITUATIONS - 1));
+    }
+
+    @Test
+    public void testStoredActionOverridesHeuristics() throws IOException {
+        AIPlayer ai = mediumWithHand();
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7);
+        assertEquals(1, ai.selectCardToPlay(state), "heuristic follows color");
+
+        ai.setPolicyTable(tableOf(PolicyTable.ACTION_NUMBER_VALUE));
+        assertEquals(0, ai.selectCardToPlay(state));
+    }
+
+    @Test
+    public void testMissFallsBackToHeuristics() throws IOException {
+        AIPlayer ai = mediumWithHand();
+        GameState state = TestStates.stateFor(ai, new Card(Card.Color.RED, Card.Value.FIVE), 7);
+
+        ai.setPolicyTable(tableOf(PolicyTable.NO_ACTION));
+        assertEquals(1, ai.selectCardToPlay(state));
+
+        tearDown();
+        ai.setPolicyTable(tableOf(PolicyTable.ACTION_WILD)); // no wild in hand
+        assertEquals(1, ai.selectCardToPlay(state));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Files.write(Path.of(TEST_TABLE), new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> PolicyTable.open(Path.of(TEST_TABLE)));
+    }
+
+    @Test
+    public void testGeneratorDecidesSomeSituations() throws Exception {
+        PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+        PolicyTableGenerator generator = new PolicyTableGenerator(new int[]{2}, 4, 1, quiet);
+        generator.setMinVisits(1);
+        byte[] table = generator.generate(20, 1L);
+
+        assertEquals(PolicyTable.SITUATIONS, table.length);
+        int decided = 0;
+        for (byte action : table) {
+            if (action != PolicyTable.NO_ACTION) decided++;
+        }
+        assertTrue(decided > 0);
+    }
+}
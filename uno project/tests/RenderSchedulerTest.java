@@ -0,0 +1,86 @@
+import controller.GameState;
+import org.junit.jupiter.api.Test;
+import view.RenderScheduler;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for coalescing state updates into one render per frame.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class RenderSchedulerTest {
+
+    private static GameState state(int deckSize) {
+        GameState s = new GameState();
+        s.deckSize = deckSize;
+        return s;
+    }
+
+    @Test
+    public void testUpdatesInAFrameRenderOnceWithTheLatestState() throws Exception {
+        List<GameState> rendered = new ArrayList<>();
+        List<List<GameState>> frames = new ArrayList<>();
+        CountDownLatch framed = new CountDownLatch(1);
+        RenderScheduler scheduler = new RenderScheduler(rendered::add);
+        scheduler.addFrameListener(states -> {
+            frames.add(states);
+            framed.countDown();
+        });
+
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 1; i <= 5; i++) scheduler.submit(state(i));
+        });
+        assertTrue(framed.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, rendered.size());
+        assertEquals(5, rendered.get(0).deckSize);
+        assertEquals(1, frames.size());
+        assertEquals(List.of(1, 2, 3, 4, 5), frames.get(0).stream().map(s -> s.deckSize).toList(),
+                "animations see every state in order");
+        assertEquals(5, scheduler.getSubmittedCount());
+        assertEquals(1, scheduler.getRenderCount());
+    }
+
+    @Test
+    public void testRenderNowTakesTheQueueWithIt() throws Exception {
+        List<GameState> rendered = new ArrayList<>();
+        List<Integer> frameSizes = new ArrayList<>();
+        RenderScheduler scheduler = new RenderScheduler(rendered::add, 1000);
+        scheduler.addFrameListener(states -> frameSizes.add(states.size()));
+
+        SwingUtilities.invokeAndWait(() -> {
+            scheduler.submit(state(1));
+            scheduler.submit(state(2));
+            scheduler.renderNow(state(3));
+            assertEquals(1, rendered.size(), "rendered before returning");
+            scheduler.flush();
+        });
+        Thread.sleep(50);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, rendered.size(), "nothing was left for the timer");
+        assertEquals(3, rendered.get(0).deckSize);
+        assertEquals(List.of(3), frameSizes);
+    }
+
+    @Test
+    public void testSubmitsOffTheEventThreadAreMovedOntoIt() throws Exception {
+        List<Boolean> onEventThread = new ArrayList<>();
+        CountDownLatch framed = new CountDownLatch(1);
+        RenderScheduler scheduler = new RenderScheduler(s -> onEventThread.add(SwingUtilities.isEventDispatchThread()));
+        scheduler.addFrameListener(states -> framed.countDown());
+
+        scheduler.submit(state(1));
+        assertTrue(framed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true), onEventThread);
+    }
+}
@@ -0,0 +1,89 @@
+import model.GameRules;
+import model.PairedSprt;
+import model.RuleExperiment;
+import model.Tournament;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the sequential A/B test and the rule experiment runner.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class RuleExperimentTest {
+
+    @Test
+    public void testSprtFindsAClearDifferenceEarly() {
+        PairedSprt test = new PairedSprt("length", 0.05, true, 0.05, 0.05);
+        Random random = new Random(1);
+        while (!test.isDecided() && test.getPairs() < 10_000) {
+            double base = 100 + 10 * random.nextGaussian();
+            test.add(base + 5 * random.nextGaussian(), base + 20 + 5 * random.nextGaussian());
+        }
+        assertEquals(PairedSprt.Decision.B_HIGHER, test.getDecision());
+        assertTrue(test.getDecidedAt() <= 2 * PairedSprt.MIN_PAIRS, "decided after " + test.getDecidedAt());
+    }
+
+    @Test
+    public void testSprtAcceptsNoDifference() {
+        PairedSprt test = new PairedSprt("win", 0.1, false, 0.05, 0.05);
+        Random random = new Random(2);
+        while (!test.isDecided() && test.getPairs() < 100_000) {
+            test.add(random.nextBoolean() ? 1 : 0, random.nextBoolean() ? 1 : 0);
+        }
+        assertEquals(PairedSprt.Decision.NO_DIFFERENCE, test.getDecision());
+        assertTrue(test.getPairs() < 5_000, "decided after " + test.getPairs());
+    }
+
+    @Test
+    public void testSprtFalsePositivesStayRare() {
+        Random random = new Random(3);
+        int falsePositives = 0;
+        for (int run = 0; run < 200; run++) {
+            PairedSprt test = new PairedSprt("x", 0.2, false, 0.05, 0.05);
+            while (!test.isDecided()) {
+                test.add(random.nextGaussian(), random.nextGaussian());
+            }
+            if (test.getDecision() != PairedSprt.Decision.NO_DIFFERENCE) falsePositives++;
+        }
+        assertTrue(falsePositives <= 20, falsePositives + " of 200 runs found a difference that is not there");
+    }
+
+    @Test
+    public void testRuleExperimentStopsWhenDecided() throws InterruptedException {
+        Tournament.Entrant medium = Tournament.Entrant.parse("MEDIUM");
+        RuleExperiment experiment = new RuleExperiment(
+                new RuleExperiment.Arm("500", GameRules.standard(), medium),
+                new RuleExperiment.Arm("150", GameRules.standard().withTargetScore(150), medium),
+                medium, 2, 2, 4L, new PrintStream(new ByteArrayOutputStream()));
+        experiment.setMetrics(List.of(RuleExperiment.Metric.TURNS, RuleExperiment.Metric.DRAWN));
+        experiment.setMaxPairs(2_000);
+
+        List<PairedSprt> tests = experiment.run();
+        for (PairedSprt test : tests) {
+            assertEquals(PairedSprt.Decision.B_LOWER, test.getDecision(), test.toString());
+            assertTrue(test.getPairs() < 200, "stopped once decided: " + test);
+        }
+    }
+
+    @Test
+    public void testIdenticalArmsAgreeExactly() throws InterruptedException {
+        Tournament.Entrant medium = Tournament.Entrant.parse("MEDIUM");
+        RuleExperiment.Arm arm = new RuleExperiment.Arm("standard", GameRules.standard(), medium);
+        RuleExperiment experiment = new RuleExperiment(arm, arm, medium, 3, 2, 8L,
+                new PrintStream(new ByteArrayOutputStream()));
+
+        for (PairedSprt test : experiment.run()) {
+            assertEquals(PairedSprt.Decision.NO_DIFFERENCE, test.getDecision(), test.toString());
+            assertEquals(test.meanA(), test.meanB(), 1e-12, "the same deal replays the same game");
+            assertEquals(PairedSprt.MIN_PAIRS, test.getDecidedAt());
+        }
+    }
+}
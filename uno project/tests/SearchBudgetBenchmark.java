@@ -0,0 +1,81 @@
+import model.AIPlayer;
+import model.ExpectimaxSearch;
+import model.GameModel;
+import model.LatencyHistogram;
+import model.SearchBudgetController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs many searching tables at once, each on its own thread, first with the fixed
+ * default node budget and then with an adaptive budget per table, and prints the think
+ * time p99 each way. With more tables than cores the fixed budget blows through the
+ * target while the adaptive tables cut their budgets to stay under it.
+ *
+ * Usage: java SearchBudgetBenchmark [tables] [targetMillis] [turnsPerTable]
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class SearchBudgetBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        double targetMillis = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int turns = args.length > 2 ? Integer.parseInt(args[2]) : 400;
+        long target = (long) (targetMillis * 1_000_000);
+
+        System.out.printf("%d tables on %d cores, %d AI turns each, target p99 %.1f ms%n",
+                tables, Runtime.getRuntime().availableProcessors(), turns, targetMillis);
+        // a huge target never shrinks the default budget, so it only measures
+        report("fixed budget", run(tables, turns, () -> new SearchBudgetController(Long.MAX_VALUE / 4,
+                ExpectimaxSearch.DEFAULT_NODE_BUDGET, ExpectimaxSearch.DEFAULT_NODE_BUDGET)));
+        report("adaptive", run(tables, turns, () -> new SearchBudgetController(target)));
+    }
+
+    private static List<SearchBudgetController> run(int tables, int turns,
+                                                    Supplier<SearchBudgetController> factory)
+            throws InterruptedException {
+        List<SearchBudgetController> controllers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < tables; t++) {
+            SearchBudgetController controller = factory.get();
+            controllers.add(controller);
+            long seed = t + 1;
+            Thread thread = new Thread(() -> playTable(controller, seed, turns), "table-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return controllers;
+    }
+
+    private static void playTable(SearchBudgetController controller, long seed, int turns) {
+        GameModel model = new GameModel(Arrays.asList(
+                new AIPlayer("First", AIPlayer.DifficultyLevel.HARD),
+                new AIPlayer("Second", AIPlayer.DifficultyLevel.HARD)), seed);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.setAISearchDepth(ExpectimaxSearch.DEFAULT_DEPTH);
+        model.setAIBudgetController(controller);
+        model.startGame();
+        for (int turn = 0; turn < turns; turn++) {
+            model.processAITurn();
+        }
+    }
+
+    private static void report(String label, List<SearchBudgetController> controllers) {
+        LatencyHistogram merged = new LatencyHistogram();
+        long budgets = 0;
+        for (SearchBudgetController controller : controllers) {
+            merged.add(controller.getHistogram());
+            budgets += controller.getBudget();
+        }
+        System.out.printf("%-13s mean budget %,8d nodes  %s%n", label, budgets / controllers.size(), merged);
+    }
+}
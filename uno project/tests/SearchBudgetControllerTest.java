@@ -0,0 +1,166 @@
+import controller.GameState;
+import model.AIPlayer;
+import model.Card;
+import model.ExpectimaxSearch;
+import model.GameModel;
+import model.LatencyHistogram;
+import model.Player;
+import model.SearchBudgetController;
+import model.SpeculativeAIPlanner;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for the latency histogram and the adaptive search budget.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+public class SearchBudgetControllerTest {
+
+    private static final long MILLI = 1_000_000;
+
+    @Test
+    public void testHistogramPercentilesStayClose() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v * 1000);
+        }
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000_000, histogram.max());
+        long p50 = histogram.percentile(0.5);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p50 >= 5_000_000 && p50 <= 5_000_000 * 1.125, "p50 " + p50);
+        assertTrue(p99 >= 9_900_000 && p99 <= 10_000_000, "p99 " + p99);
+
+        LatencyHistogram combined = new LatencyHistogram();
+        combined.add(histogram);
+        combined.add(histogram);
+        assertEquals(20_000, combined.count());
+        assertEquals(p99, combined.percentile(0.99));
+
+        histogram.reset();
+        assertEquals(0, histogram.percentile(0.99));
+    }
+
+    @Test
+    public void testHistogramBucketsCoverEveryValue() {
+        long previous = -1;
+        for (int b = 0; b < LatencyHistogram.BUCKETS; b++) {
+            long upper = LatencyHistogram.upperBound(b);
+            assertTrue(upper > previous, "bucket " + b);
+            previous = upper;
+        }
+        assertEquals(Long.MAX_VALUE, previous);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(7);
+        assertEquals(2, Arrays.stream(histogram.counts()).sum());
+    }
+
+    @Test
+    public void testShrinksWhenSlowAndGrowsWhenFast() {
+        SearchBudgetController controller = new SearchBudgetController(10 * MILLI, 1_000, 400_000);
+        long start = controller.getBudget();
+        assertEquals(ExpectimaxSearch.DEFAULT_NODE_BUDGET, start);
+
+        for (int i = 0; i < SearchBudgetController.WINDOW; i++) {
+            controller.record(15 * MILLI);
+        }
+        long shrunk = controller.getBudget();
+        assertTrue(shrunk < start, "slow window shrinks the budget");
+        assertTrue(shrunk >= start / 2, "by at most half");
+
+        for (int i = 0; i < SearchBudgetController.WINDOW * 20; i++) {
+            controller.record(MILLI);
+        }
+        assertEquals(400_000, controller.getBudget(), "fast windows grow it up to the cap");
+        assertEquals(SearchBudgetController.WINDOW * 21, controller.getHistogram().count());
+    }
+
+    @Test
+    public void testOneSlowDecisionShrinksAtOnce() {
+        SearchBudgetController controller = new SearchBudgetController(10 * MILLI, 5_000, 400_000);
+        controller.record(MILLI);
+        controller.record(100 * MILLI);
+        assertEquals(ExpectimaxSearch.DEFAULT_NODE_BUDGET / 2, controller.getBudget());
+        for (int i = 0; i < 10; i++) {
+            controller.record(100 * MILLI);
+        }
+        assertEquals(5_000, controller.getBudget(), "never below the floor");
+        assertEquals(0, controller.getWindowHistogram().count());
+    }
+
+    @Test
+    public void testTableSearchesWithinATightTarget() {
+        AIPlayer first = new AIPlayer("First", AIPlayer.DifficultyLevel.HARD);
+        AIPlayer second = new AIPlayer("Second", AIPlayer.DifficultyLevel.HARD);
+        GameModel model = new GameModel(Arrays.asList(first, second), 4L);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.setAISearchDepth(ExpectimaxSearch.DEFAULT_DEPTH);
+        SearchBudgetController controller = new SearchBudgetController(MILLI / 5);
+        model.setAIBudgetController(controller);
+        model.startGame();
+
+        for (int turn = 0; turn < 120; turn++) {
+            model.processAITurn();
+        }
+        assertTrue(controller.getHistogram().count() >= 120);
+        assertTrue(controller.getBudget() < ExpectimaxSearch.DEFAULT_NODE_BUDGET,
+                "a 0.2 ms target cannot afford the default budget: " + controller);
+        assertTrue(first.getNodeBudget() > 0 && second.getNodeBudget() > 0, "players searched with the controller's budget");
+    }
+
+    @Test
+    public void testSpeculativeAndLiveDecisionsAreBudgeted() {
+        AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+        GameModel model = new GameModel(Arrays.asList(new Player("Human"), ai), 6L);
+        model.setAITurnDelay(0);
+        model.setRecordHistory(false);
+        model.setAISearchDepth(ExpectimaxSearch.DEFAULT_DEPTH);
+        SearchBudgetController controller = new SearchBudgetController(MILLI / 5);
+        model.setAIBudgetController(controller);
+        SpeculativeAIPlanner planner = new SpeculativeAIPlanner(1, 10_000);
+        model.setSpeculativePlanner(planner);
+        try {
+            model.startGame();
+            int aiTurns = 0;
+            for (int turn = 0; turn < 40; turn++) {
+                GameState state = model.getState();
+                if (state.players.stream().anyMatch(p -> p.getHandSize() == 0)) break;
+                if (state.currentPlayer.isAI()) {
+                    model.processAITurn();
+                    aiTurns++;
+                    continue;
+                }
+                if (state.playableIndices.isEmpty()) {
+                    model.drawCard();
+                } else {
+                    Card.Color color = state.currentSide == Card.Side.LIGHT ? Card.Color.RED : Card.Color.TEAL;
+                    model.playCard(state.currentPlayer, state.playableIndices.get(0), color);
+                }
+                model.endTurn();
+            }
+
+            assertTrue(aiTurns > 0);
+            assertEquals(aiTurns, planner.getHits() + planner.getMisses());
+            assertTrue(controller.getHistogram().count() >= aiTurns,
+                    "every AI turn searched through the controller, ahead of time or live: " + controller);
+            assertTrue(controller.getBudget() < ExpectimaxSearch.DEFAULT_NODE_BUDGET,
+                    "a 0.2 ms target cannot afford the default budget: " + controller);
+        } finally {
+            planner.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsBadBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchBudgetController(0));
+        assertThrows(IllegalArgumentException.class, () -> new SearchBudgetController(MILLI, 10, 5));
+    }
+}
@@ -0,0 +1,327 @@
+import controller.GameState;
+import model.AIDecisionContext;
+import model.AIPlayer;
+import model.AIStrategy;
+import model.Card;
+import model.GameModel;
+import model.LearnedPolicy;
+import model.OpponentModel;
+import model.Player;
+import model.PolicyTable;
+import model.SpeculativeAIPlanner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JUnit tests for speculative AI precomputation during human turns.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.1
+ */
+public class SpeculativeAIPlannerTest {
+
+    private GameModel model;
+    private SpeculativeAIPlanner planner;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setUp() {
+        planner = new SpeculativeAIPlanner(1, 10_000); // long enough for a loaded machine
+        // redeal until the human has a plain number card to play
+        for (int attempt = 0; attempt < 100; attempt++) {
+            boolean[] isAI = {false, true};
+            model = new GameModel(2, isAI, AIPlayer.DifficultyLevel.MEDIUM);
+            model.setAITurnDelay(0);
+            model.setSpeculativePlanner(planner);
+            model.startGame();
+            if (findPlainPlayableIndex(model.getState()) >= 0) {
+                break;
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        planner.shutdown();
+    }
+
+    /**
+     * @return a playable plain number card that does not empty the hand, or -1
+     */
+    private int findPlainPlayableIndex(GameState state) {
+        if (state.currentPlayer.getHandSize() < 2) return -1;
+        for (int idx : state.playableIndices) {
+            Card card = state.currentPlayer.getHand().get(idx);
+            if (card.getValue().ordinal() <= Card.Value.NINE.ordinal()) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testAIReplyIsServedFromSpeculation() {
+        GameState state = model.getState();
+        int idx = findPlainPlayableIndex(state);
+        assertTrue(idx >= 0, "deal should give the human a plain playable card");
+
+        model.playCard(state.currentPlayer, idx, null);
+        model.endTurn();
+        assertTrue(model.getState().currentPlayer.isAI());
+
+        model.processAITurn();
+
+        assertEquals(1, planner.getHits(), "AI decision should come from the speculative branch");
+        assertEquals(0, planner.getMisses());
+    }
+
+    @Test
+    public void testCancelledSpeculationFallsBackToLiveDecision() {
+        GameState state = model.getState();
+        int idx = findPlainPlayableIndex(state);
+        assertTrue(idx >= 0, "deal should give the human a plain playable card");
+
+        planner.cancelAll();
+        model.playCard(state.currentPlayer, idx, null);
+        model.endTurn();
+        model.processAITurn();
+
+        assertEquals(0, planner.getHits());
+        assertEquals(1, planner.getMisses(), "AI should decide live when nothing was precomputed");
+    }
+
+    @Test
+    public void testDetachedPlannerIsNotConsulted() {
+        GameState state = model.getState();
+        int idx = findPlainPlayableIndex(state);
+        assertTrue(idx >= 0, "deal should give the human a plain playable card");
+
+        model.setSpeculativePlanner(null);
+        model.playCard(state.currentPlayer, idx, null);
+        model.endTurn();
+        model.processAITurn();
+
+        assertEquals(0, planner.getHits());
+        assertEquals(0, planner.getMisses());
+    }
+
+    @Test
+    public void testKeepingADrawnCardIsPrecomputed() {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            model = new GameModel(2, new boolean[]{false, true}, AIPlayer.DifficultyLevel.MEDIUM);
+            model.setAITurnDelay(0);
+            model.setSpeculativePlanner(planner);
+            model.startGame();
+            if (!model.getState().playableIndices.isEmpty()) continue;
+
+            model.drawCard();
+            if (model.getState().turnTaken) continue; // the drawn card did not fit
+
+            model.endTurn(); // keep it, as pressing NEXT does
+            model.processAITurn();
+            assertEquals(1, planner.getHits(), "the AI reply to a kept card should be precomputed");
+            assertEquals(0, planner.getMisses());
+            return;
+        }
+        fail("no deal left the human drawing a card that fits");
+    }
+
+    @Test
+    public void testDrawingWithACardToPlayIsPrecomputed() {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            model = new GameModel(2, new boolean[]{false, true}, AIPlayer.DifficultyLevel.MEDIUM);
+            model.setAITurnDelay(0);
+            model.setSpeculativePlanner(planner);
+            model.startGame();
+            if (model.getState().playableIndices.isEmpty()) continue;
+
+            model.drawCard(); // the human could play, but draws instead
+            model.endTurn();
+            if (!model.getState().currentPlayer.isAI()) continue;
+            model.processAITurn();
+            assertEquals(1, planner.getHits(), "the AI reply to a draw should be precomputed");
+            assertEquals(0, planner.getMisses());
+            return;
+        }
+        fail("no deal gave the human a card to play");
+    }
+
+    @Test
+    public void testSlowBranchDoesNotHoldUpTheAITurn() {
+        SpeculativeAIPlanner impatient = new SpeculativeAIPlanner(1, 50);
+        AIStrategy stalling = new AIStrategy() {
+            @Override
+            public String name() {
+                return "STALL";
+            }
+
+            @Override
+            public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+                if (Thread.currentThread().getName().startsWith("uno-ai-speculation")) {
+                    try {
+                        Thread.sleep(20_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return state.playableIndices.get(0);
+            }
+        };
+        try {
+            for (int attempt = 0; attempt < 200; attempt++) {
+                model = new GameModel(2, new boolean[]{false, true}, AIPlayer.DifficultyLevel.MEDIUM);
+                model.setAITurnDelay(0);
+                model.setAIStrategy(stalling);
+                model.setSpeculativePlanner(impatient);
+                model.startGame();
+                GameState state = model.getState();
+                int idx = findPlainPlayableIndex(state);
+                if (idx < 0 || !canAnswer(state.players.get(1).getHand(), state.currentPlayer.getHand().get(idx))) continue;
+
+                model.playCard(state.currentPlayer, idx, null);
+                model.endTurn();
+                long start = System.nanoTime();
+                model.processAITurn();
+                long millis = (System.nanoTime() - start) / 1_000_000;
+
+                assertTrue(millis < 5_000, "the AI turn waited " + millis + " ms on a stalled branch");
+                assertEquals(0, impatient.getHits());
+                assertEquals(1, impatient.getMisses(), "the AI should decide live instead");
+                return;
+            }
+            fail("no deal let the AI answer the human's card");
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    public void testSpeculativeCopiesCarryTheAIsBeliefs() {
+        List<OpponentModel> seenModels = Collections.synchronizedList(new ArrayList<>());
+        List<int[]> seenCounts = Collections.synchronizedList(new ArrayList<>());
+        AIStrategy recording = new AIStrategy() {
+            @Override
+            public String name() {
+                return "RECORD";
+            }
+
+            @Override
+            public int selectCard(AIPlayer player, GameState state, AIDecisionContext context) {
+                if (Thread.currentThread().getName().startsWith("uno-ai-speculation")) {
+                    OpponentModel beliefs = player.getOpponentModel();
+                    seenModels.add(beliefs);
+                    seenCounts.add(beliefs == null ? null : beliefs.unseenCounts());
+                }
+                return state.playableIndices.get(0);
+            }
+        };
+        for (long seed = 0; seed < 200; seed++) {
+            AIPlayer ai = new AIPlayer("AI", AIPlayer.DifficultyLevel.HARD);
+            ai.setStrategy(recording);
+            model = new GameModel(List.of(new Player("Human"), ai), seed);
+            model.setAITurnDelay(0);
+            model.setSpeculativePlanner(planner);
+            model.startGame();
+            GameState state = model.getState();
+            int idx = findPlainPlayableIndex(state);
+            if (idx < 0 || !canAnswer(state.players.get(1).getHand(), state.currentPlayer.getHand().get(idx))) continue;
+
+            model.playCard(state.currentPlayer, idx, null);
+            model.endTurn();
+            OpponentModel live = ai.getOpponentModel();
+            assertNotNull(live, "a HARD AI should be given beliefs when the game starts");
+            int[] liveCounts = live.unseenCounts();
+            model.processAITurn();
+
+            assertEquals(1, planner.getHits());
+            assertFalse(seenModels.isEmpty(), "the AI should have decided on a speculation thread");
+            boolean matched = false;
+            for (int i = 0; i < seenModels.size(); i++) {
+                assertNotNull(seenModels.get(i), "the copied AI should carry beliefs");
+                assertNotSame(live, seenModels.get(i), "the copy must not share the live beliefs");
+                matched |= Arrays.equals(liveCounts, seenCounts.get(i));
+            }
+            assertTrue(matched, "the branch that came true should have seen the same cards as the live AI");
+            return;
+        }
+        fail("no deal let the AI answer the human's card");
+    }
+
+    /**
+     * @return true if the hand holds a card that can go on the top card
+     */
+    private static boolean canAnswer(List<Card> hand, Card top) {
+        return !TestStates.playableIndices(hand, top, 0).isEmpty();
+    }
+
+    @Test
+    public void testSharedPoliciesDecideAlikeOnEveryThread() throws Exception {
+        Random random = new Random(7);
+        double[] weights = new double[LearnedPolicy.FEATURES];
+        for (int i = 0; i < weights.length; i++) weights[i] = random.nextGaussian();
+        LearnedPolicy policy = LearnedPolicy.of(weights);
+
+        byte[] actions = new byte[PolicyTable.SITUATIONS];
+        for (int i = 0; i < actions.length; i++) actions[i] = (byte) random.nextInt(9);
+        ByteBuffer file = ByteBuffer.allocate(12 + PolicyTable.SITUATIONS);
+        file.putInt(0x554E4F50).putInt(1).putInt(PolicyTable.SITUATIONS).put(actions);
+        Path tableFile = dir.resolve("policy.bin");
+        Files.write(tableFile, file.array());
+        PolicyTable table = PolicyTable.open(tableFile);
+
+        // positions from an AI game
+        List<GameState> positions = new ArrayList<>();
+        GameModel game = new GameModel(List.of(new AIPlayer("A", AIPlayer.DifficultyLevel.MEDIUM),
+                new AIPlayer("B", AIPlayer.DifficultyLevel.MEDIUM)), 3L);
+        game.setAITurnDelay(0);
+        game.startGame();
+        for (int turn = 0; turn < 400 && positions.size() < 200; turn++) {
+            GameState state = game.getState();
+            if (!state.playableIndices.isEmpty()) positions.add(state);
+            game.processAITurn();
+        }
+
+        Callable<List<Integer>> decideAll = () -> {
+            List<Integer> moves = new ArrayList<>();
+            for (int round = 0; round < 20; round++) {
+                moves.clear();
+                for (GameState state : positions) {
+                    moves.add(policy.select(state, state.currentPlayer.getHand()));
+                    moves.add(table.lookup(state, state.currentPlayer.getHand()));
+                }
+            }
+            return moves;
+        };
+        List<Integer> expected = decideAll.call();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) results.add(pool.submit(decideAll));
+            for (Future<List<Integer>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import controller.GameState;
+import model.Card;
+import model.Deck;
+import model.GameModel;
+import model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hand-built and randomly dealt game states for the AI tests and benchmarks, with the
+ * playable cards worked out by the game's own rule so a test never drifts from what
+ * the game would allow.
+ *
+ * @author Nicky Fang 101304731
+ * @version 1.0
+ */
+final class TestStates {
+
+    private TestStates() {
+    }
+
+    /**
+     * State with the player on turn in seat 0, clockwise, against opponents holding the
+     * given numbers of cards; one number is the usual two player game
+     */
+    static GameState stateFor(Player onTurn, Card top, int... opponentCards) {
+        return stateFor(onTurn, 0, true, top, opponentCards);
+    }
+
+    /**
+     * State with the player on turn in the given seat and an opponent in every other seat,
+     * holding the given numbers of cards in seat order
+     */
+    static GameState stateFor(Player onTurn, int seat, boolean clockwise, Card top, int... opponentCards) {
+        List<Player> players = new ArrayList<>();
+        for (int p = 0, other = 0; p <= opponentCards.length; p++) {
+            if (p == seat) {
+                players.add(onTurn);
+                continue;
+            }
+            Player opponent = new Player("Opponent " + p);
+            for (int i = 0; i < opponentCards[other]; i++) {
+                opponent.drawCard(new Card(Card.Color.GREEN, Card.Value.NINE));
+            }
+            other++;
+            players.add(opponent);
+        }
+
+        GameState state = new GameState();
+        state.players = players;
+        state.currentPlayer = onTurn;
+        state.currentPlayerIndex = seat;
+        state.topDiscard = top;
+        state.clockwise = clockwise;
+        state.currentSide = top.getCurrentSide();
+        state.deckSize = 60;
+        state.playableIndices = playableIndices(onTurn.getHand(), top, 0);
+        return state;
+    }
+
+    /**
+     * Deals every player a hand from a shuffled deck and turns up a card that is not a
+     * wild, player 0 on turn
+     */
+    static GameState randomPosition(Random random, int players, int cardsPerHand) {
+        Deck deck = new Deck(random);
+        GameState state = new GameState();
+        state.players = new ArrayList<>();
+        for (int p = 0; p < players; p++) {
+            Player player = new Player("Player " + p);
+            for (int i = 0; i < cardsPerHand; i++) player.drawCard(deck.drawCard());
+            state.players.add(player);
+        }
+
+        Card top = deck.drawCard();
+        while (top.getColor() == Card.Color.WILD) top = deck.drawCard();
+        state.topDiscard = top;
+        state.currentPlayerIndex = 0;
+        state.currentPlayer = state.players.get(0);
+        state.clockwise = true;
+        state.currentSide = Card.Side.LIGHT;
+        state.deckSize = deck.size();
+        state.playableIndices = playableIndices(state.currentPlayer.getHand(), top, 0);
+        return state;
+    }
+
+    /**
+     * @return the indices of the cards in the hand that can go on the top card, as the
+     * game works them out
+     */
+    static List<Integer> playableIndices(List<Card> hand, Card top, int pendingDraw) {
+        List<Integer> playable = new ArrayList<>();
+        for (int i = 0; i < hand.size(); i++) {
+            if (GameModel.isPlayable(hand.get(i), top, pendingDraw)) playable.add(i);
+        }
+        return playable;
+    }
+}